@@ -72,5 +72,8 @@ public class C2monClientProperties {
 
     /** The maximum amount of results that shall be returned from Elasticsearch query */
     private int maxResults = 10_000;
+
+    /** The number of history values fetched per request when reading long time ranges */
+    private int pageSize = 1_000;
   }
 }
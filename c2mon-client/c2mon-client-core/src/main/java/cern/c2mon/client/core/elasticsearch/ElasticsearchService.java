@@ -20,13 +20,17 @@ import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.searchbox.client.JestClient;
 import io.searchbox.client.JestClientFactory;
 import io.searchbox.client.JestResult;
 import io.searchbox.client.config.HttpClientConfig;
+import io.searchbox.core.Count;
+import io.searchbox.core.CountResult;
 import io.searchbox.core.Search;
 import io.searchbox.core.SearchResult;
 import io.searchbox.core.search.aggregation.AvgAggregation;
@@ -47,6 +51,8 @@ import cern.c2mon.client.core.config.C2monClientProperties;
 @Slf4j
 public class ElasticsearchService {
 
+  private static final Gson GSON = new Gson();
+
   private final JestClient client;
 
   private final String timeSeriesIndex;
@@ -57,12 +63,15 @@ public class ElasticsearchService {
 
   private final int maxResults;
 
+  private final int pageSize;
+
   @Autowired
   public ElasticsearchService(C2monClientProperties properties, @Value("${c2mon.domain}") String domain) {
     this.timeSeriesIndex = domain + "-tag*";
     this.configIndex = domain + "-tag-config";
     this.alarmIndex = domain + "-alarm*";
     this.maxResults = properties.getElasticsearch().getMaxResults();
+    this.pageSize = properties.getElasticsearch().getPageSize();
 
     JestClientFactory factory = new JestClientFactory();
     factory.setHttpClientConfig(new HttpClientConfig.Builder(properties.getElasticsearch().getUrl())
@@ -72,6 +81,62 @@ public class ElasticsearchService {
     client = factory.getObject();
   }
 
+  /**
+   * Retrieve the history for the given tag for the specified time period,
+   * for display over the given number of pixels.
+   * <p>
+   * The raw values are returned if there are no more than the width of them
+   * in the time period. Otherwise, the values are averaged over intervals of
+   * (max - min) / width milliseconds, giving at most one value per pixel.
+   *
+   * @param id    the id of the tag
+   * @param min   the beginning of the requested date range (ms)
+   * @param max   the end of the requested date range (ms)
+   * @param width the number of pixels over which the history is displayed
+   * @return list of [timestamp (ms), value] pairs
+   */
+  public List<Object[]> getTagHistory(Long id, Long min, Long max, int width) {
+    if (width <= 0) {
+      throw new IllegalArgumentException("The width must be positive");
+    }
+    if (countTagHistory(id, min, max) <= width) {
+      try (Stream<Object[]> history = streamTagHistory(id, min, max)) {
+        return history.collect(Collectors.toList());
+      }
+    }
+    long interval = Math.max(1L, (max - min + width - 1) / width);
+    return getAggregatedHistory(id, min, max, interval + "ms");
+  }
+
+  /**
+   * Retrieve the raw history for the given tag for the specified time period,
+   * without limit on the number of values. The values are fetched page by
+   * page while the stream is consumed.
+   * <p>
+   * The stream should be closed if it is not consumed entirely, to release
+   * the resources held by the search on the Elasticsearch cluster.
+   *
+   * @param id  the id of the tag
+   * @param min the beginning of the requested date range (ms)
+   * @param max the end of the requested date range (ms)
+   * @return stream of [timestamp (ms), value] pairs, by ascending timestamp
+   */
+  public Stream<Object[]> streamTagHistory(Long id, Long min, Long max) {
+    String query = String.format("{\n" +
+        "  \"size\" : " + pageSize + ",\n" +
+        "  \"query\" : %s,\n" +
+        "  \"sort\" : [ {\n" +
+        "    \"timestamp\" : {\n" +
+        "      \"order\" : \"asc\"\n" +
+        "    }\n" +
+        "  } ]\n" +
+        "}", getHistoryQuery(id, min, max));
+    return new ScrollingSearch<>(client, query, timeSeriesIndex, pageSize, source -> {
+      Map hit = GSON.fromJson(source, Map.class);
+      return new Object[]{hit.get("timestamp"), hit.get("value")};
+    }, "Error querying raw tag history").stream();
+  }
+
   /**
    * Retrieve aggregated history for the given tag for the specified time period.
    * <p>
@@ -98,7 +163,7 @@ public class ElasticsearchService {
     String interval = aggregate.equals("auto") ? getInterval(min, max) : aggregate;
     log.info("Using interval: " + interval);
     String query = String.format("{\n" +
-        "  \"size\" : " + maxResults + ",\n" +
+        "  \"size\" : 0,\n" +
         "  \"query\" : {\n" +
         "    \"term\" : {\n" +
         "      \"id\" : %d\n" +
@@ -133,7 +198,7 @@ public class ElasticsearchService {
         "      }\n" +
         "    }\n" +
         "  }\n" +
-        "}", id, min, max, aggregate);
+        "}", id, min, max, interval);
     Search search = new Search.Builder(query).addIndex(timeSeriesIndex).build();
     long start = System.currentTimeMillis();
     try {
@@ -183,10 +248,42 @@ public class ElasticsearchService {
     return interval;
   }
 
+  /**
+   * @return the raw history, truncated to the maximum number of results
+   */
   private List<Object[]> getRawHistory(Long id, Long min, Long max) {
+    List<Object[]> results;
+    try (Stream<Object[]> history = streamTagHistory(id, min, max)) {
+      results = history.limit(maxResults + 1L).collect(Collectors.toList());
+    }
+    if (results.size() > maxResults) {
+      log.warn("History of tag #{} truncated to {} values, use streamTagHistory() to retrieve all of them", id, maxResults);
+      results.remove(maxResults);
+    }
+    return results;
+  }
+
+  private long countTagHistory(Long id, Long min, Long max) {
     String query = String.format("{\n" +
-        "  \"size\" : " + maxResults + ",\n" +
-        "  \"query\" : {\n" +
+        "  \"query\" : %s\n" +
+        "}", getHistoryQuery(id, min, max));
+    Count count = new Count.Builder().query(query).addIndex(timeSeriesIndex).build();
+    try {
+      CountResult result = client.execute(count);
+      if (!result.isSucceeded()) {
+        throw new RuntimeException("Error counting history of tag #" + id + ": " + result.getErrorMessage());
+      }
+      return result.getCount().longValue();
+    } catch (IOException e) {
+      throw new RuntimeException("Error counting history of tag #" + id, e);
+    }
+  }
+
+  /**
+   * @return the query matching the history of the tag in the date range
+   */
+  private static String getHistoryQuery(Long id, Long min, Long max) {
+    return String.format("{\n" +
         "    \"bool\" : {\n" +
         "      \"must\" : [ {\n" +
         "        \"term\" : {\n" +
@@ -203,25 +300,7 @@ public class ElasticsearchService {
         "        }\n" +
         "      } ]\n" +
         "    }\n" +
-        "  },\n" +
-        "  \"sort\" : [ {\n" +
-        "    \"timestamp\" : {\n" +
-        "      \"order\" : \"asc\"\n" +
-        "    }\n" +
-        "  } ]\n" +
-        "}", id, min, max);
-    Search search = new Search.Builder(query).addIndex(timeSeriesIndex).build();
-    try {
-      SearchResult result = client.execute(search);
-      List<Object[]> results = new ArrayList<>();
-      for (SearchResult.Hit<Map, Void> hit : result.getHits(Map.class)) {
-        results.add(new Object[]{hit.source.get("timestamp"), hit.source.get("value")});
-      }
-      return results;
-    } catch (IOException e) {
-      throw new RuntimeException("Error querying raw tag history", e);
-    }
-
+        "  }", id, min, max);
   }
 
   /**
@@ -0,0 +1,161 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ * <p/>
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ * <p/>
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.client.core.elasticsearch;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.core.ClearScroll;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchScroll;
+import io.searchbox.params.Parameters;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Iterates over the hits of a search, fetching them page by page with the
+ * Elasticsearch scroll API. Long time ranges are thus neither truncated nor
+ * loaded at once, on the client or on the cluster.
+ * <p>
+ * The scroll context is released once all the hits are read, or when the
+ * iterator is closed. Otherwise it expires on the cluster after the keep-alive
+ * time without a page being fetched.
+ *
+ * @param <T> the type the hits are converted to
+ */
+@Slf4j
+class ScrollingSearch<T> implements Iterator<T>, AutoCloseable {
+
+  /**
+   * Time the cluster keeps the scroll context between two pages
+   */
+  static final String KEEP_ALIVE = "1m";
+
+  private final JestClient client;
+
+  /**
+   * Converts the source of a hit
+   */
+  private final Function<JsonObject, T> converter;
+
+  private final int pageSize;
+
+  private final String errorMessage;
+
+  private Iterator<JsonElement> page = Collections.emptyIterator();
+
+  private String scrollId;
+
+  private boolean lastPage = false;
+
+  /**
+   * Executes the search and fetches the first page.
+   *
+   * @param client       the Jest client
+   * @param query        the search query, whose "size" is the number of hits per page
+   * @param index        the index to search
+   * @param pageSize     the number of hits per page, as set in the query
+   * @param converter    converts the source of each hit
+   * @param errorMessage message of the exception thrown if a page cannot be fetched
+   */
+  ScrollingSearch(JestClient client, String query, String index, int pageSize, Function<JsonObject, T> converter,
+                  String errorMessage) {
+    this.client = client;
+    this.converter = converter;
+    this.pageSize = pageSize;
+    this.errorMessage = errorMessage;
+    fetch(new Search.Builder(query).addIndex(index).setParameter(Parameters.SCROLL, KEEP_ALIVE).build());
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext() && !lastPage) {
+      fetch(new SearchScroll.Builder(scrollId, KEEP_ALIVE).build());
+    }
+    if (!page.hasNext()) {
+      close();
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return converter.apply(page.next().getAsJsonObject().getAsJsonObject("_source"));
+  }
+
+  private void fetch(Action<? extends JestResult> action) {
+    JestResult result;
+    try {
+      result = client.execute(action);
+    } catch (IOException e) {
+      close();
+      throw new RuntimeException(errorMessage, e);
+    }
+    if (!result.isSucceeded()) {
+      close();
+      throw new RuntimeException(errorMessage + ": " + result.getErrorMessage());
+    }
+    JsonObject json = result.getJsonObject();
+    if (json.has("_scroll_id")) {
+      scrollId = json.get("_scroll_id").getAsString();
+    }
+    JsonArray hits = json.getAsJsonObject("hits").getAsJsonArray("hits");
+    page = hits.iterator();
+    lastPage = hits.size() < pageSize || scrollId == null;
+  }
+
+  /**
+   * Releases the scroll context on the cluster.
+   */
+  @Override
+  public void close() {
+    lastPage = true;
+    if (scrollId == null) {
+      return;
+    }
+    try {
+      client.execute(new ClearScroll.Builder().addScrollId(scrollId).build());
+    } catch (IOException e) {
+      log.warn("Error clearing the scroll, it will expire after {}", KEEP_ALIVE, e);
+    }
+    scrollId = null;
+  }
+
+  /**
+   * @return the remaining hits, as a stream closing this search when closed
+   */
+  Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(this::close);
+  }
+}
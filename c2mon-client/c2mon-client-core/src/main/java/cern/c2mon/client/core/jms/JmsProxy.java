@@ -17,6 +17,7 @@
 package cern.c2mon.client.core.jms;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 import javax.jms.JMSException;
 
@@ -171,6 +172,32 @@ public interface JmsProxy {
   <T extends ClientRequestResult> Collection<T> sendRequest(JsonRequest<T> jsonRequest, String queueName, int timeout,
       ClientRequestReportListener reportListener) throws JMSException;
 
+  /**
+   * Send a request to the server without waiting for the response, so that
+   * many requests can be in flight at once.
+   *
+   * <p>The returned future completes with the response (never null), or
+   * exceptionally with a RuntimeException if an error report is received or
+   * no response arrives within the timeout. Dependent actions and the report
+   * listener should not block, as they may be run on the JMS delivery thread
+   * shared by the replies of all requests.
+   *
+   * @param jsonRequest the request object, convertible to Json format
+   * @param queueName the name of the queue on which to send this request
+   * @param timeout the time to wait for a response (in milliseconds),
+   *                restarted at each progress report
+   * @param reportListener Receives updates for <code>ClientRequestProgressReport</code> and
+   *                       <code>ClientRequestErrorReport</code>, can be null
+   * @param <T> the type of the response expected (inside the collection)
+   *
+   * @return the future response to the request
+   * @throws JMSException if not currently connected or
+   *                      if a JMS problem occurs while sending the request (reconnection is handled by the JmsProxy)
+   * @throws NullPointerException thrown if either argument is null
+   */
+  <T extends ClientRequestResult> CompletableFuture<Collection<T>> sendRequestAsync(JsonRequest<T> jsonRequest,
+      String queueName, int timeout, ClientRequestReportListener reportListener) throws JMSException;
+
   /**
    * Register a listener for connection/disconnection events.
    * 
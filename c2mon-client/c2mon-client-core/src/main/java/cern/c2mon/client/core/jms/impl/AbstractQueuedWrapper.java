@@ -17,6 +17,8 @@
 package cern.c2mon.client.core.jms.impl;
 
 import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -108,6 +110,17 @@ public abstract class AbstractQueuedWrapper<U> implements Lifecycle, MessageList
    */
   protected abstract U convertMessage(Message message) throws JMSException;
 
+  /**
+   * Converts the JMS message into the events it carries. By default a message
+   * carries a single event; override for messages carrying batches of events.
+   * @param message the JMS message
+   * @return the events, in the order they must be notified
+   * @throws JMSException if error in using the message
+   */
+  protected Collection<U> convertMessages(Message message) throws JMSException {
+    return Collections.singletonList(convertMessage(message));
+  }
+
   /**
    * Return some human-readable version of an event. Used for logging
    * warnings.
@@ -170,27 +183,9 @@ public abstract class AbstractQueuedWrapper<U> implements Lifecycle, MessageList
           log.trace("AbstractQueuedWrapper received message for {}: {}", this.getClass().getSimpleName(), ((TextMessage)message).getText());
         }
 
-        U event = convertMessage(message);
-        long lastNotificationTime = notificationTime.get();
-
-        float currentQueueSizePercentage = (float) getQueueSize() /  (float) queueCapacity;
-        if(queueSizeThresholdReached(currentQueueSizePercentage)){
-          int currentQueueSizePercentage100 = (int)(currentQueueSizePercentage * 100);
-          String warning = "New enqueuing event for " + getQueueName() + " queue. " +
-                  "Queue capacity : " + queueCapacity + ". " +
-                  "Current number of elements in the queue : " + getQueueSize() + ". " +
-                  "Filling percentage: " + currentQueueSizePercentage100 + "%";
-          enqueuingEventListener.onEnqueuingEvent(warning, currentQueueSizePercentage100);
-        }
-
-        if (lastNotificationTime != 0 && (System.currentTimeMillis() - lastNotificationTime) > notificationTimeBeforeWarning.get()) {
-          String warning = "Slow consumer class: " + this.getClass().getSimpleName() + ". "
-                              + "C2MON client is not consuming updates correctly and should be restarted! "
-                              + "No returning call from listener since " + new Timestamp(lastNotificationTime)
-                              + " Event type: " + getDescription(event);
-          slowConsumerListener.onSlowConsumer(warning);
+        for (U event : convertMessages(message)) {
+          enqueue(event);
         }
-        eventQueue.put(event);
       } else {
         log.warn("Non-text message received for " + this.getClass().getSimpleName() + " - ignoring event");
       }
@@ -199,6 +194,35 @@ public abstract class AbstractQueuedWrapper<U> implements Lifecycle, MessageList
     }
   }
 
+  /**
+   * Puts the event in the queue, blocking if the queue is full, and notifies
+   * the listeners of slow consumption.
+   * @param event the incoming event
+   * @throws InterruptedException if interrupted while waiting for space in the queue
+   */
+  private void enqueue(final U event) throws InterruptedException {
+    long lastNotificationTime = notificationTime.get();
+
+    float currentQueueSizePercentage = (float) getQueueSize() /  (float) queueCapacity;
+    if(queueSizeThresholdReached(currentQueueSizePercentage)){
+      int currentQueueSizePercentage100 = (int)(currentQueueSizePercentage * 100);
+      String warning = "New enqueuing event for " + getQueueName() + " queue. " +
+              "Queue capacity : " + queueCapacity + ". " +
+              "Current number of elements in the queue : " + getQueueSize() + ". " +
+              "Filling percentage: " + currentQueueSizePercentage100 + "%";
+      enqueuingEventListener.onEnqueuingEvent(warning, currentQueueSizePercentage100);
+    }
+
+    if (lastNotificationTime != 0 && (System.currentTimeMillis() - lastNotificationTime) > notificationTimeBeforeWarning.get()) {
+      String warning = "Slow consumer class: " + this.getClass().getSimpleName() + ". "
+                          + "C2MON client is not consuming updates correctly and should be restarted! "
+                          + "No returning call from listener since " + new Timestamp(lastNotificationTime)
+                          + " Event type: " + getDescription(event);
+      slowConsumerListener.onSlowConsumer(warning);
+    }
+    eventQueue.put(event);
+  }
+
 
   private boolean queueSizeThresholdReached(float currentQueueSizePercentage){
     //true if the current queue size percentage increased or decreased 10% since the last sent percentage notification
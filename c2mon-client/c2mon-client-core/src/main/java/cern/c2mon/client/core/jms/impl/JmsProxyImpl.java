@@ -20,7 +20,10 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import javax.annotation.PreDestroy;
 import javax.jms.*;
@@ -29,6 +32,7 @@ import org.apache.activemq.command.ActiveMQQueue;
 import org.apache.activemq.command.ActiveMQTopic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
@@ -78,6 +82,22 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
 
   private final AlarmTopicWrapper alarmTopicWrapper;
 
+  /**
+   * If false, a temporary reply queue is created for each request.
+   */
+  private volatile boolean multiplexRequests;
+
+  /**
+   * Times out the requests sent through the request reply channel.
+   */
+  private final ScheduledThreadPoolExecutor requestTimeoutScheduler;
+
+  /**
+   * The reply channel of the current connection, created at the first
+   * request. Guarded by this.
+   */
+  private RequestReplyChannel requestReplyChannel;
+
   @Autowired
   public JmsProxyImpl(final JmsConnectionHandler jmsConnectionHandler,
                       final SlowConsumerListener slowConsumerListener,
@@ -93,10 +113,21 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
     broadcastTopicWrapper = new BroadcastTopicWrapper(slowConsumerListener, enqueuingEventListener, topicPollingExecutor, properties);
     alarmTopicWrapper = new AlarmTopicWrapper(slowConsumerListener, enqueuingEventListener, topicPollingExecutor, properties);
     messageTimeToLive = properties.getJms().getMessageTimeToLive();
+    multiplexRequests = properties.getJms().isMultiplexRequests();
+
+    requestTimeoutScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "JmsProxy-RequestTimeout");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // the timeouts are mostly cancelled, as the replies arrive in time
+    requestTimeoutScheduler.setRemoveOnCancelPolicy(true);
   }
 
   @Override
   public void refreshAllSubscriptions(Connection connection) throws JMSException {
+    // the reply queue of the previous connection is gone
+    closeRequestReplyChannel();
     if (alarmTopicWrapper.getListenerWrapper().getListenerCount() > 0) {
       alarmTopicWrapper.subscribeToTopic(connection);
     }
@@ -152,23 +183,105 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
       throw new NullPointerException("sendRequest(..) method called with null request argument");
     }
 
+    if (!multiplexRequests) {
+      return sendRequestOnTemporaryQueue(jsonRequest, queueName, timeout, reportListener);
+    }
+
+    CompletableFuture<Collection<T>> result = sendRequestAsync(jsonRequest, queueName, timeout, reportListener);
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the reply to the request", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof JMSException) {
+        throw (JMSException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
+  @Override
+  public <T extends ClientRequestResult> CompletableFuture<Collection<T>> sendRequestAsync(
+          final JsonRequest<T> jsonRequest, final String queueName, final int timeout,
+          final ClientRequestReportListener reportListener) throws JMSException {
+
+    if (queueName == null) {
+      throw new NullPointerException("sendRequestAsync(..) method called with null queue name argument");
+    }
+    if (jsonRequest == null) {
+      throw new NullPointerException("sendRequestAsync(..) method called with null request argument");
+    }
+
+    if (!multiplexRequests) {
+      CompletableFuture<Collection<T>> result = new CompletableFuture<>();
+      try {
+        result.complete(sendRequestOnTemporaryQueue(jsonRequest, queueName, timeout, reportListener));
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+      return result;
+    }
+
+    jmsConnectionHandler.ensureConnection();
+
+    if (jmsConnectionHandler.isConnected()) {
+      return getRequestReplyChannel().sendRequest(jsonRequest, queueName, timeout, reportListener);
+    } else {
+      throw new JMSException("Not currently connected: unable to send request at this time.");
+    }
+  }
+
+  /**
+   * @param multiplexRequests false to create a temporary reply queue for each
+   *                          request, for servers which do not return the
+   *                          correlation id of the requests
+   */
+  void setMultiplexRequests(final boolean multiplexRequests) {
+    this.multiplexRequests = multiplexRequests;
+  }
+
+  /**
+   * Returns the reply channel of the current connection, creating it if the
+   * connection changed since the last request.
+   */
+  private synchronized RequestReplyChannel getRequestReplyChannel() throws JMSException {
+    Connection connection = jmsConnectionHandler.getConnection();
+    if (requestReplyChannel == null || requestReplyChannel.isClosed() || requestReplyChannel.getConnection() != connection) {
+      closeRequestReplyChannel();
+      requestReplyChannel = new RequestReplyChannel(connection, requestTimeoutScheduler, messageTimeToLive);
+    }
+    return requestReplyChannel;
+  }
+
+  /**
+   * Closes the reply channel, failing the requests waiting for their result.
+   */
+  private synchronized void closeRequestReplyChannel() {
+    if (requestReplyChannel != null) {
+      requestReplyChannel.close();
+      requestReplyChannel = null;
+    }
+  }
+
+  /**
+   * Sends a request with its own temporary reply queue, for servers which do
+   * not return the correlation id of the requests.
+   */
+  private <T extends ClientRequestResult> Collection<T> sendRequestOnTemporaryQueue(
+          final JsonRequest<T> jsonRequest, final String queueName, final int timeout,
+          final ClientRequestReportListener reportListener) throws JMSException {
+
     jmsConnectionHandler.ensureConnection();
 
     if (jmsConnectionHandler.isConnected()) {
       Session session = jmsConnectionHandler.getConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
       try {
 
-        Message message = null;
-
-        if (jsonRequest.isObjectRequest()) {
-          // used for EXECUTE_COMMAND_REQUESTS
-          // send only the object
-          message = session.createObjectMessage((Serializable) jsonRequest.getObjectParameter());
-        } else {
-          // used for all other request types
-          // send the Client Request as a Json Text Message
-          message = session.createTextMessage(jsonRequest.toJson());
-        }
+        Message message = createRequestMessage(session, jsonRequest);
 
         TemporaryQueue replyQueue = session.createTemporaryQueue();
         MessageConsumer consumer = session.createConsumer(replyQueue);
@@ -229,6 +342,25 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
     return sendRequest(jsonRequest, queueName, timeout, reportListener);
   }
 
+  /**
+   * Creates the message of a request.
+   * @param session the session used to send the request
+   * @param jsonRequest the request
+   * @return a Json text message, or an object message for object requests
+   * @throws JMSException if the message cannot be created
+   */
+  static Message createRequestMessage(final Session session, final JsonRequest<?> jsonRequest) throws JMSException {
+    if (jsonRequest.isObjectRequest()) {
+      // used for EXECUTE_COMMAND_REQUESTS
+      // send only the object
+      return session.createObjectMessage((Serializable) jsonRequest.getObjectParameter());
+    } else {
+      // used for all other request types
+      // send the Client Request as a Json Text Message
+      return session.createTextMessage(jsonRequest.toJson());
+    }
+  }
+
   /**
    * In case a JsonResponse has been received.
    * This can either be the final Result or a Report on the progress of the request.
@@ -240,7 +372,7 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
    * @return a Collection of ClientRequestResults.
    * @throws JMSException if problem subscribing
    */
-  private <T extends ClientRequestResult> Collection<T> handleJsonResponse(
+  static <T extends ClientRequestResult> Collection<T> handleJsonResponse(
           final TextMessage jsonMessage, final JsonRequest<T> jsonRequest, final ClientRequestReportListener reportListener)
           throws JsonSyntaxException, JMSException {
 
@@ -273,7 +405,7 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
    * @param report the received report.
    * @param reportListener the listener to be informed. Can be null in case no one cares about this report.
    */
-  private void handleJsonReportResponse(final ClientRequestReport report, final ClientRequestReportListener reportListener) {
+  private static void handleJsonReportResponse(final ClientRequestReport report, final ClientRequestReportListener reportListener) {
 
     if (reportListener == null) {
       // is someone waiting for the report?
@@ -298,7 +430,7 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
    * @param clientRequestReport the response to be checked
    * @return True if the final result is received, false in case a report has been received.
    */
-  private boolean isResult(final ClientRequestReport clientRequestReport) {
+  private static boolean isResult(final ClientRequestReport clientRequestReport) {
     return clientRequestReport.isResult();
   }
 
@@ -405,6 +537,13 @@ public final class JmsProxyImpl implements JmsProxy, JmsSubscriptionHandler {
     alarmTopicWrapper.stop();
     broadcastTopicWrapper.stop();
     heartbeatTopicWrapper.stop();
+    closeRequestReplyChannel();
+    requestTimeoutScheduler.shutdownNow();
+  }
+
+  @ManagedAttribute(description = "Number of requests waiting for a reply from the server")
+  public synchronized int getPendingRequestCount() {
+    return requestReplyChannel == null ? 0 : requestReplyChannel.getPendingRequestCount();
   }
 
   @ManagedOperation(description = "Get size of current internal listener queues")
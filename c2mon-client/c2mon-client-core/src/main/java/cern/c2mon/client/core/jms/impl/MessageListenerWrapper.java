@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.client.core.jms.impl;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -41,6 +43,9 @@ import cern.c2mon.shared.client.tag.TransferTagValueImpl;
  * wrapper listens on a the given topic and notifies {@link TagUpdateListener}s when an update is received for the
  * corresponding Tag. Notice only one TagUpdateListener will be registered for a given id (the latest one added). In
  * other words, this wrapper also functions as a filter on the topic, with undesired messages being filtered out.
+ * <p>
+ * If the server publishes tag updates in batches (a json array of TransferTagValue objects in a single message),
+ * the batch is unpacked and every update is queued and filtered individually.
  *
  * @author Mark Brightwell
  */
@@ -109,6 +114,15 @@ class MessageListenerWrapper extends AbstractQueuedWrapper<TagValueUpdate> {
         return TransferTagSerializer.fromJson(((TextMessage) message).getText(), TransferTagValueImpl.class);
     }
 
+    @Override
+    protected Collection<TagValueUpdate> convertMessages(Message message) throws JMSException {
+        String text = ((TextMessage) message).getText();
+        if (TransferTagSerializer.isJsonArray(text)) {
+            return Collections.unmodifiableList(TransferTagSerializer.fromJsonArray(text, TransferTagValueImpl[].class));
+        }
+        return Collections.singletonList(TransferTagSerializer.fromJson(text, TransferTagValueImpl.class));
+    }
+
     @Override
     protected synchronized void notifyListeners(TagValueUpdate tagValueUpdate) {
         if (listeners.containsKey(tagValueUpdate.getId())) {
@@ -0,0 +1,301 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.client.core.jms.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.*;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.command.ActiveMQQueue;
+
+import cern.c2mon.client.common.listener.ClientRequestReportListener;
+import cern.c2mon.shared.client.request.ClientRequestResult;
+import cern.c2mon.shared.client.request.JsonRequest;
+
+/**
+ * Sends the requests to the server over a single JMS connection, and receives
+ * all their replies on one reply queue.
+ * <p>
+ * Each request is sent with its own JMS correlation id, which the server sets
+ * on its replies: the replies are matched with the requests waiting for them
+ * by this id. Any number of requests can thus be in flight at once, without
+ * creating a temporary queue on the broker for each of them.
+ * <p>
+ * All the replies are processed on the single delivery thread of the reply
+ * consumer session: the conversion of the replies, the calls to the report
+ * listeners and the completion of the futures, with their dependent actions,
+ * are made one after the other. This keeps the progress reports and the result
+ * of a request in order, but a report listener or dependent action which
+ * blocks delays the replies of all the other requests of the channel.
+ * <p>
+ * The reply queue is a temporary queue, living as long as the connection. The
+ * channel must be closed and a new one created when reconnecting.
+ */
+@Slf4j
+final class RequestReplyChannel implements MessageListener {
+
+  /**
+   * The connection the reply queue belongs to.
+   */
+  @Getter
+  private final Connection connection;
+
+  /**
+   * Session of the reply consumer. The replies are received on its thread.
+   */
+  private final Session consumerSession;
+
+  /**
+   * Session used to send the requests, guarded by its own monitor since a
+   * session must not be used by several threads at once.
+   */
+  private final Session producerSession;
+
+  private final MessageProducer producer;
+
+  private final TemporaryQueue replyQueue;
+
+  /**
+   * The requests waiting for their result, by correlation id.
+   */
+  private final Map<String, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+
+  private final AtomicLong correlationIdCounter = new AtomicLong();
+
+  private final ScheduledExecutorService timeoutScheduler;
+
+  private final long messageTimeToLive;
+
+  private volatile boolean closed = false;
+
+  /**
+   * Creates the reply queue and its consumer on the given connection.
+   *
+   * @param connection the JMS connection
+   * @param timeoutScheduler used to time out the requests
+   * @param messageTimeToLive the time-to-live of the requests, in milliseconds
+   * @throws JMSException if the sessions or the reply queue cannot be created
+   */
+  RequestReplyChannel(final Connection connection, final ScheduledExecutorService timeoutScheduler,
+                      final long messageTimeToLive) throws JMSException {
+    this.connection = connection;
+    this.timeoutScheduler = timeoutScheduler;
+    this.messageTimeToLive = messageTimeToLive;
+    this.consumerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+    try {
+      this.replyQueue = consumerSession.createTemporaryQueue();
+      consumerSession.createConsumer(replyQueue).setMessageListener(this);
+      this.producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      this.producer = producerSession.createProducer(null);
+    } catch (JMSException e) {
+      consumerSession.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Sends a request to the server. The returned future completes once the
+   * result is received, or exceptionally if an error report is received or
+   * no reply is received within the timeout. The timeout is restarted at
+   * each progress report.
+   *
+   * <p>Notice the future is completed on the JMS delivery thread of the
+   * channel, so dependent actions should not block.
+   *
+   * @param jsonRequest the request object
+   * @param queueName the name of the queue on which to send this request
+   * @param timeout the time to wait for a reply (in milliseconds)
+   * @param reportListener informed of the reports received, can be null
+   * @param <T> the type of the response expected (inside the collection)
+   * @return the future result of the request
+   * @throws JMSException if the request could not be sent
+   */
+  <T extends ClientRequestResult> CompletableFuture<Collection<T>> sendRequest(
+          final JsonRequest<T> jsonRequest, final String queueName, final int timeout,
+          final ClientRequestReportListener reportListener) throws JMSException {
+
+    if (closed) {
+      throw new JMSException("Not currently connected: unable to send request at this time.");
+    }
+
+    String correlationId = Long.toString(correlationIdCounter.incrementAndGet());
+    PendingRequest<T> request = new PendingRequest<>(correlationId, jsonRequest, timeout, reportListener);
+    // registered before sending, as the reply may arrive before send returns
+    pendingRequests.put(correlationId, request);
+    request.scheduleTimeout();
+    try {
+      synchronized (producerSession) {
+        Message message = JmsProxyImpl.createRequestMessage(producerSession, jsonRequest);
+        message.setJMSReplyTo(replyQueue);
+        message.setJMSCorrelationID(correlationId);
+        producer.send(new ActiveMQQueue(queueName), message, DeliveryMode.NON_PERSISTENT,
+            Message.DEFAULT_PRIORITY, messageTimeToLive);
+      }
+    } catch (JMSException | RuntimeException e) {
+      pendingRequests.remove(correlationId);
+      request.cancelTimeout();
+      throw e;
+    }
+    if (closed) {
+      // closed while sending: the reply will never be received
+      request.fail(new RuntimeException("Disconnected from JMS, so unable to process request."));
+    }
+    return request.result;
+  }
+
+  /**
+   * Dispatches a reply to the request with the same correlation id. Called on
+   * the delivery thread of the consumer session, one reply at a time.
+   */
+  @Override
+  public void onMessage(final Message message) {
+    String correlationId;
+    try {
+      correlationId = message.getJMSCorrelationID();
+    } catch (JMSException e) {
+      log.error("Cannot extract the correlation id of a reply, ignoring it.", e);
+      return;
+    }
+    PendingRequest<?> request = correlationId == null ? null : pendingRequests.get(correlationId);
+    if (request == null) {
+      log.warn("Received a reply with unknown correlation id {} (request timed out?), ignoring it.", correlationId);
+      return;
+    }
+    request.onReply(message);
+  }
+
+  /**
+   * @return the number of requests waiting for their result
+   */
+  int getPendingRequestCount() {
+    return pendingRequests.size();
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Closes the sessions and the reply queue, and fails all the requests
+   * waiting for their result.
+   */
+  void close() {
+    closed = true;
+    try {
+      producerSession.close();
+      consumerSession.close();
+      replyQueue.delete();
+    } catch (JMSException e) {
+      log.debug("Exception caught while closing the request reply queue: " + e.getMessage(), e);
+    }
+    List<PendingRequest<?>> requests = new ArrayList<>(pendingRequests.values());
+    for (PendingRequest<?> request : requests) {
+      request.fail(new RuntimeException("Disconnected from JMS, so unable to process request."));
+    }
+  }
+
+  /**
+   * A request waiting for its result.
+   */
+  private final class PendingRequest<T extends ClientRequestResult> {
+
+    private final String correlationId;
+
+    private final JsonRequest<T> jsonRequest;
+
+    private final int timeout;
+
+    private final ClientRequestReportListener reportListener;
+
+    private final CompletableFuture<Collection<T>> result = new CompletableFuture<>();
+
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    private PendingRequest(final String correlationId, final JsonRequest<T> jsonRequest, final int timeout,
+                           final ClientRequestReportListener reportListener) {
+      this.correlationId = correlationId;
+      this.jsonRequest = jsonRequest;
+      this.timeout = timeout;
+      this.reportListener = reportListener;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onReply(final Message replyMessage) {
+      try {
+        Collection<T> resultCollection;
+        if (replyMessage instanceof ObjectMessage) {
+          resultCollection = (Collection<T>) ((ObjectMessage) replyMessage).getObject();
+        } else {
+          // replyMessage is an instanceof TextMessage (json)
+          resultCollection = JmsProxyImpl.handleJsonResponse((TextMessage) replyMessage, jsonRequest, reportListener);
+        }
+        if (resultCollection != null) {
+          complete(resultCollection);
+        } else {
+          // progress report: still waiting for the result
+          scheduleTimeout();
+        }
+      } catch (JMSException | RuntimeException e) {
+        fail(e);
+      }
+    }
+
+    private void scheduleTimeout() {
+      cancelTimeout();
+      timeoutTask = timeoutScheduler.schedule(this::onTimeout, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelTimeout() {
+      ScheduledFuture<?> task = timeoutTask;
+      if (task != null) {
+        task.cancel(false);
+      }
+    }
+
+    private void onTimeout() {
+      if (pendingRequests.remove(correlationId, this)) {
+        log.error("No reply received from server on ClientRequest. I was waiting for " + timeout + " milliseconds..");
+        result.completeExceptionally(new RuntimeException("No reply received from server - possible timeout?"));
+      }
+    }
+
+    private void complete(final Collection<T> resultCollection) {
+      if (pendingRequests.remove(correlationId, this)) {
+        cancelTimeout();
+        result.complete(resultCollection);
+      }
+    }
+
+    private void fail(final Throwable cause) {
+      if (pendingRequests.remove(correlationId, this)) {
+        cancelTimeout();
+        result.completeExceptionally(cause);
+      }
+    }
+  }
+}
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.client.core.config.mock;
 
+import javax.jms.Message;
+
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.command.ActiveMQQueue;
 import org.springframework.context.annotation.Bean;
@@ -31,7 +33,9 @@ public class MockServerConfig {
     container.setConnectionFactory(connectionFactory);
     container.setDestination(new ActiveMQQueue("c2mon.client.request"));
     container.setMessageListener((SessionAwareMessageListener) (message, session) -> {
-      session.createProducer(message.getJMSReplyTo()).send(session.createTextMessage("[]"));
+      Message reply = session.createTextMessage("[]");
+      reply.setJMSCorrelationID(message.getJMSCorrelationID());
+      session.createProducer(message.getJMSReplyTo()).send(reply);
     });
     return container;
   }
@@ -7,23 +7,35 @@ import cern.c2mon.server.cache.SubEquipmentCache;
 import cern.c2mon.server.cache.TagFacadeGateway;
 import cern.c2mon.server.common.datatag.DataTagCacheObject;
 import cern.c2mon.server.elasticsearch.IndexManager;
+import cern.c2mon.server.elasticsearch.MappingFactory;
 import cern.c2mon.server.elasticsearch.client.ElasticsearchClientRest;
 import cern.c2mon.server.elasticsearch.config.ElasticsearchProperties;
+import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentConverter;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentIndexer;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentListener;
 import cern.c2mon.shared.client.configuration.ConfigConstants;
 import org.easymock.Mock;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.junit.*;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
 import org.testcontainers.utility.DockerImageName;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class ElasticsearchServiceTest {
 
@@ -165,4 +177,67 @@ public class ElasticsearchServiceTest {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTagHistoryRetrieval() throws InterruptedException {
+        long tagId = 424242L;
+        long start = 1_600_000_000_000L;
+        int values = 2500;
+        String index = "c2mon-tag_history-test";
+        indexManager.create(IndexMetadata.builder().name(index).build(), MappingFactory.createTagMapping());
+        BulkProcessor bulkProcessor = client.getBulkProcessor(new BulkProcessor.Listener() {
+            @Override
+            public void beforeBulk(long executionId, BulkRequest request) {
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            }
+        });
+        for (int i = 0; i < values; i++) {
+            String document = String.format("{\"id\":%d,\"name\":\"history\",\"timestamp\":%d,\"value\":%d}",
+                tagId, start + i * 1000L, i);
+            bulkProcessor.add(new IndexRequest(index).source(document, XContentType.JSON).routing(String.valueOf(tagId)));
+        }
+        // another tag, in the same time range
+        bulkProcessor.add(new IndexRequest(index).routing("1")
+            .source(String.format("{\"id\":1,\"timestamp\":%d,\"value\":1}", start), XContentType.JSON));
+        bulkProcessor.awaitClose(30, TimeUnit.SECONDS);
+        client.refreshIndices();
+
+        C2monClientProperties historyProperties = new C2monClientProperties();
+        historyProperties.getElasticsearch().setUrl(properties.getElasticsearch().getUrl());
+        historyProperties.getElasticsearch().setMaxResults(1000);
+        historyProperties.getElasticsearch().setPageSize(100);
+        ElasticsearchService service = new ElasticsearchService(historyProperties, "c2mon");
+        long end = start + values * 1000L;
+
+        List<Object[]> history;
+        try (Stream<Object[]> stream = service.streamTagHistory(tagId, start, end)) {
+            history = stream.collect(Collectors.toList());
+        }
+        assertEquals("All the values should be streamed, page by page", values, history.size());
+        for (int i = 0; i < values; i++) {
+            assertEquals(start + i * 1000L, ((Number) history.get(i)[0]).longValue());
+            assertEquals(i, ((Number) history.get(i)[1]).intValue());
+        }
+
+        try (Stream<Object[]> stream = service.streamTagHistory(tagId, start, end)) {
+            assertEquals("Closing a partially read stream", 10, stream.limit(10).count());
+        }
+
+        assertEquals("The raw history should be truncated to the maximum results",
+            1000, service.getTagHistory(tagId, start, end, "none").size());
+
+        assertEquals("Fewer values than pixels should not be aggregated",
+            values, service.getTagHistory(tagId, start, end, 5000).size());
+
+        List<Object[]> aggregated = service.getTagHistory(tagId, start, end, 100);
+        assertTrue("At most one value per pixel should be returned, got " + aggregated.size(),
+            aggregated.size() > 50 && aggregated.size() <= 101);
+    }
+}
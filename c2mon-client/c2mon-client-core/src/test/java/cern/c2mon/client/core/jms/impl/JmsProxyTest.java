@@ -21,8 +21,15 @@ import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.jms.*;
 
@@ -34,10 +41,14 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.SessionAwareMessageListener;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import lombok.extern.slf4j.Slf4j;
+
 import cern.c2mon.client.common.listener.ClientRequestReportListener;
 import cern.c2mon.client.core.config.C2monAutoConfiguration;
 import cern.c2mon.client.core.config.C2monClientProperties;
@@ -66,6 +77,7 @@ import cern.c2mon.shared.util.json.GsonFactory;
  * @author Mark Brightwell
  *
  */
+@Slf4j
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = {
     C2monAutoConfiguration.class,
@@ -153,6 +165,7 @@ public class JmsProxyTest {
             supervisionEvents.add(new SupervisionEventImpl(SupervisionEntity.PROCESS, 1L, "P_TEST", SupervisionStatus.RUNNING, new Timestamp(System.currentTimeMillis()), "test response"));
             Message replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(supervisionEvents));
             MessageProducer producer = session.createProducer(message.getJMSReplyTo());
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
             return null;
           }
@@ -215,6 +228,46 @@ public class JmsProxyTest {
 
 
 
+  /**
+   * Tests a batch of updates published in a single message is unpacked, and
+   * that the timestamp filtering still applies to every update of the batch.
+   * @throws JMSException
+   * @throws InterruptedException
+   */
+  @Test
+  public void testBatchedUpdateNotification() throws JMSException, InterruptedException {
+    TagUpdateListener listener = EasyMock.createMock(TagUpdateListener.class);
+
+    //expect the two newest updates only
+    EasyMock.expect(listener.onUpdate(EasyMock.isA(TransferTagValueImpl.class))).andReturn(true).times(2);
+
+    //run test
+    EasyMock.replay(listener);
+
+    //register listener
+    jmsProxy.registerUpdateListener(listener, details);
+    //send batch, the last update being older than the previous ones
+    long now = System.currentTimeMillis();
+    List<TransferTagValueImpl> batch = Arrays.asList(createTagValue(now), createTagValue(now + 1000), createTagValue(now - 1000));
+    jmsSender.sendToTopic(TransferTagSerializer.toJson(batch), details.getTopicName());
+
+    //pause and verify
+    Thread.sleep(200);
+    EasyMock.verify(listener);
+  }
+
+  private TransferTagValueImpl createTagValue(long serverTime) {
+    return new TransferTagValueImpl(details.getId(),
+                                    10L,
+                                    "value description",
+                                    new DataTagQualityImpl(),
+                                    TagMode.TEST,
+                                    new Timestamp(serverTime),
+                                    new Timestamp(serverTime),
+                                    new Timestamp(serverTime),
+                                    "description");
+  }
+
   /**
    * Tests unregistration to a topic works.
    * @throws JMSException
@@ -333,22 +386,26 @@ public class JmsProxyTest {
             Collection<ConfigurationReport> configReport = new ArrayList<>();
             configReport.add(new ConfigurationReport(10, 5, 20, 2, "fake progress"));
             Message replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             configReport.clear();
             configReport.add(new ConfigurationReport(1, 1, 2, 1, "fake progress"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             configReport.clear();
             configReport.add(new ConfigurationReport(10, 6, 22, 10, "fake progress"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             //send result
             configReport.clear();
             configReport.add(new ConfigurationReport(10L, "name", "user"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
             return null;
           }
@@ -398,22 +455,26 @@ public class JmsProxyTest {
             Collection<ConfigurationReport> configReport = new ArrayList<>();
             configReport.add(new ConfigurationReport(10, 5, 20, 2, "fake progress"));
             Message replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             configReport.clear();
             configReport.add(new ConfigurationReport(1, 1, 2, 1, "fake progress"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             configReport.clear();
             configReport.add(new ConfigurationReport(10, 6, 22, 10, "fake progress"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
 
             //send result
             configReport.clear();
             configReport.add(new ConfigurationReport(false, "error occurred"));
             replyMessage = session.createTextMessage(GsonFactory.createGson().toJson(configReport));
+            replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
             producer.send(replyMessage);
             return null;
           }
@@ -436,4 +497,67 @@ public class JmsProxyTest {
 
   }
 
+  /**
+   * Pipelines many requests against a server echoing the correlation id,
+   * with the multiplexed reply queue and with a temporary queue per request,
+   * and logs the number of requests per second of both.
+   */
+  @Test
+  public void testPipelinedRequests() throws Exception {
+    final int requests = 2000;
+    final String queueName = properties.getJms().getRequestQueue() + "-" + System.currentTimeMillis();
+    DefaultMessageListenerContainer server = new DefaultMessageListenerContainer();
+    server.setConnectionFactory(serverTemplate.getConnectionFactory());
+    server.setDestination(new ActiveMQQueue(queueName));
+    server.setConcurrentConsumers(4);
+    server.setMessageListener((SessionAwareMessageListener<Message>) (message, session) -> {
+      Message reply = session.createTextMessage("[]");
+      reply.setJMSCorrelationID(message.getJMSCorrelationID());
+      MessageProducer producer = session.createProducer(message.getJMSReplyTo());
+      producer.send(reply);
+      producer.close();
+    });
+    server.afterPropertiesSet();
+    server.start();
+
+    JmsProxyImpl jmsProxyImpl = (JmsProxyImpl) jmsProxy;
+    ExecutorService clients = Executors.newFixedThreadPool(16);
+    jmsProxyImpl.setMultiplexRequests(true);
+    try {
+      // warm up
+      jmsProxy.sendRequest(new ClientRequestImpl<>(SupervisionEvent.class), queueName, 10000);
+
+      long start = System.nanoTime();
+      List<CompletableFuture<Collection<SupervisionEvent>>> results = new ArrayList<>();
+      for (int i = 0; i < requests; i++) {
+        results.add(jmsProxy.sendRequestAsync(new ClientRequestImpl<>(SupervisionEvent.class), queueName, 10000, null));
+      }
+      CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+      long multiplexedRate = requests * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+      for (CompletableFuture<Collection<SupervisionEvent>> result : results) {
+        Assert.assertNotNull(result.get());
+      }
+      Assert.assertEquals(0, jmsProxyImpl.getPendingRequestCount());
+
+      // the former behaviour, pipelined on the client threads
+      jmsProxyImpl.setMultiplexRequests(false);
+      start = System.nanoTime();
+      List<Future<Collection<SupervisionEvent>>> temporaryQueueResults = new ArrayList<>();
+      for (int i = 0; i < requests; i++) {
+        temporaryQueueResults.add(clients.submit(() ->
+            jmsProxy.sendRequest(new ClientRequestImpl<>(SupervisionEvent.class), queueName, 10000)));
+      }
+      for (Future<Collection<SupervisionEvent>> result : temporaryQueueResults) {
+        Assert.assertNotNull(result.get(60, TimeUnit.SECONDS));
+      }
+      long temporaryQueueRate = requests * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+
+      log.info("{} pipelined requests: {} requests/s with the multiplexed reply queue, {} requests/s with temporary reply queues",
+          requests, multiplexedRate, temporaryQueueRate);
+    } finally {
+      jmsProxyImpl.setMultiplexRequests(properties.getJms().isMultiplexRequests());
+      clients.shutdownNow();
+      server.shutdown();
+    }
+  }
 }
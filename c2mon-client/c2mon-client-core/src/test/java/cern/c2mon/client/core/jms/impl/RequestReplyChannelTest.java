@@ -0,0 +1,168 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.client.core.jms.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.*;
+
+import org.apache.activemq.command.ActiveMQTempQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.client.common.listener.ClientRequestReportListener;
+import cern.c2mon.shared.client.configuration.ConfigurationReport;
+import cern.c2mon.shared.client.request.ClientRequestImpl;
+import cern.c2mon.shared.client.request.ClientRequestProgressReport;
+import cern.c2mon.shared.util.json.GsonFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit test of the timeouts of the requests sent through a
+ * {@link RequestReplyChannel}, with mocked JMS sessions and a mocked timeout
+ * scheduler.
+ */
+public class RequestReplyChannelTest {
+
+  private static final int TIMEOUT = 1000;
+
+  /** For the JMS objects, which are not verified */
+  private IMocksControl jmsControl = EasyMock.createNiceControl();
+
+  private IMocksControl control = EasyMock.createControl();
+
+  private Connection connection;
+
+  private ScheduledExecutorService timeoutScheduler;
+
+  /** The timeout tasks passed to the scheduler */
+  private Capture<Runnable> timeoutTasks = EasyMock.newCapture(CaptureType.ALL);
+
+  /** The last request passed to the producer session */
+  private Message sentMessage;
+
+  @Before
+  public void setUp() throws JMSException {
+    connection = jmsControl.createMock(Connection.class);
+    Session consumerSession = jmsControl.createMock(Session.class);
+    Session producerSession = jmsControl.createMock(Session.class);
+    TemporaryQueue replyQueue = new ActiveMQTempQueue("reply-queue");
+
+    EasyMock.expect(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).andReturn(consumerSession).andReturn(producerSession);
+    EasyMock.expect(consumerSession.createTemporaryQueue()).andReturn(replyQueue);
+    EasyMock.expect(consumerSession.createConsumer(replyQueue)).andReturn(jmsControl.createMock(MessageConsumer.class));
+    EasyMock.expect(producerSession.createProducer(null)).andReturn(jmsControl.createMock(MessageProducer.class));
+    EasyMock.expect(producerSession.createTextMessage(EasyMock.anyString())).andAnswer(() -> {
+      ActiveMQTextMessage message = new ActiveMQTextMessage();
+      message.setText((String) EasyMock.getCurrentArguments()[0]);
+      sentMessage = message;
+      return message;
+    }).anyTimes();
+    jmsControl.replay();
+
+    timeoutScheduler = control.createMock(ScheduledExecutorService.class);
+  }
+
+  @Test
+  public void testRequestTimesOut() throws Exception {
+    ScheduledFuture<?> timeoutTask = control.createMock(ScheduledFuture.class);
+    EasyMock.<ScheduledFuture<?>>expect(timeoutScheduler.schedule(EasyMock.capture(timeoutTasks), EasyMock.eq((long) TIMEOUT),
+        EasyMock.eq(TimeUnit.MILLISECONDS))).andReturn(timeoutTask);
+    control.replay();
+
+    RequestReplyChannel channel = new RequestReplyChannel(connection, timeoutScheduler, 60000);
+    CompletableFuture<Collection<ConfigurationReport>> result =
+        channel.sendRequest(new ClientRequestImpl<>(ConfigurationReport.class), "request.queue", TIMEOUT, null);
+    String correlationId = sentMessage.getJMSCorrelationID();
+    assertEquals(1, channel.getPendingRequestCount());
+
+    // the timeout expires
+    timeoutTasks.getValue().run();
+
+    assertTrue(result.isCompletedExceptionally());
+    assertEquals(0, channel.getPendingRequestCount());
+    try {
+      result.get();
+      fail("A request without reply must fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RuntimeException);
+    }
+
+    // a late reply is ignored
+    channel.onMessage(createReply(correlationId, new ConfigurationReport(10L, "name", "user")));
+    assertTrue(result.isCompletedExceptionally());
+    control.verify();
+  }
+
+  /**
+   * A progress report cancels the running timeout and starts a new one; the
+   * result cancels the last one.
+   */
+  @Test
+  public void testProgressReportRestartsTimeout() throws Exception {
+    ScheduledFuture<?> firstTimeoutTask = control.createMock(ScheduledFuture.class);
+    ScheduledFuture<?> secondTimeoutTask = control.createMock(ScheduledFuture.class);
+    EasyMock.<ScheduledFuture<?>>expect(timeoutScheduler.schedule(EasyMock.capture(timeoutTasks), EasyMock.eq((long) TIMEOUT),
+        EasyMock.eq(TimeUnit.MILLISECONDS))).andReturn(firstTimeoutTask);
+    EasyMock.expect(firstTimeoutTask.cancel(false)).andReturn(true);
+    EasyMock.<ScheduledFuture<?>>expect(timeoutScheduler.schedule(EasyMock.capture(timeoutTasks), EasyMock.eq((long) TIMEOUT),
+        EasyMock.eq(TimeUnit.MILLISECONDS))).andReturn(secondTimeoutTask);
+    EasyMock.expect(secondTimeoutTask.cancel(false)).andReturn(true);
+    ClientRequestReportListener reportListener = control.createMock(ClientRequestReportListener.class);
+    reportListener.onProgressReportReceived(EasyMock.isA(ClientRequestProgressReport.class));
+    control.replay();
+
+    RequestReplyChannel channel = new RequestReplyChannel(connection, timeoutScheduler, 60000);
+    CompletableFuture<Collection<ConfigurationReport>> result =
+        channel.sendRequest(new ClientRequestImpl<>(ConfigurationReport.class), "request.queue", TIMEOUT, reportListener);
+    String correlationId = sentMessage.getJMSCorrelationID();
+
+    channel.onMessage(createReply(correlationId, new ConfigurationReport(10, 5, 20, 2, "fake progress")));
+
+    assertFalse(result.isDone());
+    assertEquals(2, timeoutTasks.getValues().size());
+    assertEquals(1, channel.getPendingRequestCount());
+
+    channel.onMessage(createReply(correlationId, new ConfigurationReport(10L, "name", "user")));
+
+    assertTrue(result.get().iterator().next().isResult());
+    assertEquals(0, channel.getPendingRequestCount());
+    control.verify();
+  }
+
+  private static TextMessage createReply(final String correlationId, final ConfigurationReport report) throws JMSException {
+    ActiveMQTextMessage reply = new ActiveMQTextMessage();
+    reply.setJMSCorrelationID(correlationId);
+    reply.setText(GsonFactory.createGson().toJson(Collections.singletonList(report)));
+    return reply;
+  }
+}
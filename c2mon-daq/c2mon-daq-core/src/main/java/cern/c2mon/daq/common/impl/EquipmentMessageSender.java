@@ -31,6 +31,7 @@ import cern.c2mon.daq.common.IEquipmentMessageSender;
 import cern.c2mon.daq.common.conf.equipment.ICoreDataTagChanger;
 import cern.c2mon.daq.common.messaging.IProcessMessageSender;
 import cern.c2mon.daq.common.timer.FreshnessMonitor;
+import cern.c2mon.daq.common.timer.TimeDeadbandTimerWheel;
 import cern.c2mon.daq.config.DaqProperties;
 import cern.c2mon.daq.filter.IFilterMessageSender;
 import cern.c2mon.daq.filter.dynamic.IDynamicTimeDeadbandFilterActivator;
@@ -98,11 +99,31 @@ public class EquipmentMessageSender implements ICoreDataTagChanger, IEquipmentMe
   private EquipmentSenderFilterModule equipmentSenderFilterModule;
 
   private final FreshnessMonitor freshnessMonitor;
+
+  private final TimeDeadbandTimerWheel timeDeadbandWheel;
   
   private final DaqProperties daqProperties;
   
   private EquipmentStateSender equipmentStateSender;
 
+  /**
+   * Creates a new EquipmentMessageSender, scheduling its time deadband values
+   * on a timer wheel of its own configured by the given {@link DaqProperties}.
+   *
+   * @param filterMessageSender The filter message sender to send filtered tag values.
+   * @param processMessageSender The process message sender to send tags to the server.
+   * @param dynamicTimeDeadbandFilterActivator The dynamic time deadband activator.
+   * @param freshnessMonitor Monitors tag that shall be updated regularly
+   */
+  public EquipmentMessageSender(final IFilterMessageSender filterMessageSender,
+                                final IProcessMessageSender processMessageSender,
+                                final IDynamicTimeDeadbandFilterActivator dynamicTimeDeadbandFilterActivator,
+                                final FreshnessMonitor freshnessMonitor,
+                                final DaqProperties daqProperties) {
+    this(filterMessageSender, processMessageSender, dynamicTimeDeadbandFilterActivator, freshnessMonitor,
+        new TimeDeadbandTimerWheel(daqProperties), daqProperties);
+  }
+
   /**
    * Creates a new EquipmentMessageSender.
    *
@@ -110,18 +131,21 @@ public class EquipmentMessageSender implements ICoreDataTagChanger, IEquipmentMe
    * @param processMessageSender The process message sender to send tags to the server.
    * @param dynamicTimeDeadbandFilterActivator The dynamic time deadband activator.
    * @param freshnessMonitor Monitors tag that shall be updated regularly
+   * @param timeDeadbandWheel The timer wheel on which the time deadband values are scheduled
    */
   @Autowired
   public EquipmentMessageSender(final IFilterMessageSender filterMessageSender,
                                 final IProcessMessageSender processMessageSender,
                                 final IDynamicTimeDeadbandFilterActivator dynamicTimeDeadbandFilterActivator,
                                 final FreshnessMonitor freshnessMonitor,
+                                final TimeDeadbandTimerWheel timeDeadbandWheel,
                                 final DaqProperties daqProperties) {
     super();
     this.filterMessageSender = filterMessageSender;
     this.processMessageSender = processMessageSender;
     this.dynamicTimeDeadbandFilterActivator = dynamicTimeDeadbandFilterActivator;
     this.freshnessMonitor = freshnessMonitor;
+    this.timeDeadbandWheel = timeDeadbandWheel;
     this.daqProperties = daqProperties;
   }
 
@@ -140,7 +164,8 @@ public class EquipmentMessageSender implements ICoreDataTagChanger, IEquipmentMe
     this.equipmentSenderFilterModule = new EquipmentSenderFilterModule(this.filterMessageSender);
 
     // Time Deadband
-    this.equipmentTimeDeadband = new EquipmentTimeDeadband(this, this.processMessageSender, this.equipmentSenderFilterModule);
+    this.equipmentTimeDeadband = new EquipmentTimeDeadband(this, this.processMessageSender, this.equipmentSenderFilterModule,
+        this.timeDeadbandWheel);
 
     // Invalid Sender
     this.equipmentSenderInvalid = new EquipmentSenderInvalid(this.equipmentSenderFilterModule, this.processMessageSender, this.equipmentTimeDeadband,
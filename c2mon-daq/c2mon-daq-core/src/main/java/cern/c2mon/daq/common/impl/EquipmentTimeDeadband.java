@@ -18,14 +18,14 @@ package cern.c2mon.daq.common.impl;
 
 import static java.lang.String.format;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 
 import cern.c2mon.daq.common.IDynamicTimeDeadbandFilterer;
 import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.daq.common.timer.TimeDeadbandTimerWheel;
 import cern.c2mon.daq.tools.DataTagValueFilter;
 import cern.c2mon.shared.common.datatag.SourceDataTag;
 import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
@@ -44,7 +44,7 @@ class EquipmentTimeDeadband {
   /**
    * The timedeadband schedulers hold tags which have time deadband scheduling activated.
    */
-  private Map<Long, SDTTimeDeadbandScheduler> sdtTimeDeadbandSchedulers = new HashMap<>();
+  private Map<Long, SDTTimeDeadbandScheduler> sdtTimeDeadbandSchedulers = new ConcurrentHashMap<>();
 
   /**
    * Filters for Data Tag outgoing Values
@@ -57,9 +57,9 @@ class EquipmentTimeDeadband {
   private IProcessMessageSender processMessageSender;
 
   /**
-   * This is the time deadband scheduler timer where all schedulers are scheduled on.
+   * This is the time deadband timer wheel where all schedulers are scheduled on.
    */
-  private static Timer timeDeadbandTimer = new Timer("Time deadband timer", true);
+  private final TimeDeadbandTimerWheel timeDeadbandWheel;
 
   /**
    * The dynamic time dead band filterer for recording the current source data tag
@@ -77,11 +77,14 @@ class EquipmentTimeDeadband {
    * @param dynamicTimeDeadbandFilterer The dynamic time dead band filterer for recording
    *                                    the current source data tag
    * @param equipmentSenderFilterModule The class with the message sender to send filtered tag values
+   * @param timeDeadbandWheel           The timer wheel on which the time deadband schedulers are scheduled
    */
   public EquipmentTimeDeadband(final IDynamicTimeDeadbandFilterer dynamicTimeDeadbandFilterer,
                                final IProcessMessageSender processMessageSender,
-                               final EquipmentSenderFilterModule equipmentSenderFilterModule) {
+                               final EquipmentSenderFilterModule equipmentSenderFilterModule,
+                               final TimeDeadbandTimerWheel timeDeadbandWheel) {
     this.dynamicTimeDeadbandFilterer = dynamicTimeDeadbandFilterer;
+    this.timeDeadbandWheel = timeDeadbandWheel;
     this.processMessageSender = processMessageSender;
     this.equipmentSenderFilterModule = equipmentSenderFilterModule;
 
@@ -97,7 +100,7 @@ class EquipmentTimeDeadband {
     if (currentTag.getAddress().isTimeDeadbandEnabled() ) {
       log.debug("createSDTtimeDeadbandScheduler - creating time-deadband scheduler for tag #{}", currentTag.getId());
       this.sdtTimeDeadbandSchedulers.put(currentTag.getId(), new SDTTimeDeadbandScheduler(currentTag, this.processMessageSender,
-      this.equipmentSenderFilterModule, timeDeadbandTimer, this.dataTagValueFilter, this.dynamicTimeDeadbandFilterer));
+      this.equipmentSenderFilterModule, timeDeadbandWheel, this.dataTagValueFilter, this.dynamicTimeDeadbandFilterer));
     }
   }
 
@@ -16,13 +16,11 @@
  *****************************************************************************/
 package cern.c2mon.daq.common.impl;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import lombok.extern.slf4j.Slf4j;
 
 import cern.c2mon.daq.common.IDynamicTimeDeadbandFilterer;
 import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.daq.common.timer.TimeDeadbandTimerWheel;
 import cern.c2mon.daq.tools.DataTagValueFilter;
 import cern.c2mon.shared.common.datatag.SourceDataTag;
 import cern.c2mon.shared.common.datatag.SourceDataTagValue;
@@ -33,9 +31,14 @@ import cern.c2mon.shared.common.type.TypeConverter;
 /**
  * The SourceDataTagTimeDeadbandScheduler class models threads responsible for
  * handling source time deadband filtering. It will work with the Static TimeDeadband
+ * <p>
+ * Once started, the scheduler only arms a timeout on the {@link TimeDeadbandTimerWheel}
+ * when a value is scheduled for sending. The timeout fires as soon as the time deadband
+ * has elapsed since the last value was sent, so that at most one value per time
+ * deadband interval is sent to the server.
  */
 @Slf4j
-public class SDTTimeDeadbandScheduler extends TimerTask {
+public class SDTTimeDeadbandScheduler implements Runnable {
 
   /**
    * The process message sender takes the messages actually send to the server.
@@ -68,9 +71,29 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
   private DataTagValueFilter dataTagValueFilter;
 
   /**
-   * The timer to schedule this task on
+   * The timer wheel to schedule this task on
    */
-  private Timer timeDeadbandTimer;
+  private final TimeDeadbandTimerWheel timeDeadbandWheel;
+
+  /**
+   * The timeout armed on the timer wheel, if any. Guarded by the source data tag.
+   */
+  private TimeDeadbandTimerWheel.Timeout pendingTimeout;
+
+  /**
+   * True once {@link #start()} was called. Guarded by the source data tag.
+   */
+  private boolean started = false;
+
+  /**
+   * True once the scheduler was cancelled. Guarded by the source data tag.
+   */
+  private boolean cancelled = false;
+
+  /**
+   * Time in ms at which the last value was sent or filtered. Guarded by the source data tag.
+   */
+  private long lastRunTime = 0L;
 
   /**
    * The dynamic time dead band filterer for recording the current source data tag
@@ -93,14 +116,14 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
    * @param sourceDataTag               The source data tag controlled by this object.
    * @param processMessageSender        Takes the messages sent to the server
    * @param equipmentSenderValid        Used to send messages to the server.
-   * @param timeDeadbandTimer           The timer to schedule this task on.
+   * @param timeDeadbandWheel           The timer wheel to schedule this task on.
    * @param valueChecker                Value checker object to avoid repeated values.
    * @param dynamicTimeDeadbandFilterer The dynamic time dead band filterer for recording the current source data tag
    */
   public SDTTimeDeadbandScheduler(final SourceDataTag sourceDataTag,
                                   final IProcessMessageSender processMessageSender,
                                   final EquipmentSenderFilterModule equipmentSenderFilterModule,
-                                  final Timer timeDeadbandTimer,
+                                  final TimeDeadbandTimerWheel timeDeadbandWheel,
                                   final DataTagValueFilter dataTagValueFilter,
                                   final IDynamicTimeDeadbandFilterer dynamicTimeDeadbandFilterer) {
     this.dataTagValueFilter = dataTagValueFilter;
@@ -108,7 +131,7 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
     this.equipmentSenderFilterModule = equipmentSenderFilterModule;
     this.dynamicTimeDeadbandFilterer = dynamicTimeDeadbandFilterer;
 
-    this.timeDeadbandTimer = timeDeadbandTimer;
+    this.timeDeadbandWheel = timeDeadbandWheel;
 
     log.debug("creating time-deadband scheduler for tag : " + sourceDataTag.getId());
 
@@ -116,14 +139,29 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
   }
 
   /**
-   * Starts the timer task with the scheduled fixed rate defined for the given {@link SourceDataTag}
+   * Starts the scheduling with the time deadband interval defined for the given {@link SourceDataTag}
    */
   public void start() {
-    // create timers
     if (sourceDataTag.getAddress().isTimeDeadbandEnabled()) {
-      log.debug("\tscheduler[{}] : setting scheduling interval to : {} miliseconds", this.sourceDataTag.getId(), this.sourceDataTag.getAddress().getTimeDeadband());
-      this.timeDeadbandTimer.scheduleAtFixedRate(this, 0, this.sourceDataTag.getAddress().getTimeDeadband());
-      log.debug("\tscheduler[{}] : setting scheduled", this.sourceDataTag.getId());
+      synchronized (this.sourceDataTag) {
+        log.debug("\tscheduler[{}] : setting scheduling interval to : {} miliseconds", this.sourceDataTag.getId(), this.sourceDataTag.getAddress().getTimeDeadband());
+        this.started = true;
+        armTimeout();
+      }
+    }
+  }
+
+  /**
+   * Cancels the scheduling. A value scheduled for sending is not sent anymore
+   * by the timer, but can still be flushed with {@link #run()}.
+   */
+  public void cancel() {
+    synchronized (this.sourceDataTag) {
+      this.cancelled = true;
+      if (this.pendingTimeout != null) {
+        this.pendingTimeout.cancel();
+        this.pendingTimeout = null;
+      }
     }
   }
 
@@ -146,11 +184,49 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
    * of the source data tag
    */
   public void scheduleValueForSending() {
-    this.sendValue = true;
+    synchronized (this.sourceDataTag) {
+      this.sendValue = true;
+      armTimeout();
+    }
+  }
+
+  /**
+   * Arms a timeout on the timer wheel if a value is waiting to be sent and
+   * none is armed yet. Has to be called with the source data tag lock held.
+   */
+  private void armTimeout() {
+    if (this.started && !this.cancelled && this.sendValue && this.pendingTimeout == null) {
+      long delay = this.lastRunTime + this.sourceDataTag.getAddress().getTimeDeadband() - System.currentTimeMillis();
+      this.pendingTimeout = this.timeDeadbandWheel.schedule(this::onTimeout, delay);
+    }
+  }
+
+  /**
+   * Called from the timer wheel when the armed timeout expires.
+   */
+  private void onTimeout() {
+    synchronized (this.sourceDataTag) {
+      this.pendingTimeout = null;
+      if (this.cancelled) {
+        return;
+      }
+      if (System.currentTimeMillis() < this.lastRunTime + this.sourceDataTag.getAddress().getTimeDeadband()) {
+        // a value was flushed in the meantime
+        armTimeout();
+        return;
+      }
+      run();
+      if (this.sendValue) {
+        // sending failed, retry after the time deadband
+        this.lastRunTime = System.currentTimeMillis();
+        armTimeout();
+      }
+    }
   }
 
   /**
-   * The run method called from the timer.
+   * Sends the value scheduled for sending, if any. Called from the timer
+   * wheel or directly to flush the scheduler.
    */
   @Override
   public void run() {
@@ -210,6 +286,7 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
 
           // Reset the sendValue variable
           this.sendValue = false;
+          this.lastRunTime = System.currentTimeMillis();
         } else {
           log.debug("\tscheduler[#{}] : no new value to be sent", this.sourceDataTag.getId());
         }
@@ -127,10 +127,26 @@ public class ActiveMessageReceiver extends ProcessMessageReceiver implements Ses
    * @throws JMSException Throws a JMSException if the sending of the message failed.
    */
   public void sendTextMessage(final String messageText, final Destination destination, final Session session) throws JMSException {
+    sendTextMessage(messageText, destination, null, session);
+  }
+
+  /**
+   * Sends a text message via JMS to the server.
+   *
+   * @param messageText The text of the message to send.
+   * @param destination The destination of the message.
+   * @param correlationId The JMS correlation id of the server request, used
+   *                      by the server to match the reply with its request.
+   * @param session The session to use.
+   * @throws JMSException Throws a JMSException if the sending of the message failed.
+   */
+  public void sendTextMessage(final String messageText, final Destination destination, final String correlationId,
+                              final Session session) throws JMSException {
     MessageProducer messageProducer = session.createProducer(destination);
     try {
       TextMessage message = session.createTextMessage();
       message.setText(messageText);
+      message.setJMSCorrelationID(correlationId);
       log.debug("Sending response to DataTagValueRequest");
       messageProducer.send(destination, message);
     } finally {
@@ -176,7 +192,7 @@ public class ActiveMessageReceiver extends ProcessMessageReceiver implements Ses
         log.warn("Request received from server not recognized");
         response = new ServerErrorResponse("Request received from server not recognized: " + request.getClass() + " not supported from the DAQ.");
       }
-      sendDAQResponse(response, message.getJMSReplyTo(), session);
+      sendTextMessage(MessageConverter.responseToJson(response), message.getJMSReplyTo(), message.getJMSCorrelationID(), session);
 
     } catch (Exception e) {
       log.error("Unexpected exception caught while processing server request", e);
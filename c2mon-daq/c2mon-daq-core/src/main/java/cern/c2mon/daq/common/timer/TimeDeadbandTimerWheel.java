@@ -0,0 +1,306 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.daq.common.timer;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cern.c2mon.daq.config.DaqProperties;
+
+/**
+ * Hashed timing wheel on which the time-deadband schedulers of all tags arm
+ * their one-shot timeouts.
+ * <p>
+ * A single ticker thread advances the wheel every tick and hands the expired
+ * timeouts over to a pool of worker threads, which do the actual sending.
+ * Scheduling and cancelling a timeout are O(1), whatever the number of tags.
+ * The timeouts fire with a precision of one tick.
+ * <p>
+ * The threads are only started when the first timeout is scheduled.
+ *
+ * @see cern.c2mon.daq.common.impl.SDTTimeDeadbandScheduler
+ */
+@Component
+@Slf4j
+public class TimeDeadbandTimerWheel {
+
+  /** Maximum number of new timeouts moved to the wheel per tick */
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+
+  private final Queue<Timeout>[] wheel;
+
+  private final int mask;
+
+  private final int workerThreads;
+
+  /** Timeouts scheduled since the last tick, only read by the ticker thread */
+  private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+
+  private ExecutorService workers;
+
+  private Thread ticker;
+
+  /** Start time of the wheel, the deadlines are relative to it */
+  private volatile long startTime;
+
+  private volatile boolean started = false;
+
+  private volatile boolean stopped = false;
+
+  /** Current tick, only accessed by the ticker thread */
+  private long tick = 0;
+
+  @Autowired
+  public TimeDeadbandTimerWheel(final DaqProperties properties) {
+    this(properties.getFilter().getTimeDeadband().getTickDuration(),
+        properties.getFilter().getTimeDeadband().getWheelSize(),
+        properties.getFilter().getTimeDeadband().getWorkerThreads());
+  }
+
+  /**
+   * @param tickDuration  duration of a tick in milliseconds
+   * @param wheelSize     number of slots of the wheel, rounded up to a power of two
+   * @param workerThreads number of threads running the expired timeouts
+   */
+  @SuppressWarnings("unchecked")
+  public TimeDeadbandTimerWheel(final long tickDuration, final int wheelSize, final int workerThreads) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("The tick duration must be positive: " + tickDuration);
+    }
+    if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+      throw new IllegalArgumentException("The wheel size must be between 1 and 2^30: " + wheelSize);
+    }
+    if (workerThreads <= 0) {
+      throw new IllegalArgumentException("At least one worker thread is required: " + workerThreads);
+    }
+
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+    int size = Integer.highestOneBit(wheelSize) == wheelSize ? wheelSize : Integer.highestOneBit(wheelSize) << 1;
+    this.wheel = new Queue[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new ArrayDeque<>();
+    }
+    this.mask = size - 1;
+    this.workerThreads = workerThreads;
+  }
+
+  /**
+   * Schedules the task to be run once after the given delay.
+   *
+   * @param task  the task to run on one of the worker threads
+   * @param delay the delay in milliseconds
+   * @return the handle to cancel the timeout
+   */
+  public Timeout schedule(final Runnable task, final long delay) {
+    if (stopped) {
+      throw new IllegalStateException("The time deadband timer wheel has been shut down");
+    }
+    start();
+
+    long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delay));
+    Timeout timeout = new Timeout(task, deadline);
+    newTimeouts.add(timeout);
+    return timeout;
+  }
+
+  private void start() {
+    if (started) {
+      return;
+    }
+    synchronized (this) {
+      if (!started) {
+        workers = Executors.newFixedThreadPool(workerThreads, new DaemonThreadFactory("TimeDeadbandWorker"));
+        startTime = System.nanoTime();
+        ticker = new DaemonThreadFactory("TimeDeadbandTimer").newThread(this::runTicker);
+        ticker.start();
+        started = true;
+        log.debug("Time deadband timer wheel started with {} slots of {} ns and {} worker thread(s)", wheel.length, tickNanos, workerThreads);
+      }
+    }
+  }
+
+  /**
+   * Stops the timer threads. Pending timeouts are discarded.
+   */
+  @PreDestroy
+  public synchronized void shutdown() {
+    stopped = true;
+    if (started) {
+      ticker.interrupt();
+      workers.shutdown();
+    }
+  }
+
+  private void runTicker() {
+    while (!stopped) {
+      long now = waitForNextTick();
+      if (now < 0) {
+        break;
+      }
+
+      transferNewTimeouts();
+      expireTimeouts(wheel[(int) (tick & mask)], now);
+      tick++;
+    }
+  }
+
+  /**
+   * @return the time relative to the start time at the end of the current
+   * tick, or -1 if the thread was interrupted
+   */
+  private long waitForNextTick() {
+    long deadline = tickNanos * (tick + 1);
+    while (true) {
+      long now = System.nanoTime() - startTime;
+      long sleepMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now + 999_999);
+      if (sleepMillis <= 0) {
+        return now;
+      }
+      try {
+        Thread.sleep(sleepMillis);
+      } catch (InterruptedException e) {
+        return -1;
+      }
+    }
+  }
+
+  private void transferNewTimeouts() {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      Timeout timeout = newTimeouts.poll();
+      if (timeout == null) {
+        break;
+      }
+      if (timeout.state == Timeout.CANCELLED) {
+        continue;
+      }
+
+      long expiryTick = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+      // a deadline already in the past expires with the current tick
+      wheel[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+    }
+  }
+
+  private void expireTimeouts(final Queue<Timeout> slot, final long now) {
+    Iterator<Timeout> it = slot.iterator();
+    while (it.hasNext()) {
+      Timeout timeout = it.next();
+      if (timeout.state == Timeout.CANCELLED) {
+        it.remove();
+      } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+        it.remove();
+        expire(timeout);
+      } else {
+        timeout.remainingRounds--;
+      }
+    }
+  }
+
+  private void expire(final Timeout timeout) {
+    if (!timeout.expire()) {
+      return;
+    }
+    try {
+      workers.execute(() -> {
+        try {
+          timeout.task.run();
+        } catch (RuntimeException e) {
+          log.error("Error running time deadband task", e);
+        }
+      });
+    } catch (RuntimeException e) {
+      // only happens when shutting down
+      log.debug("Time deadband task rejected", e);
+    }
+  }
+
+  /**
+   * Handle of a task scheduled on the wheel.
+   */
+  public static final class Timeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+
+    /** Nanoseconds since the start of the wheel */
+    private final long deadline;
+
+    /** Only accessed by the ticker thread */
+    private long remainingRounds;
+
+    private volatile int state = PENDING;
+
+    private Timeout(final Runnable task, final long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the timeout, if it has not yet expired.
+     *
+     * @return true if the task will not be run
+     */
+    public synchronized boolean cancel() {
+      if (state == PENDING) {
+        state = CANCELLED;
+      }
+      return state == CANCELLED;
+    }
+
+    private synchronized boolean expire() {
+      if (state == PENDING) {
+        state = EXPIRED;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger count = new AtomicInteger();
+
+    DaemonThreadFactory(final String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -130,6 +130,13 @@ public class DaqProperties {
      * @see DataTagAddress#PRIORITY_LOW
      */
     private long maxMessageDelayPriorityLow = 1000L;
+
+    /**
+     * Send the tag updates to the server in a compact binary format instead of
+     * JSON. The server accepts both formats, but must be at least the version
+     * introducing the binary format. Default is false
+     */
+    private boolean binaryUpdates = false;
   }
 
   /**
@@ -196,6 +203,31 @@ public class DaqProperties {
       private int forcedDeadbandInterval = 30_000;
     }
 
+    /**
+     * Time deadband scheduling properties
+     */
+    private final TimeDeadband timeDeadband = new TimeDeadband();
+
+    @Data
+    public static class TimeDeadband {
+
+      /**
+       * Precision in milliseconds of the timer wheel on which the time deadband
+       * values are scheduled for sending. Default is 10 ms
+       */
+      private long tickDuration = 10L;
+
+      /**
+       * Number of slots of the timer wheel (rounded up to a power of two)
+       */
+      private int wheelSize = 512;
+
+      /**
+       * Number of threads sending the time deadband values to the server
+       */
+      private int workerThreads = 1;
+    }
+
     /**
      * Enable/disable publication of filtered values to a broker. This is often
      * useful for gathering statistics about filtered data
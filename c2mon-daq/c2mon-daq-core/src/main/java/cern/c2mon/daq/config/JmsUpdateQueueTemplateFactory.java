@@ -38,6 +38,7 @@ public final class JmsUpdateQueueTemplateFactory {
   private final ConnectionFactory connectionFactory;
   private final Destination destination;
   private final Map<QosSettings, JmsTemplate> jmsTemplateMap = new HashMap<>();
+  private final DataTagValueUpdateConverter converter;
   
   /**
    * The constructor is creating the name of the Destination queue from the DAQ properties 
@@ -47,6 +48,7 @@ public final class JmsUpdateQueueTemplateFactory {
   public JmsUpdateQueueTemplateFactory(ConnectionFactory connectionFactory, DaqProperties properties) {
     this.connectionFactory = connectionFactory;
     destination = new ActiveMQQueue(properties.getJms().getQueuePrefix() + ".update." + properties.getName());
+    converter = new DataTagValueUpdateConverter(properties.getJms().isBinaryUpdates());
   }
   
   /**
@@ -70,7 +72,7 @@ public final class JmsUpdateQueueTemplateFactory {
     JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
     jmsTemplate.setDefaultDestination(destination);
     jmsTemplate.setQosSettings(settings);
-    jmsTemplate.setMessageConverter(new DataTagValueUpdateConverter());
+    jmsTemplate.setMessageConverter(converter);
     jmsTemplateMap.put(settings, jmsTemplate);
   }
 }
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 
 import cern.c2mon.daq.common.timer.FreshnessMonitor;
+import cern.c2mon.daq.common.timer.TimeDeadbandTimerWheel;
 import cern.c2mon.daq.config.DaqProperties;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -77,7 +78,8 @@ public class EquipmentMessageSenderTest {
     processMessageSenderMock = createStrictMock(IProcessMessageSender.class);
     dynamicTimeDeadbandFilterActivatorMock = createStrictMock(IDynamicTimeDeadbandFilterActivator.class);
     freshnessMonitorMock = createMock(FreshnessMonitor.class);
-    equipmentMessageSender = new EquipmentMessageSender(filterMessageSenderMock, processMessageSenderMock, dynamicTimeDeadbandFilterActivatorMock, freshnessMonitorMock, new DaqProperties());
+    equipmentMessageSender = new EquipmentMessageSender(filterMessageSenderMock, processMessageSenderMock, dynamicTimeDeadbandFilterActivatorMock, freshnessMonitorMock,
+        new TimeDeadbandTimerWheel(new DaqProperties()), new DaqProperties());
     freshnessMonitorMock.setIEquipmentMessageSender(equipmentMessageSender);
     EasyMock.expectLastCall();
 
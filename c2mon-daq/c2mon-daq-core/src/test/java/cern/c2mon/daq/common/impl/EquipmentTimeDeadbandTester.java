@@ -18,13 +18,16 @@ package cern.c2mon.daq.common.impl;
 
 import cern.c2mon.daq.common.IDynamicTimeDeadbandFilterer;
 import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.daq.common.timer.TimeDeadbandTimerWheel;
+import cern.c2mon.daq.config.DaqProperties;
 
 public class EquipmentTimeDeadbandTester extends EquipmentTimeDeadband {
 
   public EquipmentTimeDeadbandTester(final IDynamicTimeDeadbandFilterer dynamicTimeDeadbandFilterer,
                                      final IProcessMessageSender processMessageSender,
                                      final EquipmentSenderFilterModule equipmentSenderFilterModule) {
-    super(dynamicTimeDeadbandFilterer, processMessageSender, equipmentSenderFilterModule);
+    super(dynamicTimeDeadbandFilterer, processMessageSender, equipmentSenderFilterModule,
+        new TimeDeadbandTimerWheel(new DaqProperties()));
     // TODO Auto-generated constructor stub
   }
 
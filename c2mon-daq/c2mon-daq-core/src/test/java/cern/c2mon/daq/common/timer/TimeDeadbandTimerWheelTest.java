@@ -0,0 +1,95 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.daq.common.timer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeDeadbandTimerWheelTest {
+
+  private TimeDeadbandTimerWheel wheel;
+
+  @Before
+  public void setUp() {
+    // small wheel, so that the timeouts below need several rounds
+    wheel = new TimeDeadbandTimerWheel(5, 8, 2);
+  }
+
+  @After
+  public void tearDown() {
+    wheel.shutdown();
+  }
+
+  @Test
+  public void testTimeoutFiresAfterDelay() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    wheel.schedule(latch::countDown, 100);
+
+    assertTrue(latch.await(2, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+  }
+
+  @Test
+  public void testCancelledTimeoutDoesNotFire() throws InterruptedException {
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    TimeDeadbandTimerWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 50);
+    wheel.schedule(latch::countDown, 100);
+    assertTrue(timeout.cancel());
+
+    assertTrue(latch.await(2, TimeUnit.SECONDS));
+    assertEquals(0, runs.get());
+  }
+
+  @Test
+  public void testExpiredTimeoutCannotBeCancelled() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    TimeDeadbandTimerWheel.Timeout timeout = wheel.schedule(latch::countDown, 0);
+
+    assertTrue(latch.await(2, TimeUnit.SECONDS));
+    assertFalse(timeout.cancel());
+  }
+
+  @Test
+  public void testManyTimeouts() throws InterruptedException {
+    int count = 50_000;
+    CountDownLatch latch = new CountDownLatch(count);
+    for (int i = 0; i < count; i++) {
+      wheel.schedule(latch::countDown, i % 200);
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWorkerThreads() {
+    new TimeDeadbandTimerWheel(10, 512, 0);
+  }
+}
@@ -0,0 +1,128 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark;
+
+import java.sql.SQLException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import cern.c2mon.server.cache.alarm.impl.AlarmCacheImpl;
+import cern.c2mon.server.cache.alive.AliveTimerCacheImpl;
+import cern.c2mon.server.cache.cluster.ClusterCacheImpl;
+import cern.c2mon.server.cache.command.CommandTagCacheImpl;
+import cern.c2mon.server.cache.commfault.CommFaultTagCacheImpl;
+import cern.c2mon.server.cache.control.ControlTagCacheImpl;
+import cern.c2mon.server.cache.datatag.DataTagCacheImpl;
+import cern.c2mon.server.cache.device.DeviceCacheImpl;
+import cern.c2mon.server.cache.device.DeviceClassCacheImpl;
+import cern.c2mon.server.cache.equipment.EquipmentCacheImpl;
+import cern.c2mon.server.cache.process.ProcessCacheImpl;
+import cern.c2mon.server.cache.rule.RuleTagCacheImpl;
+import cern.c2mon.server.cache.subequipment.SubEquipmentCacheImpl;
+import cern.c2mon.server.test.DatabasePopulationRule;
+
+/**
+ * Fills the embedded cache database with the test data of the
+ * {@code c2mon-server-test} module and reloads the in-memory caches from it,
+ * as done by the cache population rules of the integration tests.
+ *
+ * <p>To be registered in the Spring context of the benchmarks running on the
+ * real caches, and called once the context is started. The ids below are
+ * those of the test data.
+ */
+public class BenchmarkCachePopulation extends DatabasePopulationRule {
+
+  /** Test process, with no PIK */
+  public static final long PROCESS_ID = 50L;
+
+  /** Integer data tags of the test equipment of the process */
+  public static final long[] DATA_TAG_IDS = {200000L, 200001L, 200002L, 200003L, 200004L, 200005L};
+
+  /** Data tag used as input by the rules 60000 to 60006 */
+  public static final long RULE_INPUT_TAG_ID = 200001L;
+
+  @Autowired
+  private ProcessCacheImpl processCache;
+
+  @Autowired
+  private EquipmentCacheImpl equipmentCache;
+
+  @Autowired
+  private SubEquipmentCacheImpl subEquipmentCache;
+
+  @Autowired
+  private DataTagCacheImpl dataTagCache;
+
+  @Autowired
+  private AlarmCacheImpl alarmCache;
+
+  @Autowired
+  private RuleTagCacheImpl ruleTagCache;
+
+  @Autowired
+  private CommandTagCacheImpl commandTagCache;
+
+  @Autowired
+  private AliveTimerCacheImpl aliveTimerCache;
+
+  @Autowired
+  private CommFaultTagCacheImpl commFaultTagCache;
+
+  @Autowired
+  private ControlTagCacheImpl controlTagCache;
+
+  @Autowired
+  private DeviceClassCacheImpl deviceClassCache;
+
+  @Autowired
+  private DeviceCacheImpl deviceCache;
+
+  @Autowired
+  private ClusterCacheImpl clusterCache;
+
+  public void populate() throws SQLException {
+    before();
+    clusterCache.removeAll();
+    controlTagCache.removeAll();
+    processCache.removeAll();
+    dataTagCache.removeAll();
+    equipmentCache.removeAll();
+    aliveTimerCache.removeAll();
+    commFaultTagCache.removeAll();
+    subEquipmentCache.removeAll();
+    alarmCache.removeAll();
+    ruleTagCache.removeAll();
+    commandTagCache.removeAll();
+    deviceClassCache.removeAll();
+    deviceCache.removeAll();
+
+    clusterCache.init();
+    controlTagCache.init();
+    processCache.init();
+    dataTagCache.init();
+    equipmentCache.init();
+    aliveTimerCache.init();
+    commFaultTagCache.init();
+    subEquipmentCache.init();
+    alarmCache.init();
+    ruleTagCache.init();
+    commandTagCache.init();
+    deviceClassCache.init();
+    deviceCache.init();
+    after();
+  }
+}
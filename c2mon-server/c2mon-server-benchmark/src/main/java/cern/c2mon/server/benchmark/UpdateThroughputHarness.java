@@ -0,0 +1,204 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.cache.CacheRegistrationService;
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.process.Process;
+import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.daq.JmsContainerManager;
+import cern.c2mon.server.daq.config.DaqModule;
+import cern.c2mon.server.daq.config.DaqProperties;
+import cern.c2mon.server.supervision.config.SupervisionModule;
+import cern.c2mon.server.test.config.TestConfig;
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.daq.datatag.DataTagValueUpdateConverter;
+
+/**
+ * End-to-end throughput harness of the tag update path, running in a single
+ * JVM: a fake DAQ sends {@link DataTagValueUpdate} messages to the embedded
+ * broker, which are received by the DAQ module of the server and written to
+ * the in-memory data tag cache.
+ *
+ * <p>The latency of a value is measured from the sending of its message to
+ * the notification of the synchronous cache listeners. The harness prints the
+ * number of values written to the cache per second, and the median, 99th
+ * percentile and maximum latencies. A first run warms up the JVM and is not
+ * reported.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> cern.c2mon.server.benchmark.UpdateThroughputHarness
+ * [messages] [values per message] [binary]}. The server properties can be
+ * overridden with system properties, e.g.
+ * {@code -Dc2mon.server.daq.jms.update.batchProcessing=true}.
+ */
+public final class UpdateThroughputHarness {
+
+  private static final long PROCESS_PIK = 12345L;
+
+  private static final long TIMEOUT_SECONDS = 120;
+
+  private final int messages;
+
+  private final int valuesPerMessage;
+
+  private final DataTagValueUpdateConverter converter;
+
+  /**
+   * Send time of each message of the current run, in nanoseconds
+   */
+  private volatile long[] sendTimes;
+
+  /**
+   * Latency of each value of the current run, in nanoseconds
+   */
+  private volatile long[] latencies;
+
+  private volatile CountDownLatch received;
+
+  private UpdateThroughputHarness(final int messages, final int valuesPerMessage, final boolean binary) {
+    this.messages = messages;
+    this.valuesPerMessage = valuesPerMessage;
+    this.converter = new DataTagValueUpdateConverter(binary);
+  }
+
+  public static void main(final String[] args) throws Exception {
+    int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int valuesPerMessage = args.length > 1 ? Integer.parseInt(args[1]) : BenchmarkCachePopulation.DATA_TAG_IDS.length;
+    boolean binary = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+        CommonModule.class,
+        CacheModule.class,
+        CacheDbAccessModule.class,
+        CacheLoadingModule.class,
+        SupervisionModule.class,
+        DaqModule.class,
+        TestConfig.class,
+        BenchmarkCachePopulation.class)) {
+      context.getBean(BenchmarkCachePopulation.class).populate();
+
+      UpdateThroughputHarness harness = new UpdateThroughputHarness(messages, valuesPerMessage, binary);
+      context.getBean(CacheRegistrationService.class).registerSynchronousToAllTags(harness.new LatencyListener());
+
+      // the caches were empty when the server subscribed to the DAQ queues
+      Process process = context.getBean(ProcessCache.class).get(BenchmarkCachePopulation.PROCESS_ID);
+      context.getBean(JmsContainerManager.class).subscribe(process);
+      String queue = context.getBean(DaqProperties.class).getJms().getQueuePrefix() + ".update." + process.getName();
+
+      ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory("vm://localhost?create=false");
+      Connection connection = connectionFactory.createConnection();
+      try {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer producer = session.createProducer(session.createQueue(queue));
+        producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+
+        harness.run(session, producer);
+        System.out.printf("%n%d messages of %d values, %s encoding:%n", messages, valuesPerMessage,
+            binary ? "binary" : "JSON");
+        System.out.println(harness.run(session, producer));
+      } finally {
+        connection.close();
+      }
+    }
+  }
+
+  /**
+   * Sends all the messages, and waits for all their values to be written to
+   * the cache.
+   *
+   * @return the summary of the run
+   */
+  private String run(final Session session, final MessageProducer producer) throws JMSException, InterruptedException {
+    int values = messages * valuesPerMessage;
+    sendTimes = new long[messages];
+    latencies = new long[values];
+    received = new CountDownLatch(values);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      DataTagValueUpdate update = new DataTagValueUpdate(BenchmarkCachePopulation.PROCESS_ID, PROCESS_PIK);
+      Timestamp now = new Timestamp(System.currentTimeMillis());
+      for (int j = 0; j < valuesPerMessage; j++) {
+        long tagId = BenchmarkCachePopulation.DATA_TAG_IDS[j % BenchmarkCachePopulation.DATA_TAG_IDS.length];
+        update.addValue(SourceDataTagValue.builder()
+            .id(tagId)
+            .name("tag_" + tagId)
+            .value(i * valuesPerMessage + j)
+            .timestamp(now)
+            .daqTimestamp(now)
+            .build());
+      }
+      sendTimes[i] = System.nanoTime();
+      producer.send(converter.toMessage(update, session));
+    }
+    if (!received.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      throw new IllegalStateException(received.getCount() + " values not received after " + TIMEOUT_SECONDS + "s");
+    }
+    long elapsed = System.nanoTime() - start;
+
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    return String.format("  %.0f updates/s, latency median %.3f ms, p99 %.3f ms, max %.3f ms",
+        values / (elapsed / 1e9), sorted[values / 2] / 1e6, sorted[(int) Math.ceil(values * 0.99) - 1] / 1e6,
+        sorted[values - 1] / 1e6);
+  }
+
+  /**
+   * Records the latency of the values of the current run.
+   */
+  private final class LatencyListener implements C2monCacheListener<Tag> {
+
+    @Override
+    public void notifyElementUpdated(final Tag tag) {
+      long now = System.nanoTime();
+      if (!(tag instanceof DataTag) || !(tag.getValue() instanceof Integer)) {
+        return;
+      }
+      int value = (Integer) tag.getValue();
+      long[] runLatencies = latencies;
+      if (value < runLatencies.length && runLatencies[value] == 0) {
+        runLatencies[value] = now - sendTimes[value / valuesPerMessage];
+        received.countDown();
+      }
+    }
+
+    @Override
+    public void confirmStatus(final Tag tag) {
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/******************************************************************************
+ * Copyright (C) 2010-2019 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.server.cache.common.CacheObjectCopier;
+import cern.c2mon.server.cache.common.CloneCopier;
+import cern.c2mon.server.cache.common.SerializationCopier;
+import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.common.rule.RuleTagCacheObject;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+/**
+ * Compares the copy strategies used by {@code AbstractCache.getCopy()} on
+ * realistic cache objects.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main CacheCopyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCopyBenchmark {
+
+  private final CacheObjectCopier<DataTagCacheObject> dataTagCloneCopier = new CloneCopier<>();
+  private final CacheObjectCopier<DataTagCacheObject> dataTagSerializationCopier = new SerializationCopier<>();
+  private final CacheObjectCopier<RuleTagCacheObject> ruleTagCloneCopier = new CloneCopier<>();
+  private final CacheObjectCopier<RuleTagCacheObject> ruleTagSerializationCopier = new SerializationCopier<>();
+  private final CacheObjectCopier<AlarmCacheObject> alarmCloneCopier = new CloneCopier<>();
+  private final CacheObjectCopier<AlarmCacheObject> alarmSerializationCopier = new SerializationCopier<>();
+
+  private DataTagCacheObject dataTag;
+  private RuleTagCacheObject ruleTag;
+  private AlarmCacheObject alarm;
+
+  @Setup
+  public void setUp() {
+    dataTag = CacheObjectCreation.createTestDataTag();
+    dataTag.getMetadata().addMetadata("building", "864");
+    dataTag.getMetadata().addMetadata("responsible", "operator");
+    dataTag.getAlarmIds().add(1L);
+    dataTag.getAlarmIds().add(2L);
+
+    ruleTag = CacheObjectCreation.createTestRuleTag();
+
+    alarm = CacheObjectCreation.createTestAlarm1();
+    alarm.setSourceTimestamp(new Timestamp(System.currentTimeMillis()));
+  }
+
+  @Benchmark
+  public DataTagCacheObject dataTagClone() {
+    return dataTagCloneCopier.copy(dataTag);
+  }
+
+  @Benchmark
+  public DataTagCacheObject dataTagSerialization() {
+    return dataTagSerializationCopier.copy(dataTag);
+  }
+
+  @Benchmark
+  public RuleTagCacheObject ruleTagClone() {
+    return ruleTagCloneCopier.copy(ruleTag);
+  }
+
+  @Benchmark
+  public RuleTagCacheObject ruleTagSerialization() {
+    return ruleTagSerializationCopier.copy(ruleTag);
+  }
+
+  @Benchmark
+  public AlarmCacheObject alarmClone() {
+    return alarmCloneCopier.copy(alarm);
+  }
+
+  @Benchmark
+  public AlarmCacheObject alarmSerialization() {
+    return alarmSerializationCopier.copy(alarm);
+  }
+}
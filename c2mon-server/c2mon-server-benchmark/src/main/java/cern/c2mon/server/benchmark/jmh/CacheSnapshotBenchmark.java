@@ -0,0 +1,144 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
+import cern.c2mon.server.cache.snapshot.CacheSnapshot;
+import cern.c2mon.server.cache.snapshot.CacheSnapshotStore;
+import cern.c2mon.server.common.config.ServerProperties;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+/**
+ * Measures the writing of a data tag cache snapshot on shutdown, and its
+ * restoring on start up. To be compared with the preloading rate from the
+ * DB logged by the cache loaders.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main CacheSnapshotBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheSnapshotBenchmark {
+
+  private static final String CACHE_NAME = "dataTagCache";
+
+  @Param({"10000", "100000"})
+  private int tagCount;
+
+  private Path directory;
+
+  private CacheSnapshotStore store;
+
+  private List<DataTagCacheObject> dataTags;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("c2mon-cache-snapshot-benchmark");
+    CacheProperties properties = new CacheProperties();
+    properties.setSnapshotEnabled(true);
+    properties.setSnapshotDirectory(directory.toString());
+    store = new CacheSnapshotStore(properties, new ServerProperties(), new NoConfigurationChangeDAO());
+
+    dataTags = new ArrayList<>(tagCount);
+    for (long id = 0; id < tagCount; id++) {
+      DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+      dataTag.setId(id);
+      dataTag.setName("tag" + id);
+      dataTags.add(dataTag);
+    }
+  }
+
+  /**
+   * The snapshot is removed once read, so each restore needs a new one
+   */
+  @Setup(Level.Invocation)
+  public void writeSnapshot() {
+    store.write(CACHE_NAME, dataTags);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(directory.resolve(CACHE_NAME + ".snapshot"));
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public void write() {
+    store.write(CACHE_NAME, dataTags);
+  }
+
+  @Benchmark
+  public CacheSnapshot<DataTagCacheObject> restore() {
+    return store.read(CACHE_NAME);
+  }
+
+  private static final class NoConfigurationChangeDAO implements CacheSnapshotDAO {
+
+    @Override
+    public Timestamp getLastConfigurationChange() {
+      return null;
+    }
+
+    @Override
+    public List<Long> getTagIdsModifiedAfter(final Timestamp time) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<Long> getAlarmIdsModifiedAfter(final Timestamp time) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<Long> getProcessIdsModifiedAfter(final Timestamp time) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<Long> getEquipmentIdsModifiedAfter(final Timestamp time) {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import cern.c2mon.server.benchmark.BenchmarkCachePopulation;
+import cern.c2mon.server.cache.DataTagFacade;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.thread.Event;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+
+/**
+ * Measures {@code AbstractDataTagFacade.updateFromSource()} on the in-memory
+ * data tag cache loaded from the test database, for single values and for
+ * the batch of values of one DAQ message. Every value is new, so that no
+ * update is filtered out.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main DataTagUpdateBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataTagUpdateBenchmark {
+
+  private AnnotationConfigApplicationContext context;
+
+  private DataTagFacade dataTagFacade;
+
+  private int value;
+
+  @Setup
+  public void setUp() throws SQLException {
+    context = new AnnotationConfigApplicationContext(
+        CommonModule.class,
+        CacheModule.class,
+        CacheDbAccessModule.class,
+        CacheLoadingModule.class,
+        BenchmarkCachePopulation.class);
+    context.getBean(BenchmarkCachePopulation.class).populate();
+    dataTagFacade = context.getBean(DataTagFacade.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Event<Boolean> updateFromSource() {
+    long tagId = BenchmarkCachePopulation.DATA_TAG_IDS[value % BenchmarkCachePopulation.DATA_TAG_IDS.length];
+    return dataTagFacade.updateFromSource(tagId, createValue(tagId));
+  }
+
+  @Benchmark
+  public int updateFromSourceBatch() {
+    List<SourceDataTagValue> values = new ArrayList<>(BenchmarkCachePopulation.DATA_TAG_IDS.length);
+    for (long tagId : BenchmarkCachePopulation.DATA_TAG_IDS) {
+      values.add(createValue(tagId));
+    }
+    return dataTagFacade.updateFromSource(values);
+  }
+
+  private SourceDataTagValue createValue(final long tagId) {
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    return SourceDataTagValue.builder()
+        .id(tagId)
+        .name("tag_" + tagId)
+        .value(value++)
+        .timestamp(now)
+        .daqTimestamp(now)
+        .build();
+  }
+}
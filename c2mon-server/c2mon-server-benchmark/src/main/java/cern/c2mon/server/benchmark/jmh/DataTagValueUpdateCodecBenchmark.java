@@ -0,0 +1,120 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
+import cern.c2mon.shared.daq.datatag.DataTagValueUpdateBinaryCodec;
+
+/**
+ * Compares the JSON and binary encodings of the {@link DataTagValueUpdate}
+ * messages sent by the DAQs, for a full message frame of mixed values.
+ * The encoded sizes are printed at setup.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main DataTagValueUpdateCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataTagValueUpdateCodecBenchmark {
+
+  /** Number of values per update, 1000 being the default DAQ message frame size */
+  @Param({"10", "1000"})
+  private int values;
+
+  private ObjectMapper mapper;
+  private DataTagValueUpdateBinaryCodec codec;
+
+  private DataTagValueUpdate update;
+  private String json;
+  private byte[] binary;
+
+  @Setup
+  public void setUp() throws IOException {
+    // same configuration as the DataTagValueUpdateConverter
+    mapper = new ObjectMapper();
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    codec = new DataTagValueUpdateBinaryCodec(mapper);
+
+    update = new DataTagValueUpdate(1000L, 123456789L);
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < values; i++) {
+      SourceDataTagValue value = SourceDataTagValue.builder()
+          .id(100_000L + i)
+          .name("DAQ.EQUIPMENT.TAG_" + i)
+          .value(i % 3 == 0 ? (Object) (i * 0.25) : i % 3 == 1 ? (Object) i : (Object) (i % 2 == 0))
+          .valueDescription(i % 10 == 0 ? "value description" : "")
+          .quality(i % 20 == 0 ? new SourceDataTagQuality(SourceDataTagQualityCode.OUT_OF_BOUNDS, "out of bounds") : null)
+          .timestamp(new Timestamp(now - i))
+          .daqTimestamp(new Timestamp(now))
+          .priority(4)
+          .guaranteedDelivery(false)
+          .timeToLive(3_600_000L)
+          .build();
+      update.addValue(value);
+    }
+
+    json = mapper.writeValueAsString(update);
+    binary = codec.encode(update);
+    System.out.printf("%n%d values: JSON %d bytes (%d per value), binary %d bytes (%d per value)%n",
+        values, json.length(), json.length() / values, binary.length, binary.length / values);
+  }
+
+  @Benchmark
+  public String encodeJson() throws IOException {
+    return mapper.writeValueAsString(update);
+  }
+
+  @Benchmark
+  public byte[] encodeBinary() throws IOException {
+    return codec.encode(update);
+  }
+
+  @Benchmark
+  public DataTagValueUpdate decodeJson() throws IOException {
+    return mapper.readValue(json, DataTagValueUpdate.class);
+  }
+
+  @Benchmark
+  public DataTagValueUpdate decodeBinary() throws IOException {
+    return codec.decode(binary);
+  }
+}
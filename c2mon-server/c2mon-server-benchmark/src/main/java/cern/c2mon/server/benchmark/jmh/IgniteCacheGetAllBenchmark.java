@@ -0,0 +1,147 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.ehcache.config.IgniteCacheProperties;
+import cern.c2mon.server.ehcache.impl.IgniteCacheImpl;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+/**
+ * Compares single key reads with bulk reads on a partitioned Ignite cache,
+ * spread over several server nodes running in the benchmark JVM, as done
+ * when fetching the input tags of a rule or the tags of a client request.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main IgniteCacheGetAllBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IgniteCacheGetAllBenchmark {
+
+  private static final String DISCOVERY_ADDRESSES = "127.0.0.1:47500..47509";
+
+  private static final int CACHE_SIZE = 10_000;
+
+  /** Number of server nodes besides the one of the cache under test */
+  @Param({"2"})
+  private int remoteNodes;
+
+  @Param({"5", "50", "500"})
+  private int keyCount;
+
+  private IgniteCacheImpl<Long, DataTagCacheObject> cache;
+
+  private List<Long> keys;
+
+  @Setup
+  public void setUp() {
+    for (int i = 1; i <= remoteNodes; i++) {
+      Ignition.start(getRemoteNodeConfiguration("c2mon-ignite-benchmark-" + i));
+    }
+
+    IgniteCacheProperties properties = new IgniteCacheProperties();
+    properties.setIpFinderAddresses(Collections.singletonList(DISCOVERY_ADDRESSES));
+    properties.setDefaultRegionInitialSize(100L * 1024 * 1024);
+    properties.setDefaultRegionMaxSize(512L * 1024 * 1024);
+    cache = new IgniteCacheImpl<>("getAllBenchmarkCache", properties, new CacheConfiguration<>());
+
+    Map<Long, DataTagCacheObject> values = new TreeMap<>();
+    for (long id = 0; id < CACHE_SIZE; id++) {
+      DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+      dataTag.setId(id);
+      values.put(id, dataTag);
+    }
+    cache.putAll(values);
+
+    Random random = new Random(42);
+    keys = new ArrayList<>(keyCount);
+    for (int i = 0; i < keyCount; i++) {
+      keys.add((long) random.nextInt(CACHE_SIZE));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    Ignition.stopAll(true);
+  }
+
+  @Benchmark
+  public List<DataTagCacheObject> getOneByOne() {
+    List<DataTagCacheObject> result = new ArrayList<>(keys.size());
+    for (Long key : keys) {
+      result.add(cache.get(key));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Map<Long, DataTagCacheObject> getAll() {
+    return cache.getAll(keys);
+  }
+
+  private static IgniteConfiguration getRemoteNodeConfiguration(final String instanceName) {
+    TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+    ipFinder.setAddresses(Collections.singletonList(DISCOVERY_ADDRESSES));
+    TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+    discoverySpi.setIpFinder(ipFinder);
+
+    DataRegionConfiguration defaultRegion = new DataRegionConfiguration();
+    defaultRegion.setInitialSize(100L * 1024 * 1024);
+    defaultRegion.setMaxSize(512L * 1024 * 1024);
+    DataStorageConfiguration storageCfg = new DataStorageConfiguration();
+    storageCfg.setDefaultDataRegionConfiguration(defaultRegion);
+
+    IgniteConfiguration config = new IgniteConfiguration();
+    config.setIgniteInstanceName(instanceName);
+    config.setPeerClassLoadingEnabled(false);
+    config.setDiscoverySpi(discoverySpi);
+    config.setDataStorageConfiguration(storageCfg);
+    return config;
+  }
+}
@@ -0,0 +1,90 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import cern.c2mon.server.benchmark.BenchmarkCachePopulation;
+import cern.c2mon.server.cache.DataTagCache;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.rule.config.RuleModule;
+import cern.c2mon.server.rule.evaluation.RuleEvaluatorImpl;
+
+/**
+ * Measures {@link RuleEvaluatorImpl#evaluateRules} for a data tag of the test
+ * database used as input by 7 rules, each with 3 input tags. The rule results
+ * are buffered and written to the in-memory rule cache by the rule update
+ * buffer, as in the server.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main RuleEvaluationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEvaluationBenchmark {
+
+  private AnnotationConfigApplicationContext context;
+
+  private RuleEvaluatorImpl ruleEvaluator;
+
+  private DataTag inputTag;
+
+  @Setup
+  public void setUp() throws SQLException {
+    context = new AnnotationConfigApplicationContext(
+        CommonModule.class,
+        CacheModule.class,
+        CacheDbAccessModule.class,
+        CacheLoadingModule.class,
+        RuleModule.class,
+        BenchmarkCachePopulation.class);
+    context.getBean(BenchmarkCachePopulation.class).populate();
+    ruleEvaluator = context.getBean(RuleEvaluatorImpl.class);
+    inputTag = context.getBean(DataTagCache.class).getCopy(BenchmarkCachePopulation.RULE_INPUT_TAG_ID);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void evaluateRules() {
+    ruleEvaluator.evaluateRules(inputTag);
+  }
+}
@@ -0,0 +1,98 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import cern.c2mon.server.benchmark.BenchmarkCachePopulation;
+import cern.c2mon.server.cache.DataTagCache;
+import cern.c2mon.server.cache.EquipmentCache;
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.SubEquipmentCache;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.elasticsearch.tag.TagDocument;
+import cern.c2mon.server.elasticsearch.tag.TagDocumentConverter;
+
+/**
+ * Measures {@link TagDocumentConverter#convert}, which builds the tag history
+ * documents indexed in Elasticsearch, including the look-up of the process
+ * and equipment names in the in-memory caches.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main TagDocumentConverterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagDocumentConverterBenchmark {
+
+  private AnnotationConfigApplicationContext context;
+
+  private TagDocumentConverter converter;
+
+  private DataTagCacheObject dataTag;
+
+  @Setup
+  public void setUp() throws SQLException {
+    context = new AnnotationConfigApplicationContext(
+        CommonModule.class,
+        CacheModule.class,
+        CacheDbAccessModule.class,
+        CacheLoadingModule.class,
+        BenchmarkCachePopulation.class);
+    context.getBean(BenchmarkCachePopulation.class).populate();
+    converter = new TagDocumentConverter(context.getBean(ProcessCache.class), context.getBean(EquipmentCache.class),
+        context.getBean(SubEquipmentCache.class));
+
+    dataTag = (DataTagCacheObject) context.getBean(DataTagCache.class).getCopy(BenchmarkCachePopulation.RULE_INPUT_TAG_ID);
+    dataTag.setValue(42);
+    dataTag.getDataTagQuality().validate();
+    dataTag.getMetadata().addMetadata("building", "864");
+    dataTag.getMetadata().addMetadata("responsible", "operator");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<TagDocument> convert() {
+    return converter.convert(dataTag);
+  }
+}
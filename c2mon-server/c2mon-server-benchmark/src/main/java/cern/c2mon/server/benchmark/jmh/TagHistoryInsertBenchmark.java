@@ -0,0 +1,124 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import cern.c2mon.pmanager.persistence.exception.IDBPersistenceException;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.command.config.CommandModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.daq.config.DaqModule;
+import cern.c2mon.server.history.config.HistoryModule;
+import cern.c2mon.server.history.dao.LoggerDAO;
+import cern.c2mon.server.history.mapper.TagRecordMapper;
+import cern.c2mon.server.history.structure.TagRecord;
+import cern.c2mon.server.history.structure.TagRecordConverter;
+import cern.c2mon.server.supervision.config.SupervisionModule;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+/**
+ * Measures the batch inserts of tag history records by the {@link LoggerDAO}
+ * into the embedded history database (in-memory HSQL with the default
+ * configuration). The time is per batch; the written records are removed
+ * after each iteration.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main TagHistoryInsertBenchmark}.
+ * Point {@code c2mon.server.history.jdbc.url} to another database to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagHistoryInsertBenchmark {
+
+  /** Number of records written in one call */
+  @Param({"1", "100", "1000"})
+  private int batchSize;
+
+  private AnnotationConfigApplicationContext context;
+
+  private LoggerDAO<TagRecord> loggerDAO;
+
+  private TagRecordMapper tagRecordMapper;
+
+  private Long tagId;
+
+  private List<TagRecord> records;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    context = new AnnotationConfigApplicationContext(
+        CommonModule.class,
+        CacheModule.class,
+        CacheDbAccessModule.class,
+        CacheLoadingModule.class,
+        SupervisionModule.class,
+        CommandModule.class,
+        DaqModule.class,
+        HistoryModule.class);
+    loggerDAO = context.getBean("tagLoggerDAO", LoggerDAO.class);
+    tagRecordMapper = context.getBean(TagRecordMapper.class);
+    TagRecordConverter tagRecordConverter = context.getBean(TagRecordConverter.class);
+
+    records = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+      dataTag.setValue(i);
+      records.add((TagRecord) tagRecordConverter.convertToLogged(dataTag));
+    }
+    tagId = records.get(0).getTagId();
+  }
+
+  @TearDown(Level.Iteration)
+  public void removeRecords() {
+    tagRecordMapper.deleteDataTagLog(tagId);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void storeData() throws IDBPersistenceException {
+    loggerDAO.storeData(records);
+  }
+}
@@ -0,0 +1,109 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.server.client.util.TransferObjectFactory;
+import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.alarm.TagWithAlarms;
+import cern.c2mon.server.common.alarm.TagWithAlarmsImpl;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.client.serializer.TransferTagSerializer;
+import cern.c2mon.shared.client.tag.TransferTagValueImpl;
+
+/**
+ * Measures the JSON serialization of the tag updates published to the
+ * clients by the {@code TagValuePublisher}, one update per message and a
+ * batch of updates per message.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main TagValueSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagValueSerializationBenchmark {
+
+  /** Number of updates published in one batch message */
+  @Param({"100"})
+  private int batchSize;
+
+  private TagWithAlarms tagWithAlarms;
+
+  private List<TagWithAlarms> batch;
+
+  @Setup
+  public void setUp() {
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(createTagWithAlarms(100_000L + i));
+    }
+    tagWithAlarms = batch.get(0);
+  }
+
+  @Benchmark
+  public String serialize() {
+    TransferTagValueImpl tagValue = TransferObjectFactory.createTransferTagValue(tagWithAlarms);
+    return TransferTagSerializer.toJson(tagValue);
+  }
+
+  @Benchmark
+  public String serializeBatch() {
+    List<TransferTagValueImpl> tagValues = new ArrayList<>(batch.size());
+    for (TagWithAlarms update : batch) {
+      tagValues.add(TransferObjectFactory.createTransferTagValue(update));
+    }
+    return TransferTagSerializer.toJson(tagValues);
+  }
+
+  private static TagWithAlarms createTagWithAlarms(final long tagId) {
+    DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+    dataTag.setId(tagId);
+    dataTag.getMetadata().addMetadata("building", "864");
+    dataTag.getMetadata().addMetadata("responsible", "operator");
+
+    AlarmCacheObject alarm1 = CacheObjectCreation.createTestAlarm1();
+    AlarmCacheObject alarm2 = CacheObjectCreation.createTestAlarm3();
+    for (AlarmCacheObject alarm : Arrays.asList(alarm1, alarm2)) {
+      alarm.setDataTagId(tagId);
+      alarm.setSourceTimestamp(new Timestamp(System.currentTimeMillis()));
+      dataTag.getAlarmIds().add(alarm.getId());
+    }
+    return new TagWithAlarmsImpl(dataTag, Arrays.<Alarm>asList(alarm1, alarm2));
+  }
+}
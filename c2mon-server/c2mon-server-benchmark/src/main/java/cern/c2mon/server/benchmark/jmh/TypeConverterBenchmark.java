@@ -0,0 +1,102 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cern.c2mon.shared.common.type.TypeConverter;
+
+/**
+ * Measures the {@link TypeConverter} casts done for every incoming tag value,
+ * for every pair of supported source and target data types.
+ *
+ * <p>Run with {@code java -cp <benchmark classpath> org.openjdk.jmh.Main TypeConverterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeConverterBenchmark {
+
+  @Param({"Boolean", "Byte", "Short", "Integer", "Long", "Float", "Double", "String"})
+  private String sourceType;
+
+  @Param({"Boolean", "Byte", "Short", "Integer", "Long", "Float", "Double", "String"})
+  private String targetType;
+
+  private Object value;
+
+  private Class<?> targetClass;
+
+  @Setup
+  public void setUp() {
+    // a value which can be converted to all target types
+    switch (sourceType) {
+      case "Boolean":
+        value = Boolean.TRUE;
+        break;
+      case "Byte":
+        value = (byte) 1;
+        break;
+      case "Short":
+        value = (short) 1;
+        break;
+      case "Integer":
+        value = 1;
+        break;
+      case "Long":
+        value = 1L;
+        break;
+      case "Float":
+        value = 1f;
+        break;
+      case "Double":
+        value = 1d;
+        break;
+      default:
+        value = "1";
+    }
+    targetClass = TypeConverter.getType(targetType);
+  }
+
+  /**
+   * The cast done by the data tag facade, including the lookup of the data type name
+   */
+  @Benchmark
+  public Object castByName() {
+    return TypeConverter.cast(value, targetType);
+  }
+
+  @Benchmark
+  public Object castToType() {
+    return TypeConverter.castToType(value, targetClass);
+  }
+}
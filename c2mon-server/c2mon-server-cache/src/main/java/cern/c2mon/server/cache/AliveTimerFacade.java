@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.List;
+
 import cern.c2mon.server.common.alive.AliveTimer;
 import cern.c2mon.server.common.equipment.AbstractEquipment;
 import cern.c2mon.server.common.process.Process;
@@ -83,6 +85,34 @@ public interface AliveTimerFacade {
    */
   boolean hasExpired(Long aliveTimerId);
 
+  /**
+   * Removes from the expiry index, and returns, the active alive timers whose
+   * expiration deadline ("alive interval" + 1/3 "alive interval" after their
+   * last update) is before the given time. Only the timers started, stopped
+   * or updated on this server are indexed.
+   *
+   * <p>The returned timers should be checked with {@link #stopIfExpired(Long)},
+   * as they may have been updated on another server, in which case they are
+   * put back in the index.
+   *
+   * @param time the current time
+   * @return the ids of the due alive timers, by increasing deadline
+   */
+  List<Long> pollDueTimers(long time);
+
+  /**
+   * Stops the AliveTimer if it is active and has expired. The check and the
+   * stop are made under the write lock of the timer, so a given expiration is
+   * only reported to a single caller. The expiration deadline of a timer
+   * which is still running is updated in the expiry index.
+   *
+   * @param aliveTimerId the AliveTimer id of the cache object
+   * @return true if the AliveTimer was stopped by this call
+   * @throws cern.c2mon.server.cache.exception.CacheElementNotFoundException
+   * if the AliveTimer is not in the cache
+   */
+  boolean stopIfExpired(Long aliveTimerId);
+
   /**
    * Generates the alive object and inserts it into the cache.
    * @param abstractEquipment for which the alive timer should be created in the cache 
@@ -16,7 +16,10 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 
@@ -42,12 +45,26 @@ public interface C2monCache<K, T> {
    */
   void put(K key, T value);
 
+  /**
+   * Puts all passed objects in the cache with a single bulk operation.
+   * @param values the cache objects, mapped by their key (preferably sorted by key)
+   */
+  void putAll(Map<K, T> values);
+
   /**
    * Returns the list of keys of all elements in the cache.
    * @return a list of cache id's
    */
   List<K> getKeys();
 
+  /**
+   * Calls the action for each key of the cache, without first collecting all
+   * the keys in a list as {@link #getKeys()} does. The keys added or removed
+   * during the iteration may or may not be visited.
+   * @param action the action to call for each key
+   */
+  void forEachKey(Consumer<K> action);
+
   /**
    * Checks if the given cache has an element with the passed key.
    * @param id the id to look for
@@ -112,7 +129,32 @@ public interface C2monCache<K, T> {
    */
   T getCopy(K id);
 
+  /**
+   * Get References to several objects in the cache, with a single bulk
+   * access to the underlying cache. Unlike {@link #get(Object)}, this method
+   * does not throw an exception for the ids which are not found.
+   *
+   * @param ids the ids (keys) of the cache elements
+   * @return the references to the objects stored in the cache, by id; the ids
+   * which are not found in the cache are omitted
+   * @throws IllegalArgumentException if one of the ids is null
+   */
+  Map<K, T> getAll(Collection<K> ids);
 
+  /**
+   * Returns clones of several objects in the cache, each one read and cloned
+   * under the read lock of its key as in {@link #getCopy(Object)}. This takes
+   * one cache access per object, unless the cache has no key locks, in which
+   * case all objects are read with a single bulk access. Unlike
+   * {@link #getCopy(Object)}, this method does not throw an exception for the
+   * ids which are not found.
+   *
+   * @param ids the ids of the objects in the cache
+   * @return the copies of the cache objects, by id; the ids which are not found
+   * in the cache are omitted
+   * @throws IllegalArgumentException if one of the ids is null
+   */
+  Map<K, T> getCopyAll(Collection<K> ids);
 
   /**
    * Puts the passed value into the cache quietly.
@@ -134,6 +176,10 @@ public interface C2monCache<K, T> {
    * Can also be called on a non-existent key, before
    * inserting the element for instance.
    *
+   * <p>A thread holding locks on several caches must take them in the
+   * same order as all other threads: a tag is always locked before any
+   * of its alarms.
+   *
    * @param id key of the cache object
    */
   void acquireWriteLockOnKey(K id);
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.Collection;
+
 import cern.c2mon.shared.common.Cacheable;
 
 
@@ -37,6 +39,20 @@ public interface C2monCacheListener<T extends Cacheable> {
    * 
    */
   void notifyElementUpdated(T cacheable);
+
+  /**
+   * Callback when several cache objects were modified in one go (for instance
+   * a batch of updates received from a DAQ). By default this calls
+   * {@link #notifyElementUpdated(Cacheable)} for each object in turn; listeners
+   * that can handle the whole batch at once should override it.
+   *
+   * @param cacheables the objects that have been updated, in update order
+   */
+  default void notifyElementsUpdated(Collection<? extends T> cacheables) {
+    for (T cacheable : cacheables) {
+      notifyElementUpdated(cacheable);
+    }
+  }
   
   /**
    * Callback used for confirming the value of the cache object. This is
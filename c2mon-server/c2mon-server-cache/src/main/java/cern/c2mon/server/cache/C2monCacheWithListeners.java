@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.Collection;
+
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.shared.common.Cacheable;
 import cern.c2mon.shared.daq.lifecycle.Lifecycle;
@@ -115,6 +117,14 @@ public interface C2monCacheWithListeners<K, T extends Cacheable> extends C2monCa
    * (a copy is passed; should not be modified as shared across listeners)
    */
   void notifyListenersOfUpdate(T cacheable);
+
+  /**
+   * Same as {@link #notifyListenersOfUpdate(Cacheable)} for a batch of updated
+   * objects, which are passed to each listener in a single call.
+   *
+   * @param cacheables the cache objects that have been updated
+   */
+  void notifyListenersOfBatchUpdate(Collection<T> cacheables);
   
   /**
    * Loads the cache element from the DB into the cache. Any existing cache element will
@@ -17,6 +17,7 @@
 package cern.c2mon.server.cache;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.Properties;
 
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
@@ -69,6 +70,18 @@ public interface DataTagFacade extends CommonTagFacade<DataTag> {
    * @throws CacheElementNotFoundException if the Tag cannot be found in the cache
    */
   Event<Boolean> updateFromSource(Long dataTagId, SourceDataTagValue sourceDataTagValue);
+
+  /**
+   * Applies all values of a DAQ message in one pass: the values are applied in
+   * ascending tag id order, the updated tags are put back in the cache with a single
+   * bulk operation and the listeners are notified once for the whole batch.
+   *
+   * <p>Values for unknown tags are ignored.
+   *
+   * @param sourceDataTagValues the values received from the data acquisition layer
+   * @return the number of values that were not filtered out
+   */
+  int updateFromSource(Collection<SourceDataTagValue> sourceDataTagValues);
   
   /**
    * Same as other updateAndValidate method but takes a tag id as parameter and does the cache lookup
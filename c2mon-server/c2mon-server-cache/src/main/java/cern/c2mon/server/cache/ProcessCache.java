@@ -58,6 +58,8 @@ public interface ProcessCache extends C2monCacheWithListeners<Long, Process> {
 
   /**
    * Retrieve the number of tags currently configured for a given process.
+   * The tags are counted in the database; see {@link TagQualityCounters}
+   * for counts without database access.
    *
    * @param processId the ID of the process
    * @return the number of tags configured for the process
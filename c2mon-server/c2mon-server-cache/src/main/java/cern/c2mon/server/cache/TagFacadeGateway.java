@@ -17,6 +17,7 @@
 package cern.c2mon.server.cache;
 
 import java.util.Collection;
+import java.util.Map;
 
 import cern.c2mon.server.common.alarm.TagWithAlarms;
 import cern.c2mon.server.common.tag.Tag;
@@ -40,6 +41,18 @@ public interface TagFacadeGateway extends CommonTagFacade<Tag> {
    */
   Collection<TagWithAlarms> getTagsWithAlarms(String regex);
   
+  /**
+   * Return the Tags with the given ids, with associated evaluated Alarms
+   * corresponding to the Tag value. As in {@link #getTagWithAlarms(Long)},
+   * each Tag is read together with its Alarms under the read lock of the
+   * Tag. A frozen copy is returned.
+   * 
+   * @param ids the Tag ids
+   * @return the Tags and Alarms by Tag id, in the iteration order of the ids;
+   *         the ids which are not found in any tag cache are omitted
+   */
+  Map<Long, TagWithAlarms> getTagsWithAlarms(Collection<Long> ids);
+  
   /**
    * Determines whether one of the tag caches already contains
    * an element with the specified id (looks in rule, control
@@ -17,6 +17,7 @@
 package cern.c2mon.server.cache;
 
 import java.util.Collection;
+import java.util.Map;
 
 import cern.c2mon.server.common.tag.Tag;
 
@@ -63,6 +64,28 @@ public interface TagLocationService {
    */
   Tag get(Long id);
   
+  /**
+   * Returns copies of the tags located in any of the data, rule or control tag
+   * cache, each cache only being queried for the tags not found in the
+   * previous ones.
+   * 
+   * @param ids the Tag ids
+   * @return copies of the Tag objects in the cache, by id; the ids which are
+   *         not found in any tag cache are omitted
+   */
+  Map<Long, Tag> getCopyAll(Collection<Long> ids);
+  
+  /**
+   * Returns copies of the tags located in any of the data, rule or control tag
+   * cache, each cache only being queried for the tags not found in the
+   * previous ones.
+   * 
+   * @param ids the Tag ids
+   * @return references to the Tag objects in the cache, by id; the ids which
+   *         are not found in any tag cache are omitted
+   */
+  Map<Long, Tag> getAll(Collection<Long> ids);
+  
   /**
    * A {@link Tag} can also be retrieved with its unique name
    * that has to correspond to {@link Tag#getName()}. Please
@@ -0,0 +1,55 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache;
+
+/**
+ * Number of data tags and of invalid data tags per process and per equipment,
+ * maintained in memory from the updates of the {@link DataTagCache}. Unlike
+ * {@link ProcessCache#getNumTags(Long)} and
+ * {@link ProcessCache#getNumInvalidTags(Long)}, the counts are read without
+ * accessing the database.
+ *
+ * <p>Data tags attached to a sub-equipment are counted under the
+ * sub-equipment id. The number of valid tags is the difference between the
+ * two counts.
+ */
+public interface TagQualityCounters {
+
+  /**
+   * @param processId the ID of the process
+   * @return the number of data tags configured for the process
+   */
+  int getNumTagsOfProcess(Long processId);
+
+  /**
+   * @param processId the ID of the process
+   * @return the number of invalid data tags configured for the process
+   */
+  int getNumInvalidTagsOfProcess(Long processId);
+
+  /**
+   * @param equipmentId the ID of the equipment or sub-equipment
+   * @return the number of data tags attached to the equipment
+   */
+  int getNumTagsOfEquipment(Long equipmentId);
+
+  /**
+   * @param equipmentId the ID of the equipment or sub-equipment
+   * @return the number of invalid data tags attached to the equipment
+   */
+  int getNumInvalidTagsOfEquipment(Long equipmentId);
+}
@@ -20,8 +20,10 @@ import cern.c2mon.server.cache.AlarmCache;
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.alarm.query.AlarmQuery;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
 import cern.c2mon.server.cache.config.CacheProperties;
 import cern.c2mon.server.cache.loading.AlarmLoaderDAO;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.common.alarm.Alarm;
 import cern.c2mon.server.common.config.C2monCacheName;
@@ -31,7 +33,9 @@ import cern.c2mon.shared.client.alarm.AlarmQueryFilter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
 import java.util.Collection;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +69,7 @@ public class AlarmCacheImpl extends AbstractCache<Long, Alarm> implements AlarmC
                         final CacheProperties properties,
                         @Qualifier("alarmQuery") final AlarmQuery alarmQuery) {
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+    setCopier(new CloneCopier<>());
     this.alarmQuery = alarmQuery;
   }
 
@@ -86,6 +91,11 @@ public class AlarmCacheImpl extends AbstractCache<Long, Alarm> implements AlarmC
     //do nothing
   }
 
+  @Override
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return cacheSnapshotDAO.getAlarmIdsModifiedAfter(time);
+  }
+
   @Override
   protected C2monCacheName getCacheName() {
     return C2monCacheName.ALARM;
@@ -245,15 +245,22 @@ public class AlarmFacadeImpl extends AbstractFacade<Alarm> implements AlarmFacad
 
   @Override
   public void evaluateAlarm(Long alarmId) {
-    alarmCache.acquireWriteLockOnKey(alarmId);
+    // the tag of an alarm cannot be changed; as on tag updates, the tag is
+    // locked before the alarm
+    Long tagId = alarmCache.get(alarmId).getTagId();
     Tag tagCopy;
+    tagLocationService.acquireReadLockOnKey(tagId);
     try {
-      Alarm alarm = alarmCache.getCopy(alarmId);
-      tagCopy = tagLocationService.getCopy(alarm.getTagId());
-      
-      alarmCacheUpdater.update(alarm, tagCopy);
+      tagCopy = tagLocationService.getCopy(tagId);
+      alarmCache.acquireWriteLockOnKey(alarmId);
+      try {
+        Alarm alarm = alarmCache.getCopy(alarmId);
+        alarmCacheUpdater.update(alarm, tagCopy);
+      } finally {
+        alarmCache.releaseWriteLockOnKey(alarmId);
+      }
     } finally {
-      alarmCache.releaseWriteLockOnKey(alarmId);
+      tagLocationService.releaseReadLockOnKey(tagId);
     }
     
     alarmAggregatorNotifier.notifyOnUpdate(tagCopy, getAlarms(tagCopy));
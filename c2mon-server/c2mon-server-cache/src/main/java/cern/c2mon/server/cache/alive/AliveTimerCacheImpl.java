@@ -30,6 +30,7 @@ import org.springframework.stereotype.Service;
 import cern.c2mon.server.cache.AliveTimerCache;
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.common.alive.AliveTimer;
@@ -52,6 +53,7 @@ public class AliveTimerCacheImpl extends AbstractCache<Long, AliveTimer> impleme
                              @Qualifier("aliveTimerDAO") final SimpleCacheLoaderDAO<AliveTimer> cacheLoaderDAO,
                              final CacheProperties properties) {
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+    setCopier(new CloneCopier<>());
   }
 
   /**
@@ -0,0 +1,145 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.alive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Expiration deadlines of the active alive timers, ordered by deadline, so
+ * that the expired timers can be found without looking at all the others.
+ *
+ * <p>A timer has at most one deadline in the index: scheduling it again
+ * replaces its previous deadline. All methods are thread-safe; the updates
+ * of a single timer are atomic.
+ */
+final class AliveTimerExpiryIndex {
+
+  /** Current deadline of each indexed timer */
+  private final ConcurrentHashMap<Long, Long> deadlines = new ConcurrentHashMap<>();
+
+  /** The same deadlines, ordered by time */
+  private final ConcurrentSkipListSet<Deadline> queue = new ConcurrentSkipListSet<>();
+
+  /**
+   * Sets the deadline of a timer, replacing the previous one if any.
+   *
+   * @param id the alive timer id
+   * @param deadline the time (in ms) after which the timer is expired
+   */
+  void schedule(final Long id, final long deadline) {
+    deadlines.compute(id, (key, previous) -> {
+      if (previous != null) {
+        queue.remove(new Deadline(previous, key));
+      }
+      queue.add(new Deadline(deadline, key));
+      return deadline;
+    });
+  }
+
+  /**
+   * Removes the deadline of a timer, if any.
+   *
+   * @param id the alive timer id
+   */
+  void cancel(final Long id) {
+    deadlines.computeIfPresent(id, (key, previous) -> {
+      queue.remove(new Deadline(previous, key));
+      return null;
+    });
+  }
+
+  /**
+   * Removes from the index all the timers with a deadline before the given
+   * time.
+   *
+   * @param time the current time
+   * @return the ids of the removed timers, by increasing deadline
+   */
+  List<Long> pollDue(final long time) {
+    List<Long> due = new ArrayList<>();
+    Deadline first;
+    while ((first = firstDeadline()) != null && first.time < time) {
+      final Deadline candidate = first;
+      deadlines.compute(candidate.id, (key, deadline) -> {
+        queue.remove(candidate);
+        if (deadline == null || deadline != candidate.time) {
+          // cancelled or rescheduled in the meantime
+          return deadline;
+        }
+        due.add(key);
+        return null;
+      });
+    }
+    return due;
+  }
+
+  /**
+   * @return the earliest deadline of the index, or {@link Long#MAX_VALUE} if it is empty
+   */
+  long nextDeadline() {
+    Deadline first = firstDeadline();
+    return first == null ? Long.MAX_VALUE : first.time;
+  }
+
+  /**
+   * @return the number of indexed timers
+   */
+  int size() {
+    return deadlines.size();
+  }
+
+  private Deadline firstDeadline() {
+    return queue.isEmpty() ? null : queue.ceiling(Deadline.MIN);
+  }
+
+  private static final class Deadline implements Comparable<Deadline> {
+
+    private static final Deadline MIN = new Deadline(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final long time;
+
+    private final long id;
+
+    private Deadline(final long time, final long id) {
+      this.time = time;
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(final Deadline other) {
+      int result = Long.compare(time, other.time);
+      return result != 0 ? result : Long.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Deadline)) {
+        return false;
+      }
+      Deadline other = (Deadline) obj;
+      return time == other.time && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(time) * 31 + Long.hashCode(id);
+    }
+  }
+}
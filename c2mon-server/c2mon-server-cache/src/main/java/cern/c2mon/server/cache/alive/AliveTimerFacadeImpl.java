@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.alive;
 
+import java.util.List;
+
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -42,6 +44,11 @@ public class AliveTimerFacadeImpl implements AliveTimerFacade {
   private static final String CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS = "Cannot locate the AliveTimer in the cache (Id is ";
 private AliveTimerCache aliveTimerCache;
 
+  /**
+   * Expiration deadlines of the active timers updated on this server.
+   */
+  private final AliveTimerExpiryIndex expiryIndex = new AliveTimerExpiryIndex();
+
   @Autowired
   public AliveTimerFacadeImpl(AliveTimerCache aliveTimerCache) {
     super();
@@ -60,6 +67,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(aliveId);
       update(aliveTimer);
       aliveTimerCache.put(aliveId, aliveTimer);
+      updateDeadline(aliveTimer);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + aliveId + ") - unable to update it.", cacheEx);
     } catch (Exception e) {
@@ -98,6 +106,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(id);
       start(aliveTimer);
       aliveTimerCache.put(id, aliveTimer);
+      updateDeadline(aliveTimer);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + id + ") - unable to start it.");
     } catch (Exception e) {
@@ -132,6 +141,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(id);
       stop(aliveTimer);
       aliveTimerCache.put(id, aliveTimer);
+      updateDeadline(aliveTimer);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + id + ") - unable to stop it.");
     } catch (Exception e) {
@@ -168,12 +178,56 @@ private AliveTimerCache aliveTimerCache;
     aliveTimerCache.acquireReadLockOnKey(aliveTimerId);
     try {
         AliveTimer aliveTimer = aliveTimerCache.get(aliveTimerId);
-        return (System.currentTimeMillis() - aliveTimer.getLastUpdate() > aliveTimer.getAliveInterval() + aliveTimer.getAliveInterval() / 3);
+        return hasExpired(aliveTimer);
     } finally {
       aliveTimerCache.releaseReadLockOnKey(aliveTimerId);
     }
   }
 
+  private static boolean hasExpired(final AliveTimer aliveTimer) {
+    return (System.currentTimeMillis() - aliveTimer.getLastUpdate() > aliveTimer.getAliveInterval() + aliveTimer.getAliveInterval() / 3);
+  }
+
+  @Override
+  public List<Long> pollDueTimers(final long time) {
+    return expiryIndex.pollDue(time);
+  }
+
+  @Override
+  public boolean stopIfExpired(final Long aliveTimerId) {
+    aliveTimerCache.acquireWriteLockOnKey(aliveTimerId);
+    try {
+      AliveTimer aliveTimer = aliveTimerCache.get(aliveTimerId);
+      boolean stopped = false;
+      if (aliveTimer.isActive() && hasExpired(aliveTimer)) {
+        log.debug("Stopping expired alive timer " + aliveTimerId);
+        stop(aliveTimer);
+        aliveTimerCache.put(aliveTimerId, aliveTimer);
+        stopped = true;
+      }
+      updateDeadline(aliveTimer);
+      return stopped;
+    } catch (CacheElementNotFoundException cacheEx) {
+      expiryIndex.cancel(aliveTimerId);
+      throw cacheEx;
+    } finally {
+      aliveTimerCache.releaseWriteLockOnKey(aliveTimerId);
+    }
+  }
+
+  /**
+   * Keeps the expiry index in line with the alive timer: active timers are
+   * indexed with the time after which {@link #hasExpired(Long)} becomes true.
+   */
+  private void updateDeadline(final AliveTimer aliveTimer) {
+    if (aliveTimer.isActive() && aliveTimer.getAliveInterval() != null) {
+      int aliveInterval = aliveTimer.getAliveInterval();
+      expiryIndex.schedule(aliveTimer.getId(), aliveTimer.getLastUpdate() + aliveInterval + aliveInterval / 3);
+    } else {
+      expiryIndex.cancel(aliveTimer.getId());
+    }
+  }
+
   @Override
   public void startAllTimers() {
     log.debug("Starting all alive timers in cache.");
@@ -209,6 +263,7 @@ private AliveTimerCache aliveTimerCache;
     AliveTimer aliveTimer = new AliveTimerCacheObject(abstractEquipment.getAliveTagId(), abstractEquipment.getId(), abstractEquipment.getName(),
                                                       abstractEquipment.getStateTagId(), type, abstractEquipment.getAliveInterval());
     aliveTimerCache.put(aliveTimer.getId(), aliveTimer);
+    expiryIndex.cancel(aliveTimer.getId());
   }
 
   @Override
@@ -216,6 +271,7 @@ private AliveTimerCache aliveTimerCache;
     AliveTimer aliveTimer = new AliveTimerCacheObject(process.getAliveTagId(), process.getId(), process.getName(),
         process.getStateTagId(), AliveTimer.ALIVE_TYPE_PROCESS, process.getAliveInterval());
     aliveTimerCache.put(aliveTimer.getId(), aliveTimer);
+    expiryIndex.cancel(aliveTimer.getId());
   }
 
 }
@@ -16,12 +16,13 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.common;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import cern.c2mon.server.cache.config.CacheProperties;
@@ -32,6 +33,7 @@ import cern.c2mon.server.ehcache.Element;
 import cern.c2mon.server.ehcache.event.RegisteredEventListeners;
 import cern.c2mon.server.ehcache.loader.CacheLoader;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 
 import cern.c2mon.server.cache.C2monBufferedCacheListener;
@@ -42,7 +44,10 @@ import cern.c2mon.server.cache.listener.BufferedKeyCacheListener;
 import cern.c2mon.server.cache.listener.CacheListener;
 import cern.c2mon.server.cache.listener.DefaultBufferedCacheListener;
 import cern.c2mon.server.cache.listener.MultiThreadedCacheListener;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
+import cern.c2mon.server.cache.snapshot.CacheSnapshot;
+import cern.c2mon.server.cache.snapshot.CacheSnapshotStore;
 import cern.c2mon.server.common.config.C2monCacheName;
 import cern.c2mon.shared.common.Cacheable;
 import cern.c2mon.shared.daq.lifecycle.Lifecycle;
@@ -102,6 +107,19 @@ private final CacheProperties properties;
    */
   private RegisteredEventListeners registeredEventListeners; //only for monitoring
 
+  /**
+   * Strategy used for creating the deep copies returned by {@link #getCopy(Object)}.
+   * Defaults to serialization; caches with deep-cloneable objects should
+   * register a faster strategy with {@link #setCopier(CacheObjectCopier)}.
+   */
+  private CacheObjectCopier<T> copier = new SerializationCopier<>();
+
+  /**
+   * Local snapshots of the caches, used instead of the DB preloading after a
+   * clean shutdown. Not set when the caches are created outside of Spring.
+   */
+  private CacheSnapshotStore snapshotStore;
+
   public AbstractCache(final ClusterCache clusterCache,
                        final Ehcache cache,
                        final CacheLoader cacheLoader,
@@ -176,49 +194,128 @@ private final CacheProperties properties;
     }
 
     if (loadCache) {
-      log.info("Preloading cache from DB: " + getCacheName());
-      getC2monCacheLoader().preload();
+      if (!restoreSnapshot()) {
+        log.info("Preloading cache from DB: " + getCacheName());
+        getC2monCacheLoader().preload();
+      }
     } else {
       log.info("No preloading necessary: " + getCacheName());
     }
   }
 
+  /**
+   * Sets the store of the local cache snapshots.
+   *
+   * @param snapshotStore the snapshot store
+   */
+  @Autowired(required = false)
+  public void setSnapshotStore(final CacheSnapshotStore snapshotStore) {
+    this.snapshotStore = snapshotStore;
+  }
+
+  /**
+   * Returns the ids of the cache objects updated in the DB after the given
+   * time, which must be reloaded when the cache is restored from a snapshot
+   * taken at that time. Caches whose objects are only changed by
+   * configurations do not need to override this method, as a snapshot is
+   * never used after a configuration change.
+   *
+   * @param cacheSnapshotDAO the DAO for querying the updated cache objects
+   * @param time the time of the snapshot
+   * @return the ids of the objects updated after the snapshot
+   */
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Restores the cache from its local snapshot, if snapshots are enabled and
+   * a valid snapshot is available, then reloads the cache objects updated in
+   * the DB since the snapshot.
+   *
+   * @return true if the cache was restored, false if it must be preloaded
+   * from the DB
+   */
+  @SuppressWarnings("unchecked")
+  private boolean restoreSnapshot() {
+    if (snapshotStore == null || !snapshotStore.isEnabled()) {
+      return false;
+    }
+    long start = System.currentTimeMillis();
+    CacheSnapshot<T> snapshot = snapshotStore.read(cache.getName());
+    if (snapshot == null) {
+      return false;
+    }
+
+    for (T cacheObject : snapshot.getObjects()) {
+      cache.putQuiet((K) cacheObject.getId(), cacheObject);
+    }
+
+    int reconciled = 0;
+    try {
+      for (Long id : getIdsModifiedAfter(snapshotStore.getCacheSnapshotDAO(), new Timestamp(snapshot.getTime()))) {
+        K key = (K) id;
+        T cacheObject = getFromDb(key);
+        if (cacheObject != null) {
+          doPostDbLoading(cacheObject);
+          cache.putQuiet(key, cacheObject);
+        } else {
+          cache.remove(key);
+        }
+        reconciled++;
+      }
+    } catch (RuntimeException e) {
+      log.error("Unable to reconcile cache " + getCacheName() + " with the DB, preloading it from the DB instead", e);
+      for (T cacheObject : snapshot.getObjects()) {
+        cache.remove((K) cacheObject.getId());
+      }
+      return false;
+    }
+
+    log.info("Cache {} restored from snapshot with {} objects ({} reloaded from the DB) in {} ms", getCacheName(),
+        snapshot.getObjects().size(), reconciled, System.currentTimeMillis() - start);
+    return true;
+  }
+
+  /**
+   * Writes the local snapshot of the cache, if snapshots are enabled.
+   */
+  @Override
+  public void shutdown() {
+    super.shutdown();
+    if (snapshotStore == null || !snapshotStore.isEnabled()) {
+      return;
+    }
+
+    List<T> cacheObjects = new ArrayList<>();
+    cache.forEachKey(key -> {
+      T cacheObject = cache.get(key);
+      if (cacheObject != null) {
+        cacheObjects.add(cacheObject);
+      }
+    });
+    snapshotStore.write(cache.getName(), cacheObjects);
+  }
+
   /**
    * Find an object in the cache given the object id and create a deep copy.
-   * The copy is relealized through serialization and NOT by cloning.
+   * The copy is realized by the {@link CacheObjectCopier} registered on this
+   * cache (by default through serialization).
    *
    * @param id the unique id of the cache object (should not be NULL)
    * @return Copy to the {@link Cacheable} object
    * @throws CacheElementNotFoundException if the element if not found in the cache
    * @throws IllegalArgumentException if the cache is accessed with a null key
-   * @throws UnsupportedOperationException If something goes wrong whilst creating a deep clone
-   *         through serialization
+   * @throws UnsupportedOperationException If something goes wrong whilst creating a deep copy
    */
-  @SuppressWarnings("unchecked")
   public final T getCopy(final K id) {
     if (id != null) {
-        cache.acquireReadLockOnKey(id);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                ObjectOutputStream oos = new ObjectOutputStream(baos);) {
-            T reference = get(id);
-    
-            oos.writeObject(reference);
-    
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            return (T) ois.readObject();
-        } catch (CacheElementNotFoundException cenfe) {
-            throw cenfe;
-        } catch (Exception ex) {
-            log.error(
-                    "Unable to get a serialized copy of the cache element as serialization is not supported for this object.",
-                    ex);
-            throw new UnsupportedOperationException(
-                    "The getCopy() method is not supported for this cache element since the cache object is not entirely serializable. Please revisit your object.",
-                    ex);
-        } finally {
-            cache.releaseReadLockOnKey(id);
-        }
+      cache.acquireReadLockOnKey(id);
+      try {
+        return copier.copy(get(id));
+      } finally {
+        cache.releaseReadLockOnKey(id);
+      }
     }
     else {
       log.error("getCopy() - Trying to access cache with a NULL key - throwing an exception!");
@@ -227,6 +324,56 @@ private final CacheProperties properties;
     }
   }
 
+  /**
+   * Find several objects in the cache and create deep copies of them. As in
+   * {@link #getCopy(Object)}, each object is read and copied under the read
+   * lock of its key, so that no copy is made of a partially updated object.
+   * This takes one cache access per object; only caches without key locks
+   * are read with a single bulk access.
+   *
+   * @param ids the unique ids of the cache objects (should not contain NULL)
+   * @return the copies of the objects found in the cache, by id; the ids which
+   * are not found in the cache are omitted
+   * @throws IllegalArgumentException if the cache is accessed with a null key
+   * @throws UnsupportedOperationException If something goes wrong whilst creating a deep copy
+   * @see #getCopy(Object)
+   */
+  public final Map<K, T> getCopyAll(final Collection<K> ids) {
+    for (K id : ids) {
+      if (id == null) {
+        log.error("getCopyAll() - Trying to access cache with a NULL key - throwing an exception!");
+        throw new IllegalArgumentException("Accessing cache with null key!");
+      }
+    }
+    Map<K, T> copies = new HashMap<>(ids.size());
+    if (!cache.hasKeyLocks()) {
+      getAll(ids).forEach((id, cacheObject) -> copies.put(id, copier.copy(cacheObject)));
+      return copies;
+    }
+    for (K id : ids) {
+      cache.acquireReadLockOnKey(id);
+      try {
+        T cacheObject = cache.get(id);
+        if (cacheObject != null) {
+          copies.put(id, copier.copy(cacheObject));
+        }
+      } finally {
+        cache.releaseReadLockOnKey(id);
+      }
+    }
+    return copies;
+  }
+
+  /**
+   * Sets the strategy used for creating the copies returned by {@link #getCopy(Object)}.
+   * Should be called in the constructor of the cache implementation.
+   *
+   * @param copier the copy strategy to use for the objects of this cache
+   */
+  protected void setCopier(final CacheObjectCopier<T> copier) {
+    this.copier = copier;
+  }
+
   /**
    * Puts an object in the cache, without notifying the cache listeners.
    * Wraps the call to the underlying Ehcache.
@@ -247,6 +394,18 @@ private final CacheProperties properties;
     notifyListenersOfUpdate(value);
   }
 
+  /**
+   * Puts all passed objects in the cache with a single bulk operation and
+   * notifies the listeners once for the whole batch.
+   * The value objects themselves are put into the cache (not copies).
+   * @param values the objects to put, mapped by key (preferably sorted by key)
+   */
+  @Override
+  public void putAll(Map<K, T> values) {
+    super.putAll(values);
+    notifyListenersOfBatchUpdate(values.values());
+  }
+
   public void notifyListenersOfUpdate(final K id) {
     notifyListenersOfUpdate(this.getCopy(id));
   }
@@ -275,6 +434,31 @@ private final CacheProperties properties;
     }
   }
 
+  /**
+   * Batch version of {@link #notifyListenersOfUpdate(Cacheable)}: clones all the
+   * passed objects and hands them to each listener in a single
+   * {@link C2monCacheListener#notifyElementsUpdated(Collection)} call.
+   *
+   * @param cacheables the cache objects that have been updated
+   */
+  public void notifyListenersOfBatchUpdate(final Collection<T> cacheables) {
+    List<T> clones = new ArrayList<>(cacheables.size());
+    try {
+      for (T cacheable : cacheables) {
+        registeredEventListeners.notifyElementUpdated(new Element(cacheable.getId(), null), false); //only for monitoring via Ehcache
+        @SuppressWarnings("unchecked")
+        T cloned = (T) cacheable.clone();
+        clones.add(cloned);
+      }
+    } catch (CloneNotSupportedException e) {
+      log.error(CLONE_NOT_SUPPORTED_EXCEPTION_CAUGHT_WHILE_CLONING_A_CACHE_ELEMENT, e);
+      throw new FailedCacheElementCloningException(CLONE_NOT_SUPPORTED_EXCEPTION_CAUGHT_WHILE_CLONING_A_CACHE_ELEMENT, e);
+    }
+    for (C2monCacheListener< ? super T> listener : cacheListeners) {
+      listener.notifyElementsUpdated(clones);
+    }
+  }
+
   public void notifyListenerStatusConfirmation(final T cacheable, final long timestamp) {
     try {
       @SuppressWarnings("unchecked")
@@ -23,7 +23,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PreDestroy;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -137,6 +140,35 @@ public abstract class BasicCache<K, T extends Serializable> extends ApplicationO
     return result;
   }
 
+  /**
+   * Get References to several objects in the cache, with a single bulk
+   * access to the underlying cache. Prefer this method to repeated calls
+   * to {@link #get(Object)}, which each need a distributed cache access.
+   *
+   * <p>
+   * The same locking considerations as for {@link #get(Object)} apply.
+   *
+   * @param ids the ids (keys) of the cache elements
+   * @return the references to the objects stored in the cache, by id; the ids
+   *         which are not found in the cache are omitted
+   * @throws IllegalArgumentException if one of the ids is null
+   */
+  public final Map<K, T> getAll(final Collection<K> ids) {
+    for (K id : ids) {
+      if (id == null) {
+        log.error("getAll() - Trying to access cache with a NULL key - throwing an exception!");
+        throw new IllegalArgumentException("Accessing cache with null key!");
+      }
+    }
+
+    try {
+      return cache.getAll(ids);
+    } catch (CacheException cacheException) {
+      log.error("getAll() - Caught cache exception thrown by Ehcache while accessing " + ids.size() + " objects", cacheException);
+      throw new RuntimeException("An error occured when accessing " + ids.size() + " cache objects", cacheException);
+    }
+  }
+
   /**
    * Returns the list of all keys in the cache. Only Longs can be inserted as
    * keys in C2monCache.
@@ -148,10 +180,31 @@ public abstract class BasicCache<K, T extends Serializable> extends ApplicationO
     return cache.getKeys();
   }
 
+  /**
+   * Calls the action for each key in the cache, without collecting all the
+   * keys in a list first. Prefer this method to {@link #getKeys()} for
+   * iterating over large caches.
+   *
+   * @param action the action to call for each key
+   * @see Ehcache#forEachKey(Consumer)
+   */
+  public void forEachKey(final Consumer<K> action) {
+    cache.forEachKey(action);
+  }
+
   public void put(K key, T value) {
     cache.put(key, value);
   }
 
+  /**
+   * Puts all passed objects in the cache with a single bulk operation.
+   *
+   * @param values the objects to put, mapped by their key (preferably sorted by key)
+   */
+  public void putAll(Map<K, T> values) {
+    cache.putAll(values);
+  }
+
   /**
    * Remove an object from the cache.
    *
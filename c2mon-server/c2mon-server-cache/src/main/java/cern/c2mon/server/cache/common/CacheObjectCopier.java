@@ -0,0 +1,41 @@
+/******************************************************************************
+ * Copyright (C) 2010-2019 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Strategy used by {@link AbstractCache#getCopy(Object)} to create a deep
+ * copy of a cache object. The returned copy must share no mutable state with
+ * the object residing in the cache.
+ *
+ * @param <T> the cache object type
+ *
+ * @see SerializationCopier
+ * @see CloneCopier
+ */
+public interface CacheObjectCopier<T extends Cacheable> {
+
+  /**
+   * Creates a deep copy of the given cache object.
+   *
+   * @param original the object residing in the cache (not null)
+   * @return a copy that can be modified without affecting the cache
+   * @throws UnsupportedOperationException if the object cannot be copied
+   */
+  T copy(T original);
+}
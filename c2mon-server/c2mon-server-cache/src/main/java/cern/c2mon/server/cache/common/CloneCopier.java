@@ -0,0 +1,52 @@
+/******************************************************************************
+ * Copyright (C) 2010-2019 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Creates copies through the type-specific {@link Cacheable#clone()}
+ * implementation of the cache object. Only to be registered on caches whose
+ * objects provide a <b>deep</b> clone (all mutable fields copied, runtime
+ * locks recreated), as is the case for tags, alarms, alive timers and the
+ * supervised equipment objects. Tag values of a mutable type are deep copied
+ * by the tag clone as well, so that the copy is equivalent to the one of the
+ * {@link SerializationCopier}.
+ *
+ * <p>If the object does not support cloning, the copy is delegated to the
+ * {@link SerializationCopier}.
+ *
+ * @param <T> the cache object type
+ */
+@Slf4j
+public class CloneCopier<T extends Cacheable> implements CacheObjectCopier<T> {
+
+  private final CacheObjectCopier<T> fallback = new SerializationCopier<>();
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T copy(final T original) {
+    try {
+      return (T) original.clone();
+    } catch (CloneNotSupportedException e) {
+      log.debug("Cache object of type {} does not support cloning - falling back to serialization", original.getClass().getSimpleName());
+      return fallback.copy(original);
+    }
+  }
+}
@@ -21,6 +21,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 
@@ -88,6 +91,33 @@ public class DefaultCacheImpl<K, V extends Serializable> extends BasicCache<K, V
     }
   }
 
+  @Override
+  public Map<K, V> getCopyAll(final Collection<K> ids) {
+    for (K id : ids) {
+      if (id == null) {
+        log.error("getCopyAll() - Trying to access cache with a NULL key - throwing an exception!");
+        throw new IllegalArgumentException("Accessing cache with null key!");
+      }
+    }
+    Map<K, V> copies = new HashMap<>(ids.size());
+    if (!cache.hasKeyLocks()) {
+      getAll(ids).forEach((id, value) -> copies.put(id, deepClone(id, value)));
+      return copies;
+    }
+    for (K id : ids) {
+      this.acquireReadLockOnKey(id);
+      try {
+        V value = cache.get(id);
+        if (value != null) {
+          copies.put(id, deepClone(id, value));
+        }
+      } finally {
+        this.releaseReadLockOnKey(id);
+      }
+    }
+    return copies;
+  }
+
   /**
    * Returns a deep copy through serialization
    * @param reference The reference object
@@ -0,0 +1,56 @@
+/******************************************************************************
+ * Copyright (C) 2010-2019 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Creates deep copies through a Java serialization round-trip. Works for any
+ * entirely serializable cache object, but is by far the most expensive
+ * strategy; it is therefore only used as fallback.
+ *
+ * @param <T> the cache object type
+ */
+@Slf4j
+public class SerializationCopier<T extends Cacheable> implements CacheObjectCopier<T> {
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T copy(final T original) {
+    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+         ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(original);
+      oos.flush();
+
+      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+        return (T) ois.readObject();
+      }
+    } catch (Exception ex) {
+      log.error("Unable to get a serialized copy of the cache element as serialization is not supported for this object.", ex);
+      throw new UnsupportedOperationException(
+          "The getCopy() method is not supported for this cache element since the cache object is not entirely serializable. Please revisit your object.",
+          ex);
+    }
+  }
+}
@@ -17,8 +17,10 @@
 package cern.c2mon.server.cache.common;
 
 import cern.c2mon.server.cache.*;
+import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.alarm.Alarm;
 import cern.c2mon.server.common.alarm.TagWithAlarms;
+import cern.c2mon.server.common.alarm.TagWithAlarmsImpl;
 import cern.c2mon.server.common.control.ControlTag;
 import cern.c2mon.server.common.rule.RuleTag;
 import cern.c2mon.server.common.tag.Tag;
@@ -173,6 +175,23 @@ public class TagFacadeGatewayImpl implements TagFacadeGateway {
     return tagWithAlarms;
   }
 
+  @Override
+  public Map<Long, TagWithAlarms> getTagsWithAlarms(final Collection<Long> ids) {
+    Map<Long, TagWithAlarms> tagsWithAlarms = new LinkedHashMap<>(ids.size());
+    for (Long id : ids) {
+      if (tagsWithAlarms.containsKey(id)) {
+        continue;
+      }
+      // the tag and its alarms are read under the tag lock, one tag at a time
+      try {
+        tagsWithAlarms.put(id, getFacade(id).getTagWithAlarms(id));
+      } catch (CacheElementNotFoundException e) {
+        // not found in any tag cache: omitted
+      }
+    }
+    return tagsWithAlarms;
+  }
+
   @Override
   public void setQuality(Long tagId, Collection<TagQualityStatus> flagsToAdd,
       Collection<TagQualityStatus> flagsToRemove, Map<TagQualityStatus, String> qualityDescriptions, Timestamp timestamp) {
@@ -17,7 +17,13 @@
 package cern.c2mon.server.cache.common;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -101,17 +107,48 @@ public class TagLocationServiceImpl implements TagLocationService {
     return getCache(id).get(id);
   }
   
+  @Override
+  public Map<Long, Tag> getCopyAll(final Collection<Long> ids) {
+    return getAll(ids, true);
+  }
+  
+  @Override
+  public Map<Long, Tag> getAll(final Collection<Long> ids) {
+    return getAll(ids, false);
+  }
+  
+  /**
+   * Looks up the ids in the data, rule and control tag caches (in that order),
+   * only querying each cache for the ids not found in the previous ones.
+   */
+  private Map<Long, Tag> getAll(final Collection<Long> ids, final boolean copy) {
+    Map<Long, Tag> tags = new HashMap<>(ids.size());
+    Set<Long> remaining = new HashSet<>(ids);
+    List<C2monCache<Long, ? extends Tag>> tagCaches = Arrays.asList(dataTagCache, ruleTagCache, controlTagCache);
+    for (C2monCache<Long, ? extends Tag> tagCache : tagCaches) {
+      if (remaining.isEmpty()) {
+        break;
+      }
+      Map<Long, ? extends Tag> found = copy ? tagCache.getCopyAll(remaining) : tagCache.getAll(remaining);
+      tags.putAll(found);
+      remaining.removeAll(found.keySet());
+    }
+    return tags;
+  }
+  
   @Override
   public Tag get(final String tagName) {
-    if (dataTagCache.hasTagWithName(tagName)) {       
-      return dataTagCache.get(tagName);
-    } else if (ruleTagCache.hasTagWithName(tagName)) {
-      return ruleTagCache.get(tagName);
-    } else if (controlTagCache.hasTagWithName(tagName)) {
-      return controlTagCache.get(tagName);
-    } else {
+    Tag tag = dataTagCache.get(tagName);
+    if (tag == null) {
+      tag = ruleTagCache.get(tagName);
+    }
+    if (tag == null) {
+      tag = controlTagCache.get(tagName);
+    }
+    if (tag == null) {
       throw new CacheElementNotFoundException("TagLocationService failed to locate tag with name " + tagName + " in any of the rule, control or datatag caches.");
     }
+    return tag;
   }
   
   @Override
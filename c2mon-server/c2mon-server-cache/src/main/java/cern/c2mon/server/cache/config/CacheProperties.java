@@ -40,6 +40,22 @@ public class CacheProperties {
    */
   private int bufferedListenerPullFrequency = 5000;
 
+  /**
+   * Enable/disable the local cache snapshots. When enabled, each cache is
+   * written to a snapshot file on a clean shutdown, and restored from it at
+   * the next startup instead of being preloaded from the database, provided
+   * no configuration was applied in between. Cache objects updated in the
+   * database after the snapshot are reloaded from the database
+   */
+  private boolean snapshotEnabled = false;
+
+  /**
+   * Directory of the cache snapshot files. It must be owned by the user
+   * running the server, and must not be writable by the group or others.
+   * Defaults to data/cache-snapshots in the server home directory
+   */
+  private String snapshotDirectory;
+
   private int timeRange = 60;
   private int oscNumbers = 6;
 }
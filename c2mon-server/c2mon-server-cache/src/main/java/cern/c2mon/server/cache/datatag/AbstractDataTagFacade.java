@@ -17,7 +17,13 @@
 package cern.c2mon.server.cache.datatag;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -414,16 +420,7 @@ public abstract class AbstractDataTagFacade<T extends DataTag> extends AbstractT
     tagCache.acquireWriteLockOnKey(dataTagId);
     try {
       T dataTag = tagCache.get(dataTagId);
-
-      // Before updating the new value to the cache convert the value to the proper type.
-      // In the process of the deserialization the dataType can still divert from the defined dataType.
-      // If the dataType is an arbitrary object do nothing because the server don't work with this kind of values at all.
-      if(sourceDataTagValue != null
-          && sourceDataTagValue.getValue() != null
-          && isKnownClass(dataTag.getDataType())){
-        Object convertedValue = TypeConverter.cast(sourceDataTagValue.getValue(), dataTag.getDataType());
-        sourceDataTagValue.setValue(convertedValue);
-      }
+      convertSourceValue(dataTag, sourceDataTagValue);
 
       Event<Boolean> returnEvent = updateFromSource(dataTag, sourceDataTagValue);
       if (returnEvent.getReturnValue()) {
@@ -435,6 +432,79 @@ public abstract class AbstractDataTagFacade<T extends DataTag> extends AbstractT
     }
   }
 
+  /**
+   * Batch version of {@link #updateFromSource(Long, SourceDataTagValue)}, used for
+   * the values of a single DAQ message.
+   *
+   * <p>The write locks of all tags in the batch are taken in ascending tag id order
+   * and held until the updated tags have been written back with one bulk
+   * {@code putAll} (sorted by id), so the listeners, which are notified once for the
+   * whole batch, see each tag as it was left by this update. If a message contains
+   * several values for the same tag, the pending batch is written before the next
+   * value is applied, so that no accepted value is hidden from the listeners.
+   *
+   * <p>Values for tags that cannot be found in the cache are logged and ignored.
+   *
+   * @param sourceDataTagValues the values received from the data acquisition layer
+   * @return the number of values that were not filtered out
+   */
+  public final int updateFromSource(final Collection<SourceDataTagValue> sourceDataTagValues) {
+    List<SourceDataTagValue> sortedValues = new ArrayList<>(sourceDataTagValues);
+    sortedValues.sort(Comparator.comparing(SourceDataTagValue::getId));
+
+    List<Long> lockedIds = new ArrayList<>();
+    Map<Long, T> updatedTags = new TreeMap<>();
+    int updateCount = 0;
+    try {
+      for (SourceDataTagValue sourceDataTagValue : sortedValues) {
+        Long dataTagId = sourceDataTagValue.getId();
+        if (updatedTags.containsKey(dataTagId)) {
+          tagCache.putAll(updatedTags);
+          updatedTags = new TreeMap<>();
+        }
+        if (lockedIds.isEmpty() || !lockedIds.get(lockedIds.size() - 1).equals(dataTagId)) {
+          tagCache.acquireWriteLockOnKey(dataTagId);
+          lockedIds.add(dataTagId);
+        }
+
+        try {
+          T dataTag = tagCache.get(dataTagId);
+          convertSourceValue(dataTag, sourceDataTagValue);
+
+          if (updateFromSource(dataTag, sourceDataTagValue).getReturnValue()) {
+            updatedTags.put(dataTagId, dataTag);
+            updateCount++;
+          }
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.warn("Received unrecognized data tag #{}: ignoring the update", dataTagId);
+        }
+      }
+      if (!updatedTags.isEmpty()) {
+        tagCache.putAll(updatedTags);
+      }
+    } finally {
+      for (int i = lockedIds.size() - 1; i >= 0; i--) {
+        tagCache.releaseWriteLockOnKey(lockedIds.get(i));
+      }
+    }
+
+    return updateCount;
+  }
+
+  /**
+   * Before updating the new value to the cache convert the value to the proper type.
+   * In the process of the deserialization the dataType can still divert from the defined dataType.
+   * If the dataType is an arbitrary object do nothing because the server don't work with this kind of values at all.
+   */
+  private void convertSourceValue(final T dataTag, final SourceDataTagValue sourceDataTagValue) {
+    if (sourceDataTagValue != null
+        && sourceDataTagValue.getValue() != null
+        && isKnownClass(dataTag.getDataType())) {
+      Object convertedValue = TypeConverter.cast(sourceDataTagValue.getValue(), dataTag.getDataType());
+      sourceDataTagValue.setValue(convertedValue);
+    }
+  }
+
   /**
    * To be called internally only within a dataTag synchronized block. Should not be made public.
    * The actual Cache put is not made within this method.
@@ -0,0 +1,227 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.datatag;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.cache.DataTagCache;
+import cern.c2mon.server.cache.TagQualityCounters;
+import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
+import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.listener.ConfigurationEventListener;
+import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.shared.client.configuration.ConfigConstants.Action;
+
+/**
+ * Keeps the tag counters up to date as a synchronous listener of the
+ * {@link DataTagCache}: only the tags whose validity, process or equipment
+ * changed modify the counters. Created and reconfigured tags are notified by
+ * the cache once their configuration is committed; removed tags are notified
+ * as configuration events, since removals from the cache are silent.
+ *
+ * <p>The last counted state of each tag is kept, so that receiving the same
+ * update twice has no effect, and a tag which was counted wrongly (e.g. after
+ * a rolled back removal) is corrected by its next update. The counts only
+ * include the updates made on this server, and may be realigned on the
+ * cache content with {@link #reconcile()}.
+ */
+@Slf4j
+@Service("tagQualityCounters")
+public class TagQualityCountersImpl implements TagQualityCounters, C2monCacheListener<DataTag>, ConfigurationEventListener {
+
+  private final DataTagCache dataTagCache;
+
+  /** Last counted state of each tag */
+  private final ConcurrentHashMap<Long, TagState> tags = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<Long, Counter> processCounters = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<Long, Counter> equipmentCounters = new ConcurrentHashMap<>();
+
+  @Autowired
+  public TagQualityCountersImpl(final DataTagCache dataTagCache) {
+    this.dataTagCache = dataTagCache;
+  }
+
+  /**
+   * Registers to the cache updates and counts the tags already in the cache.
+   */
+  @PostConstruct
+  public void init() {
+    dataTagCache.registerSynchronousListener(this);
+    reconcile();
+    log.info("Counted {} data tags of {} processes", tags.size(), processCounters.size());
+  }
+
+  /**
+   * Recounts all the tags of the cache, and drops the counted tags which
+   * are no longer in the cache.
+   */
+  public void reconcile() {
+    dataTagCache.forEachKey(this::refresh);
+    tags.keySet().forEach(id -> {
+      if (!dataTagCache.hasKey(id)) {
+        remove(id);
+      }
+    });
+  }
+
+  @Override
+  public void notifyElementUpdated(final DataTag dataTag) {
+    update(dataTag);
+  }
+
+  @Override
+  public void confirmStatus(final DataTag dataTag) {
+    update(dataTag);
+  }
+
+  @Override
+  public void onConfigurationEvent(final Tag tag, final Action action) {
+    if (action == Action.REMOVE) {
+      remove(tag.getId());
+    }
+  }
+
+  @Override
+  public void onConfigurationEvent(final Alarm alarm, final Action action) {
+    // alarms are not counted
+  }
+
+  @Override
+  public int getNumTagsOfProcess(final Long processId) {
+    return getTotal(processCounters, processId);
+  }
+
+  @Override
+  public int getNumInvalidTagsOfProcess(final Long processId) {
+    return getInvalid(processCounters, processId);
+  }
+
+  @Override
+  public int getNumTagsOfEquipment(final Long equipmentId) {
+    return getTotal(equipmentCounters, equipmentId);
+  }
+
+  @Override
+  public int getNumInvalidTagsOfEquipment(final Long equipmentId) {
+    return getInvalid(equipmentCounters, equipmentId);
+  }
+
+  private void refresh(final Long id) {
+    try {
+      update(dataTagCache.getCopy(id));
+    } catch (CacheElementNotFoundException e) {
+      remove(id);
+    }
+  }
+
+  private void update(final DataTag dataTag) {
+    TagState state = new TagState(dataTag);
+    tags.compute(dataTag.getId(), (id, previous) -> {
+      if (!state.equals(previous)) {
+        if (previous != null) {
+          count(previous, -1);
+        }
+        count(state, 1);
+      }
+      return state;
+    });
+  }
+
+  private void remove(final Long id) {
+    tags.computeIfPresent(id, (key, previous) -> {
+      count(previous, -1);
+      return null;
+    });
+  }
+
+  private void count(final TagState state, final int delta) {
+    if (state.processId != null) {
+      processCounters.computeIfAbsent(state.processId, id -> new Counter()).add(delta, state.valid);
+    }
+    if (state.equipmentId != null) {
+      equipmentCounters.computeIfAbsent(state.equipmentId, id -> new Counter()).add(delta, state.valid);
+    }
+  }
+
+  private static int getTotal(final ConcurrentHashMap<Long, Counter> counters, final Long id) {
+    Counter counter = counters.get(id);
+    return counter == null ? 0 : counter.total.get();
+  }
+
+  private static int getInvalid(final ConcurrentHashMap<Long, Counter> counters, final Long id) {
+    Counter counter = counters.get(id);
+    return counter == null ? 0 : counter.invalid.get();
+  }
+
+  private static final class Counter {
+
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final AtomicInteger invalid = new AtomicInteger();
+
+    private void add(final int delta, final boolean valid) {
+      total.addAndGet(delta);
+      if (!valid) {
+        invalid.addAndGet(delta);
+      }
+    }
+  }
+
+  /**
+   * The attributes of a tag which determine how it is counted.
+   */
+  private static final class TagState {
+
+    private final Long processId;
+
+    private final Long equipmentId;
+
+    private final boolean valid;
+
+    private TagState(final DataTag dataTag) {
+      this.processId = dataTag.getProcessId();
+      this.equipmentId = dataTag.getEquipmentId() != null ? dataTag.getEquipmentId() : dataTag.getSubEquipmentId();
+      this.valid = dataTag.isValid();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof TagState)) {
+        return false;
+      }
+      TagState other = (TagState) obj;
+      return valid == other.valid && Objects.equals(processId, other.processId) && Objects.equals(equipmentId, other.equipmentId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(processId, equipmentId, valid);
+    }
+  }
+}
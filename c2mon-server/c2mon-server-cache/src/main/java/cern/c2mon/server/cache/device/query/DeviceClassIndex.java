@@ -0,0 +1,71 @@
+package cern.c2mon.server.cache.device.query;
+
+import cern.c2mon.server.common.device.Device;
+import cern.c2mon.server.ehcache.impl.InMemoryCacheIndex;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the devices of an in-memory device cache by device class id.
+ * <p>
+ * The index only narrows down the candidates: callers must check the class
+ * of the devices they fetch from the cache, as a cached device may be
+ * modified in place before being put back in the cache.
+ */
+class DeviceClassIndex implements InMemoryCacheIndex<Long, Device> {
+
+    private final Map<Long, Set<Long>> idsByClassId = new ConcurrentHashMap<>();
+
+    /** Class under which each device is currently indexed */
+    private final Map<Long, Long> classIdsById = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Long id, Device device) {
+        Long classId = device.getDeviceClassId();
+        if (classId == null) {
+            remove(id);
+            return;
+        }
+
+        Long previous = classIdsById.put(id, classId);
+        if (!classId.equals(previous)) {
+            if (previous != null) {
+                removeId(previous, id);
+            }
+            idsByClassId.computeIfAbsent(classId, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        Long previous = classIdsById.remove(id);
+        if (previous != null) {
+            removeId(previous, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        classIdsById.clear();
+        idsByClassId.clear();
+    }
+
+    /**
+     * @param classId the device class id
+     * @return the ids of the devices indexed under this class
+     */
+    Set<Long> findIdsByClassId(Long classId) {
+        Set<Long> ids = idsByClassId.get(classId);
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    private void removeId(Long classId, Long id) {
+        idsByClassId.computeIfPresent(classId, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
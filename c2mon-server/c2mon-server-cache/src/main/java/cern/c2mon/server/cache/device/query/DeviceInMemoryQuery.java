@@ -5,17 +5,19 @@ import cern.c2mon.server.common.device.Device;
 import cern.c2mon.server.ehcache.Ehcache;
 import cern.c2mon.server.ehcache.impl.InMemoryCache;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class DeviceInMemoryQuery implements DeviceQuery {
 
-    private final InMemoryCache cache;
+    private final InMemoryCache<Long, Device> cache;
+
+    /** Device class index, kept up to date by the cache */
+    private final DeviceClassIndex classIndex = new DeviceClassIndex();
 
     public DeviceInMemoryQuery(final Ehcache cache){
         this.cache = (InMemoryCache) cache;
+        this.cache.addIndex(classIndex);
     }
 
     @Override
@@ -26,18 +28,18 @@ public class DeviceInMemoryQuery implements DeviceQuery {
                     "parameter.");
         }
 
-        List<Device> deviceCacheObjects;
-
-        Predicate<Device> filter = tag -> tag.getDeviceClassId() == deviceClassId;
-
-        try(Stream<Device> stream = cache.getCache().values().stream()){
+        List<Device> deviceCacheObjects = new ArrayList<>();
 
-            deviceCacheObjects = stream.filter(filter).collect(Collectors.toList());
-
-            if (deviceCacheObjects.isEmpty()) {
-                throw new CacheElementNotFoundException("Failed to get device ids from cache");
+        for (Long id : classIndex.findIdsByClassId(deviceClassId)) {
+            Device device = cache.get(id);
+            if (device != null && deviceClassId.equals(device.getDeviceClassId())) {
+                deviceCacheObjects.add(device);
             }
         }
+
+        if (deviceCacheObjects.isEmpty()) {
+            throw new CacheElementNotFoundException("Failed to get device ids from cache");
+        }
         return deviceCacheObjects;
     }
 
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.equipment;
 
+import java.sql.Timestamp;
+import java.util.List;
 import javax.annotation.PostConstruct;
 
 import cern.c2mon.server.cache.*;
@@ -28,6 +30,8 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.common.config.C2monCacheName;
@@ -65,6 +69,8 @@ public class EquipmentCacheImpl extends AbstractCache<Long, Equipment>implements
                             final CacheProperties properties) {
 
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+
+    setCopier(new CloneCopier<>());
     this.controlCache = controlCache;
   }
 
@@ -144,6 +150,11 @@ public class EquipmentCacheImpl extends AbstractCache<Long, Equipment>implements
     }
   }
 
+  @Override
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return cacheSnapshotDAO.getEquipmentIdsModifiedAfter(time);
+  }
+
   @Override
   protected C2monCacheName getCacheName() {
     return C2monCacheName.EQUIPMENT;
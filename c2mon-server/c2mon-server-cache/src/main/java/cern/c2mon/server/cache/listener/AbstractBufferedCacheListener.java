@@ -16,8 +16,10 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.listener;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import lombok.Getter;
@@ -114,12 +116,21 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
   }
 
   /**
-   * A simple wrapper method around {@link AbstractBufferedCacheListener#notifyElementUpdated(Cacheable)}
+   * Adds the whole batch to the buffer with a single queue operation.
    * @param cacheableList A list of {@link Cacheable} objects
    */
-  public void notifyElementsUpdated(Collection<T> cacheableList) {
-    for (T cacheable : cacheableList) {
-      notifyElementUpdated(cacheable);
+  @Override
+  public void notifyElementsUpdated(Collection<? extends T> cacheableList) {
+    if (enabled) {
+      List<S> derivedObjects = new ArrayList<>(cacheableList.size());
+      for (T cacheable : cacheableList) {
+        derivedObjects.add(getDerivedObject(cacheable));
+      }
+      onUpdateQueue.addAll(derivedObjects);
+    } else {
+      String errorMessage = "Update notification received with listener disabled for " + bufferedCacheListener.getThreadName();
+      log.warn(errorMessage);
+      throw new IllegalStateException(errorMessage);
     }
   }
 
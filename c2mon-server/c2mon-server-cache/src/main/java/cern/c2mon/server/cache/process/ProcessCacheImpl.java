@@ -20,7 +20,9 @@ import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.ControlTagCache;
 import cern.c2mon.server.cache.ProcessCache;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
 import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.ProcessDAO;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
@@ -35,6 +37,8 @@ import cern.c2mon.shared.common.ConfigurationException;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -72,6 +76,8 @@ public class ProcessCacheImpl extends AbstractCache<Long, Process>implements Pro
                           @Qualifier("processQuery") ProcessQuery processQuery) {
 
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+
+    setCopier(new CloneCopier<>());
     this.processDAO = (ProcessDAO) cacheLoaderDAO;
     this.controlCache = controlCache;
     this.processQuery = processQuery;
@@ -152,6 +158,11 @@ public class ProcessCacheImpl extends AbstractCache<Long, Process>implements Pro
     }
   }
 
+  @Override
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return cacheSnapshotDAO.getProcessIdsModifiedAfter(time);
+  }
+
   @Override
   protected C2monCacheName getCacheName() {
     return C2monCacheName.PROCESS;
@@ -0,0 +1,257 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Content of a cache snapshot file, with the methods for reading and writing it.
+ * <p>
+ * A snapshot file consists of a header (magic number, format version, time of
+ * the snapshot, cache name and number of objects), the serialized cache objects
+ * and a trailing CRC32 checksum of all the preceding bytes. A file with an
+ * unknown version or a wrong checksum is rejected as a whole.
+ * <p>
+ * Only the C2MON classes and the JDK value and collection classes they
+ * reference may be deserialized from a snapshot file.
+ *
+ * @param <T> the cache object type
+ */
+public final class CacheSnapshot<T extends Cacheable> {
+
+  /** Version of the file format, to be increased on incompatible changes */
+  static final int VERSION = 1;
+
+  private static final int MAGIC = 0x43324D53;
+
+  /** Number of objects after which the serialization back references are dropped */
+  private static final int RESET_INTERVAL = 1000;
+
+  /** Classes allowed in a snapshot file, all others are rejected */
+  private static final ObjectInputFilter CLASS_FILTER = ObjectInputFilter.Config.createFilter(
+      "cern.c2mon.**;java.lang.*;java.math.*;java.sql.Timestamp;java.sql.Date;java.util.*;"
+          + "java.util.concurrent.*;java.util.concurrent.atomic.*;java.util.concurrent.locks.*;!*");
+
+  private final long time;
+
+  private final List<T> objects;
+
+  CacheSnapshot(final long time, final List<T> objects) {
+    this.time = time;
+    this.objects = Collections.unmodifiableList(objects);
+  }
+
+  /**
+   * @return the time the snapshot was taken, in milliseconds since the epoch
+   */
+  public long getTime() {
+    return time;
+  }
+
+  /**
+   * @return the cache objects of the snapshot
+   */
+  public List<T> getObjects() {
+    return objects;
+  }
+
+  /**
+   * Writes the snapshot of a cache. The file is first written to a temporary
+   * file and then moved, so that a crash never leaves a partial snapshot.
+   *
+   * @param file the snapshot file
+   * @param cacheName the name of the cache
+   * @param time the time of the snapshot
+   * @param objects the cache objects
+   * @throws IOException if the snapshot cannot be written
+   */
+  static void write(final Path file, final String cacheName, final long time,
+                    final Collection<? extends Cacheable> objects) throws IOException {
+    Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+      CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+      DataOutputStream header = new DataOutputStream(checked);
+      header.writeInt(MAGIC);
+      header.writeInt(VERSION);
+      header.writeLong(time);
+      header.writeUTF(cacheName);
+      header.writeInt(objects.size());
+      header.flush();
+
+      ObjectOutputStream objectOut = new ObjectOutputStream(checked);
+      int count = 0;
+      for (Cacheable object : objects) {
+        objectOut.writeObject(object);
+        if (++count % RESET_INTERVAL == 0) {
+          objectOut.reset();
+        }
+      }
+      objectOut.flush();
+
+      new DataOutputStream(out).writeLong(checked.getChecksum().getValue());
+    }
+    Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the snapshot of a cache.
+   *
+   * @param file the snapshot file
+   * @param cacheName the name of the cache, which must match the one of the file
+   * @param <T> the cache object type
+   * @return the snapshot
+   * @throws IOException if the file cannot be read, or is not a valid snapshot
+   * of the given cache
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends Cacheable> CacheSnapshot<T> read(final Path file, final String cacheName) throws IOException {
+    long size = Files.size(file);
+    if (size < Long.BYTES) {
+      throw new IOException("Truncated cache snapshot " + file);
+    }
+    long expectedChecksum = readChecksum(file, size - Long.BYTES);
+
+    try (InputStream in = new LimitedInputStream(new BufferedInputStream(Files.newInputStream(file)), size - Long.BYTES)) {
+      CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+      DataInputStream header = new DataInputStream(checked);
+      if (header.readInt() != MAGIC) {
+        throw new IOException("Not a cache snapshot: " + file);
+      }
+      int version = header.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported cache snapshot version " + version + " in " + file);
+      }
+      long time = header.readLong();
+      String name = header.readUTF();
+      if (!name.equals(cacheName)) {
+        throw new IOException("Snapshot " + file + " is for cache " + name + " instead of " + cacheName);
+      }
+      int count = header.readInt();
+
+      List<T> objects = new ArrayList<>(count);
+      ObjectInputStream objectIn = new ObjectInputStream(checked);
+      objectIn.setObjectInputFilter(CLASS_FILTER);
+      for (int i = 0; i < count; i++) {
+        objects.add((T) objectIn.readObject());
+      }
+
+      // the checksum covers all the bytes up to the trailer
+      byte[] buffer = new byte[4096];
+      while (checked.read(buffer) >= 0) {
+        // skip
+      }
+      if (checked.getChecksum().getValue() != expectedChecksum) {
+        throw new IOException("Checksum mismatch in cache snapshot " + file);
+      }
+      return new CacheSnapshot<>(time, objects);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("Incompatible cache object in snapshot " + file, e);
+    }
+  }
+
+  private static long readChecksum(final Path file, final long position) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, position + buffer.position()) < 0) {
+          throw new IOException("Truncated cache snapshot " + file);
+        }
+      }
+      buffer.flip();
+      return buffer.getLong();
+    }
+  }
+
+  /**
+   * Stops reading at the checksum trailer.
+   */
+  private static final class LimitedInputStream extends FilterInputStream {
+
+    private long remaining;
+
+    LimitedInputStream(final InputStream in, final long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int b = super.read();
+      if (b >= 0) {
+        remaining--;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = super.read(b, off, (int) Math.min(len, remaining));
+      if (n > 0) {
+        remaining -= n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      long skipped = super.skip(Math.min(n, remaining));
+      remaining -= skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+}
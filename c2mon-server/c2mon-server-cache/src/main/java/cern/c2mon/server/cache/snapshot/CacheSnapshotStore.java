@@ -0,0 +1,204 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.snapshot;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
+import cern.c2mon.server.common.config.ServerProperties;
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Local disk store of the cache snapshots, which allow a server stopped
+ * cleanly to restart without reloading its caches from the DB.
+ * <p>
+ * Each cache writes its snapshot on shutdown. On start up, the snapshot is
+ * only used if no configuration was applied after it was taken. It is
+ * removed once read, so that it is never used after a server crash.
+ * <p>
+ * As the snapshots are deserialized, they are neither written to nor read
+ * from a directory which is not owned by the server user, or which is
+ * writable by its group or by others.
+ *
+ * @see cern.c2mon.server.cache.common.AbstractCache
+ */
+@Slf4j
+@Component
+public class CacheSnapshotStore {
+
+  private static final String FILE_EXTENSION = ".snapshot";
+
+  private final CacheProperties properties;
+
+  private final CacheSnapshotDAO cacheSnapshotDAO;
+
+  /** Directory of the snapshot files */
+  private final Path directory;
+
+  @Autowired
+  public CacheSnapshotStore(final CacheProperties properties, final ServerProperties serverProperties,
+                            final CacheSnapshotDAO cacheSnapshotDAO) {
+    this.properties = properties;
+    this.cacheSnapshotDAO = cacheSnapshotDAO;
+    if (properties.getSnapshotDirectory() != null) {
+      this.directory = Paths.get(properties.getSnapshotDirectory());
+    } else {
+      this.directory = Paths.get(serverProperties.getHome(), "data", "cache-snapshots");
+    }
+  }
+
+  /**
+   * @return true if the caches should be snapshot on shutdown and restored from
+   * the snapshots on start up
+   */
+  public boolean isEnabled() {
+    return properties.isSnapshotEnabled();
+  }
+
+  /**
+   * @return the DAO for reconciling the restored caches with the DB
+   */
+  public CacheSnapshotDAO getCacheSnapshotDAO() {
+    return cacheSnapshotDAO;
+  }
+
+  /**
+   * Writes the snapshot of a cache, replacing the previous one.
+   *
+   * @param cacheName the name of the cache
+   * @param objects all objects of the cache
+   */
+  public void write(final String cacheName, final Collection<? extends Cacheable> objects) {
+    long start = System.currentTimeMillis();
+    Path file = getFile(cacheName);
+    try {
+      createDirectory();
+      checkDirectory();
+      CacheSnapshot.write(file, cacheName, start, objects);
+      log.info("Snapshot of cache {} with {} objects written to {} in {} ms", cacheName, objects.size(), file,
+          System.currentTimeMillis() - start);
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to write the snapshot of cache " + cacheName + " to " + file, e);
+    }
+  }
+
+  /**
+   * Reads the snapshot of a cache, and removes it from the disk.
+   *
+   * @param cacheName the name of the cache
+   * @param <T> the cache object type
+   * @return the snapshot, or null if there is no valid snapshot for the cache or
+   * if a configuration was applied after it was taken
+   */
+  public <T extends Cacheable> CacheSnapshot<T> read(final String cacheName) {
+    Path file = getFile(cacheName);
+    if (!Files.exists(file)) {
+      log.info("No snapshot found for cache {} in {}", cacheName, file.getParent());
+      return null;
+    }
+
+    try {
+      checkDirectory();
+      CacheSnapshot<T> snapshot = CacheSnapshot.read(file, cacheName);
+      Timestamp lastConfigurationChange = cacheSnapshotDAO.getLastConfigurationChange();
+      // the DB may only record whole seconds
+      if (lastConfigurationChange != null && lastConfigurationChange.getTime() >= snapshot.getTime() - 1000) {
+        log.info("Ignoring snapshot of cache {}: a configuration was applied at {}, after the snapshot was taken at {}",
+            cacheName, lastConfigurationChange, new Timestamp(snapshot.getTime()));
+        return null;
+      }
+      return snapshot;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring the invalid snapshot of cache " + cacheName + " in " + file, e);
+      return null;
+    } finally {
+      delete(file);
+    }
+  }
+
+  private static void delete(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Unable to remove the cache snapshot {}", file, e);
+    }
+  }
+
+  /**
+   * Creates the snapshot directory if needed, only accessible by the server
+   * user.
+   */
+  private void createDirectory() throws IOException {
+    if (Files.isDirectory(directory)) {
+      return;
+    }
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    } else {
+      Files.createDirectories(directory);
+    }
+  }
+
+  /**
+   * Checks that the snapshot files cannot have been written by another user.
+   *
+   * @throws IOException if the snapshot directory is not owned by the server
+   * user, or is writable by its group or by others
+   */
+  private void checkDirectory() throws IOException {
+    PosixFileAttributeView view = Files.getFileAttributeView(directory, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+    if (view == null) {
+      // not a POSIX file system
+      return;
+    }
+    PosixFileAttributes attributes = view.readAttributes();
+    if (!attributes.isDirectory()) {
+      throw new IOException("The cache snapshot directory " + directory + " is not a directory");
+    }
+    String user = System.getProperty("user.name");
+    if (!attributes.owner().getName().equals(user)) {
+      throw new IOException("The cache snapshot directory " + directory + " is owned by " + attributes.owner().getName()
+          + " instead of " + user);
+    }
+    Set<PosixFilePermission> permissions = attributes.permissions();
+    if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+      throw new IOException("The cache snapshot directory " + directory + " is writable by other users ("
+          + PosixFilePermissions.toString(permissions) + ")");
+    }
+  }
+
+  private Path getFile(final String cacheName) {
+    return directory.resolve(cacheName.replaceAll("[^A-Za-z0-9_.-]", "_") + FILE_EXTENSION);
+  }
+}
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.subequipment;
 
+import java.sql.Timestamp;
+import java.util.List;
 import javax.annotation.PostConstruct;
 
 import cern.c2mon.server.cache.config.CacheProperties;
@@ -30,6 +32,8 @@ import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.*;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.common.config.C2monCacheName;
@@ -66,6 +70,8 @@ public class SubEquipmentCacheImpl extends AbstractCache<Long, SubEquipment> imp
                                final CacheProperties properties) {
 
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+
+    setCopier(new CloneCopier<>());
     this.controlCache = controlCache;
     this.equipmentCache = equipmentCache;
   }
@@ -149,6 +155,11 @@ public class SubEquipmentCacheImpl extends AbstractCache<Long, SubEquipment> imp
     }
   }
 
+  @Override
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return cacheSnapshotDAO.getEquipmentIdsModifiedAfter(time);
+  }
+
   @Override
   protected C2monCacheName getCacheName() {
     return C2monCacheName.SUBEQUIPMENT;
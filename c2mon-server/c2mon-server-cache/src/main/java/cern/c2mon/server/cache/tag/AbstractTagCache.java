@@ -20,7 +20,9 @@ import cern.c2mon.server.cache.C2monCacheWithSupervision;
 import cern.c2mon.server.cache.CacheSupervisionListener;
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.common.CloneCopier;
 import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.cache.tag.query.TagQuery;
@@ -30,6 +32,7 @@ import cern.c2mon.server.ehcache.Ehcache;
 import cern.c2mon.server.ehcache.loader.CacheLoader;
 import lombok.extern.slf4j.Slf4j;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -73,6 +76,7 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
                           final CacheProperties properties,
                           final TagQuery<T> tagQuery) {
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
+    setCopier(new CloneCopier<>());
     listenersWithSupervision = new ArrayList<>();
     listenerLock = new ReentrantReadWriteLock();
     this.tagQuery = tagQuery;
@@ -208,4 +212,9 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
 
     return resultList;
   }
+
+  @Override
+  protected List<Long> getIdsModifiedAfter(final CacheSnapshotDAO cacheSnapshotDAO, final Timestamp time) {
+    return cacheSnapshotDAO.getTagIdsModifiedAfter(time);
+  }
 }
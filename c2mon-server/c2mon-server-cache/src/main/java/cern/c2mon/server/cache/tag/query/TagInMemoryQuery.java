@@ -4,6 +4,7 @@ import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.ehcache.Ehcache;
 import cern.c2mon.server.ehcache.impl.InMemoryCache;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -18,25 +19,35 @@ public class TagInMemoryQuery<T> implements TagQuery<T> {
 
     private static final Logger LOG = LoggerFactory.getLogger(TagInMemoryQuery.class);
 
+    /** Characters ending the literal start of a wildcard expression */
+    private static final String NON_LITERAL_SYMBOLS = "*?\\.[](){}+^$";
+
     private final InMemoryCache<Long, T> cache;
 
+    /** Case insensitive name index, kept up to date by the cache */
+    private final TagNameIndex<T> nameIndex = new TagNameIndex<>();
+
     public TagInMemoryQuery(final Ehcache cache){
         this.cache = (InMemoryCache) cache;
+        this.cache.addIndex(nameIndex);
     }
 
     @Override
     public List<T> findTagsByName(String name, int maxResults) {
-        List<T> resultList;
-
-        Predicate<T> filter = tag -> ((Tag) tag).getName().equalsIgnoreCase(name);
-
-        try(Stream<T> stream = cache.getCache().values().stream()){
-
-            resultList = stream.filter(filter).map(t -> (T) t).limit(maxResults).collect(Collectors.toList());
-
-            LOG.debug(String.format("findTagsByName() - Got %d results for name \"%s\"", resultList.size(), name));
+        List<T> resultList = new ArrayList<>();
+
+        for (Long id : nameIndex.findIdsByName(name)) {
+            T tag = cache.get(id);
+            if (tag != null && ((Tag) tag).getName().equalsIgnoreCase(name)) {
+                resultList.add(tag);
+                if (resultList.size() >= maxResults) {
+                    break;
+                }
+            }
         }
 
+        LOG.debug(String.format("findTagsByName() - Got %d results for name \"%s\"", resultList.size(), name));
+
         return resultList;
     }
 
@@ -47,6 +58,23 @@ public class TagInMemoryQuery<T> implements TagQuery<T> {
         Pattern pattern = Pattern.compile(replaceWildcardSymbols(wildcard), Pattern.CASE_INSENSITIVE);
         Predicate<T> filter = tag -> pattern.matcher(((Tag) tag).getName()).matches();
 
+        String prefix = literalPrefix(wildcard);
+        if (!prefix.isEmpty()) {
+            resultList = new ArrayList<>();
+            for (Long id : nameIndex.findIdsByPrefix(prefix, Integer.MAX_VALUE)) {
+                T tag = cache.get(id);
+                if (tag != null && filter.test(tag)) {
+                    resultList.add(tag);
+                    if (resultList.size() >= maxResults) {
+                        break;
+                    }
+                }
+            }
+
+            LOG.debug(String.format("findByNameWildcard() - Got %d results for regex \"%s\" (prefix \"%s\")", resultList.size(), wildcard, prefix));
+            return resultList;
+        }
+
         try(Stream<T> stream = cache.getCache().values().stream()){
 
             resultList = stream.filter(filter).map(t -> (T) t).limit(maxResults).collect(Collectors.toList());
@@ -57,6 +85,28 @@ public class TagInMemoryQuery<T> implements TagQuery<T> {
         return resultList;
     }
 
+    /**
+     * Returns the literal start of the wildcard expression, i.e. the characters
+     * before the first wildcard or regular expression symbol, which every
+     * matching tag name must start with (ignoring case).
+     * @param wildcard the wildcard expression
+     * @return the literal prefix, possibly empty
+     */
+    static String literalPrefix(String wildcard) {
+        if (wildcard.indexOf('|') >= 0) {
+            return "";
+        }
+        int end = 0;
+        while (end < wildcard.length() && NON_LITERAL_SYMBOLS.indexOf(wildcard.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < wildcard.length() && end > 0 && (wildcard.charAt(end) == '+' || wildcard.charAt(end) == '{')) {
+            // quantifier applying to the last literal character
+            end--;
+        }
+        return wildcard.substring(0, end);
+    }
+
     /**
      * Method to replace the character '*' by '.*' and '?' by '.?' to work with the Java Pattern
      * @param wildcard
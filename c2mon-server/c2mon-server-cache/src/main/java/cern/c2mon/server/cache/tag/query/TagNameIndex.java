@@ -0,0 +1,133 @@
+package cern.c2mon.server.cache.tag.query;
+
+import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.ehcache.impl.InMemoryCacheIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case insensitive index of the tag names of an in-memory tag cache.
+ * <p>
+ * Exact name lookups are served by a hash map, prefix lookups by a sorted
+ * map of the same names. Names are not guaranteed to be unique, so each name
+ * maps to a set of tag ids. The index only narrows down the candidates:
+ * callers must check the name of the tags they fetch from the cache.
+ *
+ * @param <T> the tag type
+ */
+class TagNameIndex<T> implements InMemoryCacheIndex<Long, T> {
+
+    private final Map<String, Set<Long>> idsByName = new ConcurrentHashMap<>();
+
+    /** Same id sets as {@link #idsByName}, sorted by name */
+    private final ConcurrentNavigableMap<String, Set<Long>> idsBySortedName = new ConcurrentSkipListMap<>();
+
+    /** Name under which each tag is currently indexed */
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Long id, T tag) {
+        String name = ((Tag) tag).getName();
+        if (name == null) {
+            remove(id);
+            return;
+        }
+
+        String key = fold(name);
+        String previous = namesById.put(id, key);
+        if (!key.equals(previous)) {
+            if (previous != null) {
+                removeId(previous, id);
+            }
+            addId(key, id);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        String previous = namesById.remove(id);
+        if (previous != null) {
+            removeId(previous, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        namesById.clear();
+        idsByName.clear();
+        idsBySortedName.clear();
+    }
+
+    /**
+     * @param name the tag name (case insensitive)
+     * @return the ids of the tags indexed under this name
+     */
+    Set<Long> findIdsByName(String name) {
+        Set<Long> ids = idsByName.get(fold(name));
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    /**
+     * @param prefix the start of the tag names (case insensitive)
+     * @param maxIds maximum number of ids to return
+     * @return the ids of the tags with a name starting with the prefix, in name order
+     */
+    List<Long> findIdsByPrefix(String prefix, int maxIds) {
+        String key = fold(prefix);
+        List<Long> result = new ArrayList<>();
+        for (Map.Entry<String, Set<Long>> entry : idsBySortedName.tailMap(key).entrySet()) {
+            if (!entry.getKey().startsWith(key)) {
+                break;
+            }
+            for (Long id : entry.getValue()) {
+                result.add(id);
+                if (result.size() >= maxIds) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addId(String key, Long id) {
+        idsByName.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                idsBySortedName.put(k, ids);
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removeId(String key, Long id) {
+        idsByName.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsBySortedName.remove(k);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Folds the case of the name character by character, so that two names
+     * have the same key if and only if they are equal ignoring case
+     * (see {@link String#equalsIgnoreCase(String)}).
+     */
+    static String fold(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,167 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.alive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AliveTimerExpiryIndexTest {
+
+  private static final int TIMER_COUNT = 50_000;
+
+  private AliveTimerExpiryIndex index = new AliveTimerExpiryIndex();
+
+  @Test
+  public void testScheduleAndPoll() {
+    index.schedule(1L, 1000);
+    index.schedule(2L, 500);
+    index.schedule(3L, 2000);
+
+    assertEquals(500, index.nextDeadline());
+    assertTrue(index.pollDue(500).isEmpty());
+    assertEquals(Arrays.asList(2L, 1L), index.pollDue(1001));
+    assertEquals(1, index.size());
+    assertEquals(2000, index.nextDeadline());
+  }
+
+  @Test
+  public void testRescheduleReplacesDeadline() {
+    index.schedule(1L, 1000);
+    index.schedule(1L, 5000);
+
+    assertTrue(index.pollDue(2000).isEmpty());
+    assertEquals(1, index.size());
+    assertEquals(Collections.singletonList(1L), index.pollDue(5001));
+    assertEquals(Long.MAX_VALUE, index.nextDeadline());
+  }
+
+  @Test
+  public void testCancel() {
+    index.schedule(1L, 1000);
+    index.cancel(1L);
+    index.cancel(2L);
+
+    assertTrue(index.pollDue(Long.MAX_VALUE).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  /**
+   * 50000 timers with deadlines spread over a minute: some are updated
+   * (rescheduled) and some stopped (cancelled) before being due. Polling
+   * every second must return each remaining timer once, in the second of
+   * its deadline.
+   */
+  @Test
+  public void testManyTimers() {
+    Random random = new Random(42);
+    Map<Long, Long> expected = new HashMap<>();
+    for (long id = 0; id < TIMER_COUNT; id++) {
+      long deadline = random.nextInt(60_000);
+      index.schedule(id, deadline);
+      expected.put(id, deadline);
+    }
+    for (long id = 0; id < TIMER_COUNT; id += 10) {
+      long deadline = 60_000 + random.nextInt(60_000);
+      index.schedule(id, deadline);
+      expected.put(id, deadline);
+    }
+    for (long id = 5; id < TIMER_COUNT; id += 20) {
+      index.cancel(id);
+      expected.remove(id);
+    }
+    assertEquals(expected.size(), index.size());
+
+    Set<Long> polled = new HashSet<>();
+    for (long time = 1000; time <= 121_000; time += 1000) {
+      long previousDeadline = Long.MIN_VALUE;
+      for (Long id : index.pollDue(time)) {
+        long deadline = expected.get(id);
+        assertTrue(deadline < time && deadline >= time - 1000);
+        assertTrue(deadline >= previousDeadline);
+        assertTrue(polled.add(id));
+        previousDeadline = deadline;
+      }
+    }
+
+    assertEquals(expected.keySet(), polled);
+    assertEquals(0, index.size());
+  }
+
+  /**
+   * Timers are rescheduled far in the future by several threads while being
+   * polled: no timer is lost and no timer is polled twice for one deadline.
+   */
+  @Test
+  public void testConcurrentScheduleAndPoll() throws Exception {
+    for (long id = 0; id < TIMER_COUNT; id++) {
+      index.schedule(id, id);
+    }
+
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    Future<?>[] results = new Future<?>[threads];
+    for (int t = 0; t < threads; t++) {
+      final int offset = t;
+      results[t] = executor.submit(() -> {
+        start.await();
+        for (long id = offset; id < TIMER_COUNT; id += threads) {
+          index.schedule(id, Long.MAX_VALUE - 1);
+        }
+        return null;
+      });
+    }
+    Set<Long> polled = new HashSet<>();
+    start.countDown();
+    for (Future<?> result : results) {
+      while (!result.isDone()) {
+        addAllOnce(polled, index.pollDue(TIMER_COUNT));
+      }
+      result.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+    addAllOnce(polled, index.pollDue(TIMER_COUNT));
+
+    // the timers polled before being rescheduled are indexed again
+    Set<Long> all = new HashSet<>(polled);
+    all.addAll(index.pollDue(Long.MAX_VALUE));
+    assertEquals(TIMER_COUNT, all.size());
+    assertEquals(0, index.size());
+  }
+
+  private static void addAllOnce(Set<Long> polled, List<Long> ids) {
+    for (Long id : ids) {
+      assertTrue(polled.add(id));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.alive;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.AliveTimerCache;
+import cern.c2mon.server.common.alive.AliveTimer;
+import cern.c2mon.server.common.alive.AliveTimerCacheObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AliveTimerFacadeImplTest {
+
+  private static final Long ALIVE_ID = 1L;
+
+  private AliveTimerCache aliveTimerCache;
+
+  private AliveTimerFacadeImpl aliveTimerFacade;
+
+  private AliveTimerCacheObject aliveTimer;
+
+  /**
+   * Write lock of the alive timer in the mocked cache.
+   */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  @Before
+  public void setUp() {
+    aliveTimer = new AliveTimerCacheObject(ALIVE_ID, 10L, "P_TEST", 100L, AliveTimer.ALIVE_TYPE_PROCESS, 1000);
+    aliveTimerCache = EasyMock.createNiceMock(AliveTimerCache.class);
+    aliveTimerCache.acquireWriteLockOnKey(ALIVE_ID);
+    EasyMock.expectLastCall().andAnswer(() -> {
+      writeLock.lock();
+      return null;
+    }).anyTimes();
+    aliveTimerCache.releaseWriteLockOnKey(ALIVE_ID);
+    EasyMock.expectLastCall().andAnswer(() -> {
+      writeLock.unlock();
+      return null;
+    }).anyTimes();
+    EasyMock.expect(aliveTimerCache.get(ALIVE_ID)).andReturn(aliveTimer).anyTimes();
+    EasyMock.replay(aliveTimerCache);
+    aliveTimerFacade = new AliveTimerFacadeImpl(aliveTimerCache);
+  }
+
+  @Test
+  public void testStopIfExpired() {
+    aliveTimer.setActive(true);
+    aliveTimer.setLastUpdate(System.currentTimeMillis() - 2000);
+
+    assertTrue(aliveTimerFacade.stopIfExpired(ALIVE_ID));
+    assertFalse(aliveTimer.isActive());
+    assertTrue(aliveTimerFacade.pollDueTimers(Long.MAX_VALUE).isEmpty());
+    // already stopped
+    assertFalse(aliveTimerFacade.stopIfExpired(ALIVE_ID));
+  }
+
+  @Test
+  public void testRunningTimerNotStopped() {
+    aliveTimer.setActive(true);
+    long lastUpdate = System.currentTimeMillis();
+    aliveTimer.setLastUpdate(lastUpdate);
+
+    assertFalse(aliveTimerFacade.stopIfExpired(ALIVE_ID));
+    assertTrue(aliveTimer.isActive());
+    // still indexed with its deadline
+    assertTrue(aliveTimerFacade.pollDueTimers(lastUpdate + 1333).isEmpty());
+    assertEquals(1, aliveTimerFacade.pollDueTimers(lastUpdate + 1334).size());
+  }
+
+  /**
+   * An expiration checked concurrently by several threads is only reported to
+   * one of them.
+   */
+  @Test
+  public void testConcurrentStopIfExpired() throws Exception {
+    int threadCount = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      for (int run = 0; run < 100; run++) {
+        aliveTimer.setActive(true);
+        aliveTimer.setLastUpdate(System.currentTimeMillis() - 2000);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Callable<Boolean> check = () -> {
+          startLatch.await();
+          return aliveTimerFacade.stopIfExpired(ALIVE_ID);
+        };
+        Future<?>[] results = new Future<?>[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+          results[i] = executor.submit(check);
+        }
+        startLatch.countDown();
+
+        int stopCount = 0;
+        for (Future<?> result : results) {
+          if ((Boolean) result.get(10, TimeUnit.SECONDS)) {
+            stopCount++;
+          }
+        }
+        assertEquals(1, stopCount);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/******************************************************************************
+ * Copyright (C) 2010-2019 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.common.rule.RuleTagCacheObject;
+import cern.c2mon.server.test.CacheObjectComparison;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the clone based copy strategy returns the same content as the
+ * serialization fallback, and that the copies are detached from the original.
+ */
+public class CacheObjectCopierTest {
+
+  private final CacheObjectCopier<DataTagCacheObject> dataTagCloneCopier = new CloneCopier<>();
+  private final CacheObjectCopier<DataTagCacheObject> dataTagSerializationCopier = new SerializationCopier<>();
+
+  @Test
+  public void testDataTagCopiesAreEqual() {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    original.getMetadata().addMetadata("building", "864");
+
+    DataTagCacheObject cloned = dataTagCloneCopier.copy(original);
+    DataTagCacheObject serialized = dataTagSerializationCopier.copy(original);
+
+    assertNotSame(original, cloned);
+    CacheObjectComparison.equals(serialized, cloned);
+    assertEquals(serialized.getSourceTimestamp(), cloned.getSourceTimestamp());
+    assertEquals(serialized.getMetadata(), cloned.getMetadata());
+  }
+
+  @Test
+  public void testDataTagCopyIsDetached() {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    original.getMetadata().addMetadata("building", "864");
+
+    DataTagCacheObject copy = dataTagCloneCopier.copy(original);
+    copy.getMetadata().addMetadata("floor", "2");
+    copy.getDaqTimestamp().setTime(0L);
+    copy.getSourceTimestamp().setTime(0L);
+    copy.getAlarmIds().add(999L);
+    copy.getDataTagQuality().addInvalidStatus(TagQualityStatus.VALUE_OUT_OF_BOUNDS);
+
+    assertFalse(original.getMetadata().getMetadata().containsKey("floor"));
+    assertFalse(original.getDaqTimestamp().getTime() == 0L);
+    assertFalse(original.getSourceTimestamp().getTime() == 0L);
+    assertFalse(original.getAlarmIds().contains(999L));
+    assertTrue(original.getDataTagQuality().isValid());
+  }
+
+  @Test
+  public void testDataTagMutableValueIsCopied() {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    original.setValue(new MutableValue(1));
+    original.setMinValue(new MutableValue(0));
+
+    DataTagCacheObject cloned = dataTagCloneCopier.copy(original);
+    DataTagCacheObject serialized = dataTagSerializationCopier.copy(original);
+    assertEquals(serialized.getValue(), cloned.getValue());
+    assertEquals(serialized.getMinValue(), cloned.getMinValue());
+
+    ((MutableValue) cloned.getValue()).count = 2;
+    ((MutableValue) cloned.getMinValue()).count = 2;
+    assertEquals(new MutableValue(1), original.getValue());
+    assertEquals(new MutableValue(0), original.getMinValue());
+  }
+
+  @Test
+  public void testDataTagImmutableValueIsShared() {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    original.setValue(Boolean.TRUE);
+
+    assertSame(original.getValue(), dataTagCloneCopier.copy(original).getValue());
+  }
+
+  @Test
+  public void testRuleTagCopiesAreEqual() {
+    RuleTagCacheObject original = CacheObjectCreation.createTestRuleTag();
+
+    RuleTagCacheObject cloned = new CloneCopier<RuleTagCacheObject>().copy(original);
+    RuleTagCacheObject serialized = new SerializationCopier<RuleTagCacheObject>().copy(original);
+
+    CacheObjectComparison.equalsTag(serialized, cloned);
+    assertEquals(serialized.getRuleText(), cloned.getRuleText());
+    assertEquals(serialized.getRuleInputTagIds(), cloned.getRuleInputTagIds());
+    assertNotSame(original.getRuleExpression(), cloned.getRuleExpression());
+  }
+
+  @Test
+  public void testAlarmCopyIsDetached() {
+    AlarmCacheObject original = CacheObjectCreation.createTestAlarm1();
+    original.setSourceTimestamp(new Timestamp(System.currentTimeMillis()));
+    original.getFifoSourceTimestamps().add(1L);
+
+    AlarmCacheObject cloned = new CloneCopier<AlarmCacheObject>().copy(original);
+    AlarmCacheObject serialized = new SerializationCopier<AlarmCacheObject>().copy(original);
+    CacheObjectComparison.equals(serialized, cloned);
+
+    cloned.getFifoSourceTimestamps().add(2L);
+    cloned.getTimestamp().setTime(0L);
+    assertEquals(1, original.getFifoSourceTimestamps().size());
+    assertFalse(original.getTimestamp().getTime() == 0L);
+  }
+
+  /**
+   * Mutable tag value type, as sent by DAQs publishing arbitrary objects.
+   */
+  private static final class MutableValue implements Comparable<MutableValue>, Serializable {
+
+    private int count;
+
+    private MutableValue(final int count) {
+      this.count = count;
+    }
+
+    @Override
+    public int compareTo(final MutableValue other) {
+      return Integer.compare(count, other.count);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof MutableValue && ((MutableValue) obj).count == count;
+    }
+
+    @Override
+    public int hashCode() {
+      return count;
+    }
+  }
+}
@@ -22,7 +22,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import cern.c2mon.server.cache.AbstractCacheIntegrationTest;
 import org.junit.Test;
@@ -32,15 +38,26 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import cern.c2mon.server.cache.AlarmCache;
 import cern.c2mon.server.cache.TagFacadeGateway;
+import cern.c2mon.server.cache.TagLocationService;
 import cern.c2mon.server.cache.rule.RuleTagCacheTest;
+import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.common.alarm.AlarmCacheObject;
 import cern.c2mon.server.common.alarm.TagWithAlarms;
 import cern.c2mon.server.common.rule.RuleTag;
+import cern.c2mon.server.common.tag.AbstractTagCacheObject;
 
 public class TagFacadeGatewayImplTest extends AbstractCacheIntegrationTest {
   
   @Autowired
   private TagFacadeGateway tagFacadeGateway;
+
+  @Autowired
+  private TagLocationService tagLocationService;
+
+  @Autowired
+  private AlarmCache alarmCache;
   
   /**
    * @see RuleTagCacheTest#testSearchWithNameWildcard()
@@ -57,6 +74,59 @@ public class TagFacadeGatewayImplTest extends AbstractCacheIntegrationTest {
     }
   }
   
+  /**
+   * The tag and its alarm are updated together under the tag lock, as on a
+   * tag update: the bulk read must never return them out of step.
+   */
+  @Test
+  @DirtiesContext
+  public void testGetTagsWithAlarmsDuringUpdates() throws Exception {
+    Long alarmId = 350000L;
+    Long tagId = alarmCache.get(alarmId).getTagId();
+    updateTagAndAlarm(tagId, alarmId, 0);
+
+    AtomicBoolean reading = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<Integer> updates = executor.submit(() -> {
+      int i = 0;
+      while (reading.get()) {
+        updateTagAndAlarm(tagId, alarmId, ++i);
+      }
+      return i;
+    });
+
+    try {
+      for (int i = 0; i < 5000; i++) {
+        TagWithAlarms tagWithAlarms = tagFacadeGateway.getTagsWithAlarms(Collections.singletonList(tagId)).get(tagId);
+        Alarm alarm = tagWithAlarms.getAlarms().stream().filter(a -> a.getId().equals(alarmId)).findFirst().get();
+        assertEquals(String.valueOf(tagWithAlarms.getTag().getValue()), alarm.getInfo());
+      }
+    } finally {
+      reading.set(false);
+    }
+    assertTrue(updates.get(1, TimeUnit.MINUTES) > 0);
+    executor.shutdown();
+  }
+
+  private void updateTagAndAlarm(final Long tagId, final Long alarmId, final int value) {
+    tagLocationService.acquireWriteLockOnKey(tagId);
+    try {
+      AbstractTagCacheObject tag = (AbstractTagCacheObject) tagLocationService.getCopy(tagId);
+      tag.setValue(value);
+      tagLocationService.putQuiet(tag);
+      alarmCache.acquireWriteLockOnKey(alarmId);
+      try {
+        AlarmCacheObject alarm = (AlarmCacheObject) alarmCache.getCopy(alarmId);
+        alarm.setInfo(String.valueOf(value));
+        alarmCache.putQuiet(alarm);
+      } finally {
+        alarmCache.releaseWriteLockOnKey(alarmId);
+      }
+    } finally {
+      tagLocationService.releaseWriteLockOnKey(tagId);
+    }
+  }
+
  @Test
  public void testGetKeys() {
     //IDs from c2mon-server-test/src/resources/sql/cache-data-insert.sql
@@ -0,0 +1,120 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.datatag;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import cern.c2mon.server.cache.AbstractCacheIntegrationTest;
+import cern.c2mon.server.cache.DataTagCache;
+import cern.c2mon.server.cache.DataTagFacade;
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress test of the key locks of the in-memory cache: concurrent source and
+ * configuration updates of the same tag must not overwrite each other.
+ */
+@DirtiesContext
+public class DataTagCacheLockingTest extends AbstractCacheIntegrationTest {
+
+  /** D_FIELD_TEST_1, of type Integer */
+  private static final Long TAG_ID = 210009L;
+
+  private static final int SOURCE_UPDATES = 5000;
+
+  private static final int CONFIG_THREADS = 3;
+
+  private static final int CONFIG_UPDATES = 1000;
+
+  @Autowired
+  private DataTagCache dataTagCache;
+
+  @Autowired
+  private DataTagFacade dataTagFacade;
+
+  @Test
+  public void testConcurrentSourceAndConfigurationUpdates() throws Exception {
+    dataTagCache.acquireWriteLockOnKey(TAG_ID);
+    try {
+      DataTag dataTag = dataTagCache.getCopy(TAG_ID);
+      ((DataTagCacheObject) dataTag).setDescription("0");
+      dataTagCache.put(TAG_ID, dataTag);
+    } finally {
+      dataTagCache.releaseWriteLockOnKey(TAG_ID);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(CONFIG_THREADS + 1);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    results.add(executor.submit(() -> {
+      start.await();
+      long time = System.currentTimeMillis() + 1000;
+      for (int i = 1; i <= SOURCE_UPDATES; i++) {
+        SourceDataTagValue value = new SourceDataTagValue(TAG_ID, "D_FIELD_TEST_1", false);
+        value.setValue(i);
+        value.setTimestamp(new Timestamp(time + i));
+        value.setDaqTimestamp(new Timestamp(time + i));
+        assertTrue(dataTagFacade.updateFromSource(TAG_ID, value).getReturnValue());
+      }
+      return null;
+    }));
+    // same sequence as the data tag configuration handler: update of a copy, then put
+    for (int t = 0; t < CONFIG_THREADS; t++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < CONFIG_UPDATES; i++) {
+          dataTagCache.acquireWriteLockOnKey(TAG_ID);
+          try {
+            DataTagCacheObject dataTag = (DataTagCacheObject) dataTagCache.getCopy(TAG_ID);
+            dataTag.setDescription(String.valueOf(Integer.parseInt(dataTag.getDescription()) + 1));
+            dataTagCache.put(TAG_ID, dataTag);
+          } finally {
+            dataTagCache.releaseWriteLockOnKey(TAG_ID);
+          }
+        }
+        return null;
+      }));
+    }
+
+    start.countDown();
+    for (Future<?> result : results) {
+      result.get(2, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    DataTag dataTag = dataTagCache.getCopy(TAG_ID);
+    assertEquals(SOURCE_UPDATES, dataTag.getValue());
+    assertEquals(String.valueOf(CONFIG_THREADS * CONFIG_UPDATES), dataTag.getDescription());
+    assertFalse(dataTagCache.isWriteLockedByCurrentThread(TAG_ID));
+  }
+}
@@ -29,9 +29,13 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -133,6 +137,34 @@ public class DataTagCacheTest extends AbstractCacheIntegrationTest {
     CacheObjectComparison.equals(cacheObject, objectInDb);
   }
   
+  @Test
+  public void testGetAll() {
+    Map<Long, DataTag> dataTags = dataTagCache.getAll(Arrays.asList(200002L, 210009L, 1L));
+    assertEquals(2, dataTags.size());
+    assertSame(dataTagCache.get(200002L), dataTags.get(200002L));
+    assertSame(dataTagCache.get(210009L), dataTags.get(210009L));
+    assertFalse(dataTags.containsKey(1L));
+
+    Map<Long, DataTag> copies = dataTagCache.getCopyAll(Arrays.asList(200002L, 1L));
+    assertEquals(1, copies.size());
+    assertNotSame(dataTagCache.get(200002L), copies.get(200002L));
+    CacheObjectComparison.equals((DataTagCacheObject) dataTagCache.get(200002L), (DataTagCacheObject) copies.get(200002L));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testGetAllWithNull() {
+    dataTagCache.getAll(Arrays.asList(200002L, null));
+  }
+
+  @Test
+  public void testForEachKey() {
+    Set<Long> keys = new HashSet<>();
+    dataTagCache.forEachKey(keys::add);
+
+    assertEquals(new HashSet<>(dataTagCache.getKeys()), keys);
+    assertEquals(dataTagMapper.getAll().size(), keys.size());
+  }
+  
   @Test
   public void testGetTagByName() {
     Assert.assertNull(dataTagCache.get("does not exist"));
@@ -21,14 +21,20 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
 import org.junit.Before;
 import org.junit.Test;
 
 import cern.c2mon.server.cache.*;
+import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.datatag.DataTag;
 import cern.c2mon.server.common.datatag.DataTagCacheObject;
 import cern.c2mon.server.test.CacheObjectCreation;
@@ -454,6 +460,102 @@ public class DataTagFacadeImplTest {
     assertEquals("null", dataTag.getName());
   }
 
+  /**
+   * The values of a batch are applied in tag id order, unknown tags are skipped
+   * and all updated tags are written back with a single bulk put before any of
+   * the write locks is released.
+   */
+  @Test
+  public void testBatchUpdateFromSource() {
+    DataTagCacheObject dataTag1 = createBatchTestTag(1L);
+    DataTagCacheObject dataTag2 = createBatchTestTag(2L);
+    SourceDataTagValue value1 = createBatchTestValue(1L, 10f);
+    SourceDataTagValue value2 = createBatchTestValue(2L, 20f);
+    SourceDataTagValue unknownValue = createBatchTestValue(3L, 30f);
+
+    control.checkOrder(true);
+    dataTagCache.acquireWriteLockOnKey(1L);
+    EasyMock.expect(dataTagCache.get(1L)).andReturn(dataTag1);
+    dataTagCache.acquireWriteLockOnKey(2L);
+    EasyMock.expect(dataTagCache.get(2L)).andReturn(dataTag2);
+    dataTagCache.acquireWriteLockOnKey(3L);
+    EasyMock.expect(dataTagCache.get(3L)).andThrow(new CacheElementNotFoundException("unknown"));
+    Capture<Map<Long, DataTag>> batch = EasyMock.newCapture();
+    dataTagCache.putAll(EasyMock.capture(batch));
+    EasyMock.expectLastCall().once();
+    dataTagCache.releaseWriteLockOnKey(3L);
+    dataTagCache.releaseWriteLockOnKey(2L);
+    dataTagCache.releaseWriteLockOnKey(1L);
+
+    control.replay();
+
+    int updated = dataTagFacade.updateFromSource(Arrays.asList(unknownValue, value2, value1));
+
+    assertEquals(2, updated);
+    assertEquals(Arrays.asList(1L, 2L), new ArrayList<>(batch.getValue().keySet()));
+    assertEquals(10f, dataTag1.getValue());
+    assertEquals(20f, dataTag2.getValue());
+
+    control.verify();
+  }
+
+  /**
+   * Several values for the same tag in one batch must all reach the cache
+   * listeners, so the batch is split before each repeated tag. The write lock of
+   * the tag is held across both bulk puts.
+   */
+  @Test
+  public void testBatchUpdateFromSourceWithRepeatedTag() {
+    DataTagCacheObject dataTag = createBatchTestTag(1L);
+    SourceDataTagValue firstValue = createBatchTestValue(1L, 10f);
+    SourceDataTagValue secondValue = createBatchTestValue(1L, 20f);
+    secondValue.setTimestamp(new Timestamp(firstValue.getTimestamp().getTime() + 1));
+
+    control.checkOrder(true);
+    dataTagCache.acquireWriteLockOnKey(1L);
+    EasyMock.expect(dataTagCache.get(1L)).andReturn(dataTag);
+    List<Object> putValues = new ArrayList<>();
+    dataTagCache.putAll(EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      Map<Long, DataTag> batch = (Map<Long, DataTag>) EasyMock.getCurrentArguments()[0];
+      putValues.add(batch.get(1L).getValue());
+      return null;
+    });
+    EasyMock.expect(dataTagCache.get(1L)).andReturn(dataTag);
+    dataTagCache.putAll(EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      Map<Long, DataTag> batch = (Map<Long, DataTag>) EasyMock.getCurrentArguments()[0];
+      putValues.add(batch.get(1L).getValue());
+      return null;
+    });
+    dataTagCache.releaseWriteLockOnKey(1L);
+
+    control.replay();
+
+    int updated = dataTagFacade.updateFromSource(Arrays.asList(firstValue, secondValue));
+
+    assertEquals(2, updated);
+    assertEquals(Arrays.asList(10f, 20f), putValues);
+
+    control.verify();
+  }
+
+  private DataTagCacheObject createBatchTestTag(final Long id) {
+    DataTagCacheObject dataTag = new DataTagCacheObject(id, "test tag " + id, "Float", DataTagConstants.MODE_OPERATIONAL);
+    Timestamp oldTime = new Timestamp(System.currentTimeMillis() - 1000);
+    dataTag.setSourceTimestamp(oldTime);
+    dataTag.setDaqTimestamp(oldTime);
+    dataTag.setCacheTimestamp(oldTime);
+    return dataTag;
+  }
+
+  private SourceDataTagValue createBatchTestValue(final Long id, final Float value) {
+    SourceDataTagValue sourceTag = new SourceDataTagValue(id, "test tag " + id, false);
+    sourceTag.setValue(value);
+    sourceTag.setTimestamp(new Timestamp(System.currentTimeMillis()));
+    return sourceTag;
+  }
+
   @Test(expected = ConfigurationException.class)
   public void testFailCreateCacheObject() throws IllegalAccessException {
     Properties properties = new Properties();
@@ -0,0 +1,147 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.datatag;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import cern.c2mon.server.cache.AbstractCacheIntegrationTest;
+import cern.c2mon.server.cache.DataTagCache;
+import cern.c2mon.server.cache.DataTagFacade;
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.shared.client.configuration.ConfigConstants.Action;
+import cern.c2mon.shared.common.datatag.TagQualityStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the incremental tag counters against a full recount of the cache
+ * after validity changes and removals.
+ */
+@DirtiesContext
+public class TagQualityCountersTest extends AbstractCacheIntegrationTest {
+
+  /** D_FIELD_TEST_1 */
+  private static final Long TAG_ID = 210009L;
+
+  @Autowired
+  private TagQualityCountersImpl tagQualityCounters;
+
+  @Autowired
+  private DataTagCache dataTagCache;
+
+  @Autowired
+  private DataTagFacade dataTagFacade;
+
+  /** The test rule reloads the cache silently */
+  @Before
+  public void reconcile() {
+    tagQualityCounters.reconcile();
+  }
+
+  @Test
+  public void testInitialCount() {
+    assertTrue(dataTagCache.getCopy(TAG_ID).getProcessId() != null);
+    assertCountersMatchRecount();
+  }
+
+  @Test
+  public void testValidityChanges() {
+    DataTag dataTag = dataTagCache.getCopy(TAG_ID);
+
+    dataTagFacade.setQuality(TAG_ID, Collections.singletonList(TagQualityStatus.INACCESSIBLE),
+        Collections.<TagQualityStatus>emptyList(), Collections.<TagQualityStatus, String>emptyMap(),
+        new Timestamp(System.currentTimeMillis()));
+    assertFalse(dataTagCache.getCopy(TAG_ID).isValid());
+    int invalid = tagQualityCounters.getNumInvalidTagsOfProcess(dataTag.getProcessId());
+    assertCountersMatchRecount();
+
+    dataTagFacade.updateAndValidate(TAG_ID, 1000, "valid", new Timestamp(System.currentTimeMillis()));
+    assertTrue(dataTagCache.getCopy(TAG_ID).isValid());
+    assertEquals(invalid - 1, tagQualityCounters.getNumInvalidTagsOfProcess(dataTag.getProcessId()));
+    assertCountersMatchRecount();
+  }
+
+  @Test
+  public void testRemove() {
+    DataTag dataTag = dataTagCache.getCopy(TAG_ID);
+    int total = tagQualityCounters.getNumTagsOfProcess(dataTag.getProcessId());
+
+    tagQualityCounters.onConfigurationEvent(dataTag, Action.REMOVE);
+    dataTagCache.remove(TAG_ID);
+
+    assertEquals(total - 1, tagQualityCounters.getNumTagsOfProcess(dataTag.getProcessId()));
+    assertCountersMatchRecount();
+
+    // notifying the same removal twice has no effect
+    tagQualityCounters.onConfigurationEvent(dataTag, Action.REMOVE);
+    assertCountersMatchRecount();
+  }
+
+  @Test
+  public void testReconcileSilentUpdates() {
+    assertCountersMatchRecount();
+    DataTagCacheObject dataTag = (DataTagCacheObject) dataTagCache.getCopy(TAG_ID);
+    if (dataTag.isValid()) {
+      dataTag.getDataTagQuality().addInvalidStatus(TagQualityStatus.INACCESSIBLE);
+    } else {
+      dataTag.getDataTagQuality().validate();
+    }
+    dataTagCache.putQuiet(dataTag);
+
+    tagQualityCounters.reconcile();
+    assertCountersMatchRecount();
+  }
+
+  private void assertCountersMatchRecount() {
+    Map<Long, int[]> processCounts = new HashMap<>();
+    Map<Long, int[]> equipmentCounts = new HashMap<>();
+    dataTagCache.forEachKey(id -> {
+      DataTag dataTag = dataTagCache.getCopy(id);
+      int invalid = dataTag.isValid() ? 0 : 1;
+      int[] processCount = processCounts.computeIfAbsent(dataTag.getProcessId(), key -> new int[2]);
+      processCount[0]++;
+      processCount[1] += invalid;
+      Long equipmentId = dataTag.getEquipmentId() != null ? dataTag.getEquipmentId() : dataTag.getSubEquipmentId();
+      int[] equipmentCount = equipmentCounts.computeIfAbsent(equipmentId, key -> new int[2]);
+      equipmentCount[0]++;
+      equipmentCount[1] += invalid;
+    });
+
+    assertFalse(processCounts.isEmpty());
+    processCounts.remove(null);
+    equipmentCounts.remove(null);
+    processCounts.forEach((processId, count) -> {
+      assertEquals(count[0], tagQualityCounters.getNumTagsOfProcess(processId));
+      assertEquals(count[1], tagQualityCounters.getNumInvalidTagsOfProcess(processId));
+    });
+    equipmentCounts.forEach((equipmentId, count) -> {
+      assertEquals(count[0], tagQualityCounters.getNumTagsOfEquipment(equipmentId));
+      assertEquals(count[1], tagQualityCounters.getNumInvalidTagsOfEquipment(equipmentId));
+    });
+  }
+}
@@ -0,0 +1,93 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.device.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
+import cern.c2mon.server.common.device.Device;
+import cern.c2mon.server.common.device.DeviceCacheObject;
+import cern.c2mon.server.ehcache.impl.InMemoryCache;
+
+/**
+ * Unit test of the device class index used by {@link DeviceInMemoryQuery}.
+ */
+public class DeviceInMemoryQueryTest {
+
+  private InMemoryCache<Long, Device> cache;
+
+  private DeviceInMemoryQuery query;
+
+  @Before
+  public void setUp() {
+    cache = new InMemoryCache<>("deviceCache");
+    // devices put before the query is created must be indexed as well
+    cache.put(1L, new DeviceCacheObject(1L, "DEVICE_1", 400L));
+    query = new DeviceInMemoryQuery(cache);
+
+    TreeMap<Long, Device> devices = new TreeMap<>();
+    devices.put(2L, new DeviceCacheObject(2L, "DEVICE_2", 400L));
+    devices.put(3L, new DeviceCacheObject(3L, "DEVICE_3", 401L));
+    cache.putAll(devices);
+  }
+
+  @Test
+  public void testFindByDeviceClassId() {
+    assertEquals(ids(1L, 2L), ids(query.findDevicesByDeviceClassId(400L)));
+    // not the same Long instance as the one of the devices
+    assertEquals(ids(3L), ids(query.findDevicesByDeviceClassId(Long.valueOf(401L))));
+  }
+
+  @Test(expected = CacheElementNotFoundException.class)
+  public void testUnknownDeviceClass() {
+    query.findDevicesByDeviceClassId(402L);
+  }
+
+  @Test
+  public void testIndexFollowsClassChange() {
+    DeviceCacheObject device = (DeviceCacheObject) cache.get(2L);
+    device.setDeviceClassId(401L);
+    // modified in place: filtered out until put back
+    assertEquals(ids(1L), ids(query.findDevicesByDeviceClassId(400L)));
+
+    cache.put(2L, device);
+    assertEquals(ids(2L, 3L), ids(query.findDevicesByDeviceClassId(401L)));
+  }
+
+  @Test(expected = CacheElementNotFoundException.class)
+  public void testIndexFollowsRemove() {
+    cache.remove(3L);
+    query.findDevicesByDeviceClassId(401L);
+  }
+
+  private static Set<Long> ids(Long... ids) {
+    return Arrays.stream(ids).collect(Collectors.toSet());
+  }
+
+  private static Set<Long> ids(List<Device> devices) {
+    return devices.stream().map(Device::getId).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,224 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.snapshot;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
+import cern.c2mon.server.common.config.ServerProperties;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.test.CacheObjectComparison;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CacheSnapshotStoreTest {
+
+  private static final String CACHE_NAME = "dataTagCache";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private CacheSnapshotDAO cacheSnapshotDAO;
+
+  private CacheSnapshotStore store;
+
+  private Path file;
+
+  @Before
+  public void setUp() {
+    CacheProperties properties = new CacheProperties();
+    properties.setSnapshotEnabled(true);
+    properties.setSnapshotDirectory(folder.getRoot().getAbsolutePath());
+    cacheSnapshotDAO = EasyMock.createMock(CacheSnapshotDAO.class);
+    store = new CacheSnapshotStore(properties, new ServerProperties(), cacheSnapshotDAO);
+    file = folder.getRoot().toPath().resolve(CACHE_NAME + ".snapshot");
+  }
+
+  @Test
+  public void testWriteAndRead() {
+    List<DataTagCacheObject> dataTags = Arrays.asList(CacheObjectCreation.createTestDataTag(),
+        CacheObjectCreation.createTestDataTag2(), CacheObjectCreation.createTestDataTag3());
+    EasyMock.expect(cacheSnapshotDAO.getLastConfigurationChange()).andReturn(new Timestamp(0));
+    EasyMock.replay(cacheSnapshotDAO);
+
+    store.write(CACHE_NAME, dataTags);
+    assertTrue(Files.exists(file));
+    CacheSnapshot<DataTagCacheObject> snapshot = store.read(CACHE_NAME);
+
+    assertNotNull(snapshot);
+    assertEquals(dataTags.size(), snapshot.getObjects().size());
+    for (int i = 0; i < dataTags.size(); i++) {
+      CacheObjectComparison.equals(dataTags.get(i), snapshot.getObjects().get(i));
+    }
+    // a snapshot is only used once
+    assertFalse(Files.exists(file));
+    EasyMock.verify(cacheSnapshotDAO);
+  }
+
+  @Test
+  public void testReadWithoutConfigurationChange() {
+    EasyMock.expect(cacheSnapshotDAO.getLastConfigurationChange()).andReturn(null);
+    EasyMock.replay(cacheSnapshotDAO);
+
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    assertNotNull(store.read(CACHE_NAME));
+    EasyMock.verify(cacheSnapshotDAO);
+  }
+
+  @Test
+  public void testConfigurationAppliedAfterSnapshot() {
+    EasyMock.expect(cacheSnapshotDAO.getLastConfigurationChange())
+        .andReturn(new Timestamp(System.currentTimeMillis() + 1000));
+    EasyMock.replay(cacheSnapshotDAO);
+
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    assertNull(store.read(CACHE_NAME));
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testCorruptedSnapshot() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(raf.length() / 2);
+      int b = raf.read();
+      raf.seek(raf.length() / 2);
+      raf.write(b ^ 0xFF);
+    }
+
+    assertNull(store.read(CACHE_NAME));
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testTruncatedSnapshot() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 4);
+    }
+
+    assertNull(store.read(CACHE_NAME));
+  }
+
+  @Test
+  public void testUnknownVersion() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      // the version follows the magic number
+      raf.seek(4);
+      raf.writeInt(CacheSnapshot.VERSION + 1);
+    }
+
+    assertNull(store.read(CACHE_NAME));
+  }
+
+  @Test
+  public void testSnapshotOfAnotherCache() {
+    EasyMock.replay(cacheSnapshotDAO);
+    store.write("ruleTagCache", Arrays.asList(CacheObjectCreation.createTestDataTag()));
+    file.getParent().resolve("ruleTagCache.snapshot").toFile().renameTo(file.toFile());
+
+    assertNull(store.read(CACHE_NAME));
+  }
+
+
+  @Test
+  public void testDefaultDirectoryInServerHome() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    ServerProperties serverProperties = new ServerProperties();
+    serverProperties.setHome(folder.getRoot().getAbsolutePath());
+    store = new CacheSnapshotStore(new CacheProperties(), serverProperties, cacheSnapshotDAO);
+
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    Path directory = folder.getRoot().toPath().resolve("data").resolve("cache-snapshots");
+    assertTrue(Files.exists(directory.resolve(CACHE_NAME + ".snapshot")));
+    assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+  }
+
+  @Test
+  public void testDirectoryWritableByOthersRefused() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    Files.setPosixFilePermissions(folder.getRoot().toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testSnapshotInDirectoryWritableByOthersIgnored() throws IOException {
+    EasyMock.replay(cacheSnapshotDAO);
+    store.write(CACHE_NAME, Arrays.asList(CacheObjectCreation.createTestDataTag()));
+    assertTrue(Files.exists(file));
+    Files.setPosixFilePermissions(folder.getRoot().toPath(), PosixFilePermissions.fromString("rwxrwx---"));
+
+    assertNull(store.read(CACHE_NAME));
+    EasyMock.verify(cacheSnapshotDAO);
+  }
+
+  /**
+   * Classes outside of the C2MON and JDK value and collection classes are not
+   * deserialized.
+   */
+  @Test
+  public void testUnexpectedClassRejected() {
+    EasyMock.replay(cacheSnapshotDAO);
+    DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+    dataTag.setValue(URI.create("http://c2mon.web.cern.ch"));
+    store.write(CACHE_NAME, Arrays.asList(dataTag));
+    assertTrue(Files.exists(file));
+
+    assertNull(store.read(CACHE_NAME));
+    EasyMock.verify(cacheSnapshotDAO);
+  }
+  @Test
+  public void testNoSnapshot() {
+    EasyMock.replay(cacheSnapshotDAO);
+
+    assertNull(store.read(CACHE_NAME));
+    EasyMock.verify(cacheSnapshotDAO);
+  }
+}
@@ -0,0 +1,130 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.tag.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.ehcache.impl.InMemoryCache;
+
+/**
+ * Unit test of the name index used by {@link TagInMemoryQuery}.
+ */
+public class TagInMemoryQueryTest {
+
+  private InMemoryCache<Long, DataTag> cache;
+
+  private TagInMemoryQuery<DataTag> query;
+
+  @Before
+  public void setUp() {
+    cache = new InMemoryCache<>("dataTagCache");
+    // tags put before the query is created must be indexed as well
+    cache.put(1L, createTag(1L, "CRYO.TEMP.01"));
+    query = new TagInMemoryQuery<>(cache);
+
+    TreeMap<Long, DataTag> tags = new TreeMap<>();
+    tags.put(2L, createTag(2L, "cryo.temp.02"));
+    tags.put(3L, createTag(3L, "CRYO.PRESSURE.01"));
+    tags.put(4L, createTag(4L, "VAC.GAUGE"));
+    cache.putAll(tags);
+  }
+
+  @Test
+  public void testFindByNameIgnoresCase() {
+    assertEquals(ids(1L), ids(query.findTagsByName("cryo.Temp.01", 10)));
+    assertEquals(ids(2L), ids(query.findTagsByName("CRYO.TEMP.02", 10)));
+    assertTrue(query.findTagsByName("CRYO.TEMP", 10).isEmpty());
+  }
+
+  @Test
+  public void testIndexFollowsRenameAndRemove() {
+    cache.put(4L, createTag(4L, "VAC.GAUGE.RENAMED"));
+    assertTrue(query.findTagsByName("VAC.GAUGE", 10).isEmpty());
+    assertEquals(ids(4L), ids(query.findTagsByName("vac.gauge.renamed", 10)));
+
+    cache.remove(4L);
+    assertTrue(query.findTagsByName("VAC.GAUGE.RENAMED", 10).isEmpty());
+
+    cache.removeAll();
+    assertTrue(query.findTagsByName("CRYO.TEMP.01", 10).isEmpty());
+  }
+
+  @Test
+  public void testDuplicateNames() {
+    cache.put(5L, createTag(5L, "Vac.Gauge"));
+    assertEquals(ids(4L, 5L), ids(query.findTagsByName("VAC.GAUGE", 10)));
+    assertEquals(1, query.findTagsByName("VAC.GAUGE", 1).size());
+
+    cache.remove(4L);
+    assertEquals(ids(5L), ids(query.findTagsByName("VAC.GAUGE", 10)));
+  }
+
+  @Test
+  public void testFindByWildcardWithPrefix() {
+    assertEquals(ids(1L, 2L, 3L), ids(query.findTagsByWildcard("cryo*", 10)));
+    assertEquals(ids(1L, 2L), ids(query.findTagsByWildcard("CRYO.TEMP.0?", 10)));
+    assertEquals(ids(3L), ids(query.findTagsByWildcard("CRYO.*SURE*", 10)));
+    assertEquals(2, query.findTagsByWildcard("CRYO*", 2).size());
+    assertTrue(query.findTagsByWildcard("CRYX*", 10).isEmpty());
+  }
+
+  @Test
+  public void testFindByWildcardWithoutPrefix() {
+    assertEquals(ids(1L, 3L), ids(query.findTagsByWildcard("*.01", 10)));
+  }
+
+  @Test
+  public void testFindByWildcardKeepsRegexSemantics() {
+    cache.put(6L, createTag(6L, "CRYOxTEMP.03"));
+    // '.' matches any character
+    assertEquals(ids(1L, 2L, 6L), ids(query.findTagsByWildcard("CRYO.TEMP*", 10)));
+  }
+
+  @Test
+  public void testLiteralPrefix() {
+    assertEquals("CRYO", TagInMemoryQuery.literalPrefix("CRYO.TEMP*"));
+    assertEquals("CRYO_TEMP_", TagInMemoryQuery.literalPrefix("CRYO_TEMP_*"));
+    assertEquals("ABC", TagInMemoryQuery.literalPrefix("ABC"));
+    assertEquals("AB", TagInMemoryQuery.literalPrefix("ABC+"));
+    assertEquals("", TagInMemoryQuery.literalPrefix("*ABC"));
+    assertEquals("", TagInMemoryQuery.literalPrefix("ABC|DEF"));
+  }
+
+  private static DataTag createTag(Long id, String name) {
+    return new DataTagCacheObject(id, name, "Float", (short) 0);
+  }
+
+  private static Set<Long> ids(Long... ids) {
+    return Arrays.stream(ids).collect(Collectors.toSet());
+  }
+
+  private static Set<Long> ids(List<DataTag> tags) {
+    return tags.stream().map(DataTag::getId).collect(Collectors.toSet());
+  }
+}
@@ -19,6 +19,7 @@ package cern.c2mon.server.cache.dbaccess;
 import java.util.List;
 
 import cern.c2mon.server.cache.dbaccess.structure.DBBatch;
+import cern.c2mon.server.cache.dbaccess.structure.DBKeysetBatch;
 import cern.c2mon.shared.common.Cacheable;
 
 /**
@@ -36,4 +37,14 @@ public interface BatchLoaderMapper<T extends Cacheable> extends SimpleLoaderMapp
    * @return the list of records
    */
   List<T> getRowBatch(DBBatch dbBatch);
+
+  /**
+   * Return the records following the last id of the given batch, ordered
+   * by id. Unlike {@link #getRowBatch(DBBatch)}, the cost of the query does
+   * not depend on the position of the batch in the table.
+   *
+   * @param dbBatch specifies the last loaded id and the batch size
+   * @return the list of records, ordered by id
+   */
+  List<T> getBatchAfter(DBKeysetBatch dbBatch);
 }
@@ -0,0 +1,56 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.dbaccess;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Mybatis mapper for checking the local cache snapshots against the DB.
+ */
+public interface CacheSnapshotMapper {
+
+  /**
+   * @return the time the last configuration was applied, or null if no
+   * configuration has been applied
+   */
+  Timestamp getLastConfigurationChange();
+
+  /**
+   * @param time the time of the snapshot
+   * @return the ids of the data, rule and control tags updated after the given time
+   */
+  List<Long> getTagIdsModifiedAfter(Timestamp time);
+
+  /**
+   * @param time the time of the snapshot
+   * @return the ids of the alarms updated after the given time
+   */
+  List<Long> getAlarmIdsModifiedAfter(Timestamp time);
+
+  /**
+   * @param time the time of the snapshot
+   * @return the ids of the processes updated after the given time
+   */
+  List<Long> getProcessIdsModifiedAfter(Timestamp time);
+
+  /**
+   * @param time the time of the snapshot
+   * @return the ids of the equipment and sub-equipment updated after the given time
+   */
+  List<Long> getEquipmentIdsModifiedAfter(Timestamp time);
+}
@@ -0,0 +1,42 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.dbaccess.structure;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Specifies a batch of records that needs loading, by keyset
+ * pagination: the first records ordered by id, whose id is
+ * above the last id of the previous batch.
+ */
+@Data
+@AllArgsConstructor
+public class DBKeysetBatch {
+
+  /**
+   * Id of the last record of the previous batch (exclusive),
+   * or null for the first batch.
+   */
+  private Long lastId;
+
+  /**
+   * Maximum number of cache objects to load.
+   */
+  private Integer batchSize;
+
+}
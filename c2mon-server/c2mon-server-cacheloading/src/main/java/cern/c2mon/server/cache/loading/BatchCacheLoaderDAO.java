@@ -16,6 +16,7 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.loading;
 
+import java.util.List;
 import java.util.Map;
 
 import cern.c2mon.shared.common.Cacheable;
@@ -49,4 +50,30 @@ public interface BatchCacheLoaderDAO<T extends Cacheable> extends SimpleCacheLoa
    */
   Map<Object, T> getBatchAsMap(Long firstRow, Long lastRow);
 
+  /**
+   * Returns the elements following the given id, ordered by id. The cost of
+   * the query does not depend on the position of the batch, so the whole
+   * table can be read by passing the id of the last element of the previous
+   * batch.
+   *
+   * <p>The elements are returned as read from the DB: the post-DB-access logic
+   * is applied by {@link #prepareBatch(List)}, so that it can run on another
+   * thread than the DB access.
+   *
+   * @param lastId fetches the elements with an id above this one, or all
+   *               elements if null
+   * @param batchSize the maximum number of elements to fetch
+   * @return the elements ordered by id, empty once the last element is passed
+   */
+  List<T> getBatchAfter(Long lastId, int batchSize);
+
+  /**
+   * Performs the post-DB-access logic on a batch returned by
+   * {@link #getBatchAfter(Long, int)}.
+   *
+   * @param batch the elements read from the DB
+   * @return a map sorted by id of the objects ready to load into the cache
+   */
+  Map<Object, T> prepareBatch(List<T> batch);
+
 }
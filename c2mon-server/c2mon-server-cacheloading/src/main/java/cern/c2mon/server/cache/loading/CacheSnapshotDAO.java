@@ -0,0 +1,42 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.loading;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * DAO for checking the local cache snapshots against the DB: a snapshot
+ * may only be used if no configuration was applied since it was taken,
+ * and the cache objects updated in the DB since then must be reloaded.
+ */
+public interface CacheSnapshotDAO {
+
+  /**
+   * @return the time the last configuration was applied, or null if no
+   * configuration has been applied
+   */
+  Timestamp getLastConfigurationChange();
+
+  List<Long> getTagIdsModifiedAfter(Timestamp time);
+
+  List<Long> getAlarmIdsModifiedAfter(Timestamp time);
+
+  List<Long> getProcessIdsModifiedAfter(Timestamp time);
+
+  List<Long> getEquipmentIdsModifiedAfter(Timestamp time);
+}
@@ -19,6 +19,7 @@ package cern.c2mon.server.cache.loading.common;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import cern.c2mon.server.cache.dbaccess.BatchLoaderMapper;
 import cern.c2mon.server.cache.dbaccess.structure.DBBatch;
+import cern.c2mon.server.cache.dbaccess.structure.DBKeysetBatch;
 import cern.c2mon.server.cache.loading.BatchCacheLoaderDAO;
 import cern.c2mon.shared.common.Cacheable;
 
@@ -83,4 +85,22 @@ public abstract class AbstractBatchLoaderDAO<T extends Cacheable> extends Abstra
     return returnMap;
   }
 
+  @Override
+  public List<T> getBatchAfter(Long lastId, int batchSize) {
+    return batchLoaderMapper.getBatchAfter(new DBKeysetBatch(lastId, batchSize));
+  }
+
+  @Override
+  public Map<Object, T> prepareBatch(List<T> batch) {
+    Map<Object, T> returnMap = new TreeMap<>();
+    for (T element : batch) {
+      if (element != null) {
+        returnMap.put(element.getId(), doPostDbLoading(element));
+      } else {
+        log.warn("Null value retrieved from DB by Mapper {}", batchLoaderMapper.getClass().getSimpleName());
+      }
+    }
+    return returnMap;
+  }
+
 }
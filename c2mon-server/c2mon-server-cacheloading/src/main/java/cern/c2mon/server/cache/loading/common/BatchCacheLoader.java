@@ -18,15 +18,25 @@ package cern.c2mon.server.cache.loading.common;
 
 import cern.c2mon.server.cache.loading.BatchCacheLoaderDAO;
 import cern.c2mon.server.ehcache.Ehcache;
+import cern.c2mon.server.ehcache.impl.IgniteCacheImpl;
 import cern.c2mon.shared.common.Cacheable;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+import org.apache.ignite.IgniteDataStreamer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -34,6 +44,10 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
  * Cache loader implementation that loads the cache on multiple threads. The cache
  * must provided a BatchCacheLoaderDAO implementation.
  *
+ * <p>The loading is pipelined: the calling thread reads the DB batch after batch,
+ * using keyset pagination, while the loading threads prepare the cache objects
+ * of the previous batches and put them into the cache in bulk.
+ *
  * @param <T> the cache object type
  *
  * @author Mark Brightwell
@@ -47,11 +61,32 @@ public class BatchCacheLoader<T extends Cacheable> implements C2monCacheLoader {
   @Autowired
   private ThreadPoolTaskExecutor cacheLoadingThreadPoolTaskExecutor;
 
+  /**
+   * Progress of the loading of all caches.
+   */
+  @Autowired
+  private CacheLoadingProgress cacheLoadingProgress;
+
   /**
    * Timeout before an inactive thread is returned to the pool
    */
   private static final int THREAD_TIMEOUT = 5; //in seconds
 
+  /**
+   * Maximum time for loading a cache
+   */
+  private static final long LOADING_TIMEOUT = 1800; //in seconds
+
+  /**
+   * Interval between two progress log messages
+   */
+  private static final long PROGRESS_LOG_INTERVAL = 10; //in seconds
+
+  /**
+   * Marks the end of the batches in the queue of the loading threads
+   */
+  private static final List<?> END_OF_BATCHES = Collections.emptyList();
+
   /**
    * The max number of cache object fetched in one query from the DB and loaded
    * into the cache in a single thread (covers this many ids, but all need not
@@ -95,62 +130,144 @@ public class BatchCacheLoader<T extends Cacheable> implements C2monCacheLoader {
   @Override
   public void preload() {
     log.debug("preload() - Start preloading data for cache " + cache.getName());
-    Integer lastRow = batchCacheLoaderDAO.getMaxRow(); // 0 if no cache objects!
+    CacheLoadingProgress.Progress progress = cacheLoadingProgress.start(cache.getName(), batchCacheLoaderDAO.getMaxRow());
 
     cacheLoadingThreadPoolTaskExecutor.setThreadNamePrefix(this.threadNamePrefix);
     cacheLoadingThreadPoolTaskExecutor.initialize();
 
-    Integer firstRow = 0;
-    LinkedList<Callable<Object>> tasks = new LinkedList<Callable<Object>>();
-    while (firstRow <= lastRow) {
-      MapLoaderTask mapTask = new MapLoaderTask(firstRow + 1, firstRow + batchSize);
-      tasks.push(mapTask);
-      firstRow += batchSize;
-    }
+    IgniteDataStreamer<Object, T> streamer = createDataStreamer();
+    Consumer<Map<Object, T>> writer = streamer != null ? streamer::addData : cache::putAll;
+
+    int loaderThreads = Math.max(1, cacheLoadingThreadPoolTaskExecutor.getMaxPoolSize());
+    BlockingQueue<List<T>> batches = new ArrayBlockingQueue<>(2 * loaderThreads);
+    List<Future<?>> loaders = new ArrayList<>(loaderThreads);
     try {
-      cacheLoadingThreadPoolTaskExecutor.getThreadPoolExecutor().invokeAll(tasks, 1800, TimeUnit.SECONDS);
+      for (int i = 0; i < loaderThreads; i++) {
+        loaders.add(cacheLoadingThreadPoolTaskExecutor.submit(new BatchLoaderTask(batches, writer, progress)));
+      }
+      readBatches(batches, loaderThreads, progress);
+      awaitLoaders(loaders);
     } catch (RejectedExecutionException e) {
-      log.error("Exception caught while loading a server cache from the database. This is probably due to the cache.loader.queue.size being"
-          + "too small. Increase this to at least 'id range'/'cache loader batch size', or alternatively increase the"
-          + "batch size.");
+      log.error("Exception caught while starting the threads loading a server cache from the database. "
+          + "Increase c2mon.server.cacheloading.queueSize or decrease c2mon.server.cacheloading.maxThreads.");
       throw e;
     } catch (InterruptedException e) {
       log.error("Interrupted while waiting for cache loading threads to terminate.", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      loaders.forEach(loader -> loader.cancel(true));
+      if (streamer != null) {
+        streamer.close();
+      }
+      progress.finish();
+      cacheLoadingThreadPoolTaskExecutor.shutdown();
     }
-    cacheLoadingThreadPoolTaskExecutor.shutdown();
-    log.debug("preload() - Finished preload for cache " + cache.getName());
+    log.info("preload() - Finished preload for cache {}: {}", cache.getName(), progress);
   }
 
   /**
-   * Task that loads a batch of cache objects into
-   * the cache. A batch must be specified by a first
-   * and last Cacheable id and the DAO must implement the
-   * <code>getBatchAsMap</code> method.
-   *
-   * <p>Returns null on successful completion.
-   *
-   * @author Mark Brightwell
+   * @return an Ignite data streamer for loading the cache if it is an Ignite
+   * cache, null otherwise
+   */
+  @SuppressWarnings("unchecked")
+  private IgniteDataStreamer<Object, T> createDataStreamer() {
+    if (cache instanceof IgniteCacheImpl) {
+      return ((IgniteCacheImpl<Object, T>) cache).dataStreamer();
+    }
+    return null;
+  }
+
+  /**
+   * Reads the DB batch after batch, handing them over to the loading threads,
+   * then tells all loading threads that there are no more batches.
+   */
+  @SuppressWarnings("unchecked")
+  private void readBatches(final BlockingQueue<List<T>> batches, final int loaderThreads,
+                           final CacheLoadingProgress.Progress progress) throws InterruptedException {
+    long nextLog = System.nanoTime() + TimeUnit.SECONDS.toNanos(PROGRESS_LOG_INTERVAL);
+    try {
+      Long lastId = null;
+      List<T> batch = batchCacheLoaderDAO.getBatchAfter(lastId, batchSize);
+      while (!batch.isEmpty()) {
+        batches.put(batch);
+        lastId = getLastId(batch);
+        if (lastId == null) {
+          log.warn("Batch without any element read for cache {}, stopping the loading", cache.getName());
+          break;
+        }
+
+        if (System.nanoTime() - nextLog > 0) {
+          log.info("Loading cache {}: {}", cache.getName(), progress);
+          nextLog = System.nanoTime() + TimeUnit.SECONDS.toNanos(PROGRESS_LOG_INTERVAL);
+        }
+        batch = batchCacheLoaderDAO.getBatchAfter(lastId, batchSize);
+      }
+    } finally {
+      for (int i = 0; i < loaderThreads; i++) {
+        if (!batches.offer((List<T>) END_OF_BATCHES, LOADING_TIMEOUT, TimeUnit.SECONDS)) {
+          break;
+        }
+      }
+    }
+  }
+
+  private Long getLastId(final List<T> batch) {
+    for (int i = batch.size() - 1; i >= 0; i--) {
+      if (batch.get(i) != null) {
+        return batch.get(i).getId();
+      }
+    }
+    return null;
+  }
+
+  private void awaitLoaders(final List<Future<?>> loaders) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(LOADING_TIMEOUT);
+    for (Future<?> loader : loaders) {
+      try {
+        loader.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (ExecutionException e) {
+        log.error("Exception caught while loading cache " + cache.getName(), e.getCause());
+      } catch (TimeoutException e) {
+        log.error("Timeout while loading cache {}: {}", cache.getName(), cacheLoadingProgress.getSummary().get(cache.getName()));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Task that prepares the batches read from the DB and puts them into
+   * the cache, until the end of the batches.
    *
+   * <p>Returns null on completion.
    */
-  private class MapLoaderTask implements Callable<Object> {
+  private class BatchLoaderTask implements Callable<Object> {
+
+    private final BlockingQueue<List<T>> batches;
+
+    private final Consumer<Map<Object, T>> writer;
 
-    long firstId;
-    long lastId;
+    private final CacheLoadingProgress.Progress progress;
 
-    public MapLoaderTask(long startRow, long endRow) {
-     this.firstId = startRow;
-     this.lastId = endRow;
+    BatchLoaderTask(final BlockingQueue<List<T>> batches, final Consumer<Map<Object, T>> writer,
+                    final CacheLoadingProgress.Progress progress) {
+      this.batches = batches;
+      this.writer = writer;
+      this.progress = progress;
     }
 
     @Override
-    public Object call() {
-      Map<Object, T> cacheLoaderMap = batchCacheLoaderDAO.getBatchAsMap(firstId, lastId);
-      //preloadBuffer.putAll(cacheLoaderMap);
-      for (Object key : cacheLoaderMap.keySet()) {
-        if (log.isTraceEnabled()) {
-          log.trace("MapLoaderTask - Putting key {} to cache {}", key, cache.getName());
+    public Object call() throws InterruptedException {
+      List<T> batch = batches.take();
+      while (batch != END_OF_BATCHES) {
+        try {
+          Map<Object, T> cacheObjects = batchCacheLoaderDAO.prepareBatch(batch);
+          writer.accept(cacheObjects);
+          progress.add(cacheObjects.size());
+        } catch (RuntimeException e) {
+          // keep on taking the batches, so that the DB reading is not blocked
+          log.error("Exception caught while loading a batch into cache " + cache.getName(), e);
         }
-        cache.putQuiet(key, cacheLoaderMap.get(key));
+        batch = batches.take();
       }
       return null;
     }
@@ -0,0 +1,114 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.loading.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of the progress of the cache preloading from the database,
+ * for reporting it by the server lifecycle.
+ */
+@Component
+public class CacheLoadingProgress {
+
+  /** Progress by cache name */
+  private final Map<String, Progress> caches = new ConcurrentSkipListMap<>();
+
+  /**
+   * Starts tracking the loading of a cache.
+   *
+   * @param cacheName the name of the cache
+   * @param expectedItems the number of items to load, as known before loading
+   * @return the progress to update while loading
+   */
+  public Progress start(final String cacheName, final long expectedItems) {
+    Progress progress = new Progress(expectedItems);
+    caches.put(cacheName, progress);
+    return progress;
+  }
+
+  /**
+   * @return a description of the loading progress, by cache name
+   */
+  public Map<String, String> getSummary() {
+    Map<String, String> summary = new LinkedHashMap<>();
+    caches.forEach((name, progress) -> summary.put(name, progress.toString()));
+    return summary;
+  }
+
+  /**
+   * Loading progress of a single cache.
+   */
+  public static final class Progress {
+
+    private final long expectedItems;
+
+    private final long startTime = System.nanoTime();
+
+    private final AtomicLong loadedItems = new AtomicLong();
+
+    private volatile long endTime = -1;
+
+    private Progress(final long expectedItems) {
+      this.expectedItems = expectedItems;
+    }
+
+    /**
+     * @param items number of items just loaded into the cache
+     */
+    public void add(final int items) {
+      loadedItems.addAndGet(items);
+    }
+
+    public void finish() {
+      endTime = System.nanoTime();
+    }
+
+    public boolean isFinished() {
+      return endTime >= 0;
+    }
+
+    public long getLoadedItems() {
+      return loadedItems.get();
+    }
+
+    public long getExpectedItems() {
+      return expectedItems;
+    }
+
+    /**
+     * @return the average number of items loaded per second since the start
+     */
+    public long getItemsPerSecond() {
+      long end = isFinished() ? endTime : System.nanoTime();
+      long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(end - startTime));
+      return loadedItems.get() * 1000L / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d/%d items, %d items/s%s", getLoadedItems(), expectedItems, getItemsPerSecond(),
+          isFinished() ? ", finished" : "");
+    }
+  }
+}
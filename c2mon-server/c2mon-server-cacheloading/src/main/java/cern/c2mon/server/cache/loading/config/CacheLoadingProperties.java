@@ -11,23 +11,21 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class CacheLoadingProperties {
 
   /**
-   * Max number of threads used to load caches from the database. For best
-   * performance, ensure there are as many (or more) database connections
-   * available
+   * Max number of threads used to load caches from the database. The
+   * database is read on a single thread per cache, while these threads
+   * prepare the cache objects and put them into the cache
    */
   private int maxThreads = 20;
 
   /**
    * Number of cache objects to be loaded in a single task. This results in
-   * one DB query in single thread.
+   * one DB query and one bulk put into the cache.
    */
   private int batchSize = 1000;
 
   /**
-   * Size of the loader task queue. This should be large enough to contain all
-   * the batches, i.e. queueSize and batchSize must be set so that
-   * queueSize > #(cache id range) / batchSize (otherwise exceptions will be
-   * thrown at startup)
+   * Size of the loader task queue. A cache is loaded by at most maxThreads
+   * tasks, so the queue does not need to be larger than maxThreads
    */
   private int queueSize = 1000;
 }
@@ -0,0 +1,65 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.loading.impl;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import cern.c2mon.server.cache.dbaccess.CacheSnapshotMapper;
+import cern.c2mon.server.cache.loading.CacheSnapshotDAO;
+
+/**
+ * Mybatis implementation of the {@link CacheSnapshotDAO}.
+ */
+@Service
+public class CacheSnapshotDAOImpl implements CacheSnapshotDAO {
+
+  private final CacheSnapshotMapper cacheSnapshotMapper;
+
+  @Autowired
+  public CacheSnapshotDAOImpl(final CacheSnapshotMapper cacheSnapshotMapper) {
+    this.cacheSnapshotMapper = cacheSnapshotMapper;
+  }
+
+  @Override
+  public Timestamp getLastConfigurationChange() {
+    return cacheSnapshotMapper.getLastConfigurationChange();
+  }
+
+  @Override
+  public List<Long> getTagIdsModifiedAfter(final Timestamp time) {
+    return cacheSnapshotMapper.getTagIdsModifiedAfter(time);
+  }
+
+  @Override
+  public List<Long> getAlarmIdsModifiedAfter(final Timestamp time) {
+    return cacheSnapshotMapper.getAlarmIdsModifiedAfter(time);
+  }
+
+  @Override
+  public List<Long> getProcessIdsModifiedAfter(final Timestamp time) {
+    return cacheSnapshotMapper.getProcessIdsModifiedAfter(time);
+  }
+
+  @Override
+  public List<Long> getEquipmentIdsModifiedAfter(final Timestamp time) {
+    return cacheSnapshotMapper.getEquipmentIdsModifiedAfter(time);
+  }
+}
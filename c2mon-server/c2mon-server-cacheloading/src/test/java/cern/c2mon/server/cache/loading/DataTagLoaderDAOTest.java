@@ -77,4 +77,25 @@ public class DataTagLoaderDAOTest {
     assertEquals("Expected 6 entries between rows 10 and 15", 6, batch3.size());
     assertTrue("Entries between rows 10 and 15 do not match", batch3.keySet().containsAll(expectedResult.subList(10, 15)));
   }
+
+  @Test
+  public void testGetBatchAfter() {
+    List<Long> expectedResult = Arrays.asList(200000L, 200001L, 200002L, 200003L, 200004L, 200005L, 200010L, 200011L, 200012L, 210000L, 210001L, 210002L, 210003L, 210008L, 210009L, 210010L);
+    List<DataTag> batch1 = dataTagLoaderDAO.getBatchAfter(null, 10);
+    assertEquals("Batch should be limited to the first 10 tags", expectedResult.subList(0, 10), getIds(batch1));
+    List<DataTag> batch2 = dataTagLoaderDAO.getBatchAfter(batch1.get(9).getId(), 10);
+    assertEquals("Batch should contain the tags after the first batch", expectedResult.subList(10, 16), getIds(batch2));
+    assertTrue("No tag expected after the last one", dataTagLoaderDAO.getBatchAfter(batch2.get(5).getId(), 10).isEmpty());
+
+    Map<Object, DataTag> prepared = dataTagLoaderDAO.prepareBatch(batch1);
+    assertEquals("Prepared batch should be sorted by id", expectedResult.subList(0, 10), new ArrayList<>(prepared.keySet()));
+  }
+
+  private static List<Long> getIds(List<DataTag> tags) {
+    List<Long> ids = new ArrayList<>();
+    for (DataTag tag : tags) {
+      ids.add(tag.getId());
+    }
+    return ids;
+  }
 }
@@ -56,11 +56,22 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(BatchPersistenceManagerImpl.class);
 
+  /**
+   * Default size of the batches between database commits.
+   */
+  private static final int DEFAULT_RECORDS_PER_BATCH = 500;
+
   /**
    * Size of the batches between database commits. Also corresponds
    * to the size of the tasks executed by the ExecutorService.
    */
-  private static final int RECORDS_PER_BATCH = 500;
+  private int recordsPerBatch = DEFAULT_RECORDS_PER_BATCH;
+
+  /**
+   * If true, the cache objects are persisted in key order, otherwise in
+   * the order they were submitted.
+   */
+  private boolean sortKeys = true;
 
   /**
    * Timeout in milliseconds for a single batch to persist.
@@ -96,7 +107,7 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
    * be done at later stage to avoid inconsistencies, with server updating
    * DB once it is back).
    */
-  private Set<Long> toBePersisted = new HashSet<>();
+  private Set<Long> toBePersisted = new LinkedHashSet<>();
 
   /**
    * Lock for accessing toBePersisted collection, used only
@@ -131,7 +142,8 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
       LOGGER.debug("Submitting new persistence task (currently " + cachePersistenceThreadPoolTaskExecutor.getThreadPoolExecutor().getQueue().size() + " tasks in queue)");
 
       //local set, no synch needed; removes duplicates from collection (though unnecessary with current SynchroBuffer)
-      Set<Long> localToBePersisted = new HashSet<>(keyCollection);
+      //sorted by key if requested, so that all batches update the table rows in primary key order
+      Set<Long> localToBePersisted = sortKeys ? new TreeSet<>(keyCollection) : new LinkedHashSet<>(keyCollection);
 
       toBePersistedLock.writeLock().lock();
       try {
@@ -151,17 +163,14 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
       Iterator<Long> it = localToBePersisted.iterator();
       while (it.hasNext()) {
         PersistenceTask task = new PersistenceTask();
-        LinkedList<Long> persistedIds = new LinkedList<>();
         int counter = 0;
-        while (it.hasNext() && counter < RECORDS_PER_BATCH) {
-          Long currentId = it.next();
-          task.put(currentId);
+        while (it.hasNext() && counter < recordsPerBatch) {
+          task.put(it.next());
           counter++;
-          persistedIds.push(currentId);
         }
         Future< ? > result = cachePersistenceThreadPoolTaskExecutor.submit(task);
         taskResults.offerLast(result);
-        submittedSets.put(result, persistedIds);
+        submittedSets.put(result, task.keyList);
       }
 
       //wait for all to complete; if wait longer than 5s for a single
@@ -184,7 +193,7 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
           exceptionCaught = true;
         } catch (TimeoutException e) {
           LOGGER.warn("Timeout while waiting for persistence task " + count + " to "
-              + "complete (timeout per batch of " + RECORDS_PER_BATCH + " is set at " + timeoutPerBatch + " milliseconds; cancelling batch)"
+              + "complete (timeout per batch of " + recordsPerBatch + " is set at " + timeoutPerBatch + " milliseconds; cancelling batch)"
               + "Cache elements will be persisted during next persistence task.", e);
           result.cancel(true);
           exceptionCaught = true;
@@ -236,7 +245,30 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
   }
 
   /**
-   * Task persisting a collection of RECORDS_PER_BATCH cache
+   * Sets the number of cache objects persisted in a single batch
+   * and transaction. Default is 500.
+   *
+   * @param recordsPerBatch maximum size of a batch
+   */
+  public void setRecordsPerBatch(final int recordsPerBatch) {
+    if (recordsPerBatch <= 0) {
+      throw new IllegalArgumentException("The number of records per batch must be positive, got " + recordsPerBatch);
+    }
+    this.recordsPerBatch = recordsPerBatch;
+  }
+
+  /**
+   * Sets whether the cache objects are persisted in key (i.e. primary key) order,
+   * rather than in the order they were submitted. Default is true.
+   *
+   * @param sortKeys true to sort the keys before splitting them in batches
+   */
+  public void setSortKeys(final boolean sortKeys) {
+    this.sortKeys = sortKeys;
+  }
+
+  /**
+   * Task persisting a collection of recordsPerBatch cache
    * objects to the database, by calling a CachePersistenceDAO.
    *
    * <p>Exceptions are caught by the ExecutorService, and wrapped and thrown
@@ -250,7 +282,7 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
     /**
      * Keys of cache elements to persist.
      */
-    private ArrayList<Long> keyList = new ArrayList<>(RECORDS_PER_BATCH);
+    private final ArrayList<Long> keyList = new ArrayList<>(recordsPerBatch);
 
     /**
      * Add the key to the task, prior to execution.
@@ -309,8 +341,12 @@ public class BatchPersistenceManagerImpl<T extends Cacheable> implements BatchPe
       LOGGER.debug("Detected cache objects that need persisting... trying to persist them.");
       toBePersistedLock.writeLock().lock();
       try {
-        cachePersistenceDAO.persistBatch(new ArrayList<>(toBePersisted));
-        toBePersisted.clear();
+        List<Long> keys = sortKeys ? new ArrayList<>(new TreeSet<>(toBePersisted)) : new ArrayList<>(toBePersisted);
+        for (int from = 0; from < keys.size(); from += recordsPerBatch) {
+          List<Long> batch = keys.subList(from, Math.min(from + recordsPerBatch, keys.size()));
+          cachePersistenceDAO.persistBatch(batch);
+          toBePersisted.removeAll(batch);
+        }
       } catch (PersistenceException e) {
         LOGGER.error("Exception caught while persisting final batch of cache objects - will try again in 1s", e);
         try {
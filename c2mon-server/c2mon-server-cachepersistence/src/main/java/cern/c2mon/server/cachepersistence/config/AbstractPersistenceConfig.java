@@ -2,6 +2,8 @@ package cern.c2mon.server.cachepersistence.config;
 
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cachepersistence.common.BatchPersistenceManagerImpl;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -21,4 +23,25 @@ public abstract class AbstractPersistenceConfig {
 
   @Autowired
   protected ThreadPoolTaskExecutor cachePersistenceThreadPoolTaskExecutor;
+
+  @Autowired
+  protected SqlSessionTemplate cacheBatchSqlSessionTemplate;
+
+  /**
+   * @param mapperType the cache mapper interface
+   * @return a mapper of the given type whose statements are sent to the database in JDBC batches
+   */
+  protected <M> M batchMapper(final Class<M> mapperType) {
+    return cacheBatchSqlSessionTemplate.getMapper(mapperType);
+  }
+
+  /**
+   * Applies the batch settings of the cache persistence properties to the given manager.
+   *
+   * @param manager the persistence manager of one cache
+   */
+  protected void configureBatches(final BatchPersistenceManagerImpl<?> manager) {
+    manager.setRecordsPerBatch(properties.getBatchSize());
+    manager.setSortKeys(properties.isSortBatchKeys());
+  }
 }
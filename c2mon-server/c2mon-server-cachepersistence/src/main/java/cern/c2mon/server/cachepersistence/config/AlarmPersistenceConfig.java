@@ -29,7 +29,7 @@ public class AlarmPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<Alarm> alarmPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(alarmMapper, alarmCache);
+    return new CachePersistenceDAOImpl<>(alarmMapper, alarmCache, batchMapper(AlarmMapper.class));
   }
 
   @Bean
@@ -37,6 +37,7 @@ public class AlarmPersistenceConfig extends AbstractPersistenceConfig {
     BatchPersistenceManagerImpl manager = new BatchPersistenceManagerImpl<>(alarmPersistenceDAO(), alarmCache,
         clusterCache, cachePersistenceThreadPoolTaskExecutor);
     manager.setTimeoutPerBatch(properties.getTimeoutPerBatch());
+    configureBatches(manager);
     return manager;
   }
 
@@ -16,7 +16,11 @@
  *****************************************************************************/
 package cern.c2mon.server.cachepersistence.config;
 
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -61,4 +65,13 @@ public class CachePersistenceModule {
     executor.initialize();
     return executor;
   }
+
+  /**
+   * Session used for persisting the cache objects with JDBC batches. The batched
+   * statements are sent to the database when the surrounding transaction commits.
+   */
+  @Bean
+  public SqlSessionTemplate cacheBatchSqlSessionTemplate(@Qualifier("cacheSqlSessionFactory") SqlSessionFactory cacheSqlSessionFactory) {
+    return new SqlSessionTemplate(cacheSqlSessionFactory, ExecutorType.BATCH);
+  }
 }
@@ -23,4 +23,10 @@ public class CachePersistenceProperties {
 
   /** Set the capacity for the ThreadPoolExecutor's BlockingQueue */
   private int queueCapacity = 1000;
+
+  /** Number of cache objects written to the database in a single JDBC batch and transaction */
+  private int batchSize = 500;
+
+  /** Persist the cache objects in primary key order, to reduce index contention between batches */
+  private boolean sortBatchKeys = true;
 }
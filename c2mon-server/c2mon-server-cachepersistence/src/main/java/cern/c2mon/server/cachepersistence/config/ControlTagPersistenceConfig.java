@@ -26,7 +26,7 @@ public class ControlTagPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<ControlTag> controlTagPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(controlTagMapper, controlTagCache);
+    return new CachePersistenceDAOImpl<>(controlTagMapper, controlTagCache, batchMapper(ControlTagMapper.class));
   }
 
   @Bean
@@ -34,6 +34,7 @@ public class ControlTagPersistenceConfig extends AbstractPersistenceConfig {
     BatchPersistenceManagerImpl manager = new BatchPersistenceManagerImpl<>(controlTagPersistenceDAO(), controlTagCache,
             clusterCache, cachePersistenceThreadPoolTaskExecutor);
     manager.setTimeoutPerBatch(properties.getTimeoutPerBatch());
+    configureBatches(manager);
     return manager;
   }
 
@@ -26,7 +26,7 @@ public class DataTagPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<DataTag> dataTagPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(dataTagMapper, dataTagCache);
+    return new CachePersistenceDAOImpl<>(dataTagMapper, dataTagCache, batchMapper(DataTagMapper.class));
   }
 
   @Bean
@@ -34,6 +34,7 @@ public class DataTagPersistenceConfig extends AbstractPersistenceConfig {
     BatchPersistenceManagerImpl manager = new BatchPersistenceManagerImpl<>(dataTagPersistenceDAO(), dataTagCache,
         clusterCache, cachePersistenceThreadPoolTaskExecutor);
     manager.setTimeoutPerBatch(properties.getTimeoutPerBatch());
+    configureBatches(manager);
     return manager;
   }
 
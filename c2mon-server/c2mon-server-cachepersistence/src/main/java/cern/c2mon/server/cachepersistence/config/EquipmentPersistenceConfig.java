@@ -26,7 +26,7 @@ public class EquipmentPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<Equipment> equipmentPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(equipmentMapper, equipmentCache);
+    return new CachePersistenceDAOImpl<>(equipmentMapper, equipmentCache, batchMapper(EquipmentMapper.class));
   }
 
   @Bean
@@ -34,6 +34,7 @@ public class EquipmentPersistenceConfig extends AbstractPersistenceConfig {
     BatchPersistenceManagerImpl manager = new BatchPersistenceManagerImpl<>(equipmentPersistenceDAO(), equipmentCache,
         clusterCache, cachePersistenceThreadPoolTaskExecutor);
     manager.setTimeoutPerBatch(properties.getTimeoutPerBatch());
+    configureBatches(manager);
     return manager;
   }
 
@@ -26,7 +26,7 @@ public class ProcessPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<Process> processPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(processMapper, processCache);
+    return new CachePersistenceDAOImpl<>(processMapper, processCache, batchMapper(ProcessMapper.class));
   }
 
   @Bean
@@ -34,6 +34,7 @@ public class ProcessPersistenceConfig extends AbstractPersistenceConfig {
     BatchPersistenceManagerImpl manager = new BatchPersistenceManagerImpl<>(processPersistenceDAO(), processCache,
         clusterCache, cachePersistenceThreadPoolTaskExecutor);
     manager.setTimeoutPerBatch(properties.getTimeoutPerBatch());
+    configureBatches(manager);
     return manager;
   }
 
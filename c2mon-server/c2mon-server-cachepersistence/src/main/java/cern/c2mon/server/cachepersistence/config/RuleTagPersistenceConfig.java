@@ -26,12 +26,14 @@ public class RuleTagPersistenceConfig extends AbstractPersistenceConfig {
 
   @Bean
   public CachePersistenceDAO<RuleTag> ruleTagPersistenceDAO() {
-    return new CachePersistenceDAOImpl<>(ruleTagMapper, ruleTagCache);
+    return new CachePersistenceDAOImpl<>(ruleTagMapper, ruleTagCache, batchMapper(RuleTagMapper.class));
   }
 
   @Bean
   public BatchPersistenceManager ruleTagPersistenceManager() {
-    return new BatchPersistenceManagerImpl<>(ruleTagPersistenceDAO(), ruleTagCache, clusterCache, cachePersistenceThreadPoolTaskExecutor);
+    BatchPersistenceManagerImpl<RuleTag> manager = new BatchPersistenceManagerImpl<>(ruleTagPersistenceDAO(), ruleTagCache, clusterCache, cachePersistenceThreadPoolTaskExecutor);
+    configureBatches(manager);
+    return manager;
   }
 
   @Bean
@@ -48,6 +48,13 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
    */
   private PersistenceMapper<T> persistenceMapper;
 
+  /**
+   * Mapper used for persisting batches. Its statements are expected to be
+   * executed with a MyBatis batch executor, i.e. sent to the database in
+   * JDBC batches when the transaction commits.
+   */
+  private PersistenceMapper<T> batchPersistenceMapper;
+
   /**
    * Reference to the cache where the cache objects can be retrieved
    * (one of the only references to the cache module from the cache
@@ -62,9 +69,22 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
    * @param cache the cache that is being persisted
    */
   public CachePersistenceDAOImpl(final PersistenceMapper<T> persistenceMapper, final C2monCache<Long, T> cache) {
+    this(persistenceMapper, cache, persistenceMapper);
+  }
+
+  /**
+   * Constructor with a separate mapper for persisting batches.
+   *
+   * @param persistenceMapper the mapper bean for this cache
+   * @param cache the cache that is being persisted
+   * @param batchPersistenceMapper mapper for this cache running on a MyBatis batch executor
+   */
+  public CachePersistenceDAOImpl(final PersistenceMapper<T> persistenceMapper, final C2monCache<Long, T> cache,
+                                 final PersistenceMapper<T> batchPersistenceMapper) {
     super();
     this.persistenceMapper = persistenceMapper;
     this.cache = cache;
+    this.batchPersistenceMapper = batchPersistenceMapper;
   }
 
   /**
@@ -80,6 +100,8 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
   /**
    * Used to persist a batch of cache objects in a single transaction.
    * An object that is not found in the cache will not be persisted and skipped.
+   * The updates are sent in the order of the key list, as a single JDBC batch
+   * when the batch mapper is used.
    * @param keyList keys of the elements that need persisting
    */
   @Transactional(value = "cacheTransactionManager")
@@ -91,7 +113,7 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
         cacheObject = cache.getCopy(key);
         //do not persist unconfigured tags TODO could remove as unconfigured not used
         if (cacheObject != null && (!(cacheObject instanceof Tag) || !((Tag) cacheObject).isInUnconfigured())) {
-          persistenceMapper.updateCacheable(cacheObject);
+          batchPersistenceMapper.updateCacheable(cacheObject);
         }
       } catch (CacheElementNotFoundException ex) {
         log.warn("Cache element with id {} could not be persisted as not found in cache " +
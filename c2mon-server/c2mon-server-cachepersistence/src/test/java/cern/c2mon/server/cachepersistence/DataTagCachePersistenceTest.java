@@ -18,6 +18,7 @@ package cern.c2mon.server.cachepersistence;
 
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 
 import cern.c2mon.server.cache.config.inmemory.CacheModule;
 import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
@@ -75,6 +76,9 @@ public class DataTagCachePersistenceTest {
   @Autowired
   private PersistenceSynchroListener dataTagPersistenceSynchroListener;
 
+  @Autowired
+  private CachePersistenceDAO<DataTag> dataTagPersistenceDAO;
+
   private DataTagCacheObject originalObject;
 
   @Before
@@ -119,6 +123,28 @@ public class DataTagCachePersistenceTest {
     dataTagCache.remove(originalObject.getId());
 }
 
+  /**
+   * Tests that a batch persisted through the batch executor updates all its
+   * rows once the transaction commits.
+   */
+  @Test
+  public void testPersistBatch() {
+    DataTagCacheObject tag1 = (DataTagCacheObject) dataTagMapper.getItem(200000L);
+    DataTagCacheObject tag2 = (DataTagCacheObject) dataTagMapper.getItem(200001L);
+    tag1.setValue(1001);
+    tag2.setValue(1002);
+    dataTagCache.putQuiet(tag1);
+    dataTagCache.putQuiet(tag2);
+
+    dataTagPersistenceDAO.persistBatch(Arrays.asList(tag2.getId(), tag1.getId()));
+
+    assertEquals(1001, dataTagMapper.getItem(tag1.getId()).getValue());
+    assertEquals(1002, dataTagMapper.getItem(tag2.getId()).getValue());
+
+    dataTagCache.remove(tag1.getId());
+    dataTagCache.remove(tag2.getId());
+  }
+
   /**
    * Tests that if 2 updates for the same tag are written to the cache at roughly
    * the same time, that only the most recent one ends up in the DB. This is testing
@@ -0,0 +1,126 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cachepersistence.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import cern.c2mon.server.cache.C2monCache;
+import cern.c2mon.server.cache.ClusterCache;
+import cern.c2mon.server.cachepersistence.CachePersistenceDAO;
+import cern.c2mon.server.common.datatag.DataTag;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test of the splitting and ordering of the persistence batches.
+ */
+public class BatchPersistenceManagerImplTest {
+
+  private IMocksControl control;
+
+  private CachePersistenceDAO<DataTag> cachePersistenceDAO;
+
+  private ThreadPoolTaskExecutor executor;
+
+  private BatchPersistenceManagerImpl<DataTag> persistenceManager;
+
+  /** Keys of each batch passed to the DAO, in call order */
+  private List<List<Long>> batches;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    control = EasyMock.createNiceControl();
+    cachePersistenceDAO = control.createMock(CachePersistenceDAO.class);
+    C2monCache<Long, DataTag> cache = control.createMock(C2monCache.class);
+    ClusterCache clusterCache = control.createMock(ClusterCache.class);
+
+    batches = new ArrayList<>();
+    cachePersistenceDAO.persistBatch(EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      batches.add(new ArrayList<>((List<Long>) EasyMock.getCurrentArguments()[0]));
+      return null;
+    }).anyTimes();
+    control.replay();
+
+    // a single thread, so that the batches are persisted in submission order
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.initialize();
+
+    persistenceManager = new BatchPersistenceManagerImpl<>(cachePersistenceDAO, cache, clusterCache, executor);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testKeysSplitAtBatchSize() {
+    persistenceManager.setRecordsPerBatch(3);
+
+    persistenceManager.persistList(Arrays.asList(7L, 2L, 5L, 1L, 6L, 3L, 4L));
+
+    assertEquals(Arrays.asList(Arrays.asList(1L, 2L, 3L), Arrays.asList(4L, 5L, 6L), Arrays.asList(7L)), batches);
+  }
+
+  @Test
+  public void testKeysInSubmissionOrderIfNotSorted() {
+    persistenceManager.setRecordsPerBatch(2);
+    persistenceManager.setSortKeys(false);
+
+    persistenceManager.persistList(Arrays.asList(5L, 3L, 9L, 3L, 1L, 7L));
+
+    assertEquals(Arrays.asList(Arrays.asList(5L, 3L), Arrays.asList(9L, 1L), Arrays.asList(7L)), batches);
+  }
+
+  @Test
+  public void testShutdownFlushSplitAtBatchSize() {
+    persistenceManager.setRecordsPerBatch(2);
+    for (Long key : Arrays.asList(5L, 2L, 4L, 1L, 3L)) {
+      persistenceManager.addElementToPersist(key);
+    }
+
+    persistenceManager.stop();
+
+    assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L), Arrays.asList(5L)), batches);
+  }
+
+  @Test
+  public void testShutdownFlushInSubmissionOrderIfNotSorted() {
+    persistenceManager.setRecordsPerBatch(2);
+    persistenceManager.setSortKeys(false);
+    for (Long key : Arrays.asList(5L, 2L, 4L, 1L, 3L)) {
+      persistenceManager.addElementToPersist(key);
+    }
+
+    persistenceManager.stop();
+
+    assertEquals(Arrays.asList(Arrays.asList(5L, 2L), Arrays.asList(4L, 1L), Arrays.asList(3L)), batches);
+  }
+}
@@ -72,6 +72,15 @@ public class ClientJmsConfig {
     return jmsSender;
   }
 
+  /**
+   * Sends the replies to the requests answered once the listener thread has
+   * returned, i.e. the command executions.
+   */
+  @Bean
+  public JmsTemplate clientRequestReplyJmsTemplate() {
+    return new JmsTemplate(clientSingleConnectionFactory());
+  }
+
   @Bean
   public DefaultMessageListenerContainer clientRequestJmsContainer(ClientRequestDelegator delegator, ClientRequestErrorHandler errorHandler) {
     DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
@@ -54,5 +54,18 @@ public class ClientProperties {
 
     /** Specify the maximum number of concurrent consumers to receive client requests */
     private int maxConsumers = 10;
+
+    /**
+     * Enable/disable batched publication of tag updates. If enabled, the updates for
+     * the same topic are coalesced into a single message carrying a json array of
+     * tag values. Requires clients which are able to unpack batched messages.
+     */
+    private boolean tagBatchPublication = false;
+
+    /** Maximum time in milliseconds a tag update waits for batched publication */
+    private int tagBatchWindow = 20;
+
+    /** Maximum number of tag updates published in a single batched message */
+    private int tagBatchSize = 500;
   }
 }
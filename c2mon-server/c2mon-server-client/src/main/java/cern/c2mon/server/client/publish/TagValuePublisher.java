@@ -16,7 +16,14 @@
  *****************************************************************************/
 package cern.c2mon.server.client.publish;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -63,6 +70,13 @@ import cern.c2mon.shared.util.jms.JmsSender;
  * topics. The update information is transmitted as GSON message
  * with the <code>TransferTag</code> class.
  *
+ * If batched publication is enabled, the tag value updates are coalesced
+ * per topic and published every <code>tagBatchWindow</code> milliseconds
+ * (or as soon as <code>tagBatchSize</code> updates are waiting) as a single
+ * message carrying a JSON array of <code>TransferTagValue</code> objects.
+ * All batches are sent by a single thread, preserving the update order
+ * per topic. Configuration updates are never batched.
+ *
  * @author Matthias Braeger, Mark Brightwell, Ignacio Vilches
  *
  * @see AlarmAggregatorListener
@@ -103,6 +117,12 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
 
   private ClientProperties properties;
 
+  /** Tag updates waiting for batched publication, by topic; access is synchronized on the map */
+  private final Map<String, List<TagWithAlarms>> pendingBatches = new HashMap<>();
+
+  /** Thread publishing the batches, only created if batched publication is enabled */
+  private ScheduledExecutorService batchPublisher;
+
   /**
    * Default Constructor
    * @param jmsSender Used for sending JMS messages and waiting for a response
@@ -147,6 +167,17 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
     if (republicationDelay != 0)
       republisher.setRepublicationDelay(republicationDelay);
     republisher.start();
+
+    if (properties.getJms().isTagBatchPublication()) {
+      int window = properties.getJms().getTagBatchWindow();
+      log.info("init - Publishing tag updates in batches of up to {} updates every {}ms", properties.getJms().getTagBatchSize(), window);
+      batchPublisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "TagBatchPublisher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      batchPublisher.scheduleWithFixedDelay(this::publishPendingBatches, window, window, TimeUnit.MILLISECONDS);
+    }
   }
 
   /**
@@ -155,6 +186,15 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
   @PreDestroy
   public void shutdown() {
     log.info("shutdown - Stopping tag publisher.");
+    if (batchPublisher != null) {
+      batchPublisher.shutdown();
+      try {
+        batchPublisher.awaitTermination(properties.getJms().getTagBatchWindow() * 10L, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      publishPendingBatches();
+    }
     republisher.stop();
   }
 
@@ -184,10 +224,92 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
 
   @Override
   public void publish(final TagWithAlarms tagWithAlarms) {
+    if (batchPublisher != null && addToBatch(tagWithAlarms)) {
+      return;
+    }
+
     TransferTagValueImpl tagValue = TransferObjectFactory.createTransferTagValue(tagWithAlarms);
-    log.trace("publish - Publishing tag update to client: " + TransferTagSerializer.toJson(tagValue));
+    String json = TransferTagSerializer.toJson(tagValue);
+    log.trace("publish - Publishing tag update to client: {}", json);
 
-    jmsSender.sendToTopic(TransferTagSerializer.toJson(tagValue), TopicProvider.topicFor(tagWithAlarms.getTag(), properties));
+    jmsSender.sendToTopic(json, TopicProvider.topicFor(tagWithAlarms.getTag(), properties));
+  }
+
+  /**
+   * Adds the update to the batch of its topic. A full batch is handed over
+   * to the batch publisher thread straight away.
+   *
+   * @return false if the batch publisher is shut down, in which case the
+   *         update is not added and must be published on its own
+   */
+  private boolean addToBatch(final TagWithAlarms tagWithAlarms) {
+    String topic = TopicProvider.topicFor(tagWithAlarms.getTag(), properties);
+    synchronized (pendingBatches) {
+      if (batchPublisher.isShutdown()) {
+        // the final flush may have run already; publish what is left before this update
+        publishPendingBatches();
+        return false;
+      }
+      List<TagWithAlarms> batch = pendingBatches.computeIfAbsent(topic, t -> new ArrayList<>());
+      batch.add(tagWithAlarms);
+      if (batch.size() >= properties.getJms().getTagBatchSize()) {
+        List<TagWithAlarms> fullBatch = pendingBatches.remove(topic);
+        submit(() -> publishBatch(topic, fullBatch));
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Hands all batches waiting for publication over to the batch publisher
+   * thread.
+   */
+  private void publishPendingBatches() {
+    synchronized (pendingBatches) {
+      if (pendingBatches.isEmpty()) {
+        return;
+      }
+      Map<String, List<TagWithAlarms>> batches = new HashMap<>(pendingBatches);
+      pendingBatches.clear();
+      submit(() -> batches.forEach(this::publishBatch));
+    }
+  }
+
+  /**
+   * Submits the publication of batches to the single batch publisher thread,
+   * or publishes them directly if the publisher is shut down. Must be called
+   * holding the lock on {@link #pendingBatches}, so that the batches are
+   * published in the order they were taken from it.
+   */
+  private void submit(final Runnable publication) {
+    try {
+      batchPublisher.execute(publication);
+    } catch (RejectedExecutionException e) {
+      // publisher is shutting down
+      publication.run();
+    }
+  }
+
+  /**
+   * Publishes the updates as a single message to the given topic. If the
+   * publication fails, all updates are submitted for republication.
+   */
+  private void publishBatch(final String topic, final List<TagWithAlarms> batch) {
+    try {
+      List<TransferTagValueImpl> tagValues = new ArrayList<>(batch.size());
+      for (TagWithAlarms tagWithAlarms : batch) {
+        tagValues.add(TransferObjectFactory.createTransferTagValue(tagWithAlarms));
+      }
+      String json = TransferTagSerializer.toJson(tagValues);
+      log.trace("publishBatch - Publishing {} tag updates to client topic {}: {}", tagValues.size(), topic, json);
+
+      jmsSender.sendToTopic(json, topic);
+    } catch (RuntimeException e) {
+      log.error("publishBatch - Error publishing " + batch.size() + " tag updates to topic " + topic + " - submitting for republication", e);
+      for (TagWithAlarms tagWithAlarms : batch) {
+        republisher.publicationFailed(tagWithAlarms);
+      }
+    }
   }
 
   @Override
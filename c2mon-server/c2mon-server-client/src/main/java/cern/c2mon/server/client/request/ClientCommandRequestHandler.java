@@ -16,8 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.server.client.request;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +27,6 @@ import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.command.CommandExecutionManager;
 import cern.c2mon.shared.client.command.CommandExecuteRequest;
-import cern.c2mon.shared.client.command.CommandReport;
 import cern.c2mon.shared.client.request.ClientRequest;
 import cern.c2mon.shared.client.request.ClientRequestResult;
 
@@ -70,18 +70,19 @@ class ClientCommandRequestHandler {
   }
 
   /**
-   * Inner method which handles the Execute Command Request
+   * Inner method which handles the Execute Command Request, without waiting
+   * for the DAQ to execute the command.
    *
    * @param executeCommandRequest The command request send from the client
-   * @return A command report
+   * @return A future command report, completed when the DAQ replies
    */
-  Collection<? extends ClientRequestResult> handleExecuteCommandRequest(final ClientRequest executeCommandRequest) {
-
-    final Collection<CommandReport> commandReports = new ArrayList<CommandReport>(1);
-    commandReports.add(commandExecutionManager.execute((CommandExecuteRequest<?>) executeCommandRequest.getObjectParameter()));
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("Finished executing command - returning report.");
-    }
-    return commandReports;
+  CompletableFuture<Collection<? extends ClientRequestResult>> handleExecuteCommandRequestAsync(final ClientRequest executeCommandRequest) {
+    return commandExecutionManager.executeAsync((CommandExecuteRequest<?>) executeCommandRequest.getObjectParameter())
+        .thenApply(report -> {
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Finished executing command - returning report.");
+          }
+          return Collections.singletonList(report);
+        });
   }
 }
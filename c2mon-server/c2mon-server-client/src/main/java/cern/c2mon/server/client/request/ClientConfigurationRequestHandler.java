@@ -62,11 +62,15 @@ class ClientConfigurationRequestHandler {
    * Inner method which handles the Configuration Requests
    *
    * @param configurationRequest The configuration request sent from the client
+   * @param session Used by the ReportHandler to send reports
+   * @param replyDestination Used by the ReportHandler to send reports
+   * @param correlationId The JMS correlation id of the request, set on the reports
    * @return Configuration Report
    */
   Collection<? extends ClientRequestResult> handleApplyConfigurationRequest(final ClientRequest configurationRequest,
                                                                             final Session session,
-                                                                            final Destination replyDestination) {
+                                                                            final Destination replyDestination,
+                                                                            final String correlationId) {
 
     final Collection<ConfigurationReport> reports = new ArrayList<>(configurationRequest.getTagIds().size());
 
@@ -77,7 +81,7 @@ class ClientConfigurationRequestHandler {
 
       switch (configurationRequest.getResultType()) {
       case TRANSFER_CONFIGURATION_REPORT:
-        ClientRequestReportHandler reportHandler = new ClientRequestReportHandler(session, replyDestination, DEFAULT_REPLY_TTL);
+        ClientRequestReportHandler reportHandler = new ClientRequestReportHandler(session, replyDestination, correlationId, DEFAULT_REPLY_TTL);
         reports.add(configurationLoader.applyConfiguration(configId, reportHandler));
         if (LOG.isDebugEnabled()) {
           LOG.debug("Finished processing reconfiguration request with id " + configId);
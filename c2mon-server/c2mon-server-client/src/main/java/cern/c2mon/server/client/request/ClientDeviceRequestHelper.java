@@ -18,7 +18,9 @@ package cern.c2mon.server.client.request;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -93,8 +95,12 @@ class ClientDeviceRequestHelper {
       devices = deviceFacade.getDevices(deviceClassName);
     }
 
+    // the devices mostly share a few classes: look up each class name once
+    Map<Long, String> classNames = new HashMap<>();
     for (Device device : devices) {
-      transferDevices.add(TransferObjectFactory.createTransferDevice(device, deviceFacade.getClassNameForDevice(device.getId())));
+      String className = classNames.computeIfAbsent(device.getDeviceClassId(),
+          classId -> deviceFacade.getClassNameForDevice(device.getId()));
+      transferDevices.add(TransferObjectFactory.createTransferDevice(device, className));
     }
 
     return transferDevices;
@@ -25,10 +25,13 @@ import javax.jms.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.listener.SessionAwareMessageListener;
 import org.springframework.jms.support.converter.MessageConversionException;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.gson.Gson;
 
 import cern.c2mon.server.supervision.SupervisionFacade;
@@ -73,6 +76,11 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
    */
   private final SupervisionFacade supervisionFacade;
 
+  /**
+   * Sends the replies to the command executions, once the DAQ has replied.
+   */
+  private final JmsTemplate replyJmsTemplate;
+
   /** Json message serializer/deserializer */
   private static final Gson GSON = GsonFactory.createGson();
 
@@ -91,7 +99,8 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
                                 final ClientTagRequestHelper tagrequestHelper,
                                 final ClientDeviceRequestHelper clientDeviceRequestHelper,
                                 final ClientConfigurationRequestHandler clientConfigurationRequestHandler,
-                                final ClientProcessRequestHandler clientProcessRequestHandler) {
+                                final ClientProcessRequestHandler clientProcessRequestHandler,
+                                @Qualifier("clientRequestReplyJmsTemplate") final JmsTemplate replyJmsTemplate) {
 
     this.supervisionFacade = supervisionFacade;
     this.clientAlarmRequestHandler = clientAlarmRequestHandler;
@@ -100,6 +109,7 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
     this.clientDeviceRequestHelper = clientDeviceRequestHelper;
     this.clientConfigurationRequestHandler = clientConfigurationRequestHandler;
     this.clientProcessRequestHandler = clientProcessRequestHandler;
+    this.replyJmsTemplate = replyJmsTemplate;
   }
 
   /**
@@ -131,49 +141,112 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
       }
 
       ClientRequest clientRequest = ClientRequestMessageConverter.fromMessage(message);
-      Collection<? extends ClientRequestResult> response = handleClientRequest(clientRequest, session, replyDestination);
+      String correlationId = message.getJMSCorrelationID();
+
+      if (clientRequest.getRequestType() == ClientRequest.RequestType.EXECUTE_COMMAND_REQUEST) {
+        // replied once the DAQ has executed the command, without holding the listener thread
+        handleExecuteCommandRequest(clientRequest, replyDestination, correlationId);
+        return;
+      }
+
+      Collection<? extends ClientRequestResult> response = handleClientRequest(clientRequest, session, replyDestination,
+          correlationId);
 
       if (replyDestination != null) {
+        sendReply(session, replyDestination, correlationId, clientRequest, response);
+      } else {
+        LOG.error("onMessage() : JMSReplyTo destination is null - cannot send reply.");
+        throw new MessageConversionException("JMS reply queue could not be extracted (returned null).");
+      }
+    } catch (Exception e) {
+      LOG.error("Exception caught while processing client request - unable to process it; request will time out", e);
+    }
+  }
 
-        MessageProducer messageProducer = session.createProducer(replyDestination);
+  /**
+   * Executes a command, and sends the report to the client once the DAQ has
+   * replied, on a session of its own.
+   *
+   * @param clientRequest The request
+   * @param replyDestination The destination of the reply
+   * @param correlationId The JMS correlation id of the request
+   */
+  private void handleExecuteCommandRequest(final ClientRequest clientRequest, final Destination replyDestination,
+                                           final String correlationId) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("handleClientRequest() - Received an EXECUTE_COMMAND_REQUEST.");
+    }
+    clientCommandRequestHandler.handleExecuteCommandRequestAsync(clientRequest).whenComplete((response, exception) -> {
+      if (exception != null) {
+        LOG.error("Exception caught while executing command - unable to reply; request will time out", exception);
+      } else if (replyDestination == null) {
+        LOG.error("handleExecuteCommandRequest() : JMSReplyTo destination is null - cannot send reply.");
+      } else {
         try {
-          messageProducer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
-          messageProducer.setTimeToLive(DEFAULT_REPLY_TTL);
+          replyJmsTemplate.execute(session -> {
+            sendReply(session, replyDestination, correlationId, clientRequest, response);
+            return null;
+          }, true);
+        } catch (RuntimeException e) {
+          LOG.error("Exception caught while replying to command execution - request will time out", e);
+        }
+      }
+    });
+  }
 
-          Message replyMessage = null;
+  /**
+   * Sends the response to a request.
+   *
+   * @param session The session used to send the reply
+   * @param replyDestination The destination of the reply
+   * @param correlationId The JMS correlation id of the request, set on the reply
+   * @param clientRequest The request
+   * @param response The response to the request
+   * @throws JMSException if the reply cannot be sent
+   */
+  private void sendReply(final Session session, final Destination replyDestination, final String correlationId,
+                         final ClientRequest clientRequest, final Collection<? extends ClientRequestResult> response)
+      throws JMSException {
 
-          if (clientRequest.requiresObjectResponse()) {
+    MessageProducer messageProducer = session.createProducer(replyDestination);
+    try {
+      messageProducer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+      messageProducer.setTimeToLive(DEFAULT_REPLY_TTL);
+
+      Message replyMessage = null;
 
-            // Send response as an Object message
-            replyMessage = session.createObjectMessage((Serializable) response);
+      if (clientRequest.requiresObjectResponse()) {
 
-          } else {
+        // Send response as an Object message
+        replyMessage = session.createObjectMessage((Serializable) response);
 
-            // Send response as Json message
-            // use the Jackson parser for TransferTagValues
-            switch (clientRequest.getResultType()){
-              case TRANSFER_TAG_LIST:
-              case TRANSFER_TAG_VALUE_LIST:
-                replyMessage = session.createTextMessage(TransferTagSerializer.getJacksonParser().writeValueAsString(response));
-                break;
-              default:
-                replyMessage = session.createTextMessage(GSON.toJson(response));
+      } else {
+
+        // Send response as Json message
+        // use the Jackson parser for TransferTagValues
+        switch (clientRequest.getResultType()){
+          case TRANSFER_TAG_LIST:
+          case TRANSFER_TAG_VALUE_LIST:
+            try {
+              replyMessage = session.createTextMessage(TransferTagSerializer.getJacksonParser().writeValueAsString(response));
+            } catch (JsonProcessingException e) {
+              throw new MessageConversionException("Failed to serialize the response to JSON", e);
             }
-          }
-
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("onMessage() : Responded to ClientRequest.");
-          }
-          messageProducer.send(replyMessage);
-        } finally {
-          messageProducer.close();
+            break;
+          default:
+            replyMessage = session.createTextMessage(GSON.toJson(response));
         }
-      } else {
-        LOG.error("onMessage() : JMSReplyTo destination is null - cannot send reply.");
-        throw new MessageConversionException("JMS reply queue could not be extracted (returned null).");
       }
-    } catch (Exception e) {
-      LOG.error("Exception caught while processing client request - unable to process it; request will time out", e);
+
+      // lets the client match the reply with its request
+      replyMessage.setJMSCorrelationID(correlationId);
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("onMessage() : Responded to ClientRequest.");
+      }
+      messageProducer.send(replyMessage);
+    } finally {
+      messageProducer.close();
     }
   }
 
@@ -184,12 +257,14 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
    * @param clientRequest The request
    * @param session Used by the ReportHandler to send reports
    * @param replyDestination Used by the ReportHandler to send reports
+   * @param correlationId The JMS correlation id of the request, used by the ReportHandler
    * @return The response that shall be transfered back to the C2MON client
    *         layer
    */
   private Collection<? extends ClientRequestResult> handleClientRequest(final ClientRequest clientRequest,
                                                                         final Session session,
-                                                                        final Destination replyDestination) {
+                                                                        final Destination replyDestination,
+                                                                        final String correlationId) {
 
     switch (clientRequest.getRequestType()) {
 
@@ -203,7 +278,7 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
       if (LOG.isDebugEnabled()) {
         LOG.debug("handleClientRequest() - Received an APPLY_CONFIGURATION_REQUEST with " + clientRequest.getIds().size() + " configurations.");
       }
-      return clientConfigurationRequestHandler.handleApplyConfigurationRequest(clientRequest, session, replyDestination);
+      return clientConfigurationRequestHandler.handleApplyConfigurationRequest(clientRequest, session, replyDestination, correlationId);
     case RETRIEVE_CONFIGURATION_REQUEST:
       if (LOG.isDebugEnabled()) {
         LOG.debug("handleClientRequest() - Received a RETRIEVE_CONFIGURATION_REQUEST.");
@@ -240,11 +315,6 @@ public class ClientRequestDelegator implements SessionAwareMessageListener<Messa
         LOG.debug("handleClientRequest() - Received a COMMAND_HANDLE_REQUEST for " + clientRequest.getIds().size() + " commands.");
       }
       return clientCommandRequestHandler.handleCommandHandleRequest(clientRequest);
-    case EXECUTE_COMMAND_REQUEST:
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("handleClientRequest() - Received an EXECUTE_COMMAND_REQUEST.");
-      }
-      return clientCommandRequestHandler.handleExecuteCommandRequest(clientRequest);
     case DAQ_XML_REQUEST:
       if (LOG.isDebugEnabled()) {
         LOG.debug("handleClientRequest() - Received a DAQ_XML_REQUEST");
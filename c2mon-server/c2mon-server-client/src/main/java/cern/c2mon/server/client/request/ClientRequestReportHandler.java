@@ -86,14 +86,26 @@ public class ClientRequestReportHandler implements ConfigProgressMonitor {
    */
   private final Destination replyDestination;
 
+  /**
+   * The JMS correlation id of the request, set on the reports so that the
+   * client can match them with its request. Can be null.
+   */
+  private final String correlationId;
+
   private AtomicInteger progressCounter;
 
 
   public ClientRequestReportHandler(final Session pSession, final Destination pReplyDestination ,
                                     final long pDefaultReplyTTL) {
+    this(pSession, pReplyDestination, null, pDefaultReplyTTL);
+  }
+
+  public ClientRequestReportHandler(final Session pSession, final Destination pReplyDestination,
+                                    final String pCorrelationId, final long pDefaultReplyTTL) {
 
     this.session = pSession;
     this.replyDestination = pReplyDestination;
+    this.correlationId = pCorrelationId;
     this.defaultReplyTTL = pDefaultReplyTTL;
     this.progressCounter = new AtomicInteger(1);
   }
@@ -119,6 +131,7 @@ public class ClientRequestReportHandler implements ConfigProgressMonitor {
 
       // Send response as Json message
       replyMessage = session.createTextMessage(jsonResponse);
+      replyMessage.setJMSCorrelationID(correlationId);
       messageProducer.send(replyMessage);
 
       log.debug("ClientRequestReportHandler() : Report sent.");
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import cern.c2mon.server.client.config.ClientProperties;
 import cern.c2mon.server.client.publish.TopicProvider;
@@ -34,7 +35,7 @@ import org.springframework.stereotype.Service;
 import cern.c2mon.server.cache.AliveTimerFacade;
 import cern.c2mon.server.cache.ProcessCache;
 import cern.c2mon.server.cache.TagFacadeGateway;
-import cern.c2mon.server.cache.TagLocationService;
+import cern.c2mon.server.cache.TagQualityCounters;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.client.util.TransferObjectFactory;
 import cern.c2mon.server.common.alarm.TagWithAlarms;
@@ -65,9 +66,6 @@ class ClientTagRequestHelper {
    */
   private final TagFacadeGateway tagFacadeGateway;
   
-  /** Reference to the tag location service to check whether a tag exists */
-  private final TagLocationService tagLocationService;
-  
   /** Used to determine whether a Control Tag is an Alive tag */
   private final AliveTimerFacade aliveTimerFacade;
   
@@ -77,26 +75,29 @@ class ClientTagRequestHelper {
    */
   private final ProcessCache processCache;
 
+  /** In-memory tag counts, used for the tag statistics requests */
+  private final TagQualityCounters tagQualityCounters;
+
   private final ClientProperties properties;
 
   /**
    * Default Constructor
    *
    * @param aliveTimerFacade Used to determine whether a given tag is an Alive tag
-   * @param tagLocationService Reference to the tag location service singleton
    * @param tagFacadeGateway Reference to the tag facade gateway singleton
    * @param processCache Reference to the ProcessCache
+   * @param tagQualityCounters Reference to the tag counters
    */
   @Autowired
   public ClientTagRequestHelper(final AliveTimerFacade aliveTimerFacade,
-                                final TagLocationService tagLocationService,
                                 final TagFacadeGateway tagFacadeGateway,
                                 final ProcessCache processCache,
+                                final TagQualityCounters tagQualityCounters,
                                 final ClientProperties properties) {
     this.aliveTimerFacade = aliveTimerFacade;
-    this.tagLocationService = tagLocationService;
     this.tagFacadeGateway = tagFacadeGateway;
     this.processCache = processCache;
+    this.tagQualityCounters = tagQualityCounters;
     this.properties = properties;
   }
   
@@ -127,10 +128,11 @@ class ClientTagRequestHelper {
    */
   private Collection<TagValueUpdate> getTagsById(final ClientRequest tagRequest) {
     final Collection<TagValueUpdate> transferTags = new ArrayList<>(tagRequest.getIds().size());
+    final Map<Long, TagWithAlarms> tagsWithAlarms = tagFacadeGateway.getTagsWithAlarms(tagRequest.getIds());
     
     for (Long tagId : tagRequest.getIds()) {
-      if (tagLocationService.isInTagCache(tagId)) {
-        final TagWithAlarms tagWithAlarms = tagFacadeGateway.getTagWithAlarms(tagId);
+      final TagWithAlarms tagWithAlarms = tagsWithAlarms.get(tagId);
+      if (tagWithAlarms != null) {
 
         switch (tagRequest.getResultType()) {
         case TRANSFER_TAG_LIST:
@@ -199,14 +201,25 @@ class ClientTagRequestHelper {
   Collection<? extends ClientRequestResult> handleTagConfigurationRequest(final ClientRequest tagConfigurationRequest) {
     
     final Collection<TagConfig> transferTags = new ArrayList<TagConfig>(tagConfigurationRequest.getIds().size());
+    final Map<Long, TagWithAlarms> tagsWithAlarms = tagFacadeGateway.getTagsWithAlarms(tagConfigurationRequest.getIds());
+    
+    final Set<Long> processIds = new HashSet<>();
+    for (TagWithAlarms tagWithAlarms : tagsWithAlarms.values()) {
+      processIds.addAll(tagWithAlarms.getTag().getProcessIds());
+    }
+    final Map<Long, Process> processes = processCache.getAll(processIds);
     
     for (Long tagId : tagConfigurationRequest.getIds()) {
 
-      if (tagLocationService.isInTagCache(tagId)) {
-        final TagWithAlarms tagWithAlarms = tagFacadeGateway.getTagWithAlarms(tagId);
+      final TagWithAlarms tagWithAlarms = tagsWithAlarms.get(tagId);
+      if (tagWithAlarms != null) {
         HashSet<Process> tagProcesses = new HashSet<Process>();
         for (Long procId : tagWithAlarms.getTag().getProcessIds()) {
-          tagProcesses.add(processCache.get(procId));
+          Process process = processes.get(procId);
+          if (process == null) {
+            throw new CacheElementNotFoundException("Failed to locate cache element with id " + procId + " (Cache is " + processCache.getClass() + ")");
+          }
+          tagProcesses.add(process);
         }
         switch (tagConfigurationRequest.getResultType()) {
         case TRANSFER_TAG_CONFIGURATION_LIST:
@@ -237,13 +250,15 @@ class ClientTagRequestHelper {
     int total = 0;
     int invalid = 0;
 
-    for (Long processId : processCache.getKeys()) {
-      ProcessTagStatistics processStatistics = new ProcessTagStatistics(processCache.getNumTags(processId), processCache.getNumInvalidTags(processId));
+    processCache.forEachKey(processId -> {
+      ProcessTagStatistics processStatistics = new ProcessTagStatistics(tagQualityCounters.getNumTagsOfProcess(processId),
+          tagQualityCounters.getNumInvalidTagsOfProcess(processId));
+      processes.put(processCache.get(processId).getName(), processStatistics);
+    });
 
+    for (ProcessTagStatistics processStatistics : processes.values()) {
       total += processStatistics.getTotal();
       invalid += processStatistics.getInvalid();
-
-      processes.put(processCache.get(processId).getName(), processStatistics);
     }
 
     tagStatistics.add(new TagStatisticsResponseImpl(total, invalid, processes));
@@ -0,0 +1,108 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.publish;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.AliveTimerFacade;
+import cern.c2mon.server.cache.TagFacadeGateway;
+import cern.c2mon.server.cache.TagLocationService;
+import cern.c2mon.server.cache.alarm.AlarmAggregatorRegistration;
+import cern.c2mon.server.client.config.ClientProperties;
+import cern.c2mon.server.common.alarm.TagWithAlarmsImpl;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.configuration.ConfigurationUpdate;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.client.serializer.TransferTagSerializer;
+import cern.c2mon.shared.util.jms.JmsSender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the batched publication of the {@link TagValuePublisher}.
+ */
+public class TagValuePublisherBatchTest {
+
+  private IMocksControl control;
+
+  private TagValuePublisher tagValuePublisher;
+
+  /** Messages sent to the topics, in sending order */
+  private List<String> messages;
+
+  @Before
+  public void setUp() {
+    control = EasyMock.createNiceControl();
+    JmsSender jmsSender = control.createMock(JmsSender.class);
+    messages = Collections.synchronizedList(new ArrayList<>());
+    jmsSender.sendToTopic(EasyMock.anyString(), EasyMock.anyString());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      messages.add((String) EasyMock.getCurrentArguments()[0]);
+      return null;
+    }).anyTimes();
+    control.replay();
+
+    ClientProperties properties = new ClientProperties();
+    properties.getJms().setTagBatchPublication(true);
+    properties.getJms().setTagBatchSize(10);
+    properties.getJms().setTagBatchWindow(60000);
+
+    tagValuePublisher = new TagValuePublisher(jmsSender, control.createMock(AlarmAggregatorRegistration.class),
+        control.createMock(AliveTimerFacade.class), control.createMock(ConfigurationUpdate.class),
+        control.createMock(TagFacadeGateway.class), control.createMock(TagLocationService.class), properties);
+    tagValuePublisher.init();
+  }
+
+  @After
+  public void tearDown() {
+    tagValuePublisher.shutdown();
+  }
+
+  @Test
+  public void testPendingBatchPublishedOnShutdown() {
+    tagValuePublisher.publish(new TagWithAlarmsImpl(CacheObjectCreation.createTestDataTag(), Collections.emptyList()));
+    tagValuePublisher.publish(new TagWithAlarmsImpl(CacheObjectCreation.createTestDataTag3(), Collections.emptyList()));
+    assertTrue(messages.isEmpty());
+
+    tagValuePublisher.shutdown();
+
+    assertEquals(1, messages.size());
+    assertTrue(TransferTagSerializer.isJsonArray(messages.get(0)));
+  }
+
+  @Test
+  public void testPublicationAfterShutdown() {
+    tagValuePublisher.shutdown();
+
+    DataTagCacheObject tag = CacheObjectCreation.createTestDataTag();
+    tagValuePublisher.publish(new TagWithAlarmsImpl(tag, Collections.emptyList()));
+
+    assertEquals(1, messages.size());
+    assertFalse(TransferTagSerializer.isJsonArray(messages.get(0)));
+    assertTrue(messages.get(0).contains(String.valueOf(tag.getId())));
+  }
+}
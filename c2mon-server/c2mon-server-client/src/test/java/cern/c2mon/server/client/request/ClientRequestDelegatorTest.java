@@ -0,0 +1,153 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.request;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.apache.activemq.command.ActiveMQObjectMessage;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+
+import cern.c2mon.server.supervision.SupervisionFacade;
+import cern.c2mon.shared.client.command.CommandExecuteRequestImpl;
+import cern.c2mon.shared.client.command.CommandExecutionStatus;
+import cern.c2mon.shared.client.command.CommandReport;
+import cern.c2mon.shared.client.command.CommandReportImpl;
+import cern.c2mon.shared.client.request.ClientRequestImpl;
+import cern.c2mon.shared.client.request.ClientRequestResult;
+import cern.c2mon.shared.client.supervision.SupervisionEvent;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the command executions do not hold the client request listener
+ * while waiting for the DAQ.
+ */
+public class ClientRequestDelegatorTest {
+
+  private static final ActiveMQQueue REPLY_QUEUE = new ActiveMQQueue("c2mon.client.test.reply");
+
+  private ClientCommandRequestHandler commandRequestHandler;
+
+  private SupervisionFacade supervisionFacade;
+
+  private JmsTemplate replyJmsTemplate;
+
+  private ClientRequestDelegator delegator;
+
+  @Before
+  public void setUp() {
+    commandRequestHandler = EasyMock.createMock(ClientCommandRequestHandler.class);
+    supervisionFacade = EasyMock.createMock(SupervisionFacade.class);
+    replyJmsTemplate = EasyMock.createMock(JmsTemplate.class);
+    delegator = new ClientRequestDelegator(supervisionFacade, null, commandRequestHandler, null, null, null, null,
+        replyJmsTemplate);
+  }
+
+  @Test
+  public void testCommandReplySentOnceExecuted() throws JMSException {
+    CompletableFuture<Collection<? extends ClientRequestResult>> execution = new CompletableFuture<>();
+    expect(commandRequestHandler.handleExecuteCommandRequestAsync(anyObject())).andReturn(execution);
+    Capture<SessionCallback<Object>> replyCallback = Capture.newInstance();
+    expect(replyJmsTemplate.execute(capture(replyCallback), eq(true))).andReturn(null);
+    // the listener session is not used for the reply
+    Session listenerSession = EasyMock.createMock(Session.class);
+    replay(commandRequestHandler, replyJmsTemplate, listenerSession);
+
+    delegator.onMessage(createCommandMessage("10"), listenerSession);
+
+    // returns without waiting for the DAQ
+    assertTrue(!replyCallback.hasCaptured());
+
+    CommandReport report = new CommandReportImpl(1L, CommandExecutionStatus.STATUS_OK, "done");
+    execution.complete(Collections.singletonList(report));
+    verify(commandRequestHandler, replyJmsTemplate, listenerSession);
+
+    Capture<Message> reply = Capture.newInstance();
+    Session replySession = createReplySession(reply);
+    replyCallback.getValue().doInJms(replySession);
+    verify(replySession);
+    assertEquals("10", reply.getValue().getJMSCorrelationID());
+    assertTrue(((TextMessage) reply.getValue()).getText().contains("done"));
+  }
+
+  @Test
+  public void testRequestsAnsweredWhileCommandExecuting() throws JMSException {
+    expect(commandRequestHandler.handleExecuteCommandRequestAsync(anyObject())).andReturn(new CompletableFuture<>());
+    expect(supervisionFacade.getAllSupervisionStates()).andReturn(Collections.emptyList());
+    Capture<Message> reply = Capture.newInstance();
+    Session listenerSession = createReplySession(reply);
+    replay(commandRequestHandler, supervisionFacade, replyJmsTemplate);
+
+    delegator.onMessage(createCommandMessage("10"), listenerSession);
+
+    TextMessage supervisionRequest = new ActiveMQTextMessage();
+    supervisionRequest.setText(new ClientRequestImpl<>(SupervisionEvent.class).toJson());
+    supervisionRequest.setJMSReplyTo(REPLY_QUEUE);
+    supervisionRequest.setJMSCorrelationID("11");
+    delegator.onMessage(supervisionRequest, listenerSession);
+
+    verify(commandRequestHandler, supervisionFacade, replyJmsTemplate, listenerSession);
+    assertEquals("11", reply.getValue().getJMSCorrelationID());
+  }
+
+  private static Message createCommandMessage(final String correlationId) throws JMSException {
+    ActiveMQObjectMessage message = new ActiveMQObjectMessage();
+    message.setObject(new CommandExecuteRequestImpl<>(1L, Boolean.TRUE, 10000, "user", "host"));
+    message.setJMSReplyTo(REPLY_QUEUE);
+    message.setJMSCorrelationID(correlationId);
+    return message;
+  }
+
+  /**
+   * @return a session expecting to send one text reply
+   */
+  private static Session createReplySession(final Capture<Message> reply) throws JMSException {
+    Session session = EasyMock.createMock(Session.class);
+    MessageProducer producer = EasyMock.createNiceMock(MessageProducer.class);
+    expect(session.createProducer(REPLY_QUEUE)).andReturn(producer);
+    expect(session.createTextMessage(EasyMock.anyString())).andAnswer(() -> {
+      TextMessage message = new ActiveMQTextMessage();
+      message.setText((String) EasyMock.getCurrentArguments()[0]);
+      return message;
+    });
+    producer.send(capture(reply));
+    replay(session, producer);
+    return session;
+  }
+}
@@ -17,6 +17,7 @@
 package cern.c2mon.server.command;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 import cern.c2mon.shared.client.command.CommandExecuteRequest;
 import cern.c2mon.shared.client.command.CommandReport;
@@ -68,6 +69,20 @@ public interface CommandExecutionManager {
    */
   <T> CommandReport execute(CommandExecuteRequest<T> commandExecuteRequest);
 
+  /**
+   * Executes a command without waiting for the DAQ to reply.
+   *
+   * <p>The returned future is completed with the report once the DAQ replies
+   * or the command times out. The command is logged to the CommandRecord
+   * table in the background.
+   *
+   * @param commandExecuteRequest the request to execute a command
+   * @param <T> the value type of the command
+   * @return the future report on the success/failure of the execution
+   * @throws NullPointerException if passed a null CommandExecuteRequest
+   */
+  <T> CompletableFuture<CommandReport> executeAsync(CommandExecuteRequest<T> commandExecuteRequest);
+
   /**
    * Register the passed listener as responsible for command tag logging
    * and history queries.
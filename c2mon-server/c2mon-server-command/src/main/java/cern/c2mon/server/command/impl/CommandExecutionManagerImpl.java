@@ -20,6 +20,12 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -63,6 +69,16 @@ public class CommandExecutionManagerImpl implements CommandExecutionManager {
    */
   private CommandPersistenceListener commandPersistenceListener;
 
+  /**
+   * Logs the executed commands, so that neither the threads executing the
+   * commands nor the one receiving the DAQ replies wait for the database.
+   */
+  private final ExecutorService commandLoggingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "CommandLogger");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   /**
    * Autowired constructor.
    * @param processCommunicationManager the singleton ProcessCommunicationManager
@@ -78,8 +94,11 @@ public class CommandExecutionManagerImpl implements CommandExecutionManager {
 
   @Override
   public <T> CommandReport execute(final CommandExecuteRequest<T> request) {
-    CommandReport report = null;
+    return executeAsync(request).join();
+  }
 
+  @Override
+  public <T> CompletableFuture<CommandReport> executeAsync(final CommandExecuteRequest<T> request) {
     if (request == null) {
       String message = "execute() : called with null parameter.";
       log.error(message);
@@ -95,32 +114,45 @@ public class CommandExecutionManagerImpl implements CommandExecutionManager {
       details.setValue(request.getValue());
       details.setUsername(request.getUsername());
       details.setHost(request.getHost());
-      report = processCommunicationManager.executeCommand(commandTag, request.getValue());
-      details.setExecutionEndTime(new Timestamp(System.currentTimeMillis()));
-      //log if listener registered
-      commandTag.setCommandExecutionDetails(details);
-      if (commandPersistenceListener != null) {
-        log.debug("execute() : logging command tag #{}", commandTag.getId());
-        try {
-          commandPersistenceListener.log(commandTag, report);
-        } catch (Exception e) {
-          log.error("Error while logging commands to DB", e);
-        }
-      }
+      return processCommunicationManager.executeCommandAsync(commandTag, request.getValue())
+          .handle((report, e) -> {
+            if (e != null) {
+              log.error("Exception caught while executing command", e);
+              return new CommandReportImpl(request.getId(), CommandExecutionStatus.STATUS_EXECUTION_FAILED, e.getMessage());
+            }
+            details.setExecutionEndTime(new Timestamp(System.currentTimeMillis()));
+            commandTag.setCommandExecutionDetails(details);
+            logCommand(commandTag, report);
+            return report;
+          });
 
     } catch (CacheElementNotFoundException cacheEx) {
       log.error("Unable to locate CommandTag #{} in the cache.", request.getId(), cacheEx);
-      report = new CommandReportImpl(request.getId(),
+      return CompletableFuture.completedFuture(new CommandReportImpl(request.getId(),
                                   CommandExecutionStatus.STATUS_EXECUTION_FAILED,
-                                   "Unable to locate the Command tag in the server cache.");
+                                   "Unable to locate the Command tag in the server cache."));
     } catch (Exception e) {
       log.error("Exception caught while executing command", e);
-      report = new CommandReportImpl(request.getId(),
+      return CompletableFuture.completedFuture(new CommandReportImpl(request.getId(),
                                   CommandExecutionStatus.STATUS_EXECUTION_FAILED,
-                                   e.getMessage());
+                                   e.getMessage()));
     }
+  }
 
-    return report;
+  /**
+   * Logs the executed command in the background, if a listener is registered.
+   */
+  private <T> void logCommand(final CommandTag<T> commandTag, final CommandReport report) {
+    if (commandPersistenceListener != null) {
+      log.debug("execute() : logging command tag #{}", commandTag.getId());
+      commandLoggingExecutor.execute(() -> {
+        try {
+          commandPersistenceListener.log(commandTag, report);
+        } catch (Exception e) {
+          log.error("Error while logging commands to DB", e);
+        }
+      });
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -174,4 +206,19 @@ public class CommandExecutionManagerImpl implements CommandExecutionManager {
     this.commandPersistenceListener = commandPersistenceListener;
   }
 
+  /**
+   * Waits for the executed commands to be logged.
+   */
+  @PreDestroy
+  public void shutdown() {
+    commandLoggingExecutor.shutdown();
+    try {
+      if (!commandLoggingExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+        log.warn("Timeout while waiting for the executed commands to be logged");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
 }
@@ -165,6 +165,9 @@ public class AlarmCacheObject implements Cloneable, Cacheable, Alarm {
     if (this.sourceTimestamp != null) {
       alarmCacheObject.sourceTimestamp = (Timestamp) this.sourceTimestamp.clone();
     }
+    if (this.fifoSourceTimestamps != null) {
+      alarmCacheObject.fifoSourceTimestamps = new LinkedList<>(this.fifoSourceTimestamps);
+    }
     return alarmCacheObject;
   }
 
@@ -143,6 +143,11 @@ public class DataTagCacheObject extends AbstractTagCacheObject implements DataTa
     if (sourceTimestamp != null) {
       dataTagCacheObject.sourceTimestamp = (Timestamp) this.sourceTimestamp.clone();
     }
+    if (daqTimestamp != null) {
+      dataTagCacheObject.daqTimestamp = (Timestamp) this.daqTimestamp.clone();
+    }
+    dataTagCacheObject.minValue = copyValue(minValue);
+    dataTagCacheObject.maxValue = copyValue(maxValue);
     return dataTagCacheObject;
   }
 
@@ -24,10 +24,20 @@ import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ignite.cache.query.annotations.QuerySqlField;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -48,6 +58,14 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
    */
   private static final long serialVersionUID = 8210576749860621700L;
 
+  /**
+   * Value types which are immutable and can therefore be shared between a
+   * tag and its clone
+   */
+  private static final Set<Class<?>> IMMUTABLE_VALUE_TYPES = new HashSet<>(Arrays.asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
   /**
    * Maximum length of the value description. If the user tries to send a
    * longer value description, it will be truncated.
@@ -118,8 +136,8 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
 
   /**
    * Current value of the datatag (if any, null before first value reception). The value is of type
-   * Boolean, Float, String etc. as indicated in the {@link #dataType} field (and is cloneable with a
-   * shallow copy).
+   * Boolean, Float, String etc. as indicated in the {@link #dataType} field. Values of any other
+   * (possibly mutable) type are deep copied on {@link #clone()}.
    */
   private Object value;
 
@@ -238,9 +256,44 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
     if (cacheTimestamp != null) {
       cacheObject.cacheTimestamp = (Timestamp) cacheTimestamp.clone();
     }
+    if (metadata != null) {
+      cacheObject.metadata = metadata.clone();
+    }
+    cacheObject.value = copyValue(value);
     return cacheObject;
   }
 
+  /**
+   * Returns a copy of a tag value that does not share any mutable state with
+   * the given one. Immutable values (strings, primitive wrappers, big numbers
+   * and enums) are returned as they are; any other value is copied through a
+   * serialization round-trip.
+   *
+   * @param value the value to copy, may be null
+   * @return the copied value
+   * @throws CloneNotSupportedException if the value is mutable and not serializable
+   */
+  @SuppressWarnings("unchecked")
+  protected static <V> V copyValue(final V value) throws CloneNotSupportedException {
+    if (value == null || IMMUTABLE_VALUE_TYPES.contains(value.getClass()) || value instanceof Enum) {
+      return value;
+    }
+    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+         ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(value);
+      oos.flush();
+
+      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+        return (V) ois.readObject();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      CloneNotSupportedException cloneException =
+          new CloneNotSupportedException("Unable to copy tag value of type " + value.getClass().getName());
+      cloneException.initCause(e);
+      throw cloneException;
+    }
+  }
+
   /**
    * only compare ids so far
    */
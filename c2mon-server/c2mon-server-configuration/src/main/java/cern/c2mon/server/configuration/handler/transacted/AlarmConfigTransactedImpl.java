@@ -170,21 +170,19 @@ public class AlarmConfigTransactedImpl implements AlarmConfigTransacted {
   @Override
   @Transactional(value = "cacheTransactionManager", propagation=Propagation.REQUIRES_NEW)
   public void doRemoveAlarm(final Long alarmId, final ConfigurationElementReport alarmReport) {
+    Alarm alarm;
+
     alarmCache.acquireWriteLockOnKey(alarmId);
     try {
-      Alarm alarm = alarmCache.get(alarmId);
+      alarm = alarmCache.get(alarmId);
       for (ConfigurationEventListener listener : this.configurationEventListeners) {
           listener.onConfigurationEvent(alarm, ConfigConstants.Action.REMOVE);
       }
       alarmDAO.deleteItem(alarmId);
-      try {
-        removeDataTagReference(alarm);
-      } catch (CacheElementNotFoundException e) {
-        log.warn("Unable to remove Alarm reference from Tag, as could not locate Tag " + alarm.getTagId() + " in cache");
-      }
     } catch (CacheElementNotFoundException e) {
       log.debug("Attempting to remove a non-existent Alarm - no action taken.");
       alarmReport.setWarning("Attempting to remove a non-existent Alarm");
+      return;
     } catch (Exception ex) {
       log.error("Exception caught while removing Alarm " + alarmId, ex);
       alarmReport.setFailure("Unable to remove Alarm with id " + alarmId);
@@ -192,6 +190,18 @@ public class AlarmConfigTransactedImpl implements AlarmConfigTransacted {
     } finally {
       alarmCache.releaseWriteLockOnKey(alarmId);
     }
+
+    // tag locks are always taken before alarm locks (as on tag updates), so
+    // the tag is only updated once the alarm is released
+    try {
+      removeDataTagReference(alarm);
+    } catch (CacheElementNotFoundException e) {
+      log.warn("Unable to remove Alarm reference from Tag, as could not locate Tag " + alarm.getTagId() + " in cache");
+    } catch (Exception ex) {
+      log.error("Exception caught while removing Alarm " + alarmId, ex);
+      alarmReport.setFailure("Unable to remove Alarm with id " + alarmId);
+      throw new UnexpectedRollbackException("Exception caught while attempting to remove an alarm", ex);
+    }
   }
 
   /**
@@ -147,6 +147,8 @@ public class DeviceConfigTransactedImpl implements DeviceConfigTransacted {
       Device device = deviceCache.get(id);
       deviceDAO.updateConfig(device);
       deviceFacade.updateConfig(device, properties);
+      // put back, so that the cache indexes follow a change of device class
+      deviceCache.putQuiet(device);
 
       // No event for DAQ layer
       return new ProcessChange();
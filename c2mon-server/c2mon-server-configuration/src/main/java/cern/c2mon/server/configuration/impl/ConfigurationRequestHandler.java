@@ -116,6 +116,7 @@ public class ConfigurationRequestHandler implements SessionAwareMessageListener<
         messageProducer = session.createProducer(replyDestination);
         TextMessage replyMessage = session.createTextMessage();
         replyMessage.setText(mapper.writeValueAsString(configurationReport));
+        replyMessage.setJMSCorrelationID(message.getJMSCorrelationID());
         if (log.isDebugEnabled()) {
           log.debug("Sending reconfiguration report to client.");
         }
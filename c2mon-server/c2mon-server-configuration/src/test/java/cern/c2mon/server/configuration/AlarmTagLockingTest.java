@@ -0,0 +1,157 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.configuration;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import cern.c2mon.server.cache.AlarmCache;
+import cern.c2mon.server.cache.AlarmFacade;
+import cern.c2mon.server.cache.TagLocationService;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.configuration.config.ConfigurationModule;
+import cern.c2mon.server.configuration.config.ProcessCommunicationManagerMock;
+import cern.c2mon.server.configuration.handler.AlarmConfigHandler;
+import cern.c2mon.server.configuration.junit.ConfigurationCachePopulationRule;
+import cern.c2mon.server.configuration.junit.ConfigurationDatabasePopulationRule;
+import cern.c2mon.server.daq.config.DaqModule;
+import cern.c2mon.server.daq.update.JmsContainerManagerImpl;
+import cern.c2mon.server.rule.config.RuleModule;
+import cern.c2mon.server.supervision.config.SupervisionModule;
+import cern.c2mon.shared.client.configuration.ConfigConstants.Action;
+import cern.c2mon.shared.client.configuration.ConfigConstants.Entity;
+import cern.c2mon.shared.client.configuration.ConfigurationElementReport;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the tag and alarm locks are taken in the same order by the tag
+ * update and alarm configuration paths, which would otherwise deadlock.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {
+    CommonModule.class,
+    CacheModule.class,
+    CacheDbAccessModule.class,
+    CacheLoadingModule.class,
+    SupervisionModule.class,
+    ConfigurationModule.class,
+    DaqModule.class,
+    RuleModule.class,
+    ProcessCommunicationManagerMock.class
+})
+public class AlarmTagLockingTest {
+
+  private static final Long ALARM_ID = 350000L;
+
+  private static final Long TAG_ID = 60000L;
+
+  @Rule
+  @Autowired
+  public ConfigurationDatabasePopulationRule populationRule;
+
+  @Rule
+  @Autowired
+  public ConfigurationCachePopulationRule configurationCachePopulationRule;
+
+  @Autowired
+  private AlarmConfigHandler alarmConfigHandler;
+
+  @Autowired
+  private AlarmFacade alarmFacade;
+
+  @Autowired
+  private AlarmCache alarmCache;
+
+  @Autowired
+  private TagLocationService tagLocationService;
+
+  @Autowired
+  private JmsContainerManagerImpl jmsContainerManager;
+
+  @After
+  public void cleanUp() {
+    jmsContainerManager.stop();
+  }
+
+  /**
+   * The alarm is removed while a tag update is evaluating it: the tag update
+   * holds the tag read lock and then needs the alarm write lock, the removal
+   * needs both the alarm and the tag write lock.
+   */
+  @Test
+  public void testTagUpdateAndAlarmRemoval() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch tagLocked = new CountDownLatch(1);
+    CountDownLatch removalWaiting = new CountDownLatch(1);
+    Thread[] removalThread = new Thread[1];
+
+    // same sequence as AbstractTagFacade.evaluateAlarms()
+    Future<?> tagUpdate = executor.submit(() -> {
+      tagLocationService.acquireReadLockOnKey(TAG_ID);
+      try {
+        Tag tag = tagLocationService.getCopy(TAG_ID);
+        tagLocked.countDown();
+        removalWaiting.await();
+        alarmFacade.update(ALARM_ID, tag);
+      } finally {
+        tagLocationService.releaseReadLockOnKey(TAG_ID);
+      }
+      return null;
+    });
+
+    assertTrue(tagLocked.await(30, TimeUnit.SECONDS));
+    ConfigurationElementReport report = new ConfigurationElementReport(Action.REMOVE, Entity.ALARM, ALARM_ID);
+    Future<?> removal = executor.submit(() -> {
+      removalThread[0] = Thread.currentThread();
+      alarmConfigHandler.removeAlarm(ALARM_ID, report);
+      return null;
+    });
+
+    // let the removal run until it blocks on the tag
+    long deadline = System.currentTimeMillis() + 30000;
+    while (removalThread[0] == null || removalThread[0].getState() != Thread.State.WAITING) {
+      assertTrue("Alarm removal did not reach the tag lock", System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+    removalWaiting.countDown();
+
+    tagUpdate.get(30, TimeUnit.SECONDS);
+    removal.get(30, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertFalse(report.isFailure());
+    assertFalse(alarmCache.hasKey(ALARM_ID));
+    assertFalse(tagLocationService.get(TAG_ID).getAlarmIds().contains(ALARM_ID));
+  }
+}
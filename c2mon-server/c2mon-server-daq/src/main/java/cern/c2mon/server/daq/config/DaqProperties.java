@@ -25,6 +25,21 @@ public class DaqProperties {
      */
     private int configurationTimeout = 60000;
 
+    /**
+     * If true, the replies of the DAQs to all server requests are received on
+     * a single reply queue, and matched by their JMS correlation id. Only
+     * enable it once all the DAQs connected to the server return the
+     * correlation id on their replies, as the replies of older DAQs are
+     * dropped. If false, a temporary topic is created for each request.
+     */
+    private boolean sharedReplyQueue = false;
+
+    /**
+     * Maximum number of commands waiting for the reply of a single DAQ
+     * process. Further commands to the process are rejected.
+     */
+    private int maxCommandsInFlight = 100;
+
     private Update update = new Update();
 
     private Request request = new Request();
@@ -75,6 +90,14 @@ public class DaqProperties {
       
       /** Set the TagUpdater's ThreadPoolTaskExecutor keep-alive seconds */
       int keepAliveSeconds = 60;
+
+      /**
+       * If enabled, the data tag values of an incoming message are applied in one
+       * pass: sorted by tag id, put in the cache with a single bulk operation and
+       * passed to the cache listeners in a single notification. Control tags are
+       * still processed one by one, before the data tags of the message.
+       */
+      boolean batchProcessing = false;
     }
 
     /**
@@ -16,6 +16,11 @@
  *****************************************************************************/
 package cern.c2mon.server.daq.out;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import javax.annotation.PreDestroy;
 import javax.jms.*;
 
 import lombok.extern.slf4j.Slf4j;
@@ -24,12 +29,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.support.JmsUtils;
 import org.springframework.stereotype.Service;
 
+import cern.c2mon.server.daq.config.DaqProperties;
+
 /**
  * Implementation of the JmsProcessOut interface for ActiveMQ
  * middleware.
  *
+ * <p>Unless disabled, the replies of the DAQs are received on a
+ * {@link DaqReplyQueue} shared by all requests.
+ *
  * @author Mark Brightwell
  *
  */
@@ -44,14 +55,126 @@ public class ActiveProcessOut implements JmsProcessOut {
    */
   private JmsTemplate processOutJmsTemplate;
 
+  /**
+   * If false, a temporary topic is created for each request.
+   */
+  private final boolean sharedReplyQueue;
+
+  /**
+   * Times out the requests sent through the reply queue.
+   */
+  private final ScheduledThreadPoolExecutor timeoutScheduler;
+
+  /**
+   * The current shared reply queue. Guarded by this.
+   */
+  private DaqReplyQueue replyQueue;
+
+  /**
+   * JMS connection of the reply queue.
+   */
+  private Connection replyConnection;
+
   @Autowired
-  public ActiveProcessOut(@Qualifier("processOutJmsTemplate") JmsTemplate processOutJmsTemplate) {
+  public ActiveProcessOut(@Qualifier("processOutJmsTemplate") JmsTemplate processOutJmsTemplate,
+                          DaqProperties properties) {
     super();
     this.processOutJmsTemplate = processOutJmsTemplate;
+    this.sharedReplyQueue = properties.getJms().isSharedReplyQueue();
+    this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "DaqRequestTimeout");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // the timeouts are mostly cancelled, as the replies arrive in time
+    this.timeoutScheduler.setRemoveOnCancelPolicy(true);
   }
 
   @Override
   public String sendTextMessage(final String text, final String jmsListenerQueue, final long timeout) {
+    if (!sharedReplyQueue) {
+      return sendTextMessageOnTemporaryTopic(text, jmsListenerQueue, timeout);
+    }
+    try {
+      return sendTextMessageAsync(text, jmsListenerQueue, timeout).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @Override
+  public CompletableFuture<String> sendTextMessageAsync(final String text, final String jmsListenerQueue, final long timeout) {
+    if (!sharedReplyQueue) {
+      return CompletableFuture.completedFuture(sendTextMessageOnTemporaryTopic(text, jmsListenerQueue, timeout));
+    }
+    try {
+      return getReplyQueue().send(text, jmsListenerQueue, timeout);
+    } catch (JMSException e) {
+      // the connection may have been reset since the reply queue was created
+      log.warn("Failed to send a request to the DAQ queue {}, retrying with a new reply queue: {}", jmsListenerQueue, e.getMessage());
+      try {
+        return getReplyQueue().send(text, jmsListenerQueue, timeout);
+      } catch (JMSException retryException) {
+        throw JmsUtils.convertJmsAccessException(retryException);
+      }
+    }
+  }
+
+  /**
+   * Returns the reply queue, creating a new one if the previous one is
+   * closed.
+   */
+  private synchronized DaqReplyQueue getReplyQueue() throws JMSException {
+    if (replyQueue == null || replyQueue.isClosed()) {
+      closeReplyQueue();
+      replyConnection = processOutJmsTemplate.getConnectionFactory().createConnection();
+      try {
+        replyConnection.start();
+        replyQueue = new DaqReplyQueue(replyConnection, timeoutScheduler);
+      } catch (JMSException e) {
+        JmsUtils.closeConnection(replyConnection);
+        replyConnection = null;
+        throw e;
+      }
+    }
+    return replyQueue;
+  }
+
+  private synchronized void closeReplyQueue() {
+    if (replyQueue != null) {
+      replyQueue.close();
+      replyQueue = null;
+    }
+    if (replyConnection != null) {
+      JmsUtils.closeConnection(replyConnection);
+      replyConnection = null;
+    }
+  }
+
+  /**
+   * @return the number of requests waiting for the reply of a DAQ
+   */
+  synchronized int getPendingRequestCount() {
+    return replyQueue == null ? 0 : replyQueue.getPendingRequestCount();
+  }
+
+  /**
+   * Closes the reply queue, the waiting requests are completed with null.
+   */
+  @PreDestroy
+  public void shutdown() {
+    closeReplyQueue();
+    timeoutScheduler.shutdownNow();
+  }
+
+  /**
+   * Sends the message with its own temporary reply topic, for DAQs which do
+   * not return the correlation id of the requests.
+   */
+  private String sendTextMessageOnTemporaryTopic(final String text, final String jmsListenerQueue, final long timeout) {
     String reply = (String) processOutJmsTemplate.execute(new SessionCallback<Object>() {
       @Override
     public Object doInJms(Session session) throws JMSException {
@@ -0,0 +1,209 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.daq.out;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.*;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.command.ActiveMQQueue;
+
+/**
+ * Reply queue shared by all the requests sent to the DAQs on one JMS
+ * connection.
+ * <p>
+ * Each request is sent with its own JMS correlation id, which the DAQ sets on
+ * its reply. A single consumer receives all the replies and completes the
+ * request with the same correlation id, so that the threads sending requests
+ * do not wait for the DAQs. A request not answered within its timeout is
+ * completed with null.
+ * <p>
+ * The reply queue is a temporary queue, living as long as the connection.
+ * Once closed (e.g. after a connection failure), a new one must be created.
+ */
+@Slf4j
+class DaqReplyQueue implements MessageListener {
+
+  private final Session consumerSession;
+
+  /**
+   * Session used to send the requests, guarded by its own monitor since a
+   * session must not be used by several threads at once.
+   */
+  private final Session producerSession;
+
+  private final MessageProducer producer;
+
+  private final TemporaryQueue replyQueue;
+
+  /**
+   * The requests waiting for a reply, by correlation id.
+   */
+  private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+  private final AtomicLong correlationIdCounter = new AtomicLong();
+
+  private final ScheduledExecutorService timeoutScheduler;
+
+  private volatile boolean closed = false;
+
+  /**
+   * Creates the reply queue and its consumer.
+   *
+   * @param connection the (started) JMS connection
+   * @param timeoutScheduler used to time out the requests
+   * @throws JMSException if the sessions or the reply queue cannot be created
+   */
+  DaqReplyQueue(final Connection connection, final ScheduledExecutorService timeoutScheduler) throws JMSException {
+    this.timeoutScheduler = timeoutScheduler;
+    this.consumerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+    try {
+      this.replyQueue = consumerSession.createTemporaryQueue();
+      consumerSession.createConsumer(replyQueue).setMessageListener(this);
+      this.producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      this.producer = producerSession.createProducer(null);
+    } catch (JMSException e) {
+      consumerSession.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Sends a text message to a DAQ queue.
+   *
+   * @param text the content of the message
+   * @param jmsListenerQueue the JMS queue to send the message to
+   * @param timeout the time to wait for the reply, in milliseconds
+   * @return the future text of the reply, null if no reply is received in time
+   * @throws JMSException if the message could not be sent
+   */
+  CompletableFuture<String> send(final String text, final String jmsListenerQueue, final long timeout) throws JMSException {
+    if (closed) {
+      throw new JMSException("The DAQ reply queue is closed");
+    }
+    PendingRequest request = new PendingRequest(Long.toString(correlationIdCounter.incrementAndGet()));
+    // registered before sending, as the reply may arrive before send returns
+    pendingRequests.put(request.correlationId, request);
+    request.timeoutTask = timeoutScheduler.schedule(() -> request.complete(null), timeout, TimeUnit.MILLISECONDS);
+    try {
+      synchronized (producerSession) {
+        TextMessage message = producerSession.createTextMessage(text);
+        message.setJMSReplyTo(replyQueue);
+        message.setJMSCorrelationID(request.correlationId);
+        producer.send(new ActiveMQQueue(jmsListenerQueue), message, DeliveryMode.PERSISTENT,
+            Message.DEFAULT_PRIORITY, 2 * timeout);
+      }
+    } catch (JMSException | RuntimeException e) {
+      pendingRequests.remove(request.correlationId);
+      request.timeoutTask.cancel(false);
+      closed = true;
+      throw e;
+    }
+    return request.result;
+  }
+
+  /**
+   * Completes the request with the correlation id of the reply.
+   */
+  @Override
+  public void onMessage(final Message message) {
+    try {
+      String correlationId = message.getJMSCorrelationID();
+      PendingRequest request = correlationId == null ? null : pendingRequests.get(correlationId);
+      if (request == null) {
+        log.warn("Received a DAQ reply with unknown correlation id {} (request timed out, or DAQ not returning "
+            + "the correlation id?), ignoring it.", correlationId);
+      } else if (message instanceof TextMessage) {
+        request.complete(((TextMessage) message).getText());
+      } else {
+        log.warn("Non-text message received as reply to a DAQ request - unable to process");
+      }
+    } catch (JMSException e) {
+      log.error("Exception caught while receiving a DAQ reply", e);
+    }
+  }
+
+  /**
+   * @return true if the reply queue cannot be used anymore
+   */
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * @return the number of requests waiting for a reply
+   */
+  int getPendingRequestCount() {
+    return pendingRequests.size();
+  }
+
+  /**
+   * Closes the sessions, completing all the waiting requests with null.
+   */
+  void close() {
+    closed = true;
+    try {
+      producerSession.close();
+      consumerSession.close();
+      replyQueue.delete();
+    } catch (JMSException e) {
+      log.debug("Exception caught while closing the DAQ reply queue: " + e.getMessage(), e);
+    }
+    List<PendingRequest> requests = new ArrayList<>(pendingRequests.values());
+    for (PendingRequest request : requests) {
+      request.complete(null);
+    }
+  }
+
+  /**
+   * A request waiting for its reply.
+   */
+  private final class PendingRequest {
+
+    private final String correlationId;
+
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    private PendingRequest(final String correlationId) {
+      this.correlationId = correlationId;
+    }
+
+    /**
+     * @param reply the reply, null on timeout
+     */
+    private void complete(final String reply) {
+      if (pendingRequests.remove(correlationId, this)) {
+        ScheduledFuture<?> task = timeoutTask;
+        if (task != null) {
+          task.cancel(false);
+        }
+        result.complete(reply);
+      }
+    }
+  }
+}
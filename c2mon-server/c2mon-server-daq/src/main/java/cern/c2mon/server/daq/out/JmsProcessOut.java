@@ -16,6 +16,7 @@
  *****************************************************************************/
 package cern.c2mon.server.daq.out;
 
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Specification of the beans responsible for sending messages to the DAQ
@@ -40,4 +41,16 @@ public interface JmsProcessOut {
    */
   String sendTextMessage(String text, String jmsListenerQueue, long timeout);
 
+  /**
+   * Sends a text message to the DAQ with the text as content, without waiting
+   * for the response.
+   *
+   * @param text the content of the message
+   * @param jmsListenerQueue the JMS queue to send the message to (as String)
+   * @param timeout the timeout while waiting for a response from the DAQ
+   * @return the future text of the response message, completed with null if
+   *         no response is received within the timeout
+   */
+  CompletableFuture<String> sendTextMessageAsync(String text, String jmsListenerQueue, long timeout);
+
 }
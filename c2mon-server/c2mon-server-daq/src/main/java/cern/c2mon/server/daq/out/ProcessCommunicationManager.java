@@ -17,6 +17,7 @@
 package cern.c2mon.server.daq.out;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -58,6 +59,24 @@ public interface ProcessCommunicationManager {
    */
   <T> CommandReport executeCommand(CommandTag<T> commandTag, T value);
 
+  /**
+   * Sends a command to the DAQ layer without waiting for the response.
+   *
+   * <p>The returned future is completed with the command report once the DAQ
+   * replies or the command times out, on the thread receiving the DAQ
+   * replies: dependent actions should not block. If the maximum number of
+   * commands waiting for the reply of the DAQ process is reached, the
+   * command is not sent and the report has the status
+   * {@link cern.c2mon.shared.client.command.CommandExecutionStatus#STATUS_SERVER_ERROR}.
+   *
+   * @param commandTag the command to execute
+   * @param value the value of the command
+   * @param <T> the value type of the command, set before execution
+   * @return the future report providing feedback on the execution of the command
+   * @throws NullPointerException if either parameter is null
+   */
+  <T> CompletableFuture<CommandReport> executeCommandAsync(CommandTag<T> commandTag, T value);
+
   /**
    * Requests the latest values of the data tags from the DAQ (DAQ id specified in the request object).
    * The values returned are those held in the DAQ memory (DAQ core functionality) - no refresh
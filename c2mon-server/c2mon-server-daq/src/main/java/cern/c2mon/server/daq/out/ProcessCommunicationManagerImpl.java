@@ -17,6 +17,10 @@
 package cern.c2mon.server.daq.out;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 import javax.jms.ConnectionFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -98,6 +102,12 @@ public class ProcessCommunicationManagerImpl implements ProcessCommunicationMana
 
   private DaqProperties properties;
 
+  /**
+   * Bounds the number of commands waiting for the reply of each process,
+   * by process id.
+   */
+  private final Map<Long, Semaphore> commandPermits = new ConcurrentHashMap<>();
+
   /**
    * Autowired constructor.
    *
@@ -197,6 +207,11 @@ public class ProcessCommunicationManagerImpl implements ProcessCommunicationMana
 
   @Override
   public <T> CommandReport executeCommand(final CommandTag<T> commandTag, final T value) {
+    return executeCommandAsync(commandTag, value).join();
+  }
+
+  @Override
+  public <T> CompletableFuture<CommandReport> executeCommandAsync(final CommandTag<T> commandTag, final T value) {
     // Before attempting anything else, make sure none of the parameters is null
     if (commandTag == null) {
       LOGGER.warn("executeCommand() : called with null CommandTagHandler parameter.");
@@ -208,52 +223,84 @@ public class ProcessCommunicationManagerImpl implements ProcessCommunicationMana
     }
     LOGGER.debug("executeCommand() : called for command id " + commandTag.getId());
 
-    CommandReport result = null;
-
     try {
       Process process = processCache.get(commandTag.getProcessId());
       if (processFacade.isRunning(process)) {
         LOGGER.debug("executeCommand() : associated process is running.");
 
+        Semaphore permits = commandPermits.computeIfAbsent(process.getId(),
+            id -> new Semaphore(properties.getJms().getMaxCommandsInFlight()));
+        if (!permits.tryAcquire()) {
+          LOGGER.warn("executeCommand() : Too many commands waiting for the reply of process " + process.getName()
+              + ", rejecting command " + commandTag.getId());
+          return CompletableFuture.completedFuture(new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_SERVER_ERROR,
+              "Too many commands waiting for the reply of the DAQ process."));
+        }
+
         // treat command
         SourceCommandTagValue val = new SourceCommandTagValue(commandTag.getId(), commandTag.getName(), commandTag.getEquipmentId(), commandTag.getMode(),
             value, commandTag.getDataType());
-        String reply = jmsProcessOut.sendTextMessage(MessageConverter.requestToJson(val), getJmsDaqCommandQueue(process), commandTag.getExecTimeout());
-        LOGGER.debug("executeCommand() : reply received: " + reply);
-        if (reply != null) {
-          try {
-            SourceCommandTagReport report = MessageConverter.responseFromJson(reply, SourceCommandTagReport.class);
-            switch (report.getStatus()) {
-              case STATUS_OK:
-                CommandReportImpl commandReport = new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_OK, report.getFullDescription());
-                commandReport.setReturnValue(report.getReturnValue());
-                return commandReport;
-
-              case STATUS_TEST_OK:
-                return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_NOT_EXECUTED, report.getFullDescription());
-
-              default:
-                return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_EXECUTION_FAILED, report.getFullDescription());
-            }
-          } catch (RuntimeException e) {
-            return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_SERVER_ERROR,
-                "Reply received from DAQ could not serialized");
-          }
-        } else {
-          return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_TIMED_OUT);
+        CompletableFuture<String> reply;
+        try {
+          reply = jmsProcessOut.sendTextMessageAsync(MessageConverter.requestToJson(val), getJmsDaqCommandQueue(process), commandTag.getExecTimeout());
+        } catch (RuntimeException e) {
+          permits.release();
+          throw e;
         }
+        return reply.handle((replyText, exception) -> {
+          permits.release();
+          if (exception != null) {
+            LOGGER.error("executeCommand() : Exception", exception);
+            return null;
+          }
+          LOGGER.debug("executeCommand() : reply received: " + replyText);
+          return toCommandReport(commandTag, replyText);
+        });
       } else {
         LOGGER.warn("executeCommand() : Process is not running.");
-        result = new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_PROCESS_DOWN, "The associated DAQ process is not running.");
+        return CompletableFuture.completedFuture(new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_PROCESS_DOWN,
+            "The associated DAQ process is not running."));
       }
     } catch (CacheElementNotFoundException cacheEx) {
       LOGGER.error("executeCommand() : Process (id=" + commandTag.getProcessId() + ") related to command tag (id="
           + commandTag.getId() + ") not found in cache.", cacheEx);
-      result = new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_SERVER_ERROR, "Process related to command not found in cache.");
+      return CompletableFuture.completedFuture(new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_SERVER_ERROR,
+          "Process related to command not found in cache."));
     } catch (Exception e) {
       LOGGER.error("executeCommand() : Exception", e);
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Converts the reply of the DAQ to a command into the report for the client.
+   *
+   * @param commandTag the executed command
+   * @param reply the reply of the DAQ, null on timeout
+   * @return the command report
+   */
+  private static CommandReport toCommandReport(final CommandTag<?> commandTag, final String reply) {
+    if (reply == null) {
+      return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_TIMED_OUT);
+    }
+    try {
+      SourceCommandTagReport report = MessageConverter.responseFromJson(reply, SourceCommandTagReport.class);
+      switch (report.getStatus()) {
+        case STATUS_OK:
+          CommandReportImpl commandReport = new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_OK, report.getFullDescription());
+          commandReport.setReturnValue(report.getReturnValue());
+          return commandReport;
+
+        case STATUS_TEST_OK:
+          return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_NOT_EXECUTED, report.getFullDescription());
+
+        default:
+          return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_EXECUTION_FAILED, report.getFullDescription());
+      }
+    } catch (RuntimeException e) {
+      return new CommandReportImpl(commandTag.getId(), CommandExecutionStatus.STATUS_SERVER_ERROR,
+          "Reply received from DAQ could not serialized");
     }
-    return result;
   }
 
   @Override
@@ -16,7 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.server.daq.update;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.JMSException;
@@ -42,6 +44,7 @@ import cern.c2mon.server.cache.ProcessFacade;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.process.Process;
 import cern.c2mon.server.common.thread.Event;
+import cern.c2mon.server.daq.config.DaqProperties;
 import cern.c2mon.server.supervision.SupervisionManager;
 import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
 import cern.c2mon.shared.common.datatag.SourceDataTagValue;
@@ -102,6 +105,8 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
 
   private final ServerProperties properties;
 
+  private final DaqProperties daqProperties;
+
   /**
    * For management only. Number of JMS threads
    * currently active.
@@ -135,7 +140,8 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
                                  final DataTagValueUpdateConverter dataTagValueUpdateConverter,
                                  final ProcessFacade processFacade,
                                  final ProcessCache processCache,
-                                 final ServerProperties properties) {
+                                 final ServerProperties properties,
+                                 final DaqProperties daqProperties) {
     super();
     this.dataTagFacade = dataTagFacade;
     this.controlTagFacade = controlTagFacade;
@@ -144,6 +150,7 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
     this.processFacade = processFacade;
     this.processCache = processCache;
     this.properties = properties;
+    this.daqProperties = daqProperties;
   }
 
   /**
@@ -162,7 +169,9 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
     try {
       activeUpdateThreads.getAndIncrement();
       Collection<SourceDataTagValue> values = dataTagValueUpdate.getValues();
-      if (values != null ) {
+      if (values != null && daqProperties.getJms().getUpdate().isBatchProcessing()) {
+        processBatch(values);
+      } else if (values != null ) {
 
         for(SourceDataTagValue sourceDataTagValue : values){
 
@@ -220,6 +229,34 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
     }
   }
 
+  /**
+   * Processes the values of one message in batch mode: control tags are processed
+   * one by one, while all data tags are passed to the {@link DataTagFacade} in a
+   * single batch.
+   *
+   * @param values the values received in one message
+   */
+  private void processBatch(final Collection<SourceDataTagValue> values) {
+    List<SourceDataTagValue> dataTagValues = new ArrayList<>(values.size());
+    for (SourceDataTagValue sourceDataTagValue : values) {
+      if (sourceDataTagValue.isControlTag()) {
+        processControl(sourceDataTagValue);
+      } else {
+        dataTagValues.add(sourceDataTagValue);
+      }
+    }
+
+    if (!dataTagValues.isEmpty()) {
+      log.trace("Processing batch of {} incoming data tag updates", dataTagValues.size());
+      dataTagFacade.updateFromSource(dataTagValues);
+    }
+
+    //log in file
+    for (SourceDataTagValue sourceDataTagValue : values) {
+      sourceDataTagValue.log();
+    }
+  }
+
   /**
    * Performs all operations needed on reception of a control tag. Currently very similar to
    * processDataTag method and uses the {@link DataTagFacade} to update the ControlTagCacheObject as it
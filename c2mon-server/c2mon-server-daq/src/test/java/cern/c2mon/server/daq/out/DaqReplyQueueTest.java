@@ -0,0 +1,186 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.daq.out;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.*;
+
+import org.apache.activemq.command.ActiveMQTempQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit test of the matching of the DAQ replies to their requests in
+ * {@link DaqReplyQueue}, with mocked JMS sessions.
+ */
+public class DaqReplyQueueTest {
+
+  private static final long TIMEOUT = 10000;
+
+  private IMocksControl control = EasyMock.createNiceControl();
+
+  private Connection connection;
+
+  private MessageProducer producer;
+
+  private ScheduledThreadPoolExecutor timeoutScheduler;
+
+  /**
+   * The last request passed to the producer session.
+   */
+  private Message sentMessage;
+
+  @Before
+  public void setUp() throws JMSException {
+    connection = control.createMock(Connection.class);
+    Session consumerSession = control.createMock(Session.class);
+    Session producerSession = control.createMock(Session.class);
+    producer = control.createMock(MessageProducer.class);
+    TemporaryQueue temporaryQueue = new ActiveMQTempQueue("reply-queue");
+    MessageConsumer consumer = control.createMock(MessageConsumer.class);
+
+    EasyMock.expect(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).andReturn(consumerSession).andReturn(producerSession);
+    EasyMock.expect(consumerSession.createTemporaryQueue()).andReturn(temporaryQueue);
+    EasyMock.expect(consumerSession.createConsumer(temporaryQueue)).andReturn(consumer);
+    EasyMock.expect(producerSession.createProducer(null)).andReturn(producer);
+    EasyMock.expect(producerSession.createTextMessage(EasyMock.anyString())).andAnswer(() -> {
+      ActiveMQTextMessage message = new ActiveMQTextMessage();
+      message.setText((String) EasyMock.getCurrentArguments()[0]);
+      sentMessage = message;
+      return message;
+    }).anyTimes();
+
+    timeoutScheduler = new ScheduledThreadPoolExecutor(1);
+    timeoutScheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  @After
+  public void tearDown() {
+    timeoutScheduler.shutdownNow();
+  }
+
+  @Test
+  public void testReplyCompletesRequestWithSameCorrelationId() throws Exception {
+    DaqReplyQueue replyQueue = createReplyQueue();
+    CompletableFuture<String> firstRequest = replyQueue.send("first", "daq.queue", TIMEOUT);
+    String firstCorrelationId = sentMessage.getJMSCorrelationID();
+    CompletableFuture<String> secondRequest = replyQueue.send("second", "daq.queue", TIMEOUT);
+    String secondCorrelationId = sentMessage.getJMSCorrelationID();
+    assertFalse(firstCorrelationId.equals(secondCorrelationId));
+    assertEquals(2, replyQueue.getPendingRequestCount());
+
+    replyQueue.onMessage(createReply(secondCorrelationId, "second reply"));
+
+    assertEquals("second reply", secondRequest.get(1, TimeUnit.SECONDS));
+    assertFalse(firstRequest.isDone());
+    assertEquals(1, replyQueue.getPendingRequestCount());
+
+    replyQueue.onMessage(createReply(firstCorrelationId, "first reply"));
+
+    assertEquals("first reply", firstRequest.get(1, TimeUnit.SECONDS));
+    assertEquals(0, replyQueue.getPendingRequestCount());
+    assertEquals(0, timeoutScheduler.getQueue().size());
+  }
+
+  @Test
+  public void testReplyWithUnknownCorrelationIdIgnored() throws Exception {
+    DaqReplyQueue replyQueue = createReplyQueue();
+    CompletableFuture<String> request = replyQueue.send("request", "daq.queue", TIMEOUT);
+
+    replyQueue.onMessage(createReply(null, "reply of an old DAQ"));
+    replyQueue.onMessage(createReply("unknown", "late reply"));
+
+    assertFalse(request.isDone());
+    assertEquals(1, replyQueue.getPendingRequestCount());
+  }
+
+  @Test
+  public void testRequestTimesOut() throws Exception {
+    DaqReplyQueue replyQueue = createReplyQueue();
+    CompletableFuture<String> request = replyQueue.send("request", "daq.queue", 10);
+    String correlationId = sentMessage.getJMSCorrelationID();
+
+    assertNull(request.get(1, TimeUnit.SECONDS));
+    assertEquals(0, replyQueue.getPendingRequestCount());
+
+    // a reply arriving after the timeout is ignored
+    replyQueue.onMessage(createReply(correlationId, "late reply"));
+    assertNull(request.get());
+  }
+
+  @Test
+  public void testCloseCompletesPendingRequests() throws Exception {
+    DaqReplyQueue replyQueue = createReplyQueue();
+    CompletableFuture<String> request = replyQueue.send("request", "daq.queue", TIMEOUT);
+
+    replyQueue.close();
+
+    assertTrue(replyQueue.isClosed());
+    assertNull(request.get(1, TimeUnit.SECONDS));
+    assertEquals(0, replyQueue.getPendingRequestCount());
+    try {
+      replyQueue.send("request", "daq.queue", TIMEOUT);
+      fail("A closed reply queue must not send requests");
+    } catch (JMSException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSendFailureClosesReplyQueue() throws Exception {
+    producer.send(EasyMock.anyObject(Destination.class), EasyMock.anyObject(Message.class), EasyMock.anyInt(),
+        EasyMock.anyInt(), EasyMock.anyLong());
+    EasyMock.expectLastCall().andThrow(new JMSException("connection lost"));
+    DaqReplyQueue replyQueue = createReplyQueue();
+
+    try {
+      replyQueue.send("request", "daq.queue", TIMEOUT);
+      fail("The send failure must be passed to the caller");
+    } catch (JMSException e) {
+      // expected
+    }
+
+    assertTrue(replyQueue.isClosed());
+    assertEquals(0, replyQueue.getPendingRequestCount());
+    assertEquals(0, timeoutScheduler.getQueue().size());
+  }
+
+  private DaqReplyQueue createReplyQueue() throws JMSException {
+    control.replay();
+    return new DaqReplyQueue(connection, timeoutScheduler);
+  }
+
+  private static TextMessage createReply(final String correlationId, final String text) throws JMSException {
+    ActiveMQTextMessage reply = new ActiveMQTextMessage();
+    reply.setJMSCorrelationID(correlationId);
+    reply.setText(text);
+    return reply;
+  }
+}
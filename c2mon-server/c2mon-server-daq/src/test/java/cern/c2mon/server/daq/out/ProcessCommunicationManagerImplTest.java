@@ -0,0 +1,111 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.daq.out;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.jms.ConnectionFactory;
+
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.EquipmentCache;
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.ProcessFacade;
+import cern.c2mon.server.common.command.CommandTagCacheObject;
+import cern.c2mon.server.common.process.ProcessCacheObject;
+import cern.c2mon.server.daq.config.DaqProperties;
+import cern.c2mon.shared.client.command.CommandExecutionStatus;
+import cern.c2mon.shared.client.command.CommandReport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit test of the command execution of {@link ProcessCommunicationManagerImpl},
+ * with a mocked {@link JmsProcessOut}.
+ */
+public class ProcessCommunicationManagerImplTest {
+
+  private IMocksControl control = EasyMock.createControl();
+
+  private ProcessCache processCache;
+
+  private ProcessFacade processFacade;
+
+  private JmsProcessOut jmsProcessOut;
+
+  private ProcessCommunicationManagerImpl processCommunicationManager;
+
+  private ProcessCacheObject process;
+
+  private CommandTagCacheObject<Integer> commandTag;
+
+  @Before
+  public void setUp() {
+    processCache = control.createMock(ProcessCache.class);
+    processFacade = control.createMock(ProcessFacade.class);
+    jmsProcessOut = control.createMock(JmsProcessOut.class);
+
+    DaqProperties properties = new DaqProperties();
+    properties.getJms().setMaxCommandsInFlight(1);
+    processCommunicationManager = new ProcessCommunicationManagerImpl(control.createMock(EquipmentCache.class), processCache,
+        processFacade, jmsProcessOut, control.createMock(ConnectionFactory.class), properties);
+
+    process = new ProcessCacheObject(10L, "P_TEST", 100L, 100, 100);
+    process.setCurrentHost("localhost");
+    process.setProcessPIK(12345L);
+
+    commandTag = new CommandTagCacheObject<>(1000L, "test command", "test description", "Integer", (short) 0);
+    commandTag.setProcessId(10L);
+    commandTag.setEquipmentId(20L);
+    commandTag.setExecTimeout(5000);
+  }
+
+  /**
+   * A command to a process already having the maximum number of commands in
+   * flight is rejected without being sent; the permit is released once the
+   * pending command completes.
+   */
+  @Test
+  public void testCommandRejectedWhenTooManyInFlight() {
+    CompletableFuture<String> firstReply = new CompletableFuture<>();
+    EasyMock.expect(processCache.get(10L)).andReturn(process).times(3);
+    EasyMock.expect(processFacade.isRunning(process)).andReturn(true).times(3);
+    EasyMock.expect(jmsProcessOut.sendTextMessageAsync(EasyMock.anyString(), EasyMock.eq("c2mon.process.command.localhost.P_TEST.12345"),
+        EasyMock.eq(5000L))).andReturn(firstReply).andReturn(new CompletableFuture<>());
+
+    control.replay();
+
+    CompletableFuture<CommandReport> firstCommand = processCommunicationManager.executeCommandAsync(commandTag, 1);
+    assertFalse(firstCommand.isDone());
+
+    CommandReport rejectedReport = processCommunicationManager.executeCommandAsync(commandTag, 2).join();
+    assertEquals(CommandExecutionStatus.STATUS_SERVER_ERROR, rejectedReport.getStatus());
+
+    // no reply from the DAQ: the first command times out and frees its permit
+    firstReply.complete(null);
+    assertEquals(CommandExecutionStatus.STATUS_TIMED_OUT, firstCommand.join().getStatus());
+
+    CompletableFuture<CommandReport> thirdCommand = processCommunicationManager.executeCommandAsync(commandTag, 3);
+    assertFalse(thirdCommand.isDone());
+
+    control.verify();
+  }
+}
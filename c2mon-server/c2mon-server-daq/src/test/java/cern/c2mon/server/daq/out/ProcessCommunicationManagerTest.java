@@ -111,6 +111,7 @@ public class ProcessCommunicationManagerTest {
               MessageProducer messageProducer = session.createProducer(incomingMessage.getJMSReplyTo());
               TextMessage replyMessage = session.createTextMessage();
               replyMessage.setText(reportString);
+              replyMessage.setJMSCorrelationID(incomingMessage.getJMSCorrelationID());
               messageProducer.send(replyMessage);
               return null;
             }
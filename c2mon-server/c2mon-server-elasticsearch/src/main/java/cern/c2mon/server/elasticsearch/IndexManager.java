@@ -16,8 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +38,7 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 @Component
 public class IndexManager {
 
-  private final List<String> indexCache = new CopyOnWriteArrayList<>();
+  private final Set<String> indexCache = ConcurrentHashMap.newKeySet();
 
   private final ElasticsearchClient client;
 
@@ -95,20 +95,22 @@ public class IndexManager {
   /**
    * Check if a given index exists.
    * <p>
-   * The node-local index cache will be searched first before querying
-   * Elasticsearch directly.
+   * The node-local index cache will be searched first (without locking)
+   * before querying Elasticsearch directly.
    *
    * @param indexMetadata index metadata to check if it exists
    * @return true if the index exists, false otherwise.
    */
   public boolean exists(IndexMetadata indexMetadata) {
+    if (indexCache.contains(indexMetadata.getName())) {
+      return true;
+    }
+
     synchronized (IndexManager.class) {
       if (indexCache.contains(indexMetadata.getName())) {
         return true;
       }
 
-      IndexMetadata.builder().name(indexMetadata.getName()).routing(indexMetadata.getRouting()).build();
-
       if (client.isIndexExisting(indexMetadata)) {
         indexCache.add(indexMetadata.getName());
         return true;
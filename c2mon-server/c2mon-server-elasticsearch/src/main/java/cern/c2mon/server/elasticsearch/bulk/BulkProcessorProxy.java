@@ -16,11 +16,19 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.bulk;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.rest.RestStatus;
 import org.springframework.util.Assert;
 
 import cern.c2mon.server.elasticsearch.client.ElasticsearchClient;
@@ -28,6 +36,9 @@ import cern.c2mon.server.elasticsearch.client.ElasticsearchClient;
 /**
  * Wrapper around {@link BulkProcessor}. If a bulk operation fails, this class
  * will throw a {@link RuntimeException}.
+ * <p>
+ * Also keeps track of the executed bulk requests (latency, number of actions,
+ * failed and rejected actions) for monitoring purposes.
  *
  * @author Serhiy Boychenko
  */
@@ -36,6 +47,23 @@ public class BulkProcessorProxy implements BulkProcessor.Listener {
 
   private final BulkProcessor bulkProcessor;
 
+  /** Start time (in nanoseconds) of the bulk requests being executed, by execution id */
+  private final Map<Long, Long> bulkStartTimes = new ConcurrentHashMap<>();
+
+  private final LongAdder executedBulks = new LongAdder();
+
+  private final LongAdder failedBulks = new LongAdder();
+
+  private final LongAdder executedActions = new LongAdder();
+
+  private final LongAdder failedActions = new LongAdder();
+
+  private final LongAdder rejectedActions = new LongAdder();
+
+  private final LongAdder totalBulkLatency = new LongAdder();
+
+  private final LongAccumulator maxBulkLatency = new LongAccumulator(Long::max, 0);
+
   /**
    * @param client to be used to communicate with Elasticsearch cluster.
    */
@@ -54,25 +82,111 @@ public class BulkProcessorProxy implements BulkProcessor.Listener {
   }
 
   /**
-   * flushes the data to server
+   * Flushes the pending requests to the server. The bulk request is
+   * executed asynchronously; if the maximum number of concurrent requests
+   * is reached, this call blocks until one of them completes.
    */
   public void flush() {
     bulkProcessor.flush();
   }
 
+  /**
+   * @return the number of bulk requests executed so far
+   */
+  public long getExecutedBulks() {
+    return executedBulks.sum();
+  }
+
+  /**
+   * @return the number of bulk requests which failed as a whole
+   */
+  public long getFailedBulks() {
+    return failedBulks.sum();
+  }
+
+  /**
+   * @return the number of actions sent within bulk requests
+   */
+  public long getExecutedActions() {
+    return executedActions.sum();
+  }
+
+  /**
+   * @return the number of actions which failed, including the rejected ones
+   */
+  public long getFailedActions() {
+    return failedActions.sum();
+  }
+
+  /**
+   * @return the number of actions rejected by the cluster because of back-pressure
+   */
+  public long getRejectedActions() {
+    return rejectedActions.sum();
+  }
+
+  /**
+   * @return the average round-trip time of a bulk request in milliseconds
+   */
+  public long getAverageBulkLatency() {
+    long bulks = executedBulks.sum() + failedBulks.sum();
+    return bulks == 0 ? 0 : totalBulkLatency.sum() / bulks;
+  }
+
+  /**
+   * @return the maximum round-trip time of a bulk request in milliseconds
+   */
+  public long getMaxBulkLatency() {
+    return maxBulkLatency.get();
+  }
+
   @Override
   public void beforeBulk(long executionId, BulkRequest request) {
+    bulkStartTimes.put(executionId, System.nanoTime());
     log.debug("Going to execute new bulk operation composed of {} actions", request.numberOfActions());
   }
 
   @Override
   public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
-    log.debug("Executed bulk operation composed of {} actions", request.numberOfActions());
+    recordLatency(executionId);
+    executedBulks.increment();
+    executedActions.add(request.numberOfActions());
+
+    if (response.hasFailures()) {
+      int failed = 0;
+      int rejected = 0;
+      for (BulkItemResponse item : response.getItems()) {
+        if (item.isFailed()) {
+          failed++;
+          if (item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+            rejected++;
+          }
+        }
+      }
+      failedActions.add(failed);
+      rejectedActions.add(rejected);
+      log.warn("Bulk operation composed of {} actions completed with {} failures ({} rejected): {}",
+          request.numberOfActions(), failed, rejected, response.buildFailureMessage());
+    } else {
+      log.debug("Executed bulk operation composed of {} actions", request.numberOfActions());
+    }
   }
 
   @Override
   public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+    recordLatency(executionId);
+    failedBulks.increment();
+    failedActions.add(request.numberOfActions());
     log.warn("Error executing bulk operation", failure);
     throw new IllegalStateException(failure);
   }
+
+  private void recordLatency(long executionId) {
+    Long start = bulkStartTimes.remove(executionId);
+    if (start != null) {
+      long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      totalBulkLatency.add(latency);
+      maxBulkLatency.accumulate(latency);
+    }
+  }
 }
@@ -142,7 +142,7 @@ public class ElasticsearchProperties {
   private int bulkActions = 5600;
 
   /**
-   * Maximum size for a batch of tags before sending it
+   * Maximum size (in MB) for a batch of tags before sending it
    */
   private int bulkSize = 1;
 
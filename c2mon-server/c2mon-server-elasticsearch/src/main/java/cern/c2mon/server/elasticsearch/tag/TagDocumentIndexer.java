@@ -17,12 +17,16 @@
 package cern.c2mon.server.elasticsearch.tag;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 
 import cern.c2mon.pmanager.IDBPersistenceHandler;
@@ -38,6 +42,11 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 /**
  * This class manages the fallback-aware indexing of {@link TagDocument}
  * instances to the Elasticsearch cluster.
+ * <p>
+ * All documents of a batch are added to the bulk processor, which is flushed
+ * once per batch. The bulk processor splits the batch according to the
+ * configured number of actions and size, and blocks when the maximum number
+ * of concurrent bulk requests is in flight.
  *
  * @author Alban Marguet
  * @author Justin Lewis Salmon
@@ -45,6 +54,7 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
  */
 @Slf4j
 @Component
+@ManagedResource(objectName = "cern.c2mon:name=tagDocumentIndexer")
 public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
 
   private final IndexNameManager indexNameManager;
@@ -75,20 +85,24 @@ public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
 
   @Override
   public void storeData(List<TagDocument> tags) throws IDBPersistenceException {
-    for(TagDocument tag : tags){
-      try {
-        indexTag(tag);
-      } catch (Exception e) {
-        log.warn("Error indexing batch for the following tag {}", tag.toString(), e);
-        throw new IDBPersistenceException(e);
-      }finally {
-        bulkProcessor.flush();
+    // indices already checked within this batch
+    Set<String> batchIndices = new HashSet<>();
+    try {
+      for (TagDocument tag : tags) {
+        try {
+          indexTag(tag, batchIndices);
+        } catch (Exception e) {
+          log.warn("Error indexing batch for the following tag {}", tag.toString(), e);
+          throw new IDBPersistenceException(e);
+        }
       }
+    } finally {
+      bulkProcessor.flush();
     }
   }
 
-  private void indexTag(TagDocument tag) {
-    String index = getOrCreateIndex(tag);
+  private void indexTag(TagDocument tag, Set<String> batchIndices) {
+    String index = getOrCreateIndex(tag, batchIndices);
 
     log.trace("Indexing tag (#{}, index={})", tag.getId(), index);
 
@@ -99,15 +113,52 @@ public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
     bulkProcessor.add(indexNewTag);
   }
 
-  private String getOrCreateIndex(TagDocument tag) {
-    IndexMetadata indexMetadata = IndexMetadata.builder().name(indexNameManager.indexFor(tag)).build();
+  private String getOrCreateIndex(TagDocument tag, Set<String> batchIndices) {
+    String index = indexNameManager.indexFor(tag);
+    if (batchIndices.add(index)) {
+      IndexMetadata indexMetadata = IndexMetadata.builder().name(index).build();
 
-    if (!indexManager.exists(indexMetadata)) {
-      indexManager.create(indexMetadata, MappingFactory.createTagMapping());
+      if (!indexManager.exists(indexMetadata)) {
+        indexManager.create(indexMetadata, MappingFactory.createTagMapping());
+      }
     }
 
-    return indexMetadata.getName();
+    return index;
+  }
+
+  @ManagedAttribute(description = "Number of bulk requests executed")
+  public long getExecutedBulks() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getExecutedBulks();
+  }
+
+  @ManagedAttribute(description = "Number of bulk requests which failed as a whole")
+  public long getFailedBulks() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getFailedBulks();
+  }
+
+  @ManagedAttribute(description = "Number of tag documents sent in bulk requests")
+  public long getExecutedActions() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getExecutedActions();
+  }
+
+  @ManagedAttribute(description = "Number of tag documents which could not be indexed")
+  public long getFailedActions() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getFailedActions();
+  }
+
+  @ManagedAttribute(description = "Number of tag documents rejected by the cluster (HTTP 429)")
+  public long getRejectedActions() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getRejectedActions();
+  }
+
+  @ManagedAttribute(description = "Average bulk request latency in milliseconds")
+  public long getAverageBulkLatency() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getAverageBulkLatency();
+  }
 
+  @ManagedAttribute(description = "Maximum bulk request latency in milliseconds")
+  public long getMaxBulkLatency() {
+    return bulkProcessor == null ? 0 : bulkProcessor.getMaxBulkLatency();
   }
 
   @Override
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -103,4 +104,20 @@ public class TagDocumentIndexerTestSuite extends ElasticsearchTestDefinition {
     List<String> indexData = IndexUtils.fetchAllDocuments(indexName);
     assertEquals("Index should have two documents inserted.", 2, indexData.size());
   }
+
+  @Test
+  public void indexBatchOfTagsInSingleBulkTest() throws IDBPersistenceException, IOException {
+    long executedBulks = indexer.getExecutedBulks();
+
+    indexer.storeData(Arrays.asList(document, document, document));
+
+    Awaitility.await().until(() -> IndexUtils.countDocuments(indexName) == 3);
+
+    ElasticsearchSuiteTest.getElasticsearchClient().refreshIndices();
+
+    List<String> indexData = IndexUtils.fetchAllDocuments(indexName);
+    assertEquals("Index should have three documents inserted.", 3, indexData.size());
+    Awaitility.await().until(() -> indexer.getExecutedBulks() > executedBulks);
+    assertEquals("The batch should have been sent in a single bulk request.", executedBulks + 1, indexer.getExecutedBulks());
+  }
 }
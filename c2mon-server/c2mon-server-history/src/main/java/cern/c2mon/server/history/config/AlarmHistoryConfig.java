@@ -11,8 +11,8 @@ import cern.c2mon.pmanager.persistence.impl.PersistenceManager;
 import cern.c2mon.server.common.alarm.Alarm;
 import cern.c2mon.server.history.alarm.AlarmListener;
 import cern.c2mon.server.history.dao.LoggerDAO;
+import cern.c2mon.server.history.logger.AsyncLogger;
 import cern.c2mon.server.history.logger.BatchLogger;
-import cern.c2mon.server.history.logger.DefaultLogger;
 import cern.c2mon.server.history.mapper.AlarmRecordMapper;
 import cern.c2mon.server.history.structure.AlarmRecord;
 import cern.c2mon.server.history.structure.AlarmRecordConverter;
@@ -34,7 +34,7 @@ public class AlarmHistoryConfig {
 
   @Bean
   public BatchLogger<Alarm> alarmLogger(AlarmRecordConverter alarmRecordConverter, AlarmListener alarmListener) throws Exception {
-    return new DefaultLogger<>(alarmRecordConverter, alarmHistoryPersistenceManager(alarmListener));
+    return new AsyncLogger<>("Alarm", alarmRecordConverter, alarmHistoryPersistenceManager(alarmListener), properties);
   }
 
   @Bean
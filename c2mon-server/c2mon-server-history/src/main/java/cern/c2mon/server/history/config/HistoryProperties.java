@@ -30,4 +30,29 @@ public class HistoryProperties {
    */
   private String commandFallbackFile = "/tmp/command-fallback.txt";
 
+  /**
+   * Number of threads writing the Tag history to the database, and the same
+   * number for the Alarm history.
+   */
+  private int writerThreads = 2;
+
+  /**
+   * Maximum number of Tag (or Alarm) history records waiting to be written
+   * to the database. Once reached, the records are written to the fallback
+   * file until the writers catch up.
+   */
+  private int writeQueueCapacity = 100000;
+
+  /**
+   * Maximum number of history records written to the database by a writer
+   * in one go.
+   */
+  private int writeBatchSize = 500;
+
+  /**
+   * Time in milliseconds the cache listeners wait for free space in a full
+   * history write queue, before writing the records to the fallback file.
+   */
+  private long writeQueueTimeout = 100;
+
 }
@@ -4,8 +4,8 @@ import cern.c2mon.pmanager.persistence.impl.PersistenceManager;
 import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.history.alarm.AlarmListener;
 import cern.c2mon.server.history.dao.LoggerDAO;
+import cern.c2mon.server.history.logger.AsyncLogger;
 import cern.c2mon.server.history.logger.BatchLogger;
-import cern.c2mon.server.history.logger.DefaultLogger;
 import cern.c2mon.server.history.mapper.TagRecordMapper;
 import cern.c2mon.server.history.structure.TagRecord;
 import cern.c2mon.server.history.structure.TagRecordConverter;
@@ -32,7 +32,7 @@ public class TagHistoryConfig {
 
   @Bean
   public BatchLogger<Tag> tagLogger(TagRecordConverter tagRecordConverter, AlarmListener alarmListener) throws Exception {
-    return new DefaultLogger<>(tagRecordConverter, tagHistoryPersistenceManager(alarmListener));
+    return new AsyncLogger<>("Tag", tagRecordConverter, tagHistoryPersistenceManager(alarmListener), properties);
   }
 
   @Bean
@@ -0,0 +1,315 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.history.logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import cern.c2mon.pmanager.persistence.IPersistenceManager;
+import cern.c2mon.server.common.config.ServerConstants;
+import cern.c2mon.server.history.config.HistoryProperties;
+import cern.c2mon.server.history.structure.Loggable;
+import cern.c2mon.server.history.structure.LoggerConverter;
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * BatchLogger writing to the history on its own threads, so that the cache
+ * listeners calling it are not blocked by the database.
+ *
+ * <p>The converted objects are put in a bounded queue, from which a pool of
+ * writer threads takes batches and stores them with the C2MON persistence
+ * manager (which uses the disk fallback if the database is unavailable).
+ * When the queue is full, the caller waits for at most the configured
+ * timeout, after which the remaining objects are written directly to the
+ * fallback file: they are committed to the database by the fallback
+ * recovery once the writers catch up.
+ *
+ * <p>Before the logger is started and once it is stopped, the objects are
+ * stored synchronously as by the {@link DefaultLogger}. On stop, the writers
+ * empty the queue before terminating.
+ *
+ * @param <T> the cache object that needs logging
+ */
+@Slf4j
+@ManagedResource
+public class AsyncLogger<T extends Cacheable> implements BatchLogger<T>, SmartLifecycle {
+
+  /**
+   * Time in milliseconds the writers wait for new objects, before checking
+   * whether the logger was stopped.
+   */
+  private static final long POLL_TIMEOUT = 500;
+
+  /**
+   * Name of the logger, used for naming the writer threads.
+   */
+  private final String name;
+
+  /**
+   * Converter bean for converting cache objects into a log (history) object.
+   */
+  private final LoggerConverter<T> converter;
+
+  /**
+   * The fallback persistence manager.
+   */
+  private final IPersistenceManager persistenceManager;
+
+  /**
+   * Objects waiting to be written.
+   */
+  private final BlockingQueue<Loggable> queue;
+
+  private final int writerThreads;
+
+  private final int batchSize;
+
+  /**
+   * Time in milliseconds a caller waits for free space in the queue.
+   */
+  private final long queueTimeout;
+
+  private final List<Thread> writers = new ArrayList<>();
+
+  private volatile boolean running = false;
+
+  private final AtomicLong writtenRecords = new AtomicLong();
+
+  private final AtomicLong writtenBatches = new AtomicLong();
+
+  /**
+   * Total time spent by the writers storing batches, in nanoseconds.
+   */
+  private final AtomicLong writeTime = new AtomicLong();
+
+  private final AtomicLong spilledRecords = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param name the name of the logger, used for the writer thread names
+   * @param converter a converter bean
+   * @param persistenceManager the persistence manager
+   * @param properties the history properties, giving the queue size and
+   *                   the number of writers
+   */
+  public AsyncLogger(final String name, final LoggerConverter<T> converter, final IPersistenceManager persistenceManager,
+                     final HistoryProperties properties) {
+    if (properties.getWriterThreads() <= 0 || properties.getWriteBatchSize() <= 0) {
+      throw new IllegalArgumentException("The number of history writers and the batch size must be positive");
+    }
+    this.name = name;
+    this.converter = converter;
+    this.persistenceManager = persistenceManager;
+    this.queue = new ArrayBlockingQueue<>(properties.getWriteQueueCapacity());
+    this.writerThreads = properties.getWriterThreads();
+    this.batchSize = properties.getWriteBatchSize();
+    this.queueTimeout = properties.getWriteQueueTimeout();
+  }
+
+  @Override
+  public void log(final Collection<T> tags) {
+    List<Loggable> loggables = new ArrayList<>(tags.size());
+    for (T tag : tags) {
+      if (tag != null && tag.getId() != null) {
+        loggables.add(converter.convertToLogged(tag));
+      }
+    }
+    if (!running) {
+      persistenceManager.storeData(loggables);
+      return;
+    }
+
+    for (int i = 0; i < loggables.size(); i++) {
+      if (!enqueue(loggables.get(i))) {
+        spill(loggables.subList(i, loggables.size()));
+        break;
+      }
+    }
+    if (!running) {
+      // stopped meanwhile: the writers may have terminated before the last objects were queued
+      List<Loggable> remaining = new ArrayList<>();
+      queue.drainTo(remaining);
+      if (!remaining.isEmpty()) {
+        persistenceManager.storeData(remaining);
+      }
+    }
+  }
+
+  /**
+   * Puts an object in the queue, waiting for at most the queue timeout if
+   * the queue is full.
+   *
+   * @return false if the object could not be put in the queue
+   */
+  private boolean enqueue(final Loggable loggable) {
+    if (queue.offer(loggable)) {
+      return true;
+    }
+    try {
+      return queue.offer(loggable, queueTimeout, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Writes objects to the fallback file, as the writers cannot keep up.
+   */
+  private void spill(final List<Loggable> loggables) {
+    log.warn("History write queue of {} is full ({} objects): writing {} objects to the fallback file",
+        name, queue.size(), loggables.size());
+    persistenceManager.fallback(new ArrayList<>(loggables));
+    spilledRecords.addAndGet(loggables.size());
+  }
+
+  /**
+   * Writer thread loop: stores the queued objects in batches, until the
+   * logger is stopped and the queue is empty.
+   */
+  private void write() {
+    while (running || !queue.isEmpty()) {
+      List<Loggable> batch = new ArrayList<>(batchSize);
+      try {
+        Loggable first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+      } catch (InterruptedException e) {
+        log.warn("History writer of {} interrupted, {} objects left in the queue", name, queue.size());
+        Thread.currentThread().interrupt();
+        return;
+      }
+      store(batch);
+    }
+  }
+
+  private void store(final List<Loggable> batch) {
+    long start = System.nanoTime();
+    try {
+      persistenceManager.storeData(batch);
+    } catch (RuntimeException e) {
+      log.error("Unexpected exception while writing {} objects to the history, writing them to the fallback file", batch.size(), e);
+      persistenceManager.fallback(batch);
+    }
+    writeTime.addAndGet(System.nanoTime() - start);
+    writtenBatches.incrementAndGet();
+    writtenRecords.addAndGet(batch.size());
+  }
+
+  @ManagedAttribute(description = "Number of objects waiting to be written to the history")
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  @ManagedAttribute(description = "Maximum number of objects waiting to be written to the history")
+  public int getQueueCapacity() {
+    return queue.size() + queue.remainingCapacity();
+  }
+
+  @ManagedAttribute(description = "Number of objects written by the history writers (to the DB or its fallback)")
+  public long getWrittenRecords() {
+    return writtenRecords.get();
+  }
+
+  @ManagedAttribute(description = "Number of batches written by the history writers")
+  public long getWrittenBatches() {
+    return writtenBatches.get();
+  }
+
+  @ManagedAttribute(description = "Average number of objects written per second by a history writer")
+  public long getWriteThroughput() {
+    long time = writeTime.get();
+    return time == 0 ? 0 : writtenRecords.get() * TimeUnit.SECONDS.toNanos(1) / time;
+  }
+
+  @ManagedAttribute(description = "Number of objects written to the fallback file since the write queue was full")
+  public long getSpilledRecords() {
+    return spilledRecords.get();
+  }
+
+  @Override
+  public boolean isAutoStartup() {
+    return true;
+  }
+
+  @Override
+  public void stop(Runnable callback) {
+    stop();
+    callback.run();
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    log.debug("Starting {} history writers for {}", writerThreads, name);
+    running = true;
+    for (int i = 0; i < writerThreads; i++) {
+      Thread writer = new Thread(this::write, name + "-HistoryWriter-" + i);
+      writer.setDaemon(true);
+      writer.start();
+      writers.add(writer);
+    }
+  }
+
+  /**
+   * Waits for the writers to empty the queue.
+   */
+  @Override
+  public synchronized void stop() {
+    log.debug("Stopping the history writers of {} ({} objects in the queue)", name, queue.size());
+    running = false;
+    for (Thread writer : writers) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        log.warn("Interrupted while waiting for the history writers of {} to terminate", name);
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    writers.clear();
+  }
+
+  /**
+   * Stops after the listeners calling the logger.
+   */
+  @Override
+  public int getPhase() {
+    return ServerConstants.PHASE_STOP_LAST - 2;
+  }
+}
@@ -35,4 +35,13 @@ public interface TagRecordMapper extends LoggerMapper<TagRecord> {
    */
   void deleteDataTagLog(Long tagId);
 
+  /**
+   * Counts the rows of a given tag in the table.
+   * Only used for checking the data inserted during testing.
+   *
+   * @param tagId count the logs of a tag with this id
+   * @return the number of rows
+   */
+  int countDataTagLog(Long tagId);
+
 }
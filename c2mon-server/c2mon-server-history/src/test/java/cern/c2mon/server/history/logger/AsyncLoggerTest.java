@@ -0,0 +1,184 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.history.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.persistence.IPersistenceManager;
+import cern.c2mon.server.cache.config.inmemory.CacheModule;
+import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
+import cern.c2mon.server.cache.loading.config.CacheLoadingModule;
+import cern.c2mon.server.command.config.CommandModule;
+import cern.c2mon.server.common.config.CommonModule;
+import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.daq.config.DaqModule;
+import cern.c2mon.server.history.config.HistoryModule;
+import cern.c2mon.server.history.config.HistoryProperties;
+import cern.c2mon.server.history.mapper.TagRecordMapper;
+import cern.c2mon.server.history.structure.TagRecordConverter;
+import cern.c2mon.server.supervision.config.SupervisionModule;
+import cern.c2mon.server.test.CacheObjectCreation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the AsyncLogger writes to the embedded history database, and writes
+ * to the fallback when its queue is full.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {
+    CommonModule.class,
+    CacheModule.class,
+    CacheDbAccessModule.class,
+    CacheLoadingModule.class,
+    SupervisionModule.class,
+    CommandModule.class,
+    DaqModule.class,
+    HistoryModule.class
+})
+public class AsyncLoggerTest {
+
+  private static final Long TAG_ID = CacheObjectCreation.createTestDataTag().getId();
+
+  @Autowired
+  private TagRecordConverter tagRecordConverter;
+
+  @Autowired
+  @Qualifier("tagHistoryPersistenceManager")
+  private IPersistenceManager tagHistoryPersistenceManager;
+
+  @Autowired
+  private TagRecordMapper tagRecordMapper;
+
+  @Before
+  @After
+  public void removeTestData() {
+    tagRecordMapper.deleteDataTagLog(TAG_ID);
+  }
+
+  @Test
+  public void testWriteToDatabase() {
+    HistoryProperties properties = new HistoryProperties();
+    properties.setWriterThreads(3);
+    properties.setWriteBatchSize(7);
+    AsyncLogger<Tag> logger = new AsyncLogger<>("Test", tagRecordConverter, tagHistoryPersistenceManager, properties);
+    logger.start();
+    for (int i = 0; i < 10; i++) {
+      logger.log(createTags(50));
+    }
+    // stopping waits for the queue to be written
+    logger.stop();
+
+    assertEquals(500, tagRecordMapper.countDataTagLog(TAG_ID));
+    assertEquals(500, logger.getWrittenRecords());
+    assertEquals(0, logger.getQueueSize());
+    assertEquals(0, logger.getSpilledRecords());
+    assertTrue(logger.getWrittenBatches() >= 500 / 7);
+
+    // once stopped, the tags are written synchronously
+    logger.log(createTags(5));
+    assertEquals(505, tagRecordMapper.countDataTagLog(TAG_ID));
+  }
+
+  @Test
+  public void testFullQueueSpillsToFallback() throws InterruptedException {
+    BlockingPersistenceManager persistenceManager = new BlockingPersistenceManager();
+    HistoryProperties properties = new HistoryProperties();
+    properties.setWriterThreads(1);
+    properties.setWriteBatchSize(5);
+    properties.setWriteQueueCapacity(10);
+    properties.setWriteQueueTimeout(10);
+    AsyncLogger<Tag> logger = new AsyncLogger<>("Test", tagRecordConverter, persistenceManager, properties);
+    logger.start();
+
+    logger.log(createTags(1));
+    // the writer is blocked storing the first batch
+    persistenceManager.storing.await();
+    logger.log(createTags(50));
+
+    assertEquals(10, logger.getQueueSize());
+    assertEquals(40, logger.getSpilledRecords());
+    assertEquals(40, persistenceManager.fallback.get());
+
+    persistenceManager.release.countDown();
+    logger.stop();
+    assertEquals(11, persistenceManager.stored.get());
+    assertEquals(11, logger.getWrittenRecords());
+  }
+
+  private static List<Tag> createTags(final int number) {
+    List<Tag> tags = new ArrayList<>();
+    for (int i = 0; i < number; i++) {
+      tags.add(CacheObjectCreation.createTestDataTag());
+    }
+    return tags;
+  }
+
+  /**
+   * Persistence manager blocking on the first store, until released.
+   */
+  private static class BlockingPersistenceManager implements IPersistenceManager<IFallback> {
+
+    private final CountDownLatch storing = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger stored = new AtomicInteger();
+
+    private final AtomicInteger fallback = new AtomicInteger();
+
+    @Override
+    public void storeData(final List<IFallback> data) {
+      storing.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      stored.addAndGet(data.size());
+    }
+
+    @Override
+    public void storeData(final IFallback dataObject) {
+      storeData(Collections.singletonList(dataObject));
+    }
+
+    @Override
+    public void fallback(final List<IFallback> data) {
+      fallback.addAndGet(data.size());
+    }
+
+    @Override
+    public void finalize() {
+    }
+  }
+}
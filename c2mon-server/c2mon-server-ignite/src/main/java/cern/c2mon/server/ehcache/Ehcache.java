@@ -7,7 +7,10 @@ package cern.c2mon.server.ehcache;
 import cern.c2mon.server.ehcache.event.RegisteredEventListeners;
 import cern.c2mon.server.ehcache.loader.CacheLoader;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * An interface for Ehcache.
@@ -24,16 +27,39 @@ public interface Ehcache<T, K> {
     boolean isKeyInCache(T id);
 
     /**
+     * Gets a value without taking the read lock of the key. The returned
+     * object may be modified in place by another thread holding the write
+     * lock of the key: callers reading several of its fields must hold the
+     * read lock of the key themselves.
+     *
      * @param id
-     * @return
+     * @return the value, or null if the key is not in the cache
      */
     K get(T id) throws CacheException;
 
     /**
-     * @return
+     * Gets the values of several keys with a single bulk operation.
+     *
+     * @param ids the keys to look up
+     * @return the values found, by key; the keys which are not in the cache
+     * are omitted
+     */
+    Map<T, K> getAll(Collection<T> ids) throws CacheException;
+
+    /**
+     * @return a new list with all keys of the cache
      */
     List<T> getKeys();
 
+    /**
+     * Calls the action for each key of the cache, without first collecting all
+     * keys in a list. The keys added or removed during the iteration may or may
+     * not be visited.
+     *
+     * @param action the action to call for each key
+     */
+    void forEachKey(Consumer<T> action);
+
     /**
      *
      * @param key
@@ -48,6 +74,15 @@ public interface Ehcache<T, K> {
      */
     void putQuiet(T key, K value);
 
+    /**
+     * Puts all entries in the cache with a single bulk operation. Callers
+     * should pass a sorted map, so that concurrent bulk puts always access
+     * the keys in the same order.
+     *
+     * @param values the entries to put
+     */
+    void putAll(Map<T, K> values);
+
     /**
      * @param id
      * @return
@@ -105,6 +140,13 @@ public interface Ehcache<T, K> {
      */
     boolean isReadLockedByCurrentThread(T id);
 
+    /**
+     * @return whether the key locks of this cache actually exclude the
+     *         writers of a key from its readers and other writers; if not,
+     *         the lock methods have no effect
+     */
+    boolean hasKeyLocks();
+
     void registerCacheLoader(CacheLoader cacheLoader);
 
     RegisteredEventListeners getCacheEventNotificationService();
@@ -7,13 +7,22 @@ import cern.c2mon.server.ehcache.event.RegisteredEventListeners;
 import cern.c2mon.server.ehcache.loader.CacheLoader;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import javax.cache.Cache;
 
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
 import org.apache.ignite.IgniteClientDisconnectedException;
+import org.apache.ignite.IgniteDataStreamer;
 import org.apache.ignite.Ignition;
 import org.apache.ignite.cache.CacheAtomicityMode;
 import org.apache.ignite.cache.CacheMode;
@@ -30,6 +39,7 @@ import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.configuration.TransactionConfiguration;
 import org.apache.ignite.internal.processors.cache.CacheStoppedException;
+import org.apache.ignite.lang.IgniteClosure;
 import org.apache.ignite.spi.communication.tcp.TcpCommunicationSpi;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
@@ -167,11 +177,7 @@ public class IgniteCacheImpl<T, K> implements Ehcache<T, K> {
         int tryCount = 0;
         while(true) {
             try {
-                if (cache.containsKey(id)) {
-                    return cache.get(id);
-                }else{
-                    return null;
-                }
+                return cache.get(id);
             } catch (Exception e) {
                 handleCacheException(e);
                 if (++tryCount == maxRetryTries) throw e;
@@ -180,12 +186,26 @@ public class IgniteCacheImpl<T, K> implements Ehcache<T, K> {
     }
 
     @Override
-    public List getKeys() {
+    public Map<T, K> getAll(Collection<T> ids) throws CacheException {
+        Set<T> keys = new HashSet<>(ids);
         int tryCount = 0;
         while (true) {
             try {
+                return cache.getAll(keys);
+            } catch (Exception e) {
+                handleCacheException(e);
+                if (++tryCount == maxRetryTries) throw e;
+            }
+        }
+    }
+
+    @Override
+    public List getKeys() {
+        int tryCount = 0;
+        while (true) {
+            try (QueryCursor<T> cursor = queryKeys()) {
                 List<T> keys = new ArrayList<>();
-                cache.query(new ScanQuery<>(null)).forEach(entry -> keys.add((T) entry.getKey()));
+                cursor.forEach(keys::add);
                 return keys;
             } catch(Exception e){
                 handleCacheException(e);
@@ -194,6 +214,64 @@ public class IgniteCacheImpl<T, K> implements Ehcache<T, K> {
         }
     }
 
+    /**
+     * Only starting the scan is retried: the keys are passed to the action while
+     * they are received, so a failure during the iteration is thrown.
+     */
+    @Override
+    public void forEachKey(Consumer<T> action) {
+        QueryCursor<T> cursor;
+        Iterator<T> keys;
+        int tryCount = 0;
+        while (true) {
+            cursor = null;
+            try {
+                cursor = queryKeys();
+                keys = cursor.iterator();
+                break;
+            } catch(Exception e){
+                if (cursor != null) {
+                    cursor.close();
+                }
+                handleCacheException(e);
+                if (++tryCount == maxRetryTries) throw e;
+            }
+        }
+
+        try {
+            while (keys.hasNext()) {
+                action.accept(keys.next());
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Scans the keys of all partitions. The entries are projected to their key
+     * on the nodes holding them, in binary form, so the values are neither
+     * deserialized nor sent over the network. The C2MON cache keys (Long and
+     * String) are the same in binary form.
+     */
+    @SuppressWarnings("unchecked")
+    private QueryCursor<T> queryKeys() {
+        IgniteCache<Object, Object> binaryCache = cache.withKeepBinary();
+        return (QueryCursor<T>) binaryCache.query(new ScanQuery<Object, Object>(), new KeyProjection());
+    }
+
+    /**
+     * Transformer of the key scan, run on the nodes holding the entries.
+     */
+    private static final class KeyProjection implements IgniteClosure<Cache.Entry<Object, Object>, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object apply(Cache.Entry<Object, Object> entry) {
+            return entry.getKey();
+        }
+    }
+
     @Override
     public void put(T id, K value) {
         int tryCount = 0;
@@ -226,6 +304,31 @@ public class IgniteCacheImpl<T, K> implements Ehcache<T, K> {
         }
     }
 
+    @Override
+    public void putAll(Map<T, K> values) {
+        int tryCount = 0;
+        while (true) {
+            try {
+                cache.putAll(values);
+                return;
+            } catch(Exception e){
+                handleCacheException(e);
+                if (++tryCount == maxRetryTries) throw e;
+            }
+        }
+    }
+
+    /**
+     * Creates a data streamer for bulk loading this cache, overwriting the
+     * existing entries.
+     *
+     * @return a new data streamer, to be closed by the caller
+     */
+    public IgniteDataStreamer<T, K> dataStreamer() {
+        IgniteDataStreamer<T, K> streamer = ignite.dataStreamer(cacheName);
+        streamer.allowOverwrite(true);
+        return streamer;
+    }
 
     private IgniteCache<T, K> getCache(){
         return this.cache;
@@ -342,6 +445,11 @@ public class IgniteCacheImpl<T, K> implements Ehcache<T, K> {
         return false;
     }
 
+    @Override
+    public boolean hasKeyLocks() {
+        return false;
+    }
+
     @Override
     public void registerCacheLoader(CacheLoader cacheLoader) {
         registeredCacheLoaders.add(cacheLoader);
@@ -7,17 +7,29 @@ import cern.c2mon.server.ehcache.loader.CacheLoader;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * Local cache backed by a {@link ConcurrentHashMap}, with one read/write lock
+ * per key for the key locks of the {@link Ehcache} contract (see {@link KeyLocks}).
+ */
 public class InMemoryCache<T, K> implements Ehcache<T, K> {
 
     private ConcurrentHashMap<T, K> cache = new ConcurrentHashMap<>();
 
+    private final KeyLocks<T> locks = new KeyLocks<>();
+
     private volatile RegisteredEventListeners registeredEventListeners;
     private volatile List<CacheLoader> registeredCacheLoaders;
 
+    /** Secondary indexes, updated atomically with the keys they index */
+    private final List<InMemoryCacheIndex<T, K>> indexes = new CopyOnWriteArrayList<>();
+
     private final String cacheName;
 
     public InMemoryCache(String name){
@@ -36,29 +48,76 @@ public class InMemoryCache<T, K> implements Ehcache<T, K> {
 
     @Override
     public K get(T id) throws CacheException {
-        if(cache.containsKey(id)){
-            return cache.get(id);
+        return cache.get(id);
+    }
+
+    @Override
+    public Map<T, K> getAll(Collection<T> ids) throws CacheException {
+        Map<T, K> values = new HashMap<>(ids.size());
+        for (T id : ids) {
+            K value = cache.get(id);
+            if (value != null) {
+                values.put(id, value);
+            }
         }
-        return null;
+        return values;
     }
 
     @Override
     public List getKeys() {
-        return cache.keySet().stream().collect(Collectors.toList());
+        return new ArrayList<>(cache.keySet());
+    }
+
+    @Override
+    public void forEachKey(Consumer<T> action) {
+        cache.keySet().forEach(action);
     }
 
     @Override
     public void put(T key, K value) {
-        cache.put(key, value);
+        if (indexes.isEmpty()) {
+            cache.put(key, value);
+        } else {
+            indexedPut(key, value);
+        }
     }
 
     @Override
     public void putQuiet(T key, K value) {
-        cache.put(key, value);
+        put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<T, K> values) {
+        if (indexes.isEmpty()) {
+            cache.putAll(values);
+        } else {
+            values.forEach(this::indexedPut);
+        }
+    }
+
+    private void indexedPut(T key, K value) {
+        cache.compute(key, (k, previous) -> {
+            for (InMemoryCacheIndex<T, K> index : indexes) {
+                index.put(k, value);
+            }
+            return value;
+        });
     }
 
     @Override
     public boolean remove(T id) {
+        if (!indexes.isEmpty()) {
+            boolean[] removed = new boolean[1];
+            cache.computeIfPresent(id, (k, previous) -> {
+                for (InMemoryCacheIndex<T, K> index : indexes) {
+                    index.remove(k);
+                }
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        }
         if(cache.containsKey(id)){
             cache.remove(id);
             return true;
@@ -66,6 +125,23 @@ public class InMemoryCache<T, K> implements Ehcache<T, K> {
         return false;
     }
 
+    /**
+     * Registers a secondary index on this cache. The index is filled with
+     * the current content of the cache and kept up to date on every put and
+     * remove.
+     *
+     * @param index the index to maintain
+     */
+    public void addIndex(InMemoryCacheIndex<T, K> index) {
+        indexes.add(index);
+        for (T key : cache.keySet()) {
+            cache.computeIfPresent(key, (k, value) -> {
+                index.put(k, value);
+                return value;
+            });
+        }
+    }
+
     @Override
     public String getName() {
         return cacheName;
@@ -92,6 +168,7 @@ public class InMemoryCache<T, K> implements Ehcache<T, K> {
     @Override
     public void removeAll() throws IllegalStateException, CacheException {
         cache.clear();
+        indexes.forEach(InMemoryCacheIndex::clear);
     }
 
     @Override
@@ -101,41 +178,46 @@ public class InMemoryCache<T, K> implements Ehcache<T, K> {
 
     @Override
     public void acquireReadLockOnKey(T id) {
-        //TODO do nothing for now
+        locks.lockRead(id);
     }
 
     @Override
     public void releaseReadLockOnKey(T id) {
-        //TODO do nothing for now
+        locks.unlockRead(id);
     }
 
     @Override
     public void acquireWriteLockOnKey(T id) {
-        //TODO do nothing for now
+        locks.lockWrite(id);
     }
 
     @Override
     public void releaseWriteLockOnKey(T id) {
-        //TODO do nothing for now
+        locks.unlockWrite(id);
     }
 
     @Override
     public boolean isWriteLockedByCurrentThread(T id) {
-        return false;
+        return locks.isWriteLockedByCurrentThread(id);
     }
 
     @Override
     public boolean tryReadLockOnKey(T id, Long timeout) throws InterruptedException {
-        return true;
+        return locks.tryLockRead(id, timeout);
     }
 
     @Override
     public boolean tryWriteLockOnKey(T id, Long timeout) throws InterruptedException {
-        return true;
+        return locks.tryLockWrite(id, timeout);
     }
 
     @Override
     public boolean isReadLockedByCurrentThread(T id) {
-        return false;
+        return locks.isReadLockedByCurrentThread(id);
+    }
+
+    @Override
+    public boolean hasKeyLocks() {
+        return true;
     }
 }
@@ -0,0 +1,32 @@
+package cern.c2mon.server.ehcache.impl;
+
+/**
+ * Secondary index maintained by an {@link InMemoryCache}. The cache calls
+ * {@link #put} and {@link #remove} atomically with the update of the given key,
+ * so that updates of the same key reach the index in the same order as the cache.
+ *
+ * @param <T> the cache key type
+ * @param <K> the cache value type
+ */
+public interface InMemoryCacheIndex<T, K> {
+
+    /**
+     * Called when a value is put in the cache (new or replaced).
+     *
+     * @param key the cache key
+     * @param value the new value
+     */
+    void put(T key, K value);
+
+    /**
+     * Called when a key is removed from the cache.
+     *
+     * @param key the removed key
+     */
+    void remove(T key);
+
+    /**
+     * Called when the cache is emptied.
+     */
+    void clear();
+}
@@ -0,0 +1,138 @@
+package cern.c2mon.server.ehcache.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read/write locks on the keys of an {@link InMemoryCache}, one
+ * {@link ReentrantReadWriteLock} per key. The locks belong to the cache and
+ * not to the cache objects, so they stay effective when an object is
+ * replaced in the cache, e.g. by a modified copy.
+ * <p/>
+ * A key lock only exists while it is held or waited for: each acquisition
+ * (including the reentrant ones) is counted, and the lock is removed from
+ * the map with the last release. Locks on different keys are thus fully
+ * independent.
+ * <p/>
+ * The locks are reentrant, but a read lock cannot be upgraded: a thread
+ * holding the read lock of a key must not request the write lock of the
+ * same key. This is rejected with an {@link IllegalStateException} instead
+ * of blocking forever.
+ *
+ * @param <T> the cache key type
+ */
+class KeyLocks<T> {
+
+    private final ConcurrentHashMap<T, KeyLock> locks = new ConcurrentHashMap<>();
+
+    void lockRead(T key) {
+        acquire(key).readLock().lock();
+    }
+
+    void unlockRead(T key) {
+        KeyLock lock = held(key);
+        lock.readLock().unlock();
+        release(key);
+    }
+
+    boolean tryLockRead(T key, long timeout) throws InterruptedException {
+        KeyLock lock = acquire(key);
+        boolean locked = false;
+        try {
+            locked = lock.readLock().tryLock(timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            if (!locked) {
+                release(key);
+            }
+        }
+        return locked;
+    }
+
+    void lockWrite(T key) {
+        checkNoUpgrade(key);
+        acquire(key).writeLock().lock();
+    }
+
+    void unlockWrite(T key) {
+        KeyLock lock = held(key);
+        lock.writeLock().unlock();
+        release(key);
+    }
+
+    boolean tryLockWrite(T key, long timeout) throws InterruptedException {
+        checkNoUpgrade(key);
+        KeyLock lock = acquire(key);
+        boolean locked = false;
+        try {
+            locked = lock.writeLock().tryLock(timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            if (!locked) {
+                release(key);
+            }
+        }
+        return locked;
+    }
+
+    boolean isWriteLockedByCurrentThread(T key) {
+        KeyLock lock = locks.get(key);
+        return lock != null && lock.isWriteLockedByCurrentThread();
+    }
+
+    boolean isReadLockedByCurrentThread(T key) {
+        KeyLock lock = locks.get(key);
+        return lock != null && lock.getReadHoldCount() > 0;
+    }
+
+    /**
+     * @return the number of keys with a lock currently held or waited for
+     */
+    int size() {
+        return locks.size();
+    }
+
+    /**
+     * Gets the lock of the key, creating it if needed, and counts the new
+     * acquisition.
+     */
+    private KeyLock acquire(T key) {
+        return locks.compute(key, (k, lock) -> {
+            KeyLock result = lock == null ? new KeyLock() : lock;
+            result.acquisitions++;
+            return result;
+        });
+    }
+
+    /**
+     * Counts the release of an acquisition, and removes the lock once it is
+     * neither held nor waited for.
+     */
+    private void release(T key) {
+        locks.computeIfPresent(key, (k, lock) -> --lock.acquisitions == 0 ? null : lock);
+    }
+
+    private KeyLock held(T key) {
+        KeyLock lock = locks.get(key);
+        if (lock == null) {
+            throw new IllegalMonitorStateException("The lock on key " + key + " is not held");
+        }
+        return lock;
+    }
+
+    private void checkNoUpgrade(T key) {
+        KeyLock lock = locks.get(key);
+        if (lock != null && lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("Cannot acquire the write lock on key " + key
+                + ": the current thread holds its read lock");
+        }
+    }
+
+    /**
+     * A key lock with its number of acquisitions, only modified inside the
+     * atomic map operations.
+     */
+    private static final class KeyLock extends ReentrantReadWriteLock {
+
+        private int acquisitions;
+    }
+}
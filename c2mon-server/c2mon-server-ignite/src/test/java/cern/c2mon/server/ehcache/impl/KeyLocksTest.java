@@ -0,0 +1,97 @@
+package cern.c2mon.server.ehcache.impl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeyLocksTest {
+
+  /** Two keys with the same hash code */
+  private static final String KEY = "Aa";
+  private static final String SAME_HASH_KEY = "BB";
+
+  private final KeyLocks<String> locks = new KeyLocks<>();
+
+  private final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    otherThread.shutdownNow();
+  }
+
+  @Test
+  public void testKeysWithSameHashAreIndependent() {
+    assertEquals(KEY.hashCode(), SAME_HASH_KEY.hashCode());
+
+    locks.lockRead(KEY);
+    // not an upgrade: the write lock of another key
+    locks.lockWrite(SAME_HASH_KEY);
+    assertTrue(locks.isWriteLockedByCurrentThread(SAME_HASH_KEY));
+    assertFalse(locks.isWriteLockedByCurrentThread(KEY));
+
+    locks.unlockWrite(SAME_HASH_KEY);
+    locks.unlockRead(KEY);
+    assertEquals(0, locks.size());
+  }
+
+  @Test
+  public void testOtherThreadLocksKeyWithSameHash() throws Exception {
+    locks.lockWrite(KEY);
+    assertTrue(otherThread.submit(() -> {
+      boolean locked = locks.tryLockWrite(SAME_HASH_KEY, 1000);
+      if (locked) {
+        locks.unlockWrite(SAME_HASH_KEY);
+      }
+      return locked;
+    }).get(2, TimeUnit.SECONDS));
+    // but not the same key
+    assertFalse(otherThread.submit(() -> locks.tryLockRead(KEY, 100)).get(2, TimeUnit.SECONDS));
+    locks.unlockWrite(KEY);
+    assertEquals(0, locks.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadLockUpgradeRejected() {
+    locks.lockRead(KEY);
+    try {
+      locks.lockWrite(KEY);
+    } finally {
+      locks.unlockRead(KEY);
+    }
+  }
+
+  @Test
+  public void testReentrantLocksRemovedOnLastRelease() throws InterruptedException {
+    locks.lockWrite(KEY);
+    locks.lockWrite(KEY);
+    locks.lockRead(KEY);
+    assertTrue(locks.isReadLockedByCurrentThread(KEY));
+
+    locks.unlockRead(KEY);
+    locks.unlockWrite(KEY);
+    assertEquals(1, locks.size());
+    assertTrue(locks.isWriteLockedByCurrentThread(KEY));
+    locks.unlockWrite(KEY);
+    assertEquals(0, locks.size());
+    assertFalse(locks.isWriteLockedByCurrentThread(KEY));
+
+    assertTrue(locks.tryLockRead(KEY, 10));
+    locks.unlockRead(KEY);
+    assertEquals(0, locks.size());
+  }
+
+  @Test
+  public void testFailedTryLockReleased() throws Exception {
+    locks.lockWrite(KEY);
+    assertFalse(otherThread.submit(() -> locks.tryLockWrite(KEY, 10)).get(2, TimeUnit.SECONDS));
+    locks.unlockWrite(KEY);
+    assertEquals(0, locks.size());
+  }
+}
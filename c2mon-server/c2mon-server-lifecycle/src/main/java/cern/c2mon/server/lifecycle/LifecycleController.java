@@ -18,6 +18,7 @@
  *****************************************************************************/
 package cern.c2mon.server.lifecycle;
 
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import lombok.extern.slf4j.Slf4j;
@@ -25,10 +26,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultLifecycleProcessor;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
+import cern.c2mon.server.cache.loading.common.CacheLoadingProgress;
+
 /**
  * This class is provided to solve the following
  * problem when running a distributed cache:
@@ -58,17 +62,34 @@ public class LifecycleController {
    */
   private DefaultLifecycleProcessor lifecycleProcessor;
 
+  /**
+   * Progress of the cache preloading at startup.
+   */
+  private CacheLoadingProgress cacheLoadingProgress;
+
   private AtomicBoolean running = new AtomicBoolean(true);
 
   /**
    * Autowired constructor.
    *
    * @param lifecycleProcessor the lifecycle manager
+   * @param cacheLoadingProgress the progress of the cache preloading
    */
   @Autowired
-  public LifecycleController(final DefaultLifecycleProcessor lifecycleProcessor) {
+  public LifecycleController(final DefaultLifecycleProcessor lifecycleProcessor,
+                             final CacheLoadingProgress cacheLoadingProgress) {
     super();
     this.lifecycleProcessor = lifecycleProcessor;
+    this.cacheLoadingProgress = cacheLoadingProgress;
+  }
+
+  /**
+   * @return the number of loaded items and the loading rate of each cache
+   * preloaded from the database
+   */
+  @ManagedAttribute(description = "Progress of the cache preloading from the database")
+  public Map<String, String> getCacheLoadingProgress() {
+    return cacheLoadingProgress.getSummary();
   }
 
   /**
@@ -219,7 +219,7 @@ public class RecoveryManager implements SmartLifecycle {
   @ManagedOperation(description = "Notifies all Tag cache listeners (status confirmation). Refresh supervision status after this call!")
   public void notifyAllTagCacheListeners() {
     log.info("Recovery task: notifying all tag listeners.");
-    for (Long key : controlTagCache.getKeys()) {
+    controlTagCache.forEachKey(key -> {
       controlTagCache.acquireWriteLockOnKey(key);
       try {
         ControlTag controlTag = controlTagCache.getCopy(key);
@@ -228,8 +228,8 @@ public class RecoveryManager implements SmartLifecycle {
       } finally {
         controlTagCache.releaseWriteLockOnKey(key);
       }
-    }
-    for (Long key : dataTagCache.getKeys()) {
+    });
+    dataTagCache.forEachKey(key -> {
       dataTagCache.acquireWriteLockOnKey(key);
       try {
         DataTag dataTag = dataTagCache.getCopy(key);
@@ -238,7 +238,7 @@ public class RecoveryManager implements SmartLifecycle {
       } finally {
         dataTagCache.releaseWriteLockOnKey(key);
       }
-    }
+    });
     log.info("Recovery task: finished notifying all tag listeners.");
   }
 
@@ -255,7 +255,7 @@ public class RecoveryManager implements SmartLifecycle {
   @ManagedOperation(description = "Notifies all Alarm cache listeners (status confirmation).")
   public void notifyAllAlarmCacheListeners() {
     log.info("Recovery task: notifying all alarm cache listeners (cache persistence to DB, re-publication to clients, publication to LASER if not already done)");
-    for (Long key : alarmCache.getKeys()) {
+    alarmCache.forEachKey(key -> {
       alarmCache.acquireWriteLockOnKey(key);
       try {
         Alarm alarm = alarmCache.getCopy(key);
@@ -264,7 +264,7 @@ public class RecoveryManager implements SmartLifecycle {
       } finally {
         alarmCache.releaseWriteLockOnKey(key);
       }
-    }
+    });
     log.info("Recovery task: finished notifying all alarm cache listeners.");
   }
 
@@ -282,7 +282,7 @@ public class RecoveryManager implements SmartLifecycle {
   @ManagedOperation(description="Republish all non-published alarms (use if alarm publication thread did not shutdown correctly)")
   public void publishUnpublishedAlarms() {
     log.info("Publishing all unpublished alarms to LASER and re-publishing to clients.");
-    for (Long key : alarmCache.getKeys()) {
+    alarmCache.forEachKey(key -> {
       alarmCache.acquireWriteLockOnKey(key);
       try {
         Alarm alarm = alarmCache.get(key);
@@ -292,7 +292,7 @@ public class RecoveryManager implements SmartLifecycle {
       } finally {
         alarmCache.releaseWriteLockOnKey(key);
       }
-    }
+    });
   }
 
   @Override
@@ -14,4 +14,10 @@ public class RuleProperties {
    * Number of threads that the rule evaluation engine will use
    */
   private int numEvaluationThreads = 1;
+
+  /**
+   * Number of shards of the rule update buffer. Each shard coalesces the
+   * results of its rules independently and flushes them on its own thread
+   */
+  private int numUpdateBufferShards = 4;
 }
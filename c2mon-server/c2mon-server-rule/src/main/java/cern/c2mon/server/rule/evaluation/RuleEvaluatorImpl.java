@@ -249,19 +249,19 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
   private Map<Long, Tag> getRuleInputTags(RuleTag rule) {
     final Set<Long> ruleInputTagIds = rule.getRuleExpression().getInputTagIds();
 
-    // Retrieve all input tags for the rule
-    final Map<Long, Tag> tags = new HashMap<>(ruleInputTagIds.size());
-
-    Tag tag = null;
-    for (Long inputTagId : ruleInputTagIds) {
-      // We don't use a read lock here, because a tag change would anyway
-      // result in another rule evaluation look for tag in datatag, rule and control caches
-      try {
-        tag = tagLocationService.get(inputTagId);
-        tags.put(inputTagId, tag);
-      } catch (CacheElementNotFoundException cacheEx) {
-        log.warn("Failed to locate tag with id {} in any tag cache (during rule evaluation) - unable to evaluate rule.", rule.getId(), inputTagId, cacheEx);
-        throw cacheEx;
+    // Retrieve all input tags for the rule with one bulk access per tag cache.
+    // We don't use a read lock here, because a tag change would anyway
+    // result in another rule evaluation
+    final Map<Long, Tag> tags = tagLocationService.getAll(ruleInputTagIds);
+
+    if (tags.size() < ruleInputTagIds.size()) {
+      for (Long inputTagId : ruleInputTagIds) {
+        if (!tags.containsKey(inputTagId)) {
+          CacheElementNotFoundException cacheEx = new CacheElementNotFoundException("TagLocationService failed to locate tag with id "
+              + inputTagId + " in any of the rule, control or datatag caches.");
+          log.warn("Failed to locate tag with id {} in any tag cache (during evaluation of rule {}) - unable to evaluate rule.", inputTagId, rule.getId(), cacheEx);
+          throw cacheEx;
+        }
       }
     }
     
@@ -18,14 +18,27 @@ package cern.c2mon.server.rule.evaluation;
 
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.annotation.PreDestroy;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.RuleTagFacade;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
+import cern.c2mon.server.rule.config.RuleProperties;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 
 /**
@@ -35,12 +48,19 @@ import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
  * in this cases like a time-deadband which sends only the latest value after it did
  * not receive any further evaluations after the last cacheUpdate intervals.
  *
+ * <p>The rules are spread over a fixed number of shards (see
+ * {@link RuleProperties#getNumUpdateBufferShards()}). Each shard merges the incoming
+ * results into a {@link ConcurrentHashMap} and is flushed by its own thread, so
+ * the evaluation threads never contend on a global lock. A shard thread is only
+ * woken up while its shard holds results.
+ *
  * In C2MON, instantiated as a Spring singleton using annotations.
  *
  * @author Matthias Braeger
  */
 @Slf4j
 @Service
+@ManagedResource(description = "Buffer filtering out intermediate rule evaluation results")
 public final class RuleUpdateBuffer {
   
   /** The initial buffer size */
@@ -55,44 +75,57 @@ public final class RuleUpdateBuffer {
    */
   private static final int MAX_CYCLES_WAIT = 6; // 6 * 75 = 450 ms <== max delay
   
-  /** thread synchronization object */
-  private static final Object BUFFER_LOCK = new Object();
-  
   /**
-   * Reference to the local home interface of the
-   * <code>DataTagFacade</code> session bean.
+   * Reference to the <code>RuleTagFacade</code> used for the cache updates.
    */
-  private static RuleTagFacade ruleTagFacade;
+  private final RuleTagFacade ruleTagFacade;
   
-  /** The internal buffer used for the */
-  protected static final Map<Long, RuleBufferObject> RULE_OBJECT_BUF = new Hashtable<Long, RuleBufferObject>(INITIAL_BUFFER_SIZE);
+  /** The buffer shards, a rule is always handled by the same shard */
+  private final CacheUpdaterTask[] shards;
   
-  /** 
-   * Map containing the flags which indicates that an update was received
-   * within the last cache updater cycle.
-   */
-  private static final Map<Long, Boolean> UPDATE_RECEIVED_FLAGS  = new Hashtable<Long, Boolean>(INITIAL_BUFFER_SIZE);
+  /** Number of rule results received by the buffer */
+  private final LongAdder receivedUpdates = new LongAdder();
   
-  /**
-   * The counters for checking the cycles that a specific rule is already been buffered.
-   * When the counter exceeds the MAX_CYCLES_WAIT the <code>CacheUpdaterTask</code> forces
-   * a cache update.
-   */
-  private static final Map<Long, Integer> CYCLE_COUNTERS = new Hashtable<Long, Integer>(INITIAL_BUFFER_SIZE);
+  /** Number of cache updates done by the buffer */
+  private final LongAdder flushedUpdates = new LongAdder();
   
-  /** Timer instance that schedules the <code>CacheUpdaterTask</code> */
-  private final Timer timer;
+  /** Sum of the delays between the first buffered result of a rule and its cache update */
+  private final LongAdder totalFlushDelay = new LongAdder();
   
-  /** will be set to true, once the timer is running */ 
-  private static boolean isCacheUpdaterRunning = false;
+  /** Maximum delay between the first buffered result of a rule and its cache update */
+  private final LongAccumulator maxFlushDelay = new LongAccumulator(Math::max, 0);
   
   /**
-   * Constructor 
+   * Constructor
+   * @param ruleTagFacade used for updating the rules in the cache
+   * @param properties the rule engine properties
    */
   @Autowired
-  protected RuleUpdateBuffer(RuleTagFacade ruleTagFacade) {
-    this.timer = new Timer("RuleUpdater");
-    RuleUpdateBuffer.ruleTagFacade = ruleTagFacade;
+  public RuleUpdateBuffer(final RuleTagFacade ruleTagFacade, final RuleProperties properties) {
+    this.ruleTagFacade = ruleTagFacade;
+    int numShards = Math.max(1, properties.getNumUpdateBufferShards());
+    this.shards = new CacheUpdaterTask[numShards];
+    for (int i = 0; i < numShards; i++) {
+      shards[i] = new CacheUpdaterTask("RuleUpdater-" + i, Math.max(16, INITIAL_BUFFER_SIZE / numShards));
+    }
+  }
+  
+  /**
+   * Constructor using the default rule engine properties
+   * @param ruleTagFacade used for updating the rules in the cache
+   */
+  protected RuleUpdateBuffer(final RuleTagFacade ruleTagFacade) {
+    this(ruleTagFacade, new RuleProperties());
+  }
+  
+  /**
+   * Stops the cache updater threads. Results still in the buffer are discarded.
+   */
+  @PreDestroy
+  public void shutdown() {
+    for (CacheUpdaterTask shard : shards) {
+      shard.shutdown();
+    }
   }
 
   /**
@@ -103,20 +136,18 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation.
    */
   public void update(final Long pId, final Object pValue, final String pValueDesc, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering update()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, pValue, pValueDesc, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
+    receivedUpdates.increment();
+    CacheUpdaterTask shard = shardOf(pId);
+    shard.buffer.compute(pId, (id, bufferObj) -> {
+      if (bufferObj == null) {
+        return new RuleBufferObject(id, pValue, pValueDesc, pTimestamp);
       }
-      else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
-        bufferObj.update(pValue, pValueDesc, pTimestamp);
-      }
-      scheduleCacheUpdaterTask(pId);
-    }
+      bufferObj.update(pValue, pValueDesc, pTimestamp);
+      bufferObj.updateReceived = true;
+      return bufferObj;
+    });
+    shard.start();
     log.trace(pId + " leaving update()");
   }
 
@@ -128,20 +159,18 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation
    */
   public void invalidate(final Long pId, final TagQualityStatus pReason, final String pDescription, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering invalidate()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, null, pReason, pDescription, null, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
+    receivedUpdates.increment();
+    CacheUpdaterTask shard = shardOf(pId);
+    shard.buffer.compute(pId, (id, bufferObj) -> {
+      if (bufferObj == null) {
+        return new RuleBufferObject(id, null, pReason, pDescription, null, pTimestamp);
       }
-      else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
-        bufferObj.invalidate(pReason, pDescription, pTimestamp);
-      }
-      scheduleCacheUpdaterTask(pId);
-    }
+      bufferObj.invalidate(pReason, pDescription, pTimestamp);
+      bufferObj.updateReceived = true;
+      return bufferObj;
+    });
+    shard.start();
     log.trace(pId + " leaving invalidate()");
   }
   
@@ -154,47 +183,112 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation
    */
   public void invalidate(final Long pId, final Object value, final TagQualityStatus pReason, final String pDescription, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering invalidate()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, null, pReason, pDescription, null, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
+    receivedUpdates.increment();
+    CacheUpdaterTask shard = shardOf(pId);
+    shard.buffer.compute(pId, (id, bufferObj) -> {
+      final RuleBufferObject result;
+      if (bufferObj == null) {
+        result = new RuleBufferObject(id, null, pReason, pDescription, null, pTimestamp);
       } else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
-        bufferObj.invalidate(pReason, pDescription, pTimestamp);
+        result = bufferObj;
+        result.invalidate(pReason, pDescription, pTimestamp);
+        result.updateReceived = true;
       }
-      
-      bufferObj.value = value;
-      
-      scheduleCacheUpdaterTask(pId);
-    }
+      result.value = value;
+      return result;
+    });
+    shard.start();
     log.trace(pId + " leaving invalidate()");
   }
 
   /**
-   * Registers an update for the given rule id and triggers
-   * the start of the <code>CacheUpdaterTask</code>, if not
-   * yet done.
-   * @param pId the rule process id that has been updated. 
+   * @param pId the rule id
+   * @return the buffered result of the given rule, or <code>null</code> if
+   *         there is currently no result waiting for the cache update
    */
-  private void scheduleCacheUpdaterTask(final Long pId) {
-    UPDATE_RECEIVED_FLAGS.put(pId, Boolean.TRUE);
-    if (!isCacheUpdaterRunning) {
-      try {
-        log.trace(pId + " scheduleCacheUpdaterTask() - Initialize new cache updater task");
-        timer.schedule(new CacheUpdaterTask(), BUFFER_TIMER_MILLIS, BUFFER_TIMER_MILLIS);
-        isCacheUpdaterRunning = true;
-      } catch (IllegalStateException ise) {
-        log.error(pId + "scheduleCacheUpdaterTask() - Catched illegal state exception", ise);
-      }      
+  RuleBufferObject getBufferedObject(final Long pId) {
+    return shardOf(pId).buffer.get(pId);
+  }
+
+  private CacheUpdaterTask shardOf(final Long pId) {
+    return shards[Math.floorMod(pId.hashCode(), shards.length)];
+  }
+
+  /**
+   * @return the number of rule results received since the application started
+   */
+  @ManagedAttribute(description = "Number of rule results received since the application started")
+  public long getReceivedUpdates() {
+    return receivedUpdates.sum();
+  }
+
+  /**
+   * @return the number of rule cache updates since the application started
+   */
+  @ManagedAttribute(description = "Number of rule cache updates since the application started")
+  public long getFlushedUpdates() {
+    return flushedUpdates.sum();
+  }
+
+  /**
+   * @return the average number of rule results merged into one cache update
+   */
+  @ManagedAttribute(description = "Average number of rule results merged into one cache update")
+  public double getCoalescingRatio() {
+    long flushed = flushedUpdates.sum();
+    return flushed == 0 ? 0 : (double) receivedUpdates.sum() / flushed;
+  }
+
+  /**
+   * @return the average delay in milliseconds between the first buffered result of a rule and its cache update
+   */
+  @ManagedAttribute(description = "Average delay (ms) between the first buffered result of a rule and its cache update")
+  public double getAverageFlushLatency() {
+    long flushed = flushedUpdates.sum();
+    return flushed == 0 ? 0 : (double) totalFlushDelay.sum() / flushed;
+  }
+
+  /**
+   * @return the maximum delay in milliseconds between the first buffered result of a rule and its cache update
+   */
+  @ManagedAttribute(description = "Maximum delay (ms) between the first buffered result of a rule and its cache update")
+  public long getMaxFlushLatency() {
+    return maxFlushDelay.get();
+  }
+
+  /**
+   * @return the number of shards whose cache updater is currently scheduled
+   */
+  @ManagedAttribute(description = "Number of buffer shards whose cache updater is currently scheduled")
+  public int getScheduledShards() {
+    int scheduled = 0;
+    for (CacheUpdaterTask shard : shards) {
+      if (shard.scheduledTask != null) {
+        scheduled++;
+      }
     }
+    return scheduled;
+  }
+
+  /**
+   * @return the number of rules currently waiting for their cache update
+   */
+  @ManagedAttribute(description = "Number of rules currently waiting for their cache update")
+  public int getBufferSize() {
+    int size = 0;
+    for (CacheUpdaterTask shard : shards) {
+      size += shard.buffer.size();
+    }
+    return size;
   }
   
   /**
    * Inner class which is used to store the rule update
    * information for the cache of the given rule data tag.
+   * <p>Instances are only modified while they are in the buffer, from within
+   * the atomic map operations of their shard. Once removed from the buffer
+   * they are no longer modified and are passed to the cache as they are.
    *
    * @author Matthias Braeger
    */
@@ -212,20 +306,15 @@ public final class RuleUpdateBuffer {
     private String valueDesc = null; 
     /** rule evaluation timestamp */
     private Timestamp timestamp = null;
-
-    /**
-     * Copy Constructor
-     * @param rbo The object to be copied
-     */
-    @SuppressWarnings("unchecked")
-    private RuleBufferObject(final RuleBufferObject rbo) {
-      this.id = rbo.id;
-      this.value = rbo.value;
-      this.qualityCollection = (HashSet<TagQualityStatus>) rbo.qualityCollection.clone();
-      this.qualityDescriptions = (HashMap<TagQualityStatus, String>) rbo.qualityDescriptions.clone();
-      this.valueDesc = rbo.valueDesc;     
-      this.timestamp = new Timestamp(rbo.timestamp.getTime());
-    }
+    /** Indicates that an update was received within the last cache updater cycle */
+    @Getter(AccessLevel.NONE)
+    private boolean updateReceived = true;
+    /** Number of cycles that the rule has already been buffered */
+    @Getter(AccessLevel.NONE)
+    private int cycleCounter = 0;
+    /** Time at which the rule entered the buffer */
+    @Getter(AccessLevel.NONE)
+    private final long bufferTime = System.currentTimeMillis();
 
     /**
      * Constructor
@@ -268,16 +357,14 @@ public final class RuleUpdateBuffer {
      */
     private boolean update(final Object pValue, final String pValueDesc, final Timestamp pTimestamp) {
       boolean retval = false;
-      synchronized (BUFFER_LOCK) {
-        if (this.timestamp.before(pTimestamp) || this.timestamp.equals(pTimestamp)) {
-          this.value = pValue;
-          this.qualityCollection.clear();
-          this.qualityDescriptions.clear();
-          this.valueDesc = pValueDesc;
-          this.timestamp = pTimestamp;
-          retval = true;
-        }
-      }      
+      if (this.timestamp.before(pTimestamp) || this.timestamp.equals(pTimestamp)) {
+        this.value = pValue;
+        this.qualityCollection.clear();
+        this.qualityDescriptions.clear();
+        this.valueDesc = pValueDesc;
+        this.timestamp = pTimestamp;
+        retval = true;
+      }
       return retval;
     }
 
@@ -304,104 +391,143 @@ public final class RuleUpdateBuffer {
   } // end of RuleBufferObject class
 
   /**
-   * This class extends the Java <code>TimerTask</code> and
-   * takes care of updating the oc4j cache via the <code>DataTagFacadeBean</code>.
+   * One shard of the buffer. Its task is executed every <code>BUFFER_TIMER_MILLIS</code>
+   * by the shard thread and takes care of updating the cache via the <code>RuleTagFacade</code>.
+   * The task is scheduled when the first result enters the empty shard and cancels
+   * itself once the shard is empty again.
    *
    * @author Matthias Braeger
    */
-  private static class CacheUpdaterTask extends TimerTask {
+  private final class CacheUpdaterTask implements Runnable {
+    
+    /** The rule results buffered in this shard */
+    private final Map<Long, RuleBufferObject> buffer;
+    
+    /** Executor running the cache updates of this shard */
+    private final ScheduledExecutorService executor;
+    
+    /** The periodic cache update task, <code>null</code> while the shard is idle; written under the shard lock */
+    private volatile ScheduledFuture<?> scheduledTask;
+    
+    private CacheUpdaterTask(final String threadName, final int initialSize) {
+      this.buffer = new ConcurrentHashMap<>(initialSize);
+      this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, threadName);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    
+    /**
+     * Schedules the cache updates of this shard, unless they are already
+     * scheduled. Called after each result added to the buffer.
+     */
+    private void start() {
+      if (scheduledTask == null) {
+        synchronized (this) {
+          if (scheduledTask == null && !executor.isShutdown()) {
+            scheduledTask = executor.scheduleAtFixedRate(this, BUFFER_TIMER_MILLIS, BUFFER_TIMER_MILLIS, TimeUnit.MILLISECONDS);
+          }
+        }
+      }
+    }
+    
+    /**
+     * Cancels the cache updates of this shard, called by the shard task
+     * once the buffer is empty.
+     */
+    private synchronized void stop() {
+      if (scheduledTask != null) {
+        scheduledTask.cancel(false);
+        scheduledTask = null;
+      }
+    }
+    
+    private synchronized void shutdown() {
+      executor.shutdown();
+    }
+    
     /**
      * This method is executed when it gets triggered
-     * by its <code>Timer</code> instance. It then takes
-     * care of the cache update for all rules that haven't 
-     * been updated since the last check.
+     * by its executor. It then takes care of the cache
+     * update for all rules that haven't been updated
+     * since the last check.
      */
+    @Override
     public void run() {
-      //keep logic in try clause as exception will kill the timer thread here
-      try {        
-        Collection<RuleBufferObject> rulesToUpdate = null;
-  
-        // create first a copy of all rule objects that needs to be updated
-        synchronized (BUFFER_LOCK) {
-          rulesToUpdate = new ArrayList<RuleBufferObject>(); // List of rules where the cache shall be updated
-          Integer actCounter = null; // actual cycle counter
-          boolean hasJustBeenUpdated = false; // flag indicating, if the actual rule was updated since the last check
-          boolean forceCacheUpdate = false; // true, if a cache update shall be forced due to an exceed of the MAX_CYCLE_WAIT
-          for (Long actTagId : UPDATE_RECEIVED_FLAGS.keySet()) {
-            hasJustBeenUpdated = ((Boolean) UPDATE_RECEIVED_FLAGS.get(actTagId)).booleanValue();
-            actCounter = (Integer) CYCLE_COUNTERS.get(actTagId);
-            forceCacheUpdate = (actCounter != null && actCounter.intValue() >= MAX_CYCLES_WAIT);
-              
-            if (!hasJustBeenUpdated || forceCacheUpdate) {
+      //keep logic in try clause as exception will stop the scheduled task
+      try {
+        // List of rules where the cache shall be updated
+        final List<RuleBufferObject> rulesToUpdate = new ArrayList<>();
+        for (Long actTagId : buffer.keySet()) {
+          buffer.computeIfPresent(actTagId, (id, rbo) -> {
+            // true, if a cache update shall be forced due to an exceed of the MAX_CYCLE_WAIT
+            boolean forceCacheUpdate = rbo.cycleCounter >= MAX_CYCLES_WAIT;
+            if (!rbo.updateReceived || forceCacheUpdate) {
               // False ==> then we update the cache since there was no recent update of that rule
-              // OR we the buffer was updated more than MAX_CYCLES_WAIT cycle in a row ==> force update 
-              RuleBufferObject rbo = new RuleBufferObject((RuleBufferObject) RULE_OBJECT_BUF.get(actTagId));
+              // OR we the buffer was updated more than MAX_CYCLES_WAIT cycle in a row ==> force update
               rulesToUpdate.add(rbo);
               if (forceCacheUpdate) {
                 log.debug("CacheUpdaterTask() - Forcing a cache update for rule "
-                    + actTagId + " since it was already delayed by "
+                    + id + " since it was already delayed by "
                     + MAX_CYCLES_WAIT * BUFFER_TIMER_MILLIS + " ms.");
               }
+              // removing the object from the buffer, it is not modified anymore
+              return null;
             }
-            else {
-              // Set the flag to FALSE in order indicate a cache update at the next check
-              UPDATE_RECEIVED_FLAGS.put(actTagId, Boolean.FALSE);
-              if (actCounter == null) {
-                CYCLE_COUNTERS.put(actTagId, new Integer(1));
-              }
-              else { // Increasing the counter
-                CYCLE_COUNTERS.put(actTagId, new Integer(actCounter.intValue() + 1));
-              }
-            }
-          }
-          
-          // Cleaning the buffer from all objects that are going to be put into the cache.
-          Long actTagId;
-          for (RuleBufferObject rbo : rulesToUpdate) {
-            actTagId = rbo.id;
-            UPDATE_RECEIVED_FLAGS.remove(actTagId);
-            RULE_OBJECT_BUF.remove(actTagId);
-            CYCLE_COUNTERS.remove(actTagId);
-          }
-          
-          if (UPDATE_RECEIVED_FLAGS.size() == 0) {
-            log.trace("CacheUpdaterTask() - Canceling next cache updater check, because there are no more updates registered.");
-            this.cancel();
-            isCacheUpdaterRunning = false;
+            // Set the flag to FALSE in order indicate a cache update at the next check
+            rbo.updateReceived = false;
+            rbo.cycleCounter++;
+            return rbo;
+          });
+        }
+        
+        if (buffer.isEmpty()) {
+          stop();
+          // a result may have been added while stopping, without seeing the task cancelled
+          if (!buffer.isEmpty()) {
+            start();
           }
-        } // end of synchronization
+        }
         
-        if (rulesToUpdate.size() > 0) {
-          // Updating the cache
-          for (RuleBufferObject rbo : rulesToUpdate) {
-            if (rbo.qualityCollection.isEmpty()) {
-              log.trace("CacheUpdaterTask() - updating cache for rule id " + rbo.id
-                  + ": value=" + rbo.value
-                  + ", description=" + rbo.valueDesc
-                  + ", timestamp=" + rbo.timestamp);
-              try {
-                ruleTagFacade.updateAndValidate(rbo.id, rbo.value, rbo.valueDesc, rbo.timestamp);            
-              } catch (CacheElementNotFoundException cacheEx) {
-                log.warn("Unable to update rule (can happen during rule reconfiguration)", cacheEx);
-              } catch (Exception exception) {
-                log.warn("Unexpected error during rule evaluation", exception);
-              }
-            } else {
-              log.trace("CacheUpdaterTask() - invalidating cache for rule id " + rbo.id
-                  + ": reasons=" + rbo.qualityCollection
-                  + ", descriptions=" + rbo.qualityDescriptions
-                  + ", timestamp=" + rbo.timestamp);
-              try {                
-                ruleTagFacade.setQuality(rbo.id, rbo.qualityCollection, null, rbo.qualityDescriptions, rbo.timestamp);
-              } catch (CacheElementNotFoundException cacheEx) {
-                log.warn("Unable to update rule as could not be located in cache (normal during rule reconfiguration)", cacheEx);
-              }                          
-            }
-          } // end for                    
-        }      
+        // Updating the cache
+        for (RuleBufferObject rbo : rulesToUpdate) {
+          updateCache(rbo);
+        }
       } catch (Exception ex) {
         log.error("Exception caught during rule update - should not be ignored!", ex);
       }
     }
+    
+    private void updateCache(final RuleBufferObject rbo) {
+      final long delay = System.currentTimeMillis() - rbo.bufferTime;
+      flushedUpdates.increment();
+      totalFlushDelay.add(delay);
+      maxFlushDelay.accumulate(delay);
+      
+      if (rbo.qualityCollection.isEmpty()) {
+        log.trace("CacheUpdaterTask() - updating cache for rule id " + rbo.id
+            + ": value=" + rbo.value
+            + ", description=" + rbo.valueDesc
+            + ", timestamp=" + rbo.timestamp);
+        try {
+          ruleTagFacade.updateAndValidate(rbo.id, rbo.value, rbo.valueDesc, rbo.timestamp);            
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.warn("Unable to update rule (can happen during rule reconfiguration)", cacheEx);
+        } catch (Exception exception) {
+          log.warn("Unexpected error during rule evaluation", exception);
+        }
+      } else {
+        log.trace("CacheUpdaterTask() - invalidating cache for rule id " + rbo.id
+            + ": reasons=" + rbo.qualityCollection
+            + ", descriptions=" + rbo.qualityDescriptions
+            + ", timestamp=" + rbo.timestamp);
+        try {                
+          ruleTagFacade.setQuality(rbo.id, rbo.qualityCollection, null, rbo.qualityDescriptions, rbo.timestamp);
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.warn("Unable to update rule as could not be located in cache (normal during rule reconfiguration)", cacheEx);
+        }                          
+      }
+    }
   } // end of CacheUpdaterTask class
 }
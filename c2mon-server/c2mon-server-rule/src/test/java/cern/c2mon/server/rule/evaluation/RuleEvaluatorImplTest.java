@@ -16,6 +16,10 @@
  ******************************************************************************/
 package cern.c2mon.server.rule.evaluation;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
@@ -28,6 +32,7 @@ import cern.c2mon.server.cache.TagLocationService;
 import cern.c2mon.server.common.datatag.DataTagCacheObject;
 import cern.c2mon.server.common.rule.RuleTag;
 import cern.c2mon.server.common.rule.RuleTagCacheObject;
+import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.rule.config.RuleProperties;
 import cern.c2mon.server.rule.evaluation.RuleUpdateBuffer.RuleBufferObject;
 import cern.c2mon.shared.common.datatag.DataTagQualityImpl;
@@ -67,6 +72,26 @@ public class RuleEvaluatorImplTest {
     Assert.assertFalse((Boolean) result.getValue());
   }
   
+  @Test
+  public void testEvaluateRuleWithMissingInputTag() {
+    Long ruleId = 10L;
+    RuleTag rule = new RuleTagCacheObject(ruleId, "Test_rule", "java.lang.Boolean", Short.valueOf("0"), "(#1 > 0) | (#2 > 0)");
+
+    Map<Long, Tag> inputTags = new HashMap<>();
+    inputTags.put(1L, createDataTagCacheObject(1L, 1.0f));
+    EasyMock.expect(ruleTagCache.isWriteLockedByCurrentThread(ruleId)).andReturn(false);
+    EasyMock.expect(ruleTagCache.get(ruleId)).andReturn(rule);
+    EasyMock.expect(tagLocationService.getAll(EasyMock.<Collection<Long>>anyObject())).andReturn(inputTags);
+    EasyMock.replay(ruleTagCache, tagLocationService);
+
+    ruleEvaluator.evaluateRule(ruleId);
+
+    RuleBufferObject result = ruleUpdateBuffer.getBufferedObject(ruleId);
+    Assert.assertNotNull(result);
+    Assert.assertTrue(result.getQualityCollection().contains(TagQualityStatus.UNDEFINED_TAG));
+    EasyMock.verify(ruleTagCache, tagLocationService);
+  }
+  
   private RuleBufferObject evaluteRule(String ruleText) {
     Long ruleId = 10L;
     RuleTag rule = new RuleTagCacheObject(ruleId, "Test_rule", "java.lang.Boolean", Short.valueOf("0"), ruleText);
@@ -74,16 +99,18 @@ public class RuleEvaluatorImplTest {
     //record
     EasyMock.expect(ruleTagCache.isWriteLockedByCurrentThread(ruleId)).andReturn(false);
     EasyMock.expect(ruleTagCache.get(ruleId)).andReturn(rule);
-    EasyMock.expect(tagLocationService.get(1L)).andReturn(createDataTagCacheObject(1L, 0.0f));
-    EasyMock.expect(tagLocationService.get(2L)).andReturn(createDataTagCacheObject(2L, null));
-    EasyMock.expect(tagLocationService.get(3L)).andReturn(createDataTagCacheObject(3L, 70.6456f));
-    EasyMock.expect(tagLocationService.get(4L)).andReturn(createDataTagCacheObject(4L, 100.234f));
-    EasyMock.expect(tagLocationService.get(5L)).andReturn(createDataTagCacheObject(5L, 90.0f));
+    Map<Long, Tag> inputTags = new HashMap<>();
+    inputTags.put(1L, createDataTagCacheObject(1L, 0.0f));
+    inputTags.put(2L, createDataTagCacheObject(2L, null));
+    inputTags.put(3L, createDataTagCacheObject(3L, 70.6456f));
+    inputTags.put(4L, createDataTagCacheObject(4L, 100.234f));
+    inputTags.put(5L, createDataTagCacheObject(5L, 90.0f));
+    EasyMock.expect(tagLocationService.getAll(inputTags.keySet())).andReturn(inputTags);
     EasyMock.replay(ruleTagCache, tagLocationService);
     
     ruleEvaluator.evaluateRule(ruleId);
     
-    RuleBufferObject result = RuleUpdateBuffer.RULE_OBJECT_BUF.get(ruleId);
+    RuleBufferObject result = ruleUpdateBuffer.getBufferedObject(ruleId);
     Assert.assertNotNull(result);
     Assert.assertEquals("null value", result.getQualityDescriptions().values().iterator().next());
     EasyMock.verify(ruleTagCache, tagLocationService);
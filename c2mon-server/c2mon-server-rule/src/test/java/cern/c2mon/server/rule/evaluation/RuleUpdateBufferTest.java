@@ -17,9 +17,17 @@
 package cern.c2mon.server.rule.evaluation;
 
 import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Test;
 
+import cern.c2mon.server.cache.RuleTagFacade;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 
 import static org.junit.Assert.*;
@@ -40,13 +48,113 @@ public class RuleUpdateBufferTest {
   /** Singleton instance */
   private RuleUpdateBuffer rub = null;
   
+  /** Values passed to the rule facade, in update order */
+  private final List<Object> cacheUpdates = new CopyOnWriteArrayList<>();
+  
+  /** Counted down on each cache update, set by the tests before updating the buffer */
+  private volatile CountDownLatch flushed = new CountDownLatch(0);
   
   /**
    * It is called before running any of the tests defined on this class
    */
   @Before
-  protected final void setUp() {
-    //rub = RuleUpdateBuffer.getInstance();
+  public final void setUp() {
+    RuleTagFacade ruleTagFacade = EasyMock.createNiceMock(RuleTagFacade.class);
+    ruleTagFacade.updateAndValidate(EasyMock.anyLong(), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.anyObject(Timestamp.class));
+    EasyMock.expectLastCall().andAnswer(() -> {
+      cacheUpdates.add(EasyMock.getCurrentArguments()[1]);
+      flushed.countDown();
+      return null;
+    }).anyTimes();
+    EasyMock.replay(ruleTagFacade);
+    rub = new RuleUpdateBuffer(ruleTagFacade);
+  }
+  
+  @After
+  public final void tearDown() {
+    rub.shutdown();
+  }
+  
+  /**
+   * Successive results of a rule are merged into a single cache update
+   * with the latest value.
+   */
+  @Test
+  public final void testIntermediateResultsAreFilteredOut() throws InterruptedException {
+    flushed = new CountDownLatch(1);
+    for (int i = 0; i < 5; i++) {
+      rub.update(1234L, "test " + i, "testUpdate " + i, new Timestamp(System.currentTimeMillis()));
+    }
+    assertNotNull(rub.getBufferedObject(1234L));
+    
+    assertTrue(flushed.await(2, TimeUnit.SECONDS));
+    
+    assertEquals(1, cacheUpdates.size());
+    assertEquals("test 4", cacheUpdates.get(0));
+    assertNull(rub.getBufferedObject(1234L));
+    assertEquals(5, rub.getReceivedUpdates());
+    assertEquals(1, rub.getFlushedUpdates());
+    assertEquals(5.0, rub.getCoalescingRatio(), 0.0);
+  }
+  
+  /**
+   * A rule that is updated continuously is written to the cache
+   * at the latest after the maximum buffer delay.
+   */
+  @Test
+  public final void testContinuousUpdatesAreForcedToTheCache() throws InterruptedException {
+    flushed = new CountDownLatch(1);
+    long start = System.currentTimeMillis();
+    int i = 0;
+    // a new result every 20 ms until the first cache update
+    do {
+      rub.update(1235L, "test " + i, "testUpdate " + i, new Timestamp(System.currentTimeMillis()));
+      i++;
+    } while (!flushed.await(20, TimeUnit.MILLISECONDS) && System.currentTimeMillis() - start < 2000);
+    long delay = System.currentTimeMillis() - start;
+    
+    assertFalse(cacheUpdates.isEmpty());
+    assertTrue("Forced update after " + delay + " ms", delay >= 400 && delay < 1000);
+  }
+  
+  /**
+   * Results of different rules are buffered independently.
+   */
+  @Test
+  public final void testRulesAreBufferedIndependently() throws InterruptedException {
+    flushed = new CountDownLatch(100);
+    for (long id = 0; id < 100; id++) {
+      rub.update(id, id, "testUpdate", new Timestamp(System.currentTimeMillis()));
+    }
+    assertEquals(100, rub.getBufferSize());
+    
+    assertTrue(flushed.await(2, TimeUnit.SECONDS));
+    
+    assertEquals(100, cacheUpdates.size());
+    assertEquals(0, rub.getBufferSize());
+  }
+  
+  /**
+   * A shard only schedules its cache updater while it holds results,
+   * and schedules it again for the next result.
+   */
+  @Test
+  public final void testShardIsOnlyScheduledWhileBuffering() throws InterruptedException {
+    assertEquals(0, rub.getScheduledShards());
+    
+    flushed = new CountDownLatch(1);
+    rub.update(1236L, "test 0", "testUpdate 0", new Timestamp(System.currentTimeMillis()));
+    assertEquals(1, rub.getScheduledShards());
+    assertTrue(flushed.await(2, TimeUnit.SECONDS));
+    // the task cancels itself before updating the cache of the last results
+    assertEquals(0, rub.getScheduledShards());
+    
+    flushed = new CountDownLatch(1);
+    rub.update(1236L, "test 1", "testUpdate 1", new Timestamp(System.currentTimeMillis()));
+    assertEquals(1, rub.getScheduledShards());
+    assertTrue(flushed.await(2, TimeUnit.SECONDS));
+    assertEquals(0, rub.getScheduledShards());
+    assertEquals(2, rub.getFlushedUpdates());
   }
   
   
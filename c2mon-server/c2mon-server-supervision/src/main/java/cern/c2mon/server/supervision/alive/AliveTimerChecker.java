@@ -37,14 +37,21 @@ import cern.c2mon.server.common.config.ServerConstants;
 import cern.c2mon.server.supervision.SupervisionManager;
 
 /**
- * Timer that regularly checks all the active alive timers monitoring
- * the connections to the DAQs, Equipment and SubEquipment.
+ * Timer that checks the alive timers monitoring the connections to the
+ * DAQs, Equipment and SubEquipment.
  *
  * <p>Notice that an alive timer is considered expired when alive-interval
  *  + alive-interval/3 milliseconds have expired since the last alive
  *  message arrived, where alive-interval is specific to the AliveTimer
  *  object (see <code>hasExpired</code> in {@link AliveTimerFacade}).
  *
+ * <p>The expiration is detected every {@link #EXPIRY_CHECK_INTERVAL} ms,
+ *  by only checking the timers whose deadline has passed in the expiry
+ *  index of the {@link AliveTimerFacade}. All the alive timers are still
+ *  scanned every {@link #SCAN_INTERVAL} ms, on a single server of the
+ *  cluster, to count the timers down and to index the timers updated on
+ *  other servers.
+ *
  * @author Mark Brightwell
  *
  */
@@ -77,11 +84,16 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
    */
   private static final String LAST_ALIVE_TIMER_CHECK_LONG = "c2mon.supervision.AliveTimerChecker.lastAliveTimerCheck";
 
+  /**
+   * How often all the alive timers are scanned.
+   */
+  private static final int SCAN_INTERVAL = 60000;
+
   /**
    * How often the timer checks whether the alive
-   * timer have expired.
+   * timers due in the expiry index have expired.
    */
-  private static final int SCAN_INTERVAL = 10000;
+  private static final int EXPIRY_CHECK_INTERVAL = 100;
 
   /**
    * The time the server waits before doing first
@@ -133,7 +145,7 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
   /** Reference to the clusterCache to share values accross teh cluster nodes */
   private final ClusterCache clusterCache;
 
-  private static final int SWITCH_OFF_COUNTDOWN = 60; //10mins
+  private static final int SWITCH_OFF_COUNTDOWN = 10; //10mins
 
   /**
    * Constructor.
@@ -180,6 +192,12 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
     LOGGER.info("Starting the C2MON alive timer mechanism.");
     timer = new Timer("AliveChecker");
     timer.schedule(this, INITIAL_SCAN_DELAY, SCAN_INTERVAL);
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        checkDueTimers();
+      }
+    }, INITIAL_SCAN_DELAY, EXPIRY_CHECK_INTERVAL);
     running = true;
   }
 
@@ -197,41 +215,69 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
   }
 
   /**
-   * Run method of the AliveTimerManager thread.
+   * Checks the alive timers whose deadline has passed in the expiry index.
+   */
+  private void checkDueTimers() {
+    for (Long aliveTimerId : aliveTimerFacade.pollDueTimers(System.currentTimeMillis())) {
+      try {
+        checkAliveTimer(aliveTimerId);
+      } catch (CacheElementNotFoundException cacheEx) {
+        LOGGER.debug("Alive timer {} removed from the cache before its expiration check", aliveTimerId);
+      } catch (Exception e) {
+        LOGGER.error("Unexpected exception when checking the alive timer " + aliveTimerId, e);
+      }
+    }
+  }
+
+  /**
+   * Stops the alive timer and notifies the supervision manager if it has
+   * expired, or else updates its deadline in the expiry index.
+   *
+   * <p>The supervision manager is only notified if the timer was stopped by
+   * this call, so an expiration detected concurrently by the scan and by the
+   * expiry check is reported once.
+   *
+   * @param aliveTimerId the id of the alive timer to check
+   * @return true if the alive timer is down (inactive or just expired)
+   */
+  boolean checkAliveTimer(final Long aliveTimerId) {
+    AliveTimer aliveTimerCopy = aliveTimerCache.getCopy(aliveTimerId);
+    if (!aliveTimerCopy.isActive()) {
+      return true;
+    }
+    if (aliveTimerFacade.stopIfExpired(aliveTimerId)) {
+      onAliveTimerExpiration(aliveTimerId);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Run method of the AliveTimerManager thread: scan of all the alive timers.
    */
   @Override
   public void run() {
     clusterCache.acquireWriteLockOnKey(LAST_ALIVE_TIMER_CHECK_LONG);
     try {
       Long lastCheck = (Long) clusterCache.getCopy(LAST_ALIVE_TIMER_CHECK_LONG);
-      if (System.currentTimeMillis() - lastCheck.longValue() < 9000) { //results in check on a single server
+      if (System.currentTimeMillis() - lastCheck.longValue() < SCAN_INTERVAL - 1000) { //results in check on a single server
         LOGGER.debug("Skipping alive check as already performed.");
       } else {
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("run() : checking alive timers ... ");
         }
-        short aliveDownCount = 0;
+        AtomicInteger aliveDownCounter = new AtomicInteger();
         try {
-          for (Long currentId : aliveTimerCache.getKeys()) {
-            AliveTimer aliveTimerCopy = null;
-            boolean aliveExpiration = false;
-            aliveTimerCopy = aliveTimerCache.getCopy(currentId);
-
-            if (aliveTimerCopy.isActive()) {
-              if (aliveTimerFacade.hasExpired(currentId)) {
-                aliveTimerFacade.stop(currentId);
-                aliveExpiration = true;
-                aliveDownCount++;
+          aliveTimerCache.forEachKey(currentId -> {
+            try {
+              if (checkAliveTimer(currentId)) {
+                aliveDownCounter.incrementAndGet();
               }
-            } else {
-              aliveDownCount++;
-            }
-
-            if (aliveExpiration) {
-              onAliveTimerExpiration(currentId);
+            } catch (CacheElementNotFoundException cacheEx) {
+              LOGGER.warn("Failed to locate alive timer in cache on expiration check (may happen exceptionally if just removed).", cacheEx);
             }
-
-          }
+          });
+          int aliveDownCount = aliveDownCounter.get();
           if (!alarmActive && aliveDownCount > WARNING_THRESHOLD) {
             alarmActive = true;
             SMS_LOGGER.warn("Over " + WARNING_THRESHOLD + " DAQ/Equipment are currently down.");
@@ -240,8 +286,6 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
             alarmActive = false;
             warningSwitchOffCountDown = new AtomicInteger(SWITCH_OFF_COUNTDOWN);
           }
-        } catch (CacheElementNotFoundException cacheEx) {
-          LOGGER.warn("Failed to locate alive timer in cache on expiration check (may happen exceptionally if just removed).", cacheEx);
         } catch (Exception e) {
           LOGGER.error("Unexpected exception when checking the alive timers", e);
         }
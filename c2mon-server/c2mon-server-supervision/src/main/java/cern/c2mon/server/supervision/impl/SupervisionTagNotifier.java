@@ -287,14 +287,7 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
       //local map so as not to notify rules twice; lock on map when modifying
       Map<Long, Boolean> notifiedRules = new HashMap<>();
       Collection<Long> tagIds = equipmentFacade.getDataTagIds(equipementId);
-      for (Long id : tagIds) {
-       try {
-         callCacheNotification(id, notifiedRules); //recursively notifies all dependent rules also, once only
-       } catch (CacheElementNotFoundException cacheEx) {
-         LOGGER.warn("Unable to locate Tag/Rule cache element during Tag supervision " //TODO ask DAQ refresh
-             + "change callback (some Tags/Rules may have been omitted)", cacheEx);
-       }
-      }
+      notifyTags(tagIds, notifiedRules); //recursively notifies all dependent rules also, once only
     } catch (CacheElementNotFoundException cacheEx) {
       LOGGER.warn("Unable to locate Equipment element during Tag supervision "
           + "change callback (so no invalidation callbacks performed for associated Tags)", cacheEx);
@@ -311,31 +304,45 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
       //local map so as not to notify rules twice; lock on map when modifying
       Map<Long, Boolean> notifiedRules = new HashMap<>();
       Collection<Long> tagIds = subEquipmentFacade.getDataTagIds(subEquipmentId);
-      for (Long id : tagIds) {
-       try {
-         callCacheNotification(id, notifiedRules); //recursively notifies all dependent rules also, once only
-       } catch (CacheElementNotFoundException cacheEx) {
-         LOGGER.warn("Unable to locate Tag/Rule cache element during Tag supervision " //TODO ask DAQ refresh
-             + "change callback (some Tags/Rules may have been omitted)", cacheEx);
-       }
-      }
+      notifyTags(tagIds, notifiedRules); //recursively notifies all dependent rules also, once only
     } catch (CacheElementNotFoundException cacheEx) {
       LOGGER.warn("Unable to locate SubEquipment element during Tag supervision "
           + "change callback (so no invalidation callbacks performed for associated Tags)", cacheEx);
     }
   }
 
+  /**
+   * Fetches copies of the given Tags/Rules with one bulk access per tag cache,
+   * and calls the notification method for each of them.
+   * @param ids tag ids
+   * @param notifiedRules map for preventing multiple notifications for rules
+   */
+  private void notifyTags(final Collection<Long> ids, final Map<Long, Boolean> notifiedRules) {
+    Map<Long, Tag> tagCopies = tagLocationService.getCopyAll(ids);
+    for (Long id : ids) {
+      Tag tagCopy = tagCopies.get(id);
+      if (tagCopy != null) {
+        callCacheNotification(tagCopy, notifiedRules);
+        if (tagCopy instanceof RuleTag) {
+          notifiedRules.put(id, true);
+        }
+      } else {
+        LOGGER.warn("Unable to locate Tag/Rule cache element with id " + id + " during Tag supervision " //TODO ask DAQ refresh
+            + "change callback (some Tags/Rules may have been omitted)");
+      }
+    }
+  }
+
   /**
    * Private recursive method for calling all listeners; recursive calls for
    * calling the notification for all dependent rules also.
-   * @param id tag id
+   * @param tagCopy copy of the tag
    * @param notifiedRules map for preventing multiple notifications for rules
    */
-  private void callCacheNotification(final Long id, final Map<Long, Boolean> notifiedRules) {
+  private void callCacheNotification(final Tag tagCopy, final Map<Long, Boolean> notifiedRules) {
     synchronized (notifiedRules) {
-      Tag tagCopy = tagLocationService.getCopy(id);
       if (!notifiedRules.containsKey(tagCopy.getId())) {
-        LOGGER.trace("Performing supervision notification for tag " + id);
+        LOGGER.trace("Performing supervision notification for tag " + tagCopy.getId());
         boolean dirtyTagContext = false;
 
         for (Long procId : tagCopy.getProcessIds()) {
@@ -369,11 +376,9 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
         }
       }
 
-      Collection<Long> ruleIds;
-      ruleIds = new ArrayList<>(tagCopy.getRuleIds());
-      for (Long ruleId : ruleIds) {
-        callCacheNotification(ruleId, notifiedRules);
-        notifiedRules.put(ruleId, true);
+      Collection<Long> ruleIds = new ArrayList<>(tagCopy.getRuleIds());
+      if (!ruleIds.isEmpty()) {
+        notifyTags(ruleIds, notifiedRules);
       }
     }
   }
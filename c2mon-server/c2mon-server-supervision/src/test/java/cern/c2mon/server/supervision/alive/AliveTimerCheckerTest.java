@@ -0,0 +1,102 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.supervision.alive;
+
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.AliveTimerCache;
+import cern.c2mon.server.cache.AliveTimerFacade;
+import cern.c2mon.server.cache.ClusterCache;
+import cern.c2mon.server.common.alive.AliveTimer;
+import cern.c2mon.server.common.alive.AliveTimerCacheObject;
+import cern.c2mon.server.supervision.SupervisionManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the expiration check of a single alive timer.
+ */
+public class AliveTimerCheckerTest {
+
+  private static final Long ALIVE_ID = 1L;
+
+  private IMocksControl control = EasyMock.createControl();
+
+  private AliveTimerCache aliveTimerCache;
+
+  private AliveTimerFacade aliveTimerFacade;
+
+  private SupervisionManager supervisionManager;
+
+  private AliveTimerChecker aliveTimerChecker;
+
+  private AliveTimerCacheObject aliveTimer;
+
+  @Before
+  public void setUp() {
+    aliveTimerCache = control.createMock(AliveTimerCache.class);
+    aliveTimerFacade = control.createMock(AliveTimerFacade.class);
+    supervisionManager = control.createMock(SupervisionManager.class);
+    aliveTimerChecker = new AliveTimerChecker(aliveTimerCache, aliveTimerFacade, supervisionManager,
+        control.createMock(ClusterCache.class));
+    aliveTimer = new AliveTimerCacheObject(ALIVE_ID, 10L, "P_TEST", 100L, AliveTimer.ALIVE_TYPE_PROCESS, 1000);
+    aliveTimer.setActive(true);
+  }
+
+  @Test
+  public void testExpiredTimerStoppedAndNotified() {
+    EasyMock.expect(aliveTimerCache.getCopy(ALIVE_ID)).andReturn(aliveTimer);
+    EasyMock.expect(aliveTimerFacade.stopIfExpired(ALIVE_ID)).andReturn(true);
+    supervisionManager.onAliveTimerExpiration(ALIVE_ID);
+    EasyMock.expectLastCall().once();
+    control.replay();
+
+    assertTrue(aliveTimerChecker.checkAliveTimer(ALIVE_ID));
+
+    control.verify();
+  }
+
+  /**
+   * The timer was updated, or stopped by a concurrent check, between the copy
+   * and the expiration check: no notification.
+   */
+  @Test
+  public void testTimerNotStoppedNotNotified() {
+    EasyMock.expect(aliveTimerCache.getCopy(ALIVE_ID)).andReturn(aliveTimer);
+    EasyMock.expect(aliveTimerFacade.stopIfExpired(ALIVE_ID)).andReturn(false);
+    control.replay();
+
+    assertFalse(aliveTimerChecker.checkAliveTimer(ALIVE_ID));
+
+    control.verify();
+  }
+
+  @Test
+  public void testInactiveTimerNotChecked() {
+    aliveTimer.setActive(false);
+    EasyMock.expect(aliveTimerCache.getCopy(ALIVE_ID)).andReturn(aliveTimer);
+    control.replay();
+
+    assertTrue(aliveTimerChecker.checkAliveTimer(ALIVE_ID));
+
+    control.verify();
+  }
+}
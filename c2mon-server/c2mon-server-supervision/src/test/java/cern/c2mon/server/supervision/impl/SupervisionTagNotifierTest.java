@@ -41,6 +41,7 @@ import cern.c2mon.server.common.equipment.EquipmentCacheObject;
 import cern.c2mon.server.common.process.ProcessCacheObject;
 import cern.c2mon.server.common.rule.RuleTagCacheObject;
 import cern.c2mon.server.common.subequipment.SubEquipmentCacheObject;
+import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.supervision.SupervisionNotifier;
 import cern.c2mon.shared.client.supervision.SupervisionEvent;
 import cern.c2mon.shared.client.supervision.SupervisionEventImpl;
@@ -216,11 +217,9 @@ public class SupervisionTagNotifierTest {
     EasyMock.expect(processCache.getCopy(10L)).andReturn(process);
     //EasyMock.expect(equipmentFacade.getProcessForAbstractEquipment(30L)).andReturn(process);
     EasyMock.expect(equipmentFacade.getDataTagIds(30L)).andReturn(Arrays.asList(100L, 101L));
-    EasyMock.expect(tagLocationService.getCopy(100L)).andReturn(dataTag);
-    EasyMock.expect(tagLocationService.getCopy(101L)).andReturn(dataTag2);
-    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag).times(2);
-    EasyMock.expect(tagLocationService.getCopy(201L)).andReturn(ruleTag2);
-    EasyMock.expect(tagLocationService.getCopy(202L)).andReturn(ruleTag3);
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(100L, 101L))).andReturn(tagMap(dataTag, dataTag2));
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(200L, 201L))).andReturn(tagMap(ruleTag, ruleTag2));
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(200L, 202L))).andReturn(tagMap(ruleTag, ruleTag3));
     supervisionAppender.addSupervisionQuality(dataTag, event);
     dataTagCache.notifyListenersOfSupervisionChange(dataTag);
     supervisionAppender.addSupervisionQuality(dataTag2, event);
@@ -249,11 +248,9 @@ public class SupervisionTagNotifierTest {
     mockControl.reset();
     //EasyMock.expect(equipmentFacade.getProcessForAbstractEquipment(30L)).andReturn(process);
     EasyMock.expect(equipmentFacade.getDataTagIds(30L)).andReturn(Arrays.asList(100L, 101L));
-    EasyMock.expect(tagLocationService.getCopy(100L)).andReturn(dataTag);
-    EasyMock.expect(tagLocationService.getCopy(101L)).andReturn(dataTag2);
-    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag).times(2);
-    EasyMock.expect(tagLocationService.getCopy(201L)).andReturn(ruleTag2);
-    EasyMock.expect(tagLocationService.getCopy(202L)).andReturn(ruleTag3);
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(100L, 101L))).andReturn(tagMap(dataTag, dataTag2));
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(200L, 201L))).andReturn(tagMap(ruleTag, ruleTag2));
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(200L, 202L))).andReturn(tagMap(ruleTag, ruleTag3));
     supervisionAppender.addSupervisionQuality(dataTag,event);
     dataTagCache.notifyListenersOfSupervisionChange(dataTag);
     supervisionAppender.addSupervisionQuality(dataTag2,event);
@@ -279,10 +276,8 @@ public class SupervisionTagNotifierTest {
         "test message");
     mockControl.reset();
     EasyMock.expect(subEquipmentFacade.getDataTagIds(50L)).andReturn(Arrays.asList(102L, 103L));
-    EasyMock.expect(tagLocationService.getCopy(102L)).andReturn(dataTag3);
-    EasyMock.expect(tagLocationService.getCopy(103L)).andReturn(dataTag4);
-    EasyMock.expect(tagLocationService.getCopy(203L)).andReturn(ruleTag4).times(2);
-    EasyMock.expect(tagLocationService.getCopy(204L)).andReturn(ruleTag5).times(2);
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(102L, 103L))).andReturn(tagMap(dataTag3, dataTag4));
+    EasyMock.expect(tagLocationService.getCopyAll(Arrays.asList(203L, 204L))).andReturn(tagMap(ruleTag4, ruleTag5)).times(2);
     supervisionAppender.addSupervisionQuality(dataTag3, event);
     dataTagCache.notifyListenersOfSupervisionChange(dataTag3);
     supervisionAppender.addSupervisionQuality(dataTag4, event);
@@ -298,4 +293,12 @@ public class SupervisionTagNotifierTest {
 
     mockControl.verify();
   }
+
+  private static Map<Long, Tag> tagMap(final Tag... tags) {
+    Map<Long, Tag> tagMap = new HashMap<>();
+    for (Tag tag : tags) {
+      tagMap.put(tag.getId(), tag);
+    }
+    return tagMap;
+  }
 }
@@ -77,6 +77,15 @@ public class ClientJmsProperties extends CommonJmsProperties{
    * Timeout of client request in milliseconds for waiting for an answer. 
    */
   private int requestTimeout = Integer.parseInt(System.getProperty("c2mon.client.default_timeout", "15000"));
+
+  /**
+   * If true, all requests to the server share one reply queue per connection,
+   * the replies being matched by their JMS correlation id. This allows many
+   * requests in flight at once. Only enable it with a server returning the
+   * correlation id on its replies: the requests to an older server time out.
+   * If false, a temporary reply queue is created for each request.
+   */
+  private boolean multiplexRequests = false;
   
   /**
    * Time to live in milliseconds used for all topic and queue messages sent with the Client API.
@@ -22,8 +22,11 @@ import static cern.c2mon.shared.common.type.TypeConverter.getType;
 import static cern.c2mon.shared.common.type.TypeConverter.isKnownClass;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -73,6 +76,62 @@ public class TransferTagSerializer {
     return result;
   }
 
+  /**
+   * Converts a batch of TagValues into a single json array String.
+   * @param tagUpdates The tags which need to be serialized into a json array.
+   * @param <T>
+   * @return The json String
+   * @see #isJsonArray(String)
+   */
+  public static <T extends TagValueUpdate> String toJson(Collection<T> tagUpdates) {
+    String result = null;
+
+    try {
+      result = mapper.writeValueAsString(tagUpdates);
+    } catch (JsonProcessingException e) {
+      log.error("Serializing of tagUpdate batch failed: " + e.getMessage());
+    }
+
+    return result;
+  }
+
+  /**
+   * @param json a json String
+   * @return true if the given json String is an array, i.e. a batch of tag updates
+   *         serialized with {@link #toJson(Collection)}
+   */
+  public static boolean isJsonArray(String json) {
+    for (int i = 0; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '[';
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Converts a json array String, as created by {@link #toJson(Collection)}, into a list of
+   * TagValueUpdate instances. The embedded Tag values are casted into the class type of the tag.
+   * @param tagUpdatesJson The json array String.
+   * @param arrayType The array type of the tags in which the json string shall be serialized.
+   * @param <T>
+   * @return The list of TagValueUpdates, or an empty list if the deserialization failed.
+   */
+  public static <T extends TagValueUpdate> List<T> fromJsonArray(String tagUpdatesJson, Class<T[]> arrayType) {
+    try {
+      T[] tags = mapper.readValue(tagUpdatesJson, arrayType);
+      for (T tag : tags) {
+        tag.setValue(convertTagValue(tag));
+      }
+      return Arrays.asList(tags);
+    } catch (IOException e) {
+      log.warn("Error occurred while converting the json array back to objects: " + e.getMessage());
+    }
+
+    return Collections.emptyList();
+  }
+
   /**
    *
    * @param tagUpdateJson Converts the json String into a TagValueUpdate instance. By doing this the embedded Tag value will be casted into the given
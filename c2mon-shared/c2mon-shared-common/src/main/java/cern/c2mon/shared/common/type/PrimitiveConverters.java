@@ -0,0 +1,201 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.common.type;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Specialised conversions between the boxed primitive types and strings,
+ * used by the {@link TypeConverter} before its generic conversion.
+ * <p>
+ * The converters give exactly the results of the generic conversion, but
+ * without reflection and without intermediate boxing. They only handle the
+ * successful conversions: whenever a value cannot be converted, they return
+ * {@code null}, and the generic conversion produces the error.
+ * <p>
+ * As in the generic conversion, numeric strings are parsed as double and
+ * then narrowed to the target type.
+ */
+final class PrimitiveConverters {
+
+  /** Immutable map of the converters, by target type */
+  private static final Map<Class<?>, Function<Object, Object>> CONVERTERS;
+
+  static {
+    Map<Class<?>, Function<Object, Object>> converters = new HashMap<>();
+    converters.put(Boolean.class, PrimitiveConverters::toBoolean);
+    converters.put(Byte.class, value -> toIntegral(value, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte.class));
+    converters.put(Short.class, value -> toIntegral(value, Short.MIN_VALUE, Short.MAX_VALUE, Short.class));
+    converters.put(Integer.class, value -> toIntegral(value, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.class));
+    converters.put(Long.class, value -> toIntegral(value, Long.MIN_VALUE, Long.MAX_VALUE, Long.class));
+    converters.put(Float.class, PrimitiveConverters::toFloat);
+    converters.put(Double.class, PrimitiveConverters::toDouble);
+    converters.put(String.class, Object::toString);
+    CONVERTERS = converters;
+  }
+
+  private PrimitiveConverters() {
+    // static helper
+  }
+
+  /**
+   * @param targetType the target type
+   * @return the specialised converter for the given target type, or
+   * {@code null} if there is none
+   */
+  static Function<Object, Object> forType(final Class<?> targetType) {
+    return CONVERTERS.get(targetType);
+  }
+
+  private static Object toBoolean(final Object value) {
+    Class<?> type = value.getClass();
+    if (type == String.class) {
+      String str = (String) value;
+      if (str.equalsIgnoreCase("true")) {
+        return Boolean.TRUE;
+      } else if (str.equalsIgnoreCase("false")) {
+        return Boolean.FALSE;
+      }
+      try {
+        return toBoolean(Double.parseDouble(str));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    } else if (isBoxedNumber(type)) {
+      return toBoolean(((Number) value).doubleValue());
+    }
+    return null;
+  }
+
+  private static Boolean toBoolean(final double value) {
+    if (value == 1.0d) {
+      return Boolean.TRUE;
+    } else if (value == 0.0d) {
+      return Boolean.FALSE;
+    }
+    return null;
+  }
+
+  private static Object toIntegral(final Object value, final long min, final long max, final Class<?> targetType) {
+    Class<?> type = value.getClass();
+    long result;
+    if (type == String.class) {
+      String str = (String) value;
+      int booleanValue = parseBoolean(str);
+      if (booleanValue >= 0) {
+        result = booleanValue;
+      } else {
+        try {
+          result = Math.round(Double.parseDouble(str));
+        } catch (NumberFormatException e) {
+          return null;
+        }
+      }
+    } else if (isBoxedNumber(type)) {
+      result = Math.round(((Number) value).doubleValue());
+    } else if (type == Boolean.class) {
+      result = ((Boolean) value) ? 1 : 0;
+    } else {
+      return null;
+    }
+
+    if (result < min || result > max) {
+      return null;
+    }
+    if (targetType == Integer.class) {
+      return (int) result;
+    } else if (targetType == Long.class) {
+      return result;
+    } else if (targetType == Short.class) {
+      return (short) result;
+    }
+    return (byte) result;
+  }
+
+  private static Object toFloat(final Object value) {
+    Class<?> type = value.getClass();
+    double result;
+    if (type == String.class) {
+      String str = (String) value;
+      int booleanValue = parseBoolean(str);
+      if (booleanValue >= 0) {
+        return (float) booleanValue;
+      }
+      try {
+        result = Double.parseDouble(str);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    } else if (isBoxedNumber(type)) {
+      result = ((Number) value).doubleValue();
+    } else if (type == Boolean.class) {
+      return ((Boolean) value) ? 1f : 0f;
+    } else {
+      return null;
+    }
+
+    if (result > Float.MAX_VALUE || result < -Float.MAX_VALUE) {
+      return null;
+    }
+    return (float) result;
+  }
+
+  private static Object toDouble(final Object value) {
+    Class<?> type = value.getClass();
+    if (type == String.class) {
+      String str = (String) value;
+      int booleanValue = parseBoolean(str);
+      if (booleanValue >= 0) {
+        return (double) booleanValue;
+      }
+      try {
+        return Double.parseDouble(str);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    } else if (type == Float.class) {
+      // same result as the decimal representation of the float, e.g. 1.1f -> 1.1
+      return Double.parseDouble(value.toString());
+    } else if (isBoxedNumber(type)) {
+      return ((Number) value).doubleValue();
+    } else if (type == Boolean.class) {
+      return ((Boolean) value) ? 1d : 0d;
+    }
+    return null;
+  }
+
+  private static boolean isBoxedNumber(final Class<?> type) {
+    return type == Integer.class || type == Double.class || type == Float.class
+        || type == Long.class || type == Short.class || type == Byte.class;
+  }
+
+  /**
+   * @return 1 for "true", 0 for "false" (ignoring case and surrounding
+   * white spaces) and -1 otherwise
+   */
+  private static int parseBoolean(final String str) {
+    String trimmed = str.trim();
+    if (trimmed.equalsIgnoreCase("true")) {
+      return 1;
+    } else if (trimmed.equalsIgnoreCase("false")) {
+      return 0;
+    }
+    return -1;
+  }
+}
@@ -22,7 +22,13 @@ import java.lang.reflect.Field;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import com.google.gson.Gson;
 
@@ -41,6 +47,25 @@ import cern.c2mon.shared.util.json.GsonFactory;
 public final class TypeConverter  {
 
   private static final String JAVA_LANG_PREFIX = "java.lang.";
+
+  /** Maximum number of other type names kept in {@link #RESOLVED_TYPES} */
+  private static final int MAX_RESOLVED_TYPES = 10_000;
+
+  /** Immutable registry of the usual data types, by simple and fully qualified name */
+  private static final Map<String, Class<?>> KNOWN_TYPES;
+
+  /** Cache of the other type names resolved with {@link Class#forName(String)}, including the unknown ones */
+  private static final Map<String, Optional<Class<?>>> RESOLVED_TYPES = new ConcurrentHashMap<>();
+
+  static {
+    Map<String, Class<?>> knownTypes = new HashMap<>();
+    for (Class<?> type : new Class<?>[] {Boolean.class, Byte.class, Short.class, Integer.class, Long.class,
+        Float.class, Double.class, String.class, Character.class, Number.class, Object.class}) {
+      knownTypes.put(type.getSimpleName(), type);
+      knownTypes.put(type.getName(), type);
+    }
+    KNOWN_TYPES = Collections.unmodifiableMap(knownTypes);
+  }
   
   /** Gson instance */
   private static transient Gson gson = GsonFactory.createGson();
@@ -118,6 +143,15 @@ public final class TypeConverter  {
       return pTargetType.cast(pValue);
     }
 
+    // Specialised conversions between boxed primitives and strings
+    Function<Object, Object> converter = PrimitiveConverters.forType(pTargetType);
+    if (converter != null) {
+      Object result = converter.apply(pValue);
+      if (result != null) {
+        return result;
+      }
+    }
+
     if (String.class.isAssignableFrom(pTargetType)) {
       return pValue.toString();
     }
@@ -615,6 +649,9 @@ public final class TypeConverter  {
   }
 
   /**
+   * The usual data types are taken from a static registry, the other ones are
+   * only looked up once.
+   *
    * @param typeName a simple class name within the java.lang.* package or the
    *                 fully qualified class name
    * @return the class for the given name if known, {@literal null} otherwise
@@ -624,6 +661,22 @@ public final class TypeConverter  {
       return null;
     }
 
+    Class<?> type = KNOWN_TYPES.get(typeName);
+    if (type != null) {
+      return type;
+    }
+
+    Optional<Class<?>> resolved = RESOLVED_TYPES.get(typeName);
+    if (resolved == null) {
+      resolved = Optional.ofNullable(loadType(typeName));
+      if (RESOLVED_TYPES.size() < MAX_RESOLVED_TYPES) {
+        RESOLVED_TYPES.put(typeName, resolved);
+      }
+    }
+    return resolved.orElse(null);
+  }
+
+  private static Class<?> loadType(String typeName) {
     String fullPath = typeName.contains(".") ? typeName : JAVA_LANG_PREFIX + typeName;
 
     try {
@@ -26,7 +26,9 @@ import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStat
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TypeConverterTest {
 
@@ -855,6 +857,33 @@ public class TypeConverterTest {
     castTest(new Exception("test"), Short.class);
   }
 
+  @Test
+  public void testNumericStringsAreNarrowedFromDouble() {
+    castTest("12.7", Integer.class, 13);
+    castTest("1e3", Short.class, (short) 1000);
+    castTest(" 5 ", Long.class, 5L);
+    castTest("127.4", Byte.class, (byte) 127);
+    castTest("1", Boolean.class, Boolean.TRUE);
+    castTest(1.1f, Double.class, 1.1d);
+    castTest("12.7", "Float", 12.7f);
+  }
+
+  @Test
+  public void testGetType() {
+    assertEquals(Integer.class, TypeConverter.getType("Integer"));
+    assertEquals(Integer.class, TypeConverter.getType("java.lang.Integer"));
+    assertEquals(SupervisionStatus.class, TypeConverter.getType(SupervisionStatus.class.getName()));
+    assertEquals(Thread.class, TypeConverter.getType("Thread"));
+
+    // unknown types are resolved once, the result must stay the same
+    assertNull(TypeConverter.getType("UnknownType"));
+    assertNull(TypeConverter.getType("UnknownType"));
+    assertFalse(TypeConverter.isKnownClass("UnknownType"));
+    assertTrue(TypeConverter.isKnownClass("Double"));
+    assertTrue(TypeConverter.isNumber("Short"));
+    assertFalse(TypeConverter.isNumber("String"));
+  }
+
   private static void castTest(final Object pValue, final Class<?> pTargetClass) {
     castTest(pValue, pTargetClass, null);
   }
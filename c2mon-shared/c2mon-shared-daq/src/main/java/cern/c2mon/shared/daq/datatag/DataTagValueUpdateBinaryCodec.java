@@ -0,0 +1,394 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.daq.datatag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
+
+/**
+ * Compact binary encoding of {@link DataTagValueUpdate} messages, used as an
+ * alternative to the JSON encoding of the {@link DataTagValueUpdateConverter}.
+ * <p>
+ * Layout (version 1):
+ * <pre>
+ * update  := version:byte flags:byte [processId:varlong] [processPIK:varlong] count:varint value*
+ * value   := id:varlong flags:byte [name:string] valueType:byte [payload] [valueDescription:string]
+ *            [qualityCode:varint qualityDescription:string] [timestamp:varlong] [daqTimestamp:varlong]
+ *            priority:varint timeToLive:varlong
+ * string  := (length + 1):varint utf8-bytes   (length 0 encodes null)
+ * </pre>
+ * All integers are zig-zag encoded variable length integers. The value flags
+ * are a bit set telling which optional fields follow. Primitive values are
+ * written with their type; any other value is written as JSON and decoded as
+ * the JSON converter would decode it. Timestamps are transmitted with
+ * millisecond precision, as with JSON.
+ */
+public final class DataTagValueUpdateBinaryCodec {
+
+  /** Current version of the encoding, written as first byte */
+  static final byte VERSION = 1;
+
+  private static final int UPDATE_PROCESS_ID = 1;
+  private static final int UPDATE_PROCESS_PIK = 1 << 1;
+
+  private static final int CONTROL_TAG = 1;
+  private static final int GUARANTEED_DELIVERY = 1 << 1;
+  private static final int SIMULATED = 1 << 2;
+  private static final int HAS_NAME = 1 << 3;
+  private static final int HAS_QUALITY = 1 << 4;
+  private static final int HAS_TIMESTAMP = 1 << 5;
+  private static final int HAS_DAQ_TIMESTAMP = 1 << 6;
+  private static final int HAS_VALUE_DESCRIPTION = 1 << 7;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_FALSE = 1;
+  private static final byte TYPE_TRUE = 2;
+  private static final byte TYPE_BYTE = 3;
+  private static final byte TYPE_SHORT = 4;
+  private static final byte TYPE_INTEGER = 5;
+  private static final byte TYPE_LONG = 6;
+  private static final byte TYPE_FLOAT = 7;
+  private static final byte TYPE_DOUBLE = 8;
+  private static final byte TYPE_STRING = 9;
+  private static final byte TYPE_JSON = 10;
+
+  private static final SourceDataTagQualityCode[] QUALITY_CODES = new SourceDataTagQualityCode[64];
+
+  static {
+    for (SourceDataTagQualityCode code : SourceDataTagQualityCode.values()) {
+      QUALITY_CODES[code.getQualityCode()] = code;
+    }
+  }
+
+  /** Only used for values which are not primitives */
+  private final ObjectMapper mapper;
+
+  /**
+   * @param mapper JSON mapper used for values which are not primitives or strings
+   */
+  public DataTagValueUpdateBinaryCodec(final ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  /**
+   * @param update the update to encode
+   * @return the binary representation of the update
+   * @throws IOException if a non primitive value cannot be serialized to JSON
+   */
+  public byte[] encode(final DataTagValueUpdate update) throws IOException {
+    Writer out = new Writer(64 + (update.getValues() == null ? 0 : update.getValues().size() * 48));
+    out.writeByte(VERSION);
+    int flags = (update.getProcessId() != null ? UPDATE_PROCESS_ID : 0) | (update.getProcessPIK() != null ? UPDATE_PROCESS_PIK : 0);
+    out.writeByte(flags);
+    if (update.getProcessId() != null) {
+      out.writeVarLong(update.getProcessId());
+    }
+    if (update.getProcessPIK() != null) {
+      out.writeVarLong(update.getProcessPIK());
+    }
+
+    if (update.getValues() == null) {
+      out.writeVarLong(0);
+    } else {
+      out.writeVarLong(update.getValues().size());
+      for (SourceDataTagValue value : update.getValues()) {
+        encodeValue(value, out);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private void encodeValue(final SourceDataTagValue value, final Writer out) throws IOException {
+    // the getter creates a default OK quality if none is set, which needs not be sent
+    SourceDataTagQuality quality = value.getQuality();
+    if (quality.isValid() && (quality.getDescription() == null || quality.getDescription().isEmpty())) {
+      quality = null;
+    }
+    String valueDescription = value.getValueDescription();
+    int flags = (value.isControlTag() ? CONTROL_TAG : 0)
+        | (value.isGuaranteedDelivery() ? GUARANTEED_DELIVERY : 0)
+        | (value.isSimulated() ? SIMULATED : 0)
+        | (value.getName() != null ? HAS_NAME : 0)
+        | (quality != null ? HAS_QUALITY : 0)
+        | (value.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+        | (value.getDaqTimestamp() != null ? HAS_DAQ_TIMESTAMP : 0)
+        | (valueDescription != null && !valueDescription.isEmpty() ? HAS_VALUE_DESCRIPTION : 0);
+
+    out.writeVarLong(value.getId());
+    out.writeByte(flags);
+    if (value.getName() != null) {
+      out.writeString(value.getName());
+    }
+    encodeObject(value.getValue(), out);
+    if ((flags & HAS_VALUE_DESCRIPTION) != 0) {
+      out.writeString(valueDescription);
+    }
+    if (quality != null) {
+      out.writeVarLong(quality.getQualityCode().getQualityCode());
+      out.writeString(quality.getDescription());
+    }
+    if (value.getTimestamp() != null) {
+      out.writeVarLong(value.getTimestamp().getTime());
+    }
+    if (value.getDaqTimestamp() != null) {
+      out.writeVarLong(value.getDaqTimestamp().getTime());
+    }
+    out.writeVarLong(value.getPriority());
+    out.writeVarLong(value.getTimeToLive());
+  }
+
+  private void encodeObject(final Object value, final Writer out) throws IOException {
+    if (value == null) {
+      out.writeByte(TYPE_NULL);
+    } else if (value instanceof Boolean) {
+      out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+    } else if (value instanceof Integer) {
+      out.writeByte(TYPE_INTEGER);
+      out.writeVarLong((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(TYPE_LONG);
+      out.writeVarLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(TYPE_FLOAT);
+      out.writeFixed(Float.floatToIntBits((Float) value), 4);
+    } else if (value instanceof Double) {
+      out.writeByte(TYPE_DOUBLE);
+      out.writeFixed(Double.doubleToLongBits((Double) value), 8);
+    } else if (value instanceof String) {
+      out.writeByte(TYPE_STRING);
+      out.writeString((String) value);
+    } else if (value instanceof Short) {
+      out.writeByte(TYPE_SHORT);
+      out.writeVarLong((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(TYPE_BYTE);
+      out.writeByte((Byte) value);
+    } else {
+      out.writeByte(TYPE_JSON);
+      out.writeString(mapper.writeValueAsString(value));
+    }
+  }
+
+  /**
+   * @param bytes the binary representation of an update
+   * @return the decoded update
+   * @throws IOException if the data is truncated, of an unknown version or
+   *                     holds an invalid JSON value
+   */
+  public DataTagValueUpdate decode(final byte[] bytes) throws IOException {
+    Reader in = new Reader(bytes);
+    int version = in.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary DataTagValueUpdate version " + version);
+    }
+    int flags = in.readByte();
+    Long processId = (flags & UPDATE_PROCESS_ID) != 0 ? in.readVarLong() : null;
+    Long processPIK = (flags & UPDATE_PROCESS_PIK) != 0 ? in.readVarLong() : null;
+
+    int count = (int) in.readVarLong();
+    if (count < 0 || count > bytes.length) {
+      throw new IOException("Invalid number of values: " + count);
+    }
+    ArrayList<SourceDataTagValue> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(decodeValue(in));
+    }
+
+    DataTagValueUpdate update = new DataTagValueUpdate(processId, processPIK);
+    update.setValues(values);
+    return update;
+  }
+
+  private SourceDataTagValue decodeValue(final Reader in) throws IOException {
+    SourceDataTagValue value = new SourceDataTagValue();
+    value.setId(in.readVarLong());
+    int flags = in.readByte();
+    value.setControlTag((flags & CONTROL_TAG) != 0);
+    value.setGuaranteedDelivery((flags & GUARANTEED_DELIVERY) != 0);
+    value.setSimulated((flags & SIMULATED) != 0);
+    if ((flags & HAS_NAME) != 0) {
+      value.setName(in.readString());
+    }
+    value.setValue(decodeObject(in));
+    if ((flags & HAS_VALUE_DESCRIPTION) != 0) {
+      value.setValueDescription(in.readString());
+    }
+    if ((flags & HAS_QUALITY) != 0) {
+      int code = (int) in.readVarLong();
+      SourceDataTagQualityCode qualityCode = code >= 0 && code < QUALITY_CODES.length && QUALITY_CODES[code] != null
+          ? QUALITY_CODES[code] : SourceDataTagQualityCode.UNKNOWN;
+      value.setQuality(new SourceDataTagQuality(qualityCode, in.readString()));
+    }
+    if ((flags & HAS_TIMESTAMP) != 0) {
+      value.setTimestamp(new Timestamp(in.readVarLong()));
+    }
+    if ((flags & HAS_DAQ_TIMESTAMP) != 0) {
+      value.setDaqTimestamp(new Timestamp(in.readVarLong()));
+    }
+    value.setPriority((int) in.readVarLong());
+    value.setTimeToLive(in.readVarLong());
+    return value;
+  }
+
+  private Object decodeObject(final Reader in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case TYPE_NULL:
+        return null;
+      case TYPE_FALSE:
+        return Boolean.FALSE;
+      case TYPE_TRUE:
+        return Boolean.TRUE;
+      case TYPE_BYTE:
+        return in.readByte();
+      case TYPE_SHORT:
+        return (short) in.readVarLong();
+      case TYPE_INTEGER:
+        return (int) in.readVarLong();
+      case TYPE_LONG:
+        return in.readVarLong();
+      case TYPE_FLOAT:
+        return Float.intBitsToFloat((int) in.readFixed(4));
+      case TYPE_DOUBLE:
+        return Double.longBitsToDouble(in.readFixed(8));
+      case TYPE_STRING:
+        return in.readString();
+      case TYPE_JSON:
+        return mapper.readValue(in.readString(), Object.class);
+      default:
+        throw new IOException("Unknown value type " + type);
+    }
+  }
+
+  /**
+   * Growable byte buffer with the variable length encodings.
+   */
+  private static final class Writer {
+    private byte[] buffer;
+    private int position;
+
+    Writer(int initialCapacity) {
+      buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(int b) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) b;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+        zigzag >>>= 7;
+      }
+      buffer[position++] = (byte) zigzag;
+    }
+
+    void writeFixed(long bits, int length) {
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        buffer[position++] = (byte) (bits >>> (8 * i));
+      }
+    }
+
+    void writeString(String value) {
+      if (value == null) {
+        writeVarLong(0);
+        return;
+      }
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(utf8.length + 1L);
+      ensureCapacity(utf8.length);
+      System.arraycopy(utf8, 0, buffer, position, utf8.length);
+      position += utf8.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+      }
+    }
+  }
+
+  /**
+   * Reads the encodings written by the {@link Writer}.
+   */
+  private static final class Reader {
+    private final byte[] buffer;
+    private int position;
+
+    Reader(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    byte readByte() throws IOException {
+      if (position >= buffer.length) {
+        throw new IOException("Unexpected end of binary DataTagValueUpdate");
+      }
+      return buffer[position++];
+    }
+
+    long readVarLong() throws IOException {
+      long zigzag = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        zigzag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+      }
+      throw new IOException("Malformed variable length integer");
+    }
+
+    long readFixed(int length) throws IOException {
+      long bits = 0;
+      for (int i = 0; i < length; i++) {
+        bits |= (readByte() & 0xFFL) << (8 * i);
+      }
+      return bits;
+    }
+
+    String readString() throws IOException {
+      long length = readVarLong() - 1;
+      if (length < 0) {
+        return null;
+      }
+      if (length > buffer.length - position) {
+        throw new IOException("Unexpected end of binary DataTagValueUpdate");
+      }
+      String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+      position += (int) length;
+      return value;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.springframework.jms.support.converter.MessageConversionException;
 import org.springframework.jms.support.converter.MessageConverter;
 
 import javax.annotation.PostConstruct;
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Session;
@@ -34,18 +35,44 @@ import java.io.IOException;
 /**
  * Converter class used to convert between JSON messages and
  * {@link DataTagValueUpdate} instances.
+ * <p>
+ * If created in binary mode, updates are sent as {@link BytesMessage} encoded
+ * with the {@link DataTagValueUpdateBinaryCodec}, and flagged with the
+ * {@link #FORMAT_PROPERTY}. Incoming messages are always accepted in both
+ * formats, so that DAQs can be switched one by one.
  *
  * @author Mark Brightwell
  */
 @Slf4j
 public class DataTagValueUpdateConverter implements MessageConverter {
 
+  /** JMS message property holding the encoding of binary updates */
+  public static final String FORMAT_PROPERTY = "c2monUpdateFormat";
+
+  /** Value of the {@link #FORMAT_PROPERTY} for the binary encoding */
+  public static final String BINARY_FORMAT = "binary-v" + DataTagValueUpdateBinaryCodec.VERSION;
+
   private ObjectMapper mapper;
 
+  private final DataTagValueUpdateBinaryCodec codec;
+
+  /** Whether outgoing updates are sent in binary format */
+  private final boolean binary;
+
   public DataTagValueUpdateConverter() {
+    this(false);
+  }
+
+  /**
+   * @param binary if true, outgoing updates are encoded in binary format
+   *               instead of JSON
+   */
+  public DataTagValueUpdateConverter(final boolean binary) {
+    this.binary = binary;
     this.mapper = new ObjectMapper();
     mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    this.codec = new DataTagValueUpdateBinaryCodec(mapper);
   }
 
   /**
@@ -62,8 +89,12 @@ public class DataTagValueUpdateConverter implements MessageConverter {
       throw new MessageConversionException("Message must not be null!");
     }
 
+    if (message instanceof BytesMessage) {
+      return fromBytesMessage((BytesMessage) message);
+    }
+
     if (!(message instanceof TextMessage)) {
-      throw new MessageConversionException("Message must be an instance of TextMessage!");
+      throw new MessageConversionException("Message must be an instance of TextMessage or BytesMessage!");
     }
 
     try {
@@ -77,6 +108,22 @@ public class DataTagValueUpdateConverter implements MessageConverter {
     }
   }
 
+  private DataTagValueUpdate fromBytesMessage(final BytesMessage message) throws JMSException {
+    String format = message.getStringProperty(FORMAT_PROPERTY);
+    if (!BINARY_FORMAT.equals(format)) {
+      throw new MessageConversionException("Unsupported format of binary update: " + format);
+    }
+
+    byte[] bytes = new byte[(int) message.getBodyLength()];
+    message.readBytes(bytes);
+    try {
+      return codec.decode(bytes);
+    } catch (IOException | RuntimeException e) {
+      log.error("Exception caught while parsing incoming binary update", e);
+      throw new MessageConversionException("Exception caught while parsing incoming binary update of " + bytes.length + " bytes", e);
+    }
+  }
+
   /**
    * Converts a {@link DataTagValueUpdate} to a JMS {@link Message}
    *
@@ -88,6 +135,10 @@ public class DataTagValueUpdateConverter implements MessageConverter {
    */
   @Override
   public Message toMessage(final Object tag, final Session session) throws JMSException {
+    if (binary && tag instanceof DataTagValueUpdate) {
+      return toBytesMessage((DataTagValueUpdate) tag, session);
+    }
+
     try {
       String json = mapper.writeValueAsString(tag);
       return session.createTextMessage(json);
@@ -98,5 +149,18 @@ public class DataTagValueUpdateConverter implements MessageConverter {
           + e.getMessage());
     }
   }
-}
 
+  private Message toBytesMessage(final DataTagValueUpdate update, final Session session) throws JMSException {
+    try {
+      BytesMessage message = session.createBytesMessage();
+      message.setStringProperty(FORMAT_PROPERTY, BINARY_FORMAT);
+      message.writeBytes(codec.encode(update));
+      return message;
+
+    } catch (IOException e) {
+      log.error("Exception caught in converting dataTagValueUpdate to binary", e);
+      throw new MessageConversionException("Exception caught in converting dataTagValueUpdate to binary:"
+          + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.daq.datatag;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DataTagValueUpdateBinaryCodecTest {
+
+  private ObjectMapper mapper;
+
+  private DataTagValueUpdateBinaryCodec codec;
+
+  @Before
+  public void setUp() {
+    mapper = new ObjectMapper();
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    codec = new DataTagValueUpdateBinaryCodec(mapper);
+  }
+
+  @Test
+  public void encodeAndDecodePrimitiveValues() throws IOException {
+    Object[] values = {null, Boolean.TRUE, Boolean.FALSE, (byte) -3, (short) 300, Integer.MIN_VALUE,
+        Long.MAX_VALUE, 1.111f, -2.5e300, "testText \u00e9\u20ac", ""};
+
+    DataTagValueUpdate update = new DataTagValueUpdate(-1L, Long.MAX_VALUE);
+    for (int i = 0; i < values.length; i++) {
+      SourceDataTagValue value = createValue(i);
+      value.setValue(values[i]);
+      update.addValue(value);
+    }
+
+    DataTagValueUpdate decoded = codec.decode(codec.encode(update));
+    assertEquals(update.getProcessId(), decoded.getProcessId());
+    assertEquals(update.getProcessPIK(), decoded.getProcessPIK());
+
+    List<SourceDataTagValue> expected = new ArrayList<>(update.getValues());
+    List<SourceDataTagValue> actual = new ArrayList<>(decoded.getValues());
+    assertEquals(expected, actual);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        assertEquals(values[i].getClass(), actual.get(i).getValue().getClass());
+      }
+    }
+  }
+
+  @Test
+  public void encodeAndDecodeOptionalFields() throws IOException {
+    SourceDataTagValue value = new SourceDataTagValue();
+    value.setId(5L);
+    DataTagValueUpdate update = new DataTagValueUpdate(null, null);
+    update.addValue(value);
+
+    DataTagValueUpdate decoded = codec.decode(codec.encode(update));
+    assertNull(decoded.getProcessId());
+    assertNull(decoded.getProcessPIK());
+
+    SourceDataTagValue decodedValue = decoded.getValues().iterator().next();
+    assertEquals(value, decodedValue);
+    assertTrue(decodedValue.isValid());
+  }
+
+  @Test
+  public void encodeAndDecodeArrays() throws IOException {
+    Integer[] intArray = new Integer[]{1, 2, 3, 4, 5};
+    String[] stringArray = new String[]{"1", "2", "3", "4", "5"};
+
+    for (Object[] array : Arrays.asList(intArray, stringArray)) {
+      SourceDataTagValue value = createValue(1);
+      value.setValue(array);
+      DataTagValueUpdate update = new DataTagValueUpdate(11L);
+      update.addValue(value);
+
+      DataTagValueUpdate decoded = codec.decode(codec.encode(update));
+      // non primitive values are decoded as by the JSON converter
+      assertArrayEquals(array, (Object[]) decoded.getValues().iterator().next().getValue());
+    }
+  }
+
+  @Test
+  public void binaryIsSmallerThanJson() throws IOException {
+    DataTagValueUpdate update = new DataTagValueUpdate(11L, 12L);
+    for (int i = 0; i < 100; i++) {
+      SourceDataTagValue value = createValue(i);
+      value.setValue(i * 0.5);
+      update.addValue(value);
+    }
+
+    assertTrue(codec.encode(update).length * 4 < mapper.writeValueAsBytes(update).length);
+  }
+
+  @Test(expected = IOException.class)
+  public void decodeTruncatedUpdate() throws IOException {
+    DataTagValueUpdate update = new DataTagValueUpdate(11L);
+    update.addValue(createValue(1));
+    byte[] bytes = codec.encode(update);
+
+    codec.decode(Arrays.copyOf(bytes, bytes.length - 2));
+  }
+
+  @Test(expected = IOException.class)
+  public void decodeUnknownVersion() throws IOException {
+    byte[] bytes = codec.encode(new DataTagValueUpdate(11L));
+    bytes[0] = (byte) (DataTagValueUpdateBinaryCodec.VERSION + 1);
+
+    codec.decode(bytes);
+  }
+
+  private static SourceDataTagValue createValue(int i) {
+    return SourceDataTagValue.builder()
+        .id((long) i)
+        .name(i % 2 == 0 ? "tag" + i : null)
+        .controlTag(i % 3 == 0)
+        .quality(i % 2 == 0 ? new SourceDataTagQuality(SourceDataTagQualityCode.VALUE_CORRUPTED, "corrupted " + i) : null)
+        .timestamp(new Timestamp(System.currentTimeMillis()))
+        .daqTimestamp(i % 2 == 0 ? new Timestamp(System.currentTimeMillis()) : null)
+        .priority(i % 10)
+        .valueDescription(i % 2 == 0 ? "description" : "")
+        .guaranteedDelivery(i % 2 == 1)
+        .simulated(i % 4 == 0)
+        .timeToLive(i % 3 == 0 ? 0 : 666)
+        .build();
+  }
+}
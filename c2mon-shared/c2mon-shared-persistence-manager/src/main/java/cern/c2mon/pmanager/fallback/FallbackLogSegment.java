@@ -0,0 +1,334 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.pmanager.fallback;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
+import cern.c2mon.pmanager.fallback.manager.FallbackObjectContainer;
+
+/**
+ * A segment file of the {@link SegmentedFallbackLog}.
+ * <p>
+ * The file starts with a header holding the offset up to which the records
+ * have been committed to the database (written twice, the second time
+ * complemented, so that a torn header write can be detected). It is followed
+ * by the records, each made of its length, the CRC32 of its content and its
+ * content: the string representation of an {@link IFallback} object.
+ * <p>
+ * A segment is written by the log while it is the active one, and read back
+ * by a single recovery thread once sealed.
+ */
+public final class FallbackLogSegment {
+
+    /** Log4j Logger for the fallback related messages */
+    private static final Logger LOG = LoggerFactory.getLogger("HistoryFallbackLogger");
+
+    /** "C2FL" */
+    private static final int MAGIC = 0x4332464C;
+
+    private static final int VERSION = 1;
+
+    /** Magic, version, committed offset and its complement */
+    static final int HEADER_SIZE = 24;
+
+    /** Position of the committed offset in the header */
+    private static final int COMMITTED_OFFSET_POSITION = 8;
+
+    /** Length and CRC of a record */
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final long id;
+
+    private final File file;
+
+    /** Channel of the active segment, null once sealed */
+    private FileChannel writeChannel;
+
+    /** End of the written records of the active segment */
+    private long writePosition;
+
+    /** End of the records committed to the database */
+    private volatile long committedOffset;
+
+    /** End of the records read back */
+    private long readPosition;
+
+    /** End offset of each record of the last read, not yet committed */
+    private final List<Long> readRecordEnds = new ArrayList<>();
+
+    /** Whether the last read reached the end of the valid records */
+    private boolean endReached;
+
+    /** Set while a recovery thread reads the segment back */
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private FallbackLogSegment(final long id, final File file, final long committedOffset) {
+        this.id = id;
+        this.file = file;
+        this.committedOffset = committedOffset;
+        this.readPosition = committedOffset;
+    }
+
+    /**
+     * Creates a new, empty segment file, open for writing.
+     *
+     * @param id the segment sequence number
+     * @param file the segment file, which must not exist
+     * @return the created segment
+     * @throws IOException if the file cannot be created
+     */
+    static FallbackLogSegment create(final long id, final File file) throws IOException {
+        FallbackLogSegment segment = new FallbackLogSegment(id, file, HEADER_SIZE);
+        segment.writeChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(HEADER_SIZE).putLong(~HEADER_SIZE);
+        header.flip();
+        writeFully(segment.writeChannel, header, 0);
+        segment.writePosition = HEADER_SIZE;
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment file for reading it back.
+     *
+     * @param id the segment sequence number
+     * @param file the segment file
+     * @return the opened segment, or null if the file is not a segment
+     *         (for instance if it was left empty by a crash)
+     * @throws IOException if the file cannot be read
+     */
+    static FallbackLogSegment open(final long id, final File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            return null;
+        }
+        long committed = header.getLong();
+        if (committed != ~header.getLong() || committed < HEADER_SIZE || committed > file.length()) {
+            LOG.warn("open() - The committed offset of the fallback segment " + file.getName()
+                    + " is unreadable, the segment will be read back from its start");
+            committed = HEADER_SIZE;
+        }
+        return new FallbackLogSegment(id, file, committed);
+    }
+
+    /**
+     * @return the segment sequence number
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return the segment file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the size of the written records of the active segment, including the header
+     */
+    long getWrittenSize() {
+        return writePosition;
+    }
+
+    /**
+     * Appends encoded records to the active segment.
+     *
+     * @param records the records, from their position to their limit
+     * @throws IOException if the records cannot be written
+     */
+    void append(final ByteBuffer records) throws IOException {
+        int size = records.remaining();
+        writeFully(writeChannel, records, writePosition);
+        writePosition += size;
+    }
+
+    /**
+     * Closes the file of the active segment: it will no longer be written.
+     */
+    void seal() {
+        if (writeChannel != null) {
+            try {
+                writeChannel.close();
+            } catch (IOException e) {
+                LOG.error("seal() - The fallback segment " + file.getName() + " could not be closed", e);
+            } finally {
+                writeChannel = null;
+            }
+        }
+    }
+
+    /**
+     * @return true if the segment was not already claimed by a recovery
+     */
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the segment for a later recovery.
+     */
+    void release() {
+        claimed.set(false);
+    }
+
+    /**
+     * Reads records back from the position following the previous read,
+     * stopping at the first incomplete or corrupted record: such a record
+     * can only be the last one of a segment written when the server stopped.
+     *
+     * @param maxRecords the maximum number of records to read
+     * @param fallbackObj the IFallback object used to convert the records
+     * @return the converted objects, along with the number of records read
+     *         (which includes the records that could not be converted)
+     * @throws DataFallbackException if the segment file cannot be read
+     */
+    public FallbackObjectContainer read(final int maxRecords, final IFallback fallbackObj)
+            throws DataFallbackException {
+        List<IFallback> objects = new ArrayList<>();
+        long fileLength = file.length();
+        long position = readPosition;
+        CRC32 crc = new CRC32();
+
+        try (FileInputStream fileInput = new FileInputStream(file)) {
+            fileInput.getChannel().position(position);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(fileInput, READ_BUFFER_SIZE));
+            while (readRecordEnds.size() < maxRecords) {
+                if (position + RECORD_HEADER_SIZE > fileLength) {
+                    endReached = true;
+                    break;
+                }
+                int length = input.readInt();
+                int checksum = input.readInt();
+                if (length < 0 || position + RECORD_HEADER_SIZE + length > fileLength) {
+                    endReached = true;
+                    break;
+                }
+                byte[] content = new byte[length];
+                input.readFully(content);
+                crc.reset();
+                crc.update(content, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    endReached = true;
+                    break;
+                }
+                position += RECORD_HEADER_SIZE + length;
+                readRecordEnds.add(position);
+
+                String line = new String(content, StandardCharsets.UTF_8);
+                try {
+                    objects.add(fallbackObj.getObject(line));
+                } catch (DataFallbackException e) {
+                    LOG.error("read() - " + e.getMessage() + "" + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new DataFallbackException("read() - The fallback segment " + file.getName()
+                    + " could not be read: " + e.getMessage(), e);
+        }
+        if (endReached && position < fileLength) {
+            LOG.warn("read() - Ignoring the last " + (fileLength - position) + " bytes of the fallback segment "
+                    + file.getName() + ", which do not hold a complete record");
+        }
+        readPosition = position;
+        return new FallbackObjectContainer(objects, readRecordEnds.size());
+    }
+
+    /**
+     * Marks the first records of the last read as committed to the database.
+     * The next read starts after them: the other records of the last read
+     * will be read again.
+     *
+     * @param records the number of records committed
+     * @throws DataFallbackException if the committed offset could not be
+     *         persisted; it is still taken into account until the server stops
+     */
+    public void commit(final int records) throws DataFallbackException {
+        int readRecords = readRecordEnds.size();
+        if (records < readRecords) {
+            endReached = false;
+        }
+        long offset = records > 0 ? readRecordEnds.get(Math.min(records, readRecords) - 1) : committedOffset;
+        readRecordEnds.clear();
+        readPosition = offset;
+        if (offset == committedOffset) {
+            return;
+        }
+        committedOffset = offset;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE - COMMITTED_OFFSET_POSITION);
+        header.putLong(offset).putLong(~offset);
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            writeFully(channel, header, COMMITTED_OFFSET_POSITION);
+        } catch (IOException e) {
+            throw new DataFallbackException("commit() - The committed offset of the fallback segment "
+                    + file.getName() + " could not be written: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true if all the records of the segment were read and committed
+     */
+    public boolean isRecovered() {
+        return endReached && readRecordEnds.isEmpty() && readPosition == committedOffset;
+    }
+
+    /**
+     * Deletes the segment file.
+     *
+     * @return true if the file was deleted
+     */
+    boolean delete() {
+        seal();
+        return file.delete() || !file.exists();
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.pmanager.fallback;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
+
+/**
+ * Write-ahead log storing the IFallback objects that could not be committed
+ * to the database, until they are read back and committed.
+ * <p>
+ * The log is made of segment files named after the fallback file path, with
+ * an increasing sequence number: {@code <fallback file>.<sequence>.seg}. The
+ * objects are appended to the last (active) segment, until it reaches the
+ * maximum segment size. Before being read back, the active segment is sealed
+ * so that new objects go to a new segment: the sealed segments can then be
+ * read back in parallel, each by a single thread, without blocking the
+ * writers. Each segment records the offset up to which it was committed to
+ * the database, and is deleted once fully committed.
+ * <p>
+ * The objects are read back at least once: the objects read back but not
+ * yet marked as committed when the server stops are read back again at the
+ * next start.
+ * <p>
+ * A fallback file written by the former text format (one object per line,
+ * with the number of already committed lines in a {@code .Counter} file) is
+ * converted to a segment when the log is opened.
+ */
+public class SegmentedFallbackLog {
+
+    /** Log4j Logger for the fallback related messages */
+    private static final Logger LOG = LoggerFactory.getLogger("HistoryFallbackLogger");
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /** The fallback file path, used as prefix of the segment names */
+    private final File dataFile;
+
+    /** The maximum size of a segment, in bytes */
+    private final long segmentSize;
+
+    /** All the segments that are not yet committed, by sequence number */
+    private final Map<Long, FallbackLogSegment> segments = new ConcurrentSkipListMap<>();
+
+    /** The segment being written, null if none */
+    private FallbackLogSegment activeSegment;
+
+    private long nextSegmentId = 1;
+
+    /** Number of objects written since the log was last empty */
+    private int writtenObjects;
+
+    /** Buffer used to encode the records before appending them */
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens the log, with the segments left by a previous run.
+     *
+     * @param fallbackPath the path of the fallback file, used as prefix of
+     *        the segment file names
+     * @param segmentSize the maximum size of a segment file, in bytes
+     */
+    public SegmentedFallbackLog(final String fallbackPath, final long segmentSize) {
+        this.dataFile = new File(fallbackPath).getAbsoluteFile();
+        this.segmentSize = segmentSize;
+
+        File directory = dataFile.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOG.error("SegmentedFallbackLog() - The directory " + directory + " could not be created");
+        }
+        openSegments(directory);
+        convertTextFile();
+        LOG.info("SegmentedFallbackLog() - The fallback log " + dataFile.getName() + " has "
+                + segments.size() + " segments to read back");
+    }
+
+    /**
+     * @return the fallback file path, used as prefix of the segment file names
+     */
+    public final File getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * @return true if all the objects written to the log have been committed
+     */
+    public final boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * @return the number of objects written since the log was last empty
+     */
+    public final synchronized int getWrittenObjects() {
+        return writtenObjects;
+    }
+
+    /**
+     * @return the number of segment files of the log
+     */
+    public final int getNumberOfSegments() {
+        return segments.size();
+    }
+
+    /**
+     * Appends objects to the active segment, creating a new segment if it is
+     * full.
+     *
+     * @param objects the objects to write
+     * @throws DataFallbackException if the objects could not be written
+     */
+    public final synchronized void append(final List<? extends IFallback> objects) throws DataFallbackException {
+        List<String> lines = new ArrayList<>(objects.size());
+        for (IFallback object : objects) {
+            lines.add(object.toString().replaceAll("\n", ""));
+        }
+        appendLines(lines);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("append() - " + objects.size() + " objects have been logged to the " + dataFile.getName()
+                    + " fallback log");
+        }
+    }
+
+    /**
+     * Seals the active segment and claims all the segments which are not
+     * already being read back.
+     *
+     * @return the claimed segments, by increasing sequence number
+     */
+    public final synchronized List<FallbackLogSegment> claimSegments() {
+        if (activeSegment != null) {
+            activeSegment.seal();
+            activeSegment = null;
+        }
+        List<FallbackLogSegment> claimed = new ArrayList<>();
+        for (FallbackLogSegment segment : segments.values()) {
+            if (segment.claim()) {
+                claimed.add(segment);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Releases a claimed segment. It is deleted if all its records have been
+     * committed, or will be claimed again by a later recovery otherwise.
+     *
+     * @param segment a segment returned by {@link #claimSegments()}
+     * @return false if the segment was recovered but could not be deleted
+     */
+    public final synchronized boolean release(final FallbackLogSegment segment) {
+        boolean deleted = true;
+        if (segment.isRecovered()) {
+            segments.remove(segment.getId());
+            deleted = segment.delete();
+            if (!deleted) {
+                LOG.error("release() - The recovered fallback segment " + segment.getFile() + " could not be deleted");
+            }
+            if (segments.isEmpty()) {
+                writtenObjects = 0;
+            }
+        }
+        segment.release();
+        return deleted;
+    }
+
+    /**
+     * Closes the file of the active segment.
+     */
+    public final synchronized void close() {
+        if (activeSegment != null) {
+            activeSegment.seal();
+            activeSegment = null;
+        }
+    }
+
+    private void appendLines(final List<String> lines) throws DataFallbackException {
+        writeBuffer.clear();
+        try {
+            for (String line : lines) {
+                byte[] content = line.getBytes(StandardCharsets.UTF_8);
+                int recordSize = FallbackLogSegment.RECORD_HEADER_SIZE + content.length;
+                // a record larger than a segment is written alone in its segment
+                if (activeSegment == null
+                        || (activeSegment.getWrittenSize() + writeBuffer.position() + recordSize > segmentSize
+                            && activeSegment.getWrittenSize() + writeBuffer.position() > FallbackLogSegment.HEADER_SIZE)) {
+                    flushWriteBuffer();
+                    rollSegment();
+                }
+                if (writeBuffer.remaining() < recordSize) {
+                    flushWriteBuffer();
+                    if (writeBuffer.capacity() < recordSize) {
+                        writeBuffer = ByteBuffer.allocate(recordSize);
+                    }
+                }
+                crc.reset();
+                crc.update(content, 0, content.length);
+                writeBuffer.putInt(content.length).putInt((int) crc.getValue()).put(content);
+            }
+            flushWriteBuffer();
+        } catch (IOException e) {
+            throw new DataFallbackException("append() - An error has occurred while trying to write in the "
+                    + dataFile.getName() + " fallback log: " + e.getMessage(), e);
+        }
+        writtenObjects += lines.size();
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        if (writeBuffer.position() > 0) {
+            writeBuffer.flip();
+            activeSegment.append(writeBuffer);
+            writeBuffer.clear();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (activeSegment != null) {
+            activeSegment.seal();
+        }
+        long id = nextSegmentId++;
+        File file = new File(dataFile.getParentFile(), String.format("%s.%012d%s", dataFile.getName(), id, SEGMENT_SUFFIX));
+        activeSegment = FallbackLogSegment.create(id, file);
+        segments.put(id, activeSegment);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("rollSegment() - The fallback segment " + file.getName() + " has been created");
+        }
+    }
+
+    /**
+     * Opens the segments left by a previous run.
+     */
+    private void openSegments(final File directory) {
+        String prefix = dataFile.getName() + ".";
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            long id;
+            try {
+                id = Long.parseLong(name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            try {
+                FallbackLogSegment segment = FallbackLogSegment.open(id, file);
+                if (segment != null) {
+                    segments.put(id, segment);
+                } else if (file.length() < FallbackLogSegment.HEADER_SIZE) {
+                    LOG.warn("openSegments() - Deleting the incomplete fallback segment " + name);
+                    if (!file.delete()) {
+                        LOG.error("openSegments() - The fallback segment " + name + " could not be deleted");
+                    }
+                } else {
+                    LOG.error("openSegments() - Ignoring the file " + name + ", which is not a fallback segment");
+                }
+            } catch (IOException e) {
+                LOG.error("openSegments() - The fallback segment " + name + " could not be opened", e);
+            }
+        }
+    }
+
+    /**
+     * Moves the objects of a fallback file of the former text format which
+     * were not yet committed to a new segment, and deletes the text file.
+     */
+    private void convertTextFile() {
+        if (!dataFile.isFile()) {
+            return;
+        }
+        File counterFile = new File(dataFile.getParentFile(), ".Counter" + dataFile.getName());
+        if (dataFile.length() > 0) {
+            int committedLines = readCounter(counterFile);
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new FileReader(dataFile))) {
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (lineNumber++ >= committedLines) {
+                        lines.add(line);
+                    }
+                }
+                synchronized (this) {
+                    appendLines(lines);
+                    close();
+                }
+                LOG.info("convertTextFile() - " + lines.size() + " lines of the fallback file " + dataFile.getName()
+                        + " have been moved to the fallback log");
+            } catch (IOException | DataFallbackException e) {
+                LOG.error("convertTextFile() - The fallback file " + dataFile.getName() + " could not be converted", e);
+                return;
+            }
+        }
+        if (!dataFile.delete() || counterFile.exists() && !counterFile.delete()) {
+            LOG.error("convertTextFile() - The former fallback file " + dataFile.getName() + " could not be deleted");
+        }
+    }
+
+    private static int readCounter(final File counterFile) {
+        if (!counterFile.isFile()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(counterFile))) {
+            String line = reader.readLine();
+            return line == null ? 0 : Integer.parseInt(line.trim());
+        } catch (IOException | NumberFormatException e) {
+            LOG.warn("readCounter() - The counter file " + counterFile.getName() + " could not be read, all the lines "
+                    + "of the fallback file will be read back", e);
+            return 0;
+        }
+    }
+}
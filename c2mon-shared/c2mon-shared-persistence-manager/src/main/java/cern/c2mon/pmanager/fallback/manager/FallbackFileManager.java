@@ -16,22 +16,24 @@
  *****************************************************************************/
 package cern.c2mon.pmanager.fallback.manager;
 
+import java.util.Collections;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
 
 import cern.c2mon.pmanager.IFallback;
-import cern.c2mon.pmanager.fallback.FallbackFileController;
+import cern.c2mon.pmanager.fallback.FallbackLogSegment;
 import cern.c2mon.pmanager.fallback.FallbackProperties;
+import cern.c2mon.pmanager.fallback.SegmentedFallbackLog;
 import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
 import cern.c2mon.pmanager.fallback.exception.SystemDiskSpaceException;
 import cern.c2mon.pmanager.fallback.util.SystemResourcesParameters;
 
 /**
  * This class is a helper that allows to encapsulate the mechanism that is being
- * used as a fallback, in this case a logfile. It works as a facade, making
- * totally independent the application logic from the final log system that is
- * used.
+ * used as a fallback, in this case a {@link SegmentedFallbackLog}. It works as
+ * a facade, making totally independent the application logic from the final
+ * log system that is used.
  * 
  * @param <T> The cache object to log
  *
@@ -41,17 +43,17 @@ import cern.c2mon.pmanager.fallback.util.SystemResourcesParameters;
 @Slf4j
 public class FallbackFileManager<T extends IFallback> {
 
-    /** FallbackFileController instance */
-    private final FallbackFileController fFileController;
+    /** SegmentedFallbackLog instance */
+    private final SegmentedFallbackLog fallbackLog;
 
     /**
      * Indicates which type of IFallback objects will be handled by this class
-     * and by its FallbackFileController instance
+     * and by its SegmentedFallbackLog instance
      */
     private final IFallback fallbackObj;
 
     /**
-     * It indicates the number of lines in the fallback file for which, when
+     * It indicates the number of objects in the fallback log for which, when
      * reached, the free disk space in the system will be checked
      */
     private int nextCheckFallbackData = 0;
@@ -75,7 +77,8 @@ public class FallbackFileManager<T extends IFallback> {
      * Public constructor
      *
      * @param fallbackFile
-     *            The absolute path for the fallback file
+     *            The absolute path for the fallback file, used as prefix of
+     *            the fallback log segment files
      * @param fallbackObj
      *            IFallback object used for knowing with which concrete
      *            implementation of the interface deals each instance of this
@@ -83,7 +86,7 @@ public class FallbackFileManager<T extends IFallback> {
      *
      */
     public FallbackFileManager(final String fallbackFile, final IFallback fallbackObj) {
-        this.fFileController = new FallbackFileController(fallbackFile);
+        this.fallbackLog = new SegmentedFallbackLog(fallbackFile, FallbackProperties.getInstance().getSegmentSize());
         this.fallbackObj = fallbackObj;
     }
 
@@ -97,19 +100,7 @@ public class FallbackFileManager<T extends IFallback> {
      *             writing in the file
      */
     public final void fallback(final List<T> data) throws DataFallbackException {
-
-        // If the file is empty we close the reading descriptor since it means
-        // that a new file is going to be created
-        if (isFallbackFileEmpty()) {
-            fFileController.closeFallbackInputStream();
-        }
-        // open the fallback log file output stream
-        fFileController.openFallbackOutputStream();
-        // Iterate through all the datatags and logged all the info that contains into the fallback log file
-        for (IFallback line : data) {
-          fFileController.writeLine(line);
-        }
-        fFileController.setNumberOfLines(fFileController.getNumberOfLines() + data.size());
+        fallbackLog.append(data);
     }
 
     /**
@@ -122,20 +113,12 @@ public class FallbackFileManager<T extends IFallback> {
      *             writing the object
      */
     public final void fallback(final IFallback fallbackObj) throws DataFallbackException {
-        // If the file is empty we close the reading descriptor since it
-        // means that a new file is going to be created
-        if (isFallbackFileEmpty()) {
-          fFileController.closeFallbackInputStream();
-        }
-        // open the fallback log file output stream
-        fFileController.openFallbackOutputStream();
-        fFileController.writeLine(fallbackObj);
-        fFileController.setNumberOfLines(fFileController.getNumberOfLines() + 1);
+        fallbackLog.append(Collections.singletonList(fallbackObj));
     }
 
     /**
-     * Checks the free disc space every time a determined number of lines are
-     * written to the file
+     * Checks the free disc space every time a determined number of objects are
+     * written to the log
      *
      * @param minimumFreeSpace
      *            The minimum disk space that has to be free for continue
@@ -150,12 +133,13 @@ public class FallbackFileManager<T extends IFallback> {
             throws SystemDiskSpaceException {
         final FallbackProperties fProperties = FallbackProperties.getInstance();
         boolean checkDone = false;
+        final int writtenObjects = fallbackLog.getWrittenObjects();
 
-        if (fFileController.getNumberOfLines() > nextCheckFallbackData) {
+        if (writtenObjects > nextCheckFallbackData) {
             checkDone = true;
             if (log.isDebugEnabled()) {
-                log.debug("isDiskSpaceCheckDone() : Doing the check since the number of lines are "
-                                + fFileController.getNumberOfLines()
+                log.debug("isDiskSpaceCheckDone() : Doing the check since the number of objects is "
+                                + writtenObjects
                                 + " and the current value for nextcheck is "
                                 + nextCheckFallbackData);
             }
@@ -165,8 +149,7 @@ public class FallbackFileManager<T extends IFallback> {
                 throw new SystemDiskSpaceException("Reached the limit of free space of "
                         + minimumFreeSpace + ", current free space is " + freeSpace);
             } else {
-                nextCheckFallbackData = fFileController.getNumberOfLines()
-                        + fProperties.getFreeSpaceCheckFrequency();
+                nextCheckFallbackData = writtenObjects + fProperties.getFreeSpaceCheckFrequency();
                 if (log.isDebugEnabled()) {
                     log.debug("isDiskSpaceCheckDone() : New value of nextCheckDataTags is "
                             + nextCheckFallbackData);
@@ -180,103 +163,85 @@ public class FallbackFileManager<T extends IFallback> {
      * It retrieves an instance of the object in charge of dealing with the
      * fallback mechanism
      *
-     * @return A DataTagFallback object
+     * @return The SegmentedFallbackLog object
+     */
+    public final SegmentedFallbackLog getFallbackLog() {
+        return this.fallbackLog;
+    }
+
+    /**
+     * Seals the fallback log file being written and returns the files to read
+     * back. Each file is returned to a single caller until it is released with
+     * {@link #releaseSegment(FallbackLogSegment)}.
+     *
+     * @return the fallback log segments to read back
      */
-    public final FallbackFileController getFallbackFileController() {
-        return this.fFileController;
+    public final List<FallbackLogSegment> getSegmentsToRecover() {
+        return fallbackLog.claimSegments();
     }
 
     /**
-     * Reads a number of lines from the fallback mechanism
+     * Reads a number of objects from a segment of the fallback log
      *
+     * @param segment
+     *            A segment returned by {@link #getSegmentsToRecover()}
      * @param numberOfLines
-     *            Number of lines to be read
-     * @return Number of lines that have been read
+     *            Number of objects to be read
+     * @return The read objects
      * @throws DataFallbackException
      *             An exception is thrown if something wrongs happens while
      *             reading the file
      */
-    public final FallbackObjectContainer readDataBack(final int numberOfLines) throws DataFallbackException {
-        // close the outputstream if it was still opened
-        fFileController.closeFallbackOutputStream();
-        fFileController.openFallbackInputStream();
-        // read from the fallback log mechanism the indicated number of lines
-        return  fFileController.readLines(numberOfLines, fallbackObj);
+    public final FallbackObjectContainer readDataBack(final FallbackLogSegment segment, final int numberOfLines)
+            throws DataFallbackException {
+        return segment.read(numberOfLines, fallbackObj);
     }
 
     /**
-     * It calls the remove functionality from the fallback log mechanism. It
-     * updates the counter indicating the number of lines that have been already
-     * processed from the file. When all the datatags contained in the file has
-     * been committed to the DB all the contents of the fallback file are
-     * completely removed
+     * Marks the first objects of the last read of a segment as committed to the
+     * DB. The next read of the segment starts after them, so the other read
+     * objects will be read again.
      *
+     * @param segment
+     *            The segment from which the objects were read
      * @param numberOfLines
-     *            Number of lines that has been already processed from the log
-     *            file
-     * @return A boolean that indicates whether the lines were successfully
-     *         removed or not
-     *
+     *            Number of objects that have been committed
+     * @return A boolean that indicates whether the objects were successfully
+     *         marked as committed or not
      */
-    public final boolean removeReadData(final int numberOfLines) {
-
+    public final boolean removeReadData(final FallbackLogSegment segment, final int numberOfLines) {
         boolean removed = true;
-
-        // Update the number of already committed datatags
-        fFileController.setReadBackLines(numberOfLines + fFileController.getReadBackLines());
-        // Virtually remove those datatags from the file
         try {
-            fFileController.updateNumberOfProcessedLines();
+            segment.commit(numberOfLines);
         } catch (DataFallbackException e) {
             log.warn("Exception caught while trying to update number of processed lines", e);
             removed = false;
         }
-        try {
-            // Physically remove all the contents from the file once all the
-            // datatags have been committed to the DB
-            if (log.isDebugEnabled()) {
-                log.debug("removeReadData : Checking if the file can be removed the number of read lines is: "
-                          + fFileController.getReadBackLines()
-                          + " and the file's lines is "
-                          + fFileController.getNumberOfLines());
-            }
-            if (fFileController.getReadBackLines() == fFileController.getNumberOfLines()) {
-                // Close the reading descriptor
-                fFileController.closeFallbackInputStream();
-                fFileController.clearFileContents();
-                fFileController.setReadBackLines(0);
-                fFileController.setNumberOfLines(0);
-                // We also set the number for doing the disc file check to zero
-                resetNextDiscSpaceCheck();
-            }
-        } catch (DataFallbackException e) {
-            removed = false;
-            log.error("Exception caught while attempting to remove lines from the Fallback file", e);
-        }
         return removed;
     }
 
     /**
-     * Set to zero lines the next check of the disc free space
+     * Releases a segment after reading it back. The segment is deleted if all
+     * its objects were committed to the DB.
+     *
+     * @param segment
+     *            A segment returned by {@link #getSegmentsToRecover()}
+     * @return false if the segment file could not be deleted
      */
-    private void resetNextDiscSpaceCheck() {
-        nextCheckFallbackData = 0;
+    public final boolean releaseSegment(final FallbackLogSegment segment) {
+        boolean released = fallbackLog.release(segment);
+        if (fallbackLog.isEmpty()) {
+            // We also set the number for doing the disc file check to zero
+            resetNextDiscSpaceCheck();
+        }
+        return released;
     }
 
     /**
-     * Places the file descriptor in the line indicated as parameter
-     *
-     * @param lastCommited
-     *            Number of lines already processed
-     * @throws DataFallbackException
-     *             An exception is thrown if something went wrong while reading
-     *             the lines from the file
+     * Set to zero lines the next check of the disc free space
      */
-    public final void goToLastProcessedLine(final int lastCommited)
-            throws DataFallbackException {
-        fFileController.closeFallbackInputStream();
-        int readLines = fFileController.getReadBackLines();
-        fFileController.goToLine(readLines + lastCommited);
+    private void resetNextDiscSpaceCheck() {
+        nextCheckFallbackData = 0;
     }
 
     /**
@@ -285,7 +250,7 @@ public class FallbackFileManager<T extends IFallback> {
      * @return The value indicating the status of the log
      */
     public final boolean isFallbackFileEmpty() {
-        return !((fFileController.getNumberOfLines()) > 0);
+        return fallbackLog.isEmpty();
     }
 
     /**
@@ -293,6 +258,6 @@ public class FallbackFileManager<T extends IFallback> {
      */
     @Override
     public final void finalize() {
-        this.fFileController.finalize();
+        this.fallbackLog.close();
     }
 }
@@ -48,6 +48,18 @@ public interface IPersistenceManager<T extends IFallback> {
      */
     void storeData(T dataObject);
 
+    /**
+     * Stores a list of IFallback objects into the fallback mechanism, without
+     * trying to commit them to the database first. They will be committed to
+     * the database by the data recovery, as for the objects which could not
+     * be committed while the DB connection was lost. This is meant for a
+     * client which cannot keep up with the incoming data.
+     *
+     * @param data
+     *            Set of IFallback objects to store into the fallback file
+     */
+    void fallback(List<T> data);
+
     /**
      * It releases the memory that may be used by this interface implementations
      */
@@ -83,6 +83,11 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
    */
   private DataRecoveryThread dataRecovery = new DataRecoveryThread(this);
 
+  /**
+   * The thread running the dataRecovery, null if it was never started
+   */
+  private Thread dataRecoveryThread;
+
   /**
    * Log4j Logger for this class
    */
@@ -177,10 +182,7 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
   @Override
   public final void storeData(final List<T> data) {
     if (log(data) && !fallbackManager.isFallbackFileEmpty()) {
-      if (!this.dataRecovery.isRunning()) {
-        dataRecovery.setPersistenceManager(this);
-        new Thread(dataRecovery).start();
-      }
+      startDataRecovery();
     }
   }
 
@@ -196,13 +198,44 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
   @Override
   public final void storeData(final T object) {
     if (log(object) && !fallbackManager.isFallbackFileEmpty()) {
-      if (!this.dataRecovery.isRunning()) {
-        dataRecovery.setPersistenceManager(this);
-        new Thread(dataRecovery).start();
+      startDataRecovery();
+    }
+  }
+
+  /**
+   * Stores the data into the fallback file without trying the DB. The data
+   * will be committed back to the DB by the DataRecoveryThread, which is
+   * started by the next successful call to storeData.
+   *
+   * @param data List of IFallback objects to be stored in the fallback file
+   */
+  @Override
+  public final void fallback(final List<T> data) {
+    if (data == null || data.isEmpty()) {
+      return;
+    }
+    synchronized (fallbackManager.getFallbackLog()) {
+      if (!writeToFallback(data)) {
+        for (T object : data) {
+          FALLBACK_LOG.info(object.toString());
+        }
       }
     }
   }
 
+  /**
+   * Starts the thread reading back the data from the fallback file, unless
+   * it is still running. The data may be stored by several threads, which
+   * must not start the recovery twice.
+   */
+  private synchronized void startDataRecovery() {
+    if (dataRecoveryThread == null || !dataRecoveryThread.isAlive()) {
+      dataRecovery.setPersistenceManager(this);
+      dataRecoveryThread = new Thread(dataRecovery);
+      dataRecoveryThread.start();
+    }
+  }
+
   /**
    * Writes a list of IFallback objects to the shortermlog database table. If
    * the DB becomes unavailable during the logging process the IFallback
@@ -252,7 +285,7 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
       commitedTags = e.getCommited();
       if (size > commitedTags) {
         List<T> temp = data.subList(commitedTags, size);
-        synchronized (fallbackManager.getFallbackFileController()) {
+        synchronized (fallbackManager.getFallbackLog()) {
           if (!writeToFallback(temp)) {
             for (int i = 0; i < temp.size(); i++) {
               fallbackObj = temp.get(i);
@@ -293,7 +326,7 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
       alarmSender.dbUnavailable(DOWN, null, dbHandler.getDBInfo());
     } catch (IDBPersistenceException e) {
       dbConnectionUp = false;
-      synchronized (fallbackManager.getFallbackFileController()) {
+      synchronized (fallbackManager.getFallbackLog()) {
         List<T> temp = new ArrayList<>();
         temp.add(object);
         if (!writeToFallback(temp)) {
@@ -329,18 +362,18 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
       // There is still free disc space, so we TERMINATE the alarm if it
       // has been sent and reactivate the email sender
       if (checked) {
-        alarmSender.diskFull(DOWN, fallbackManager.getFallbackFileController()
+        alarmSender.diskFull(DOWN, fallbackManager.getFallbackLog()
             .getDataFile().getParentFile().getAbsolutePath());
       }
       // Start writing to the fallback file since there is still free disc
       // space
       try {
         FALLBACK_LOG.info("Writing " + temp.size() + " dataTags to the fallback file "
-            + fallbackManager.getFallbackFileController().getDataFile().getAbsolutePath());
+            + fallbackManager.getFallbackLog().getDataFile().getAbsolutePath());
         fallbackManager.fallback(temp);
         // Check if the writing problem with the fallback file has been
         // fixed
-        alarmSender.fileNotReachable(DOWN, fallbackManager.getFallbackFileController()
+        alarmSender.fileNotReachable(DOWN, fallbackManager.getFallbackLog()
             .getDataFile());
 
       } catch (DataFallbackException ex) {
@@ -354,7 +387,7 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
         // datatags to the DB cannot either being logged into the
         // fallback log file
         alarmSender.fileNotReachable(ACTIVATED, fallbackManager
-            .getFallbackFileController().getDataFile());
+            .getFallbackLog().getDataFile());
         // Since there was a problem with the fallback mechanism (and
         // there is enough disk space),
         // we want to log the dataTags into one of the log4j log files
@@ -363,7 +396,7 @@ public class PersistenceManager<T extends IFallback> implements IPersistenceMana
 
     } catch (SystemDiskSpaceException e) {
       // Minimum free disc space reached
-      alarmSender.diskFull(ACTIVATED, fallbackManager.getFallbackFileController()
+      alarmSender.diskFull(ACTIVATED, fallbackManager.getFallbackLog()
           .getDataFile().getParentFile().getAbsolutePath());
     } catch (Exception e) {
       FALLBACK_LOG.error("RuntimeException: " + e.getMessage(), e);
@@ -16,11 +16,19 @@
  *****************************************************************************/
 package cern.c2mon.pmanager.persistence.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import cern.c2mon.pmanager.fallback.manager.FallbackObjectContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import cern.c2mon.pmanager.alarm.FallbackAlarmsInterface;
+import cern.c2mon.pmanager.fallback.FallbackLogSegment;
 import cern.c2mon.pmanager.fallback.FallbackProperties;
 import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
 import cern.c2mon.pmanager.persistence.exception.IDBPersistenceException;
@@ -40,7 +48,7 @@ public class DataRecoveryThread implements Runnable, FallbackAlarmsInterface {
      * It indicates whether a thread of this class has been already started and
      * it is running
      */
-    private boolean stopped = true;
+    private volatile boolean stopped = true;
 
     /** Log4j Logger for this class (debug and error messages) */
     private static final Logger LOG = LoggerFactory.getLogger(DataRecoveryThread.class);
@@ -114,35 +122,24 @@ public class DataRecoveryThread implements Runnable, FallbackAlarmsInterface {
     /**
      * This method calls the functionality defined in the FallbackHelper class
      * to achieve the process of committing back into the DB those tags that
-     * have been stored in the fallback files while the DB connection was broken
+     * have been stored in the fallback files while the DB connection was broken.
+     * The fallback log segments are read back in parallel, each of them by a
+     * single thread.
      */
     public final void run() {
         boolean committed = true;
+        final PersistenceManager manager = persistenceManager;
 
         stopped = false;
         if (FALLBACK_LOG.isDebugEnabled())
             FALLBACK_LOG.debug("Thread of instance " + this.hashCode() + " beginning");
-        synchronized (persistenceManager.getFallbackManager().getFallbackFileController()) {
-            while (!persistenceManager.getFallbackManager().isFallbackFileEmpty() && committed
-                    && isRunning()) {
-                int numberOfTags;
-                // The data from the log file will be read from the file and
-                // committed in the database in bunches of a defined size
-                numberOfTags = commitFallbackData();
-                if (numberOfTags > 0) {
-                    // Remove the dataTags that have been committed back from
-                    // the fallback file
-                    removeReadData(numberOfTags);
-                }
-                if (numberOfTags == 0) {
-                    committed = false;
-                }
-                try {
-                    Thread.sleep(persistenceManager.getSleepTime());
-                } catch (InterruptedException e) {
-                    FALLBACK_LOG.error("An error occurred while trying to make the thread to sleep");
-                }
+        while (!manager.getFallbackManager().isFallbackFileEmpty() && committed && isRunning()) {
+            List<FallbackLogSegment> segments = manager.getFallbackManager().getSegmentsToRecover();
+            if (segments.isEmpty()) {
+                // all the segments are being read back by another thread
+                break;
             }
+            committed = recoverSegments(manager, segments);
         }
         /*
          * if (!isRunning()) { // The thread was externally stopped by
@@ -161,86 +158,142 @@ public class DataRecoveryThread implements Runnable, FallbackAlarmsInterface {
     }
 
     /**
-     * Reads back data from a fallback file and commits it to the DB.
+     * Reads back the given segments in parallel.
+     *
+     * @param manager the PersistenceManager of the fallback log
+     * @param segments the segments claimed for this recovery
+     * @return true if all the segments were completely committed to the DB
+     */
+    private boolean recoverSegments(final PersistenceManager manager, final List<FallbackLogSegment> segments) {
+        if (segments.size() == 1) {
+            return recoverSegment(manager, segments.get(0));
+        }
+        int threads = Math.min(segments.size(), FallbackProperties.getInstance().getRecoveryThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "FallbackRecovery-" + this.hashCode());
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean committed = true;
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(segments.size());
+            for (FallbackLogSegment segment : segments) {
+                results.add(executor.submit(() -> recoverSegment(manager, segment)));
+            }
+            for (Future<Boolean> result : results) {
+                committed &= result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            committed = false;
+        } catch (ExecutionException e) {
+            FALLBACK_LOG.error("recoverSegments() : Unexpected error while reading back the fallback log", e.getCause());
+            committed = false;
+        } finally {
+            executor.shutdown();
+        }
+        return committed;
+    }
+
+    /**
+     * Reads back a segment and commits its contents to the DB in bunches of a
+     * defined size, until it is completely committed, the DB becomes
+     * unavailable or the thread is stopped.
      *
-     * @return An integer value indicating the number of fallback lines that
-     *         were read from the fallback log file and successfully committed
-     *         to the DB
+     * @param manager the PersistenceManager of the fallback log
+     * @param segment the segment to read back
+     * @return true if the segment was completely committed to the DB
+     */
+    private boolean recoverSegment(final PersistenceManager manager, final FallbackLogSegment segment) {
+        boolean committed = true;
+        try {
+            while (committed && isRunning() && !segment.isRecovered()) {
+                committed = commitFallbackData(manager, segment);
+                if (!segment.isRecovered()) {
+                    try {
+                        Thread.sleep(manager.getSleepTime());
+                    } catch (InterruptedException e) {
+                        FALLBACK_LOG.error("An error occurred while trying to make the thread to sleep");
+                    }
+                }
+            }
+            return committed && segment.isRecovered();
+        } finally {
+            if (!manager.getFallbackManager().releaseSegment(segment)) {
+                manager.getAlarmSender().fileNotReachable(ACTIVATED, segment.getFile());
+            }
+        }
+    }
+
+    /**
+     * Reads back data from a fallback log segment and commits it to the DB.
      *
+     * @param manager the PersistenceManager of the fallback log
+     * @param segment the segment to read back
+     * @return false if the data could not be read or committed to the DB
      */
-    private int commitFallbackData() {
+    private boolean commitFallbackData(final PersistenceManager manager, final FallbackLogSegment segment) {
 
-        FallbackObjectContainer data = null;
-        int committed = 0;
+        FallbackObjectContainer data;
+        int committed;
 
         if (FALLBACK_LOG.isDebugEnabled())
             FALLBACK_LOG
-                    .debug("commitFallbackData() : Committing the tags stored in the logfile back into the database");
+                    .debug("commitFallbackData() : Committing the tags stored in the fallback segment "
+                            + segment.getFile().getName() + " back into the database");
         try {
-            // Get all the datatags stored in the log file
-            data = persistenceManager.getFallbackManager().readDataBack(
+            // Get the next datatags stored in the segment
+            data = manager.getFallbackManager().readDataBack(segment,
                     FallbackProperties.getInstance().getNumberLinesToReadFromFile());
+        } catch (DataFallbackException ex) {
+            FALLBACK_LOG.error(
+                    "commitFallBackData() : Unable to read the data from the log file ", ex);
+            // Place the cursor in the last processed record, as if this
+            // call had never been made
+            removeReadData(manager, segment, 0);
+            manager.getAlarmSender().fileNotReachable(ACTIVATED, segment.getFile());
+            return false;
+        }
+
+        try {
             // Insert the datatags into the database
             if (LOG.isDebugEnabled()) {
                 LOG.debug("commitFallBackData() - Inserting " + data.getReadLines()
                         + " tags from the fallback file into the database");
             }
-
-            persistenceManager.getDbHandler().storeData(data.getObjects());
+            manager.getDbHandler().storeData(data.getObjects());
             committed = data.getReadLines();
         } catch (IDBPersistenceException e) {
             FALLBACK_LOG.error(
                     "CommitFallBackData : Error executing/committing prepared statement.", e);
-            try {
-                // We reset the file descriptor to the last committed line,
-                // ignoring those last ones
-                // that have been already read, but not committed
-                committed = e.getCommited();
-                persistenceManager.getFallbackManager().goToLastProcessedLine(e.getCommited());
-            } catch (DataFallbackException fe) {
-                FALLBACK_LOG
-                        .error("CommitFallBackData : The file desciptor could not be placed in the right place,"
-                                + " some tags will be ignored" + fe);
-            }
-        } catch (DataFallbackException ex) {
-            FALLBACK_LOG.error(
-                    "commitFallBackData() : Unable to read the data from the log file ", ex);
-            try {
-                // Place the cursor in the last processed line, as if this
-                // called had never been made
-                persistenceManager.getFallbackManager().goToLastProcessedLine(committed);
-            } catch (DataFallbackException fe) {
-                FALLBACK_LOG
-                        .error("CommitFallBackLogs : The file desciptor could not be placed in the right place,"
-                                + " some tags will be ignored" + fe);
-            }
+            // The records read but not committed will be read again
+            removeReadData(manager, segment, e.getCommited());
+            return false;
         }
-        return committed;
+        // Remove the dataTags that have been committed back from the segment
+        removeReadData(manager, segment, committed);
+        return true;
     }
 
     /**
-     * Marks the indicated number of lines as removed in the fallback file
+     * Marks the indicated number of records as committed in a fallback segment
      *
+     * @param manager the PersistenceManager of the fallback log
+     * @param segment the segment from which the records were read
      * @param size
-     *            The number of lines we want to mark as removed from the
-     *            fallback file
+     *            The number of records we want to mark as committed
      */
-    private void removeReadData(final int size) {
+    private void removeReadData(final PersistenceManager manager, final FallbackLogSegment segment, final int size) {
 
-        if (!persistenceManager.getFallbackManager().removeReadData(size)) {
-            persistenceManager.getAlarmSender().fileNotReachable(
-                    ACTIVATED,
-                    persistenceManager.getFallbackManager().getFallbackFileController()
-                            .getDataFile());
+        if (!manager.getFallbackManager().removeReadData(segment, size)) {
+            manager.getAlarmSender().fileNotReachable(ACTIVATED, segment.getFile());
             FALLBACK_LOG
-                    .error("commitFallbackCommandLogs() - CommandTags cannot be removed from the fallback log file");
+                    .error("removeReadData() - The committed records cannot be marked in the fallback segment "
+                            + segment.getFile().getName());
         } else {
-            persistenceManager.getAlarmSender().fileNotReachable(
-                    DOWN,
-                    persistenceManager.getFallbackManager().getFallbackFileController()
-                            .getDataFile());
+            manager.getAlarmSender().fileNotReachable(DOWN,
+                    manager.getFallbackManager().getFallbackLog().getDataFile());
         }
-
     }
 
     /**
@@ -0,0 +1,263 @@
+/******************************************************************************
+ * Copyright (C) 2010-2021 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.pmanager.fallback;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
+import cern.c2mon.pmanager.mock.FallbackImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test for the SegmentedFallbackLog class, including the recovery of
+ * the segments left by a crash.
+ */
+public class SegmentedFallbackLogTest {
+
+  /** Small segments, holding about 30 records */
+  private static final long SEGMENT_SIZE = 1024;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private String fallbackPath;
+
+  @Before
+  public void setUp() {
+    fallbackPath = new File(folder.getRoot(), "DataTagFallback.log").getAbsolutePath();
+  }
+
+  @Test
+  public void testAppendAndReadBack() throws DataFallbackException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 100));
+    assertFalse(log.isEmpty());
+    assertEquals(100, log.getWrittenObjects());
+    assertTrue(log.getNumberOfSegments() > 1);
+
+    assertEquals(createLines(0, 100), readBackAll(log));
+    assertTrue(log.isEmpty());
+    assertEquals(0, log.getWrittenObjects());
+    assertEquals(0, segmentFiles().length);
+  }
+
+  @Test
+  public void testWritesDuringRecoveryGoToNewSegment() throws DataFallbackException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 5));
+    List<FallbackLogSegment> segments = log.claimSegments();
+    assertEquals(1, segments.size());
+
+    log.append(createRecords(5, 10));
+    List<FallbackLogSegment> newSegments = log.claimSegments();
+    assertEquals(1, newSegments.size());
+    assertFalse(segments.contains(newSegments.get(0)));
+    assertEquals(5, segments.get(0).read(100, new FallbackImpl()).getReadLines());
+  }
+
+  @Test
+  public void testCommittedOffsetSurvivesRestart() throws DataFallbackException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 10));
+    FallbackLogSegment segment = log.claimSegments().get(0);
+    assertEquals(10, segment.read(10, new FallbackImpl()).getReadLines());
+    // only 4 records committed before the crash: the other ones are read again
+    segment.commit(4);
+    log.close();
+
+    SegmentedFallbackLog reopened = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    assertEquals(createLines(4, 10), readBackAll(reopened));
+  }
+
+  @Test
+  public void testPartialCommitRewindsReading() throws DataFallbackException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 10));
+    FallbackLogSegment segment = log.claimSegments().get(0);
+    segment.read(6, new FallbackImpl());
+    segment.commit(2);
+
+    List<IFallback> objects = segment.read(100, new FallbackImpl()).getObjects();
+    assertEquals("record-2", objects.get(0).toString());
+    assertEquals(8, objects.size());
+    segment.commit(objects.size());
+    assertTrue(segment.isRecovered());
+  }
+
+  /**
+   * Simulates a crash while writing: every segment is truncated in the
+   * middle of its last record. All the other records must be read back, and
+   * the log must stay writable.
+   */
+  @Test
+  public void testRecoveryOfSegmentsTruncatedMidRecord() throws DataFallbackException, IOException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 200; i += 10) {
+      log.append(createRecords(i, i + 10));
+    }
+    log.close();
+
+    File[] files = segmentFiles();
+    assertTrue(files.length > 3);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < files.length; i++) {
+      File file = files[i];
+      List<String> segmentLines = readSegment(file);
+      // truncate in the last record content, or in the last record header
+      truncate(file, i % 2 == 0 ? 3 : lastRecordSize(segmentLines) - 2);
+      expected.addAll(segmentLines.subList(0, segmentLines.size() - 1));
+      lines.addAll(segmentLines);
+    }
+    assertEquals(createLines(0, 200), lines);
+
+    SegmentedFallbackLog reopened = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    reopened.append(createRecords(200, 205));
+    expected.addAll(createLines(200, 205));
+
+    assertEquals(expected, readBackAll(reopened));
+    assertTrue(reopened.isEmpty());
+    assertEquals(0, segmentFiles().length);
+  }
+
+  @Test
+  public void testSegmentTruncatedInHeader() throws DataFallbackException, IOException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 3));
+    log.close();
+    File file = segmentFiles()[0];
+    truncate(file, file.length() - FallbackLogSegment.HEADER_SIZE + 4);
+
+    SegmentedFallbackLog reopened = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    assertTrue(reopened.isEmpty());
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testUnreadableCommittedOffsetReadsSegmentAgain() throws DataFallbackException, IOException {
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    log.append(createRecords(0, 5));
+    FallbackLogSegment segment = log.claimSegments().get(0);
+    segment.read(3, new FallbackImpl());
+    segment.commit(3);
+    log.close();
+
+    // torn write of the committed offset
+    try (RandomAccessFile file = new RandomAccessFile(segmentFiles()[0], "rw")) {
+      file.seek(16);
+      file.writeInt(0);
+    }
+
+    SegmentedFallbackLog reopened = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    assertEquals(createLines(0, 5), readBackAll(reopened));
+  }
+
+  @Test
+  public void testConversionOfTextFallbackFile() throws IOException, DataFallbackException {
+    File textFile = new File(fallbackPath);
+    File counterFile = new File(folder.getRoot(), ".CounterDataTagFallback.log");
+    try (FileWriter writer = new FileWriter(textFile)) {
+      for (String line : createLines(0, 5)) {
+        writer.write(line + "\n");
+      }
+    }
+    try (FileWriter writer = new FileWriter(counterFile)) {
+      writer.write("2\n");
+    }
+
+    SegmentedFallbackLog log = new SegmentedFallbackLog(fallbackPath, SEGMENT_SIZE);
+    assertFalse(textFile.exists());
+    assertFalse(counterFile.exists());
+    assertEquals(createLines(2, 5), readBackAll(log));
+  }
+
+  /**
+   * Reads back and commits all the segments of the log, in sequence order.
+   */
+  private static List<String> readBackAll(final SegmentedFallbackLog log) throws DataFallbackException {
+    List<String> lines = new ArrayList<>();
+    for (FallbackLogSegment segment : log.claimSegments()) {
+      while (!segment.isRecovered()) {
+        List<IFallback> objects = segment.read(7, new FallbackImpl()).getObjects();
+        for (IFallback object : objects) {
+          lines.add(object.toString());
+        }
+        segment.commit(objects.size());
+      }
+      assertTrue(log.release(segment));
+    }
+    return lines;
+  }
+
+  private static List<String> readSegment(final File file) throws IOException, DataFallbackException {
+    FallbackLogSegment segment = FallbackLogSegment.open(0, file);
+    List<String> lines = new ArrayList<>();
+    for (IFallback object : segment.read(Integer.MAX_VALUE, new FallbackImpl()).getObjects()) {
+      lines.add(object.toString());
+    }
+    return lines;
+  }
+
+  private static int lastRecordSize(final List<String> lines) {
+    return FallbackLogSegment.RECORD_HEADER_SIZE + lines.get(lines.size() - 1).length();
+  }
+
+  private static void truncate(final File file, final long bytes) throws IOException {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.setLength(file.length() - bytes);
+    }
+  }
+
+  private File[] segmentFiles() {
+    File[] files = folder.getRoot().listFiles((dir, name) -> name.endsWith(".seg"));
+    Arrays.sort(files);
+    return files;
+  }
+
+  private static List<FallbackImpl> createRecords(final int from, final int to) {
+    List<FallbackImpl> records = new ArrayList<>();
+    for (String line : createLines(from, to)) {
+      FallbackImpl record = new FallbackImpl();
+      record.setObjectData(line);
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static List<String> createLines(final int from, final int to) {
+    List<String> lines = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      lines.add("record-" + i);
+    }
+    return lines;
+  }
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Set;
 
 import cern.c2mon.shared.common.rule.RuleInputValue;
+import cern.c2mon.shared.rule.parser.CompiledRule;
 import cern.c2mon.shared.rule.parser.InvalidExpressionParser;
 import cern.c2mon.shared.rule.parser.Parser;
 import cern.c2mon.shared.rule.parser.RuleConstant;
@@ -35,6 +36,17 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
      */
     private Object[] tokens = null;
 
+    /**
+     * Compiled representation of the tokens, built on first evaluation.
+     * Remains <code>null</code> if the tokens cannot be compiled.
+     */
+    private transient volatile CompiledRule compiledRule;
+
+    /**
+     * Set once the compilation of the tokens was attempted.
+     */
+    private transient volatile boolean compiled = false;
+
     public SimpleRuleExpression(final String pExpression) throws RuleFormatException {
         super(pExpression, RuleType.Simple);
         this.tokens = tokenize(pExpression);
@@ -472,11 +484,31 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
     private Object handleRuleWithNoInvalidTags(final Map<Long, RuleInputValue> pInputParams)
         throws RuleEvaluationException {
 
+      final CompiledRule rule = getCompiledRule();
+      if (rule != null) {
+        final Object result = rule.evaluate(pInputParams);
+        if (result != null) {
+          return result;
+        }
+      }
+      // not compiled or not evaluable by the compiled rule => let the parser evaluate (or reject) it
       final Object[] valueTokens = splitToTokens(pInputParams);
       final Object result = Parser.getInstance().eval(valueTokens); // => evaluate the expression as normal
       return result;
     }
     
+    /**
+     * @return The compiled form of this expression, or <code>null</code> if it
+     * can only be evaluated by the {@link Parser}.
+     */
+    private CompiledRule getCompiledRule() {
+      if (!compiled) {
+        compiledRule = CompiledRule.compile(tokens);
+        compiled = true;
+      }
+      return compiledRule;
+    }
+
     @Override
     public final Object evaluate(final Map<Long, RuleInputValue> pInputParams) throws RuleEvaluationException {
 
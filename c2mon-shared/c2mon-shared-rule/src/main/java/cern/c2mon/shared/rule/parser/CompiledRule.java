@@ -0,0 +1,454 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.rule.parser;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cern.c2mon.shared.common.rule.RuleInputValue;
+import cern.c2mon.shared.rule.RuleEvaluationException;
+import cern.c2mon.shared.rule.RuleInputTagId;
+
+/**
+ * Tree representation of a rule in token format, built once from the tokens
+ * and evaluated without re-tokenising the rule on every input change.
+ * <p>
+ * The tree is built by applying exactly the same decomposition as
+ * {@link AbstractParser#eval(Object[])} to the rule tokens, so operators keep
+ * the (right associative, precedence free) semantics of the {@link Parser}.
+ * Input tags are resolved to a slot index at compile time, and numeric and
+ * boolean sub-expressions are computed on primitives.
+ * <p>
+ * The compiled rule is only a fast path: whenever it cannot produce the
+ * same result as the {@link Parser} (missing or null input values, values
+ * that would change the token structure, evaluation errors), {@link #evaluate(Map)}
+ * returns <code>null</code> and the caller must fall back to the parser, which
+ * then reports the error exactly as before.
+ *
+ * @see Parser
+ */
+public final class CompiledRule {
+
+  /** Used to reproduce the operator semantics for non primitive operands */
+  private static final Parser PARSER = Parser.getInstance();
+
+  /** Input tag id for every value slot, in order of first appearance in the rule */
+  private final long[] inputTagIds;
+
+  /** Root of the compiled expression tree */
+  private final Node root;
+
+  private CompiledRule(final long[] inputTagIds, final Node root) {
+    this.inputTagIds = inputTagIds;
+    this.root = root;
+  }
+
+  /**
+   * @return The compiled form of the given rule tokens, or <code>null</code> if the
+   *         rule cannot be compiled. Such rules always have to be evaluated with the
+   *         {@link Parser}, which will reject them at evaluation time.
+   *
+   * @param tokens rule in tokens format, with {@link RuleInputTagId} for input tags
+   */
+  public static CompiledRule compile(final Object[] tokens) {
+    final Map<Long, Integer> slots = new LinkedHashMap<>();
+    final Node root;
+    try {
+      root = compile(tokens, slots);
+    } catch (RuntimeException e) {
+      // the parser fails on this structure as well
+      return null;
+    }
+    if (root == null) {
+      return null;
+    }
+    final long[] inputTagIds = new long[slots.size()];
+    int i = 0;
+    for (Long tagId : slots.keySet()) {
+      inputTagIds[i++] = tagId;
+    }
+    return new CompiledRule(inputTagIds, root);
+  }
+
+  /**
+   * @return The result of the rule for the given input values, or <code>null</code> if
+   *         the rule has to be evaluated by the {@link Parser} instead.
+   *
+   * @param inputParams Map of value objects related to the input tag ids
+   */
+  public Object evaluate(final Map<Long, RuleInputValue> inputParams) {
+    final Object[] values = new Object[inputTagIds.length];
+    for (int i = 0; i < inputTagIds.length; i++) {
+      final RuleInputValue input = inputParams.get(inputTagIds[i]);
+      if (input == null) {
+        return null;
+      }
+      final Object value = input.getValue();
+      if (value == null || isStructuralToken(value)) {
+        return null;
+      }
+      values[i] = value;
+    }
+
+    try {
+      return root.value(values);
+    } catch (RuleEvaluationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return True if the given input value would be interpreted by the
+   *         {@link AbstractParser} as a parenthesis or unary operator, i.e. if it
+   *         changes the structure of the rule compared to the compiled tree.
+   */
+  private static boolean isStructuralToken(final Object value) {
+    if (value instanceof String) {
+      final String str = (String) value;
+      if (str.isEmpty() || str.equals("!") || str.equals("-")) {
+        return true;
+      }
+      final char first = str.charAt(0);
+      return first == '(' || first == ')';
+    }
+    if (value instanceof Character) {
+      final char ch = (Character) value;
+      return ch == '(' || ch == ')';
+    }
+    return false;
+  }
+
+  /**
+   * Mirrors {@link AbstractParser#eval(Object[])} on the rule tokens.
+   *
+   * @return The node computing the given tokens, or <code>null</code> if the tokens cannot be compiled.
+   */
+  private static Node compile(final Object[] token, final Map<Long, Integer> slots) {
+    if (!PARSER.isParenthesisBalanced(token)) {
+      return null;
+    }
+
+    if (token.length == 1) {
+      return leaf(token[0], slots);
+    }
+
+    final Object[] x = PARSER.extractExpressionFromTheLeft(token);
+
+    // "(" expression ")"
+    if (token[0] instanceof String
+        && token[token.length - 1] instanceof String
+        && x.length == token.length - 2
+        && token[0].equals("(")
+        && token[token.length - 1].equals(")")) {
+      return compile(x, slots);
+    }
+
+    // unary operators "!" and "-"
+    if (x.length == token.length) {
+      final Node operand = compile(Arrays.copyOfRange(x, 1, x.length), slots);
+      if (operand == null) {
+        return null;
+      }
+      if (x[0] instanceof String && x[0].equals("!")) {
+        return new NotNode(operand);
+      } else if (x[0] instanceof String && x[0].equals("-")) {
+        return new NegateNode(operand);
+      }
+      return null;
+    }
+
+    final int operatorIndex = (token[0] instanceof String && "(".equals(token[0])) ? (x.length + 2) : x.length;
+    if (operatorIndex >= token.length || !(token[operatorIndex] instanceof String)) {
+      return null;
+    }
+    final Operator op = Operator.fromString((String) token[operatorIndex]);
+    if (op == null) {
+      return null;
+    }
+
+    final Node left = compile(x, slots);
+    final Node right = compile(Arrays.copyOfRange(token, operatorIndex + 1, token.length), slots);
+    if (left == null || right == null) {
+      return null;
+    }
+    return binary(op, left, right);
+  }
+
+  private static Node leaf(final Object token, final Map<Long, Integer> slots) {
+    if (token instanceof RuleInputTagId) {
+      final Long tagId = ((RuleInputTagId) token).getId();
+      Integer slot = slots.get(tagId);
+      if (slot == null) {
+        slot = slots.size();
+        slots.put(tagId, slot);
+      }
+      return new SlotNode(slot);
+    }
+    return new ConstantNode(token);
+  }
+
+  private static Node binary(final Operator op, final Node left, final Node right) {
+    switch (op) {
+      case ADDITION:
+      case SUBTRACTION:
+      case MULTIPLICATION:
+      case DIVISION:
+      case RAISE_TO_POWER:
+        return new ArithmeticNode(op, left, right);
+      case BITWISE_AND:
+      case BITWISE_OR:
+        return new BitwiseNode(op, left, right);
+      case LOGICAL_AND:
+      case LOGICAL_OR:
+        return new LogicalNode(op, left, right);
+      default:
+        return new ComparisonNode(op, left, right);
+    }
+  }
+
+  /**
+   * Node of the compiled expression tree. The typed accessors fail with a
+   * {@link ClassCastException} where the {@link Parser} would reject the operands.
+   */
+  private abstract static class Node {
+
+    /** @return The result of this node as returned by the {@link Parser} */
+    abstract Object value(Object[] values) throws RuleEvaluationException;
+
+    /** @return True if this node always evaluates to a number */
+    boolean isNumeric() {
+      return false;
+    }
+
+    double doubleValue(final Object[] values) throws RuleEvaluationException {
+      return ((Number) value(values)).doubleValue();
+    }
+
+    long longValue(final Object[] values) throws RuleEvaluationException {
+      return ((Number) value(values)).longValue();
+    }
+
+    boolean booleanValue(final Object[] values) throws RuleEvaluationException {
+      return ((Boolean) value(values)).booleanValue();
+    }
+  }
+
+  /** Node whose result is always a Double */
+  private abstract static class NumericNode extends Node {
+
+    @Override
+    final Object value(final Object[] values) throws RuleEvaluationException {
+      return Double.valueOf(doubleValue(values));
+    }
+
+    @Override
+    final boolean isNumeric() {
+      return true;
+    }
+
+    @Override
+    abstract double doubleValue(Object[] values) throws RuleEvaluationException;
+
+    @Override
+    final long longValue(final Object[] values) throws RuleEvaluationException {
+      return (long) doubleValue(values);
+    }
+  }
+
+  /** Node whose result is always a Boolean */
+  private abstract static class BooleanNode extends Node {
+
+    @Override
+    final Object value(final Object[] values) throws RuleEvaluationException {
+      return booleanValue(values) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    @Override
+    abstract boolean booleanValue(Object[] values) throws RuleEvaluationException;
+  }
+
+  private static final class ConstantNode extends Node {
+    private final Object constant;
+
+    ConstantNode(final Object constant) {
+      this.constant = constant;
+    }
+
+    @Override
+    Object value(final Object[] values) {
+      return constant;
+    }
+
+    @Override
+    boolean isNumeric() {
+      return constant instanceof Number;
+    }
+  }
+
+  private static final class SlotNode extends Node {
+    private final int slot;
+
+    SlotNode(final int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    Object value(final Object[] values) {
+      return values[slot];
+    }
+  }
+
+  private static final class NotNode extends BooleanNode {
+    private final Node operand;
+
+    NotNode(final Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    boolean booleanValue(final Object[] values) throws RuleEvaluationException {
+      return !operand.value(values).equals(Boolean.TRUE);
+    }
+  }
+
+  private static final class NegateNode extends NumericNode {
+    private final Node operand;
+
+    NegateNode(final Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    double doubleValue(final Object[] values) throws RuleEvaluationException {
+      return -operand.doubleValue(values);
+    }
+  }
+
+  private static final class ArithmeticNode extends NumericNode {
+    private final Operator op;
+    private final Node left;
+    private final Node right;
+
+    ArithmeticNode(final Operator op, final Node left, final Node right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    double doubleValue(final Object[] values) throws RuleEvaluationException {
+      final double x = left.doubleValue(values);
+      final double y = right.doubleValue(values);
+      switch (op) {
+        case ADDITION:
+          return x + y;
+        case SUBTRACTION:
+          return x - y;
+        case MULTIPLICATION:
+          return x * y;
+        case DIVISION:
+          return x / y;
+        default:
+          return Math.pow(x, y);
+      }
+    }
+  }
+
+  private static final class BitwiseNode extends NumericNode {
+    private final Operator op;
+    private final Node left;
+    private final Node right;
+
+    BitwiseNode(final Operator op, final Node left, final Node right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    double doubleValue(final Object[] values) throws RuleEvaluationException {
+      final long x = left.longValue(values);
+      final long y = right.longValue(values);
+      return op == Operator.BITWISE_AND ? (x & y) : (x | y);
+    }
+  }
+
+  /** The parser evaluates both operands of "&" and "|", so this node does not short-circuit either */
+  private static final class LogicalNode extends BooleanNode {
+    private final Operator op;
+    private final Node left;
+    private final Node right;
+
+    LogicalNode(final Operator op, final Node left, final Node right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean booleanValue(final Object[] values) throws RuleEvaluationException {
+      final boolean x = left.booleanValue(values);
+      final boolean y = right.booleanValue(values);
+      return op == Operator.LOGICAL_AND ? (x && y) : (x || y);
+    }
+  }
+
+  private static final class ComparisonNode extends BooleanNode {
+    private final Operator op;
+    private final Node left;
+    private final Node right;
+    private final boolean numeric;
+
+    ComparisonNode(final Operator op, final Node left, final Node right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+      this.numeric = left.isNumeric() && right.isNumeric();
+    }
+
+    @Override
+    boolean booleanValue(final Object[] values) throws RuleEvaluationException {
+      if (numeric) {
+        return compare(left.doubleValue(values), right.doubleValue(values));
+      }
+      final Object x = left.value(values);
+      final Object y = right.value(values);
+      if (x instanceof Number && y instanceof Number) {
+        return compare(((Number) x).doubleValue(), ((Number) y).doubleValue());
+      }
+      return ((Boolean) PARSER.calculateExpr(x, y, op)).booleanValue();
+    }
+
+    private boolean compare(final double x, final double y) {
+      switch (op) {
+        case GREATER_THAN_COMPARISON:
+          return x > y;
+        case LESS_THAN_COMPARISON:
+          return x < y;
+        case LESS_THAN_OR_EQUALS_COMPARISON:
+          return x <= y;
+        case GREATER_THAN_OR_EQUALS_COMPARISON:
+          return x >= y;
+        case EQUALS_COMPARISON:
+          return x == y;
+        default:
+          return x != y;
+      }
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import cern.c2mon.shared.common.rule.RuleInputValue;
+import cern.c2mon.shared.rule.parser.CompiledRule;
+import cern.c2mon.shared.rule.parser.Parser;
+
+/**
+ * Validates the compiled rules against the {@link Parser}: for any input
+ * the compiled rule must either return the parser result, or give up
+ * (return null) when the parser fails.
+ */
+public class CompiledRuleTest {
+
+  /** XML with rules, extracted from the database */
+  private static final String XML_PATH = "rules.xml";
+
+  private static final String[] EXPRESSIONS = {
+      "#1",
+      "#1 + #2 * #3",
+      "10 - #1 - #2",
+      "(10 - #1) - #2",
+      "#1 / #2 ^ 2",
+      "-(#1) + #2",
+      "-#1 + #2",
+      "!(#1 > #2)",
+      "!(#4) & #5",
+      "(#1 > #2) & (#2 <= #3) | (#4 = true)",
+      "(#4 = true) & (#5 = false)",
+      "#4 & #5",
+      "#4 | #5 | (#1 != #2)",
+      "#1 && 3",
+      "(#1 || #2) = 7",
+      "#1 = #2",
+      "#1 != 2.0",
+      "#6 = \"ON\"",
+      "#6 > \"OFF\"",
+      "(#6 = \"OFF\") | (#1 >= 3)",
+      "#1 + #4",
+      "#6 + 1",
+      "((#1 + 1) * (#2 - 1)) > (#3 / 2)",
+      "((#1 != 1) | ((#2 - #3) > 20) | ((#2 - #1) > 20))",
+      "(#1 + 1",
+      "#1 +",
+      "true",
+      "2.5"
+  };
+
+  @Test
+  public void compiledRulesMatchParser() throws RuleFormatException {
+    Random random = new Random(42);
+    for (String expression : EXPRESSIONS) {
+      for (int i = 0; i < 50; i++) {
+        assertSameResult(expression, randomInputs(random, SimpleRuleExpression.tokenize(expression)));
+      }
+    }
+  }
+
+  @Test
+  public void compiledDatabaseRulesMatchParser() throws Exception {
+    Collection<RuleExpression> rules = RuleExpression
+        .createExpressionFromDatabaseXML(new ClassPathResource(XML_PATH).getFile().getAbsolutePath());
+
+    List<String> expressions = new ArrayList<>();
+    for (RuleExpression rule : rules) {
+      collectSimpleExpressions(rule, expressions);
+    }
+
+    Random random = new Random(42);
+    int compiledCount = 0;
+    for (String expression : expressions) {
+      Object[] tokens = SimpleRuleExpression.tokenize(expression);
+      if (CompiledRule.compile(tokens) != null) {
+        compiledCount++;
+      }
+      for (int i = 0; i < 10; i++) {
+        assertSameResult(expression, randomInputs(random, tokens));
+      }
+    }
+    assertTrue(compiledCount > expressions.size() / 2);
+  }
+
+  @Test
+  public void compiledRuleGivesUpOnMissingOrStructuralValues() throws RuleFormatException {
+    CompiledRule rule = CompiledRule.compile(SimpleRuleExpression.tokenize("#1 = #2"));
+    assertNotNull(rule);
+
+    Map<Long, RuleInputValue> inputs = new HashMap<>();
+    inputs.put(1L, new RuleInputValueImpl(1L, "A", true));
+    assertNull(rule.evaluate(inputs));
+
+    inputs.put(2L, new RuleInputValueImpl(2L, null, true));
+    assertNull(rule.evaluate(inputs));
+
+    inputs.put(2L, new RuleInputValueImpl(2L, "(", true));
+    assertNull(rule.evaluate(inputs));
+
+    inputs.put(2L, new RuleInputValueImpl(2L, "A", true));
+    assertEquals(Boolean.TRUE, rule.evaluate(inputs));
+  }
+
+  @Test(expected = RuleEvaluationException.class)
+  public void evaluationErrorsAreReportedByTheParser() throws RuleFormatException, RuleEvaluationException {
+    RuleExpression expression = RuleExpression.createExpression("#1 > 2");
+    expression.evaluate(Collections.<Long, RuleInputValue>emptyMap());
+  }
+
+  private void assertSameResult(final String expression, final Map<Long, RuleInputValue> inputs)
+      throws RuleFormatException {
+    Object[] tokens = SimpleRuleExpression.tokenize(expression);
+    Object expected;
+    try {
+      expected = Parser.getInstance().eval(substitute(tokens, inputs));
+    } catch (Exception e) {
+      expected = null;
+    }
+
+    CompiledRule rule = CompiledRule.compile(tokens);
+    Object actual = rule == null ? null : rule.evaluate(inputs);
+    if (expected == null) {
+      assertNull("Compiled rule evaluates where the parser fails: " + expression + " " + inputs, actual);
+    } else if (rule != null) {
+      assertEquals("Different result for " + expression + " " + inputs, expected, actual);
+    }
+  }
+
+  private static Object[] substitute(final Object[] tokens, final Map<Long, RuleInputValue> inputs) {
+    Object[] valueTokens = new Object[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      if (tokens[i] instanceof RuleInputTagId) {
+        valueTokens[i] = inputs.get(((RuleInputTagId) tokens[i]).getId()).getValue();
+      } else {
+        valueTokens[i] = tokens[i];
+      }
+    }
+    return valueTokens;
+  }
+
+  private static Map<Long, RuleInputValue> randomInputs(final Random random, final Object[] tokens) {
+    Map<Long, RuleInputValue> inputs = new HashMap<>();
+    for (Object token : tokens) {
+      if (token instanceof RuleInputTagId) {
+        Long id = ((RuleInputTagId) token).getId();
+        inputs.put(id, new RuleInputValueImpl(id, randomValue(random), true));
+      }
+    }
+    return inputs;
+  }
+
+  private static Object randomValue(final Random random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        return random.nextBoolean();
+      case 1:
+        return random.nextInt(5);
+      case 2:
+        return (long) random.nextInt(5);
+      case 3:
+        return random.nextInt(5) + 0.5f;
+      case 4:
+        return random.nextBoolean() ? "ON" : "OFF";
+      default:
+        return (double) random.nextInt(5);
+    }
+  }
+
+  private static void collectSimpleExpressions(final IRuleExpression rule, final List<String> expressions) {
+    if (rule instanceof IConditionedRule) {
+      List<IRuleCondition> conditions = rule instanceof ConditionedRuleExpression
+          ? ((ConditionedRuleExpression) rule).getConditions()
+          : ((MultipleReturnValueRuleExpression) rule).getConditions();
+      for (IRuleCondition condition : conditions) {
+        collectSimpleExpressions(condition, expressions);
+      }
+    } else if (rule instanceof DefaultRuleCondition) {
+      expressions.add(((DefaultRuleCondition) rule).getExpression());
+    } else if (rule instanceof RuleExpression) {
+      expressions.add(((RuleExpression) rule).getExpression());
+    }
+  }
+
+  @Data
+  @AllArgsConstructor
+  private static class RuleInputValueImpl implements RuleInputValue {
+    private Long id;
+    private Object value;
+    private boolean valid;
+  }
+}